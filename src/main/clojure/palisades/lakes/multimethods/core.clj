@@ -5,13 +5,17 @@
   
   {:doc "Faster multimethod method lookup."
    :author "palisades dot lakes at gmail dot com"
-   :version "2017-12-13"}
+   :version "2026-10-18"}
   (:refer-clojure :exclude [defmulti defmethod remove-all-methods
                             remove-method prefer-method methods
                             get-method prefers])
-  (:import [java.util List]
+  (:import [java.lang.reflect Modifier]
+           [java.util List]
+           [clojure.lang Compiler$LocalBinding RT]
            [palisades.lakes.multimethods.java 
-            Classes MultiFn Signature
+            CallSiteCache Classes DispatchPlan MultiFn MultiFnGroup
+            MultiFnGroup$Bundle MultiFnWoutHierarchy PrimitiveMultiFn
+            Signature StaticCallSite
             Signature0 Signature2 Signature3 SignatureN]))
 ;;----------------------------------------------------------------
 
@@ -30,11 +34,11 @@
   (^Signature0 [] Signature0/INSTANCE)
   (^Class [^Class c0] c0)
   (^Signature2 [^Class c0 ^Class c1] 
-    (Signature2. c0 c1))
+    (Signature2/get c0 c1))
   (^Signature3 [^Class c0 ^Class c1 ^Class c2] 
-    (Signature3. c0 c1 c2))
+    (Signature3/get c0 c1 c2))
   (^SignatureN [^Class c0 ^Class c1 ^Class c2 & cs] 
-    (SignatureN. c0 c1 c2 ^List cs)))
+    (SignatureN/get c0 c1 c2 ^List cs)))
 
 (defn signature 
   
@@ -52,20 +56,26 @@
   (^Signature0 [] Signature0/INSTANCE)
   (^Class [x0] (Classes/classOf ^Object x0))
   (^Signature2 [x0 x1] 
-    (Signature2.
+    (Signature2/get
       (Classes/classOf ^Object x0)
       (Classes/classOf ^Object x1)))
   (^Signature3 [x0 x1 x2] 
-    (Signature3.
+    (Signature3/get
       (Classes/classOf ^Object x0)
       (Classes/classOf ^Object x1)
       (Classes/classOf ^Object x2)))
-  (^SignatureN [x0 x1 x2 & xs] 
-    (SignatureN/get 
-      (Classes/classOf ^Object x0)
-      (Classes/classOf ^Object x1)
-      (Classes/classOf ^Object x2) 
-      (mapv class xs))))
+  (^SignatureN [x0 x1 x2 x3] 
+    (SignatureN/extract ^Object x0 ^Object x1 ^Object x2 ^Object x3))
+  (^SignatureN [x0 x1 x2 x3 x4] 
+    (SignatureN/extract 
+      ^Object x0 ^Object x1 ^Object x2 ^Object x3 ^Object x4))
+  (^SignatureN [x0 x1 x2 x3 x4 x5] 
+    (SignatureN/extract 
+      ^Object x0 ^Object x1 ^Object x2 ^Object x3 ^Object x4 
+      ^Object x5))
+  (^SignatureN [x0 x1 x2 x3 x4 x5 & xs] 
+    (SignatureN/extractSeq 
+      (list* x0 x1 x2 x3 x4 x5 xs))))
 
 (defn signature? 
   "Is `v` a signature 
@@ -230,6 +240,24 @@
                (first valid-keys)
                (map #(str ", " %) (rest valid-keys)))))))
 ;;----------------------------------------------------------------
+;; table size must fit in an int
+(def ^:private max-cache-size (bit-shift-left 1 28))
+(defn- cache-size-form 
+  "An `int` form for the `:cache-size` option `s`.
+   A literal is checked now; any other form is checked
+   when the expansion evaluates it."
+  [s]
+  (if (or (nil? s) (number? s))
+    (do
+      (assert (or (nil? s) (and (integer? s) (<= 1 s max-cache-size)))
+              (pr-str "unsupported :cache-size option:" s))
+      (int (or s 0)))
+    `(let [s# ~s]
+       (assert (or (nil? s#) 
+                   (and (integer? s#) (<= 1 s# ~max-cache-size)))
+               (pr-str "unsupported :cache-size option:" s#))
+       (int (or s# 0)))))
+;;----------------------------------------------------------------
 (defmacro defmulti
   "Creates a new multimethod 
    (an instance of `palisades.lakes.multimethods.java.MultiFn`)
@@ -309,7 +337,109 @@
       - `:default`: The default dispatch value, defaults to `:default`.
          Not supported, and an exception is thrown,
           when `:hierarchy false` or `:hierarchy nil`
-          and the value of `:default` is not `false` or `nil`.
+          and the value of `:default` is not `false` or `nil`,
+          except with `:dispatch :identity`.
+
+      - `:dispatch`: `nil` (the default), `:signature`, 
+          or `:identity`.
+          `:signature` requires `:hierarchy false` and
+          [[signature]] as the `dispatch-fn`. The multimethod
+          then reads the classes of the arguments itself,
+          for arities 0 to 3, rather than calling [[signature]],
+          and caches methods keyed on the raw classes,
+          so a cache hit allocates nothing.
+          `:identity` requires `:hierarchy false`, and can't be 
+          combined with `:cache-size`, `:cache-keys`, `:lookup`,
+          or `:immutable`. The dispatch values must then
+          be keywords or enum constants, and a method is only
+          called for its own dispatch value, or, failing that,
+          the `:default` one (`:default` unless given). 
+          The multimethod is an
+          `palisades.lakes.multimethods.java.IdentityMultiFn`,
+          which finds methods in a table compared by identity,
+          rebuilt on every edit, with no hashing or equality
+          tests of the dispatch value, like a `case` that's
+          still open to [[defmethod]].
+
+      - `:cache-size`: `nil` (the default) or a positive integer,
+          or a form that evaluates to one.
+          By default, the method caches grow without limit
+          (until the next method or preference edit).
+          With a `:cache-size`, each method cache holds at most 
+          that many dispatch values, evicting the least recently
+          used, approximately (second chance), when full.
+          Use for multimethods that see very many distinct 
+          dispatch values. 
+          See [[cache-evictions]] for sizing.
+          (Methods for `Class` dispatch values, with 
+          `:hierarchy false`, are always cached
+          in a `java.lang.ClassValue`, not bounded.)
+
+      - `:cache-keys`: `:strong` (the default) or `:weak`.
+          With `:weak`, cached `Class` and `Signature` 
+          dispatch values don't keep their classes, 
+          and class loaders, from being unloaded.
+          Use for long-running JVMs that repeatedly redefine
+          types (eg `defrecord` at the REPL, or plugin hosts).
+          Other dispatch values, like vectors of classes, are
+          still held strongly.
+          (Methods defined for dispatch values containing
+          a class still keep it reachable, until removed
+          with [[remove-method]].)
+
+      - `:lookup`: `:hash` (the default), `:linear`, or `:tree`.
+          `:linear` and `:tree` require `:hierarchy false`. 
+          By default, each method cache first checks a small
+          adaptive cache, scanned with identity comparisons,
+          which is abandoned (goes megamorphic) after 8 
+          distinct dispatch values.
+          With `:linear`, for arities 1, 2, and 3, it holds
+          the first 16 distinct classes or signatures seen,
+          and is never abandoned; later ones are looked up 
+          in the hashed caches.
+          Use for multimethods called with a few distinct 
+          signatures, or a few hot ones that are seen early. 
+          Works best with `:dispatch :signature`.
+          With `:tree`, methods for `Signature2` and `Signature3`
+          dispatch values are found by switching on the class of 
+          each argument in turn, in a decision tree built 
+          lazily from the method table, whose nodes cache 
+          their children by `Class`. 
+          Signatures with a common prefix share nodes, and
+          a cache miss only considers the methods matching the 
+          classes of the earlier arguments. 
+          Use for multimethods with many binary or ternary 
+          methods.
+
+      - `:immutable`: `false` (the default) or `true`.
+          `true` requires `:hierarchy false`, and can't be 
+          combined with `:cache-size`, `:cache-keys`, or 
+          `:lookup`.
+          The multimethod is then an immutable 
+          `palisades.lakes.multimethods.java.ImmutableMultiFn`,
+          whose tables and caches are `final` fields, 
+          so lookup needs no lock, and no volatile reads 
+          of the multimethod's fields.
+          Edit it with [[defmethod-immutable]], 
+          [[prefer-method-immutable]], and 
+          [[remove-method-immutable]], which rebind `#'mm-name`
+          to the updated multimethod, with `alter-var-root`,
+          as [[defmethod]] does too;
+          [[remove-method]], [[prefer-method]], and
+          [[remove-all-methods]] just return the updated
+          multimethod, eg,
+          `(alter-var-root #'mm-name remove-all-methods)`.
+          Code that captured the old value, eg, in a closure,
+          keeps using the old methods.
+          Use for multimethods that are called far more often
+          than they are defined.
+
+  **Primitive calls:** a multimethod doesn't implement the
+  primitive `IFn` interfaces, so don't declare primitive
+  `:arglists` in `attr-map?`. (They'd make the compiler coerce
+  every argument to `double` or `long`, and so bypass class 
+  dispatch.) See [[primitive]] for an explicit primitive entry
+  point.
 
   **Warning:** If `#'mm-name`
   is already defined and its value is a `MultiFn`, [[defmulti]]
@@ -356,21 +486,86 @@
                     "(defmulti name dispatch-fn :default dispatch-value)"))))
     (let [options   (apply hash-map options)
           hierarchy (get options :hierarchy #'clojure.core/global-hierarchy)
-          default   (get options :default (if hierarchy :default nil))]
-      (assert (or hierarchy (nil? default))
+          dispatch  (get options :dispatch)
+          by-identity (= :identity dispatch)
+          default   (get options :default 
+                         (if (or hierarchy by-identity) :default nil))
+          cache-size (cache-size-form (get options :cache-size))
+          weak-keys (= :weak (get options :cache-keys))
+          linear    (= :linear (get options :lookup))
+          tree      (= :tree (get options :lookup))
+          immutable (get options :immutable)
+          wout-options 
+          (fn [intrinsic]
+            `(.. palisades.lakes.multimethods.java.MultiFnWoutHierarchy$Options/DEFAULT
+               (withIntrinsic ~intrinsic)
+               (withCacheSize ~cache-size)
+               (withWeakKeys ~weak-keys)
+               (withLinear ~linear)
+               (withTree ~tree)))]
+      (assert (or hierarchy by-identity (nil? default))
               (pr-str 
                 "can't supply a default dispatch value with no hierarchy:"
                 default))
-      (check-valid-options options :default :hierarchy)
+      (assert (contains? #{nil :signature :identity} dispatch)
+              (pr-str "unsupported :dispatch option:" dispatch))
+      (assert (not (and hierarchy dispatch))
+              (pr-str 
+                "can't use :dispatch with a hierarchy:" dispatch))
+      (assert (contains? #{nil :strong :weak} (get options :cache-keys))
+              (pr-str "unsupported :cache-keys option:" 
+                      (get options :cache-keys)))
+      (assert (contains? #{nil :hash :linear :tree} (get options :lookup))
+              (pr-str "unsupported :lookup option:" 
+                      (get options :lookup)))
+      (assert (not (and hierarchy (or linear tree)))
+              (pr-str "can't use :lookup" (get options :lookup) 
+                      "with a hierarchy"))
+      (assert (not (and immutable 
+                        (or hierarchy 
+                            (some #(contains? options %) 
+                                  [:cache-size :cache-keys :lookup]))))
+              (pr-str "can't use :immutable with a hierarchy," 
+                      ":cache-size, :cache-keys, or :lookup"))
+      (assert (not (and by-identity
+                        (some #(contains? options %) 
+                              [:cache-size :cache-keys :lookup 
+                               :immutable])))
+              (pr-str "can't use :dispatch :identity with" 
+                      ":cache-size, :cache-keys, :lookup, or :immutable"))
+      (check-valid-options 
+        options 
+        :default :hierarchy :dispatch :cache-size :cache-keys :lookup
+        :immutable)
       (if hierarchy
         `(let [v# (def ~mm-name)]
            (when-not (and (.hasRoot v#) (instance? palisades.lakes.multimethods.java.MultiFn (deref v#)))
              (def ~(with-meta mm-name m)
-               (new palisades.lakes.multimethods.java.MultiFnWithHierarchy ~(name mm-name) ~dispatch-fn ~default ~hierarchy))))
+               (new palisades.lakes.multimethods.java.MultiFnWithHierarchy ~(name mm-name) ~dispatch-fn ~default ~hierarchy ~cache-size ~weak-keys))))
         `(let [v# (def ~mm-name)]
            (when-not (and (.hasRoot v#) (instance? palisades.lakes.multimethods.java.MultiFn (deref v#)))
-             (def ~(with-meta mm-name m)
-               (new palisades.lakes.multimethods.java.MultiFnWoutHierarchy ~(name mm-name) ~dispatch-fn))))))))
+             ~(cond
+                by-identity
+                `(def ~(with-meta mm-name m)
+                   (new palisades.lakes.multimethods.java.IdentityMultiFn ~(name mm-name) ~dispatch-fn ~default))
+                dispatch
+                (let [dispatch-fn- (gensym "dispatch-fn")]
+                  `(let [~dispatch-fn- ~dispatch-fn]
+                     (when-not (identical? signature ~dispatch-fn-)
+                       (throw 
+                         (IllegalArgumentException.
+                           (str ":dispatch :signature requires "
+                                "signature as the dispatch-fn, not: "
+                                ~dispatch-fn-))))
+                     (def ~(with-meta mm-name m)
+                       ~(if immutable
+                          `(new palisades.lakes.multimethods.java.ImmutableMultiFn ~(name mm-name) ~dispatch-fn- true)
+                          `(new palisades.lakes.multimethods.java.MultiFnWoutHierarchy ~(name mm-name) ~dispatch-fn- ~(wout-options true))))))
+                :else
+                `(def ~(with-meta mm-name m)
+                   ~(if immutable
+                      `(new palisades.lakes.multimethods.java.ImmutableMultiFn ~(name mm-name) ~dispatch-fn false)
+                      `(new palisades.lakes.multimethods.java.MultiFnWoutHierarchy ~(name mm-name) ~dispatch-fn ~(wout-options false)))))))))))
 
 ;;----------------------------------------------------------------
 
@@ -397,6 +592,11 @@
   **Note:** unlike [[defmulti]], re-evaluating [[defmethod]] will
   replace any existing method for `v`.
 
+  **Note:** for an immutable multimethod 
+  (see [[defmulti]] `:immutable`), [[defmethod]] does what
+  [[defmethod-immutable]] does, rebinding `#'multifn` to the 
+  updated multimethod.
+
   **Note:** [[defmethod]] can only be used 
    with multimethods
    defined with [[palisades.lakes.multimethods.core/defmulti]]."
@@ -405,11 +605,87 @@
   
   [multifn v & fn-tail]
   
-  `(.addMethod 
-     ~(with-meta multifn 
-        {:tag 'palisades.lakes.multimethods.java.MultiFn}) 
-     ~v
-     (fn ~multifn ~@fn-tail)))
+  `(let [v# ~v
+         method# (fn ~multifn ~@fn-tail)]
+     (if (instance? palisades.lakes.multimethods.java.ImmutableMultiFn 
+                    ~multifn)
+       ;; addMethod returns a new multimethod
+       (alter-var-root 
+         (var ~multifn)
+         (fn [^palisades.lakes.multimethods.java.ImmutableMultiFn f#] 
+           (.addMethod f# v# method#)))
+       (.addMethod 
+         ~(with-meta multifn 
+            {:tag 'palisades.lakes.multimethods.java.MultiFn}) 
+         v#
+         method#))))
+
+;;----------------------------------------------------------------
+;; immutable multimethods
+;;----------------------------------------------------------------
+;; each edit is atomic with respect to other updates to the Var
+
+(defmacro defmethod-immutable 
+  
+  "Like [[defmethod]], for a `Var` `multifn` holding an 
+   immutable multimethod (see [[defmulti]] `:immutable`):
+   rebinds `#'multifn` to an updated multimethod, 
+   with `alter-var-root`.
+
+   Code that captured the old value, eg, in a closure,
+   keeps using the old methods.
+
+   Throws an exception if `multifn` isn't immutable."
+  
+  {:added "faster-multimethods 0.2.1"}
+  
+  [multifn v & fn-tail]
+  
+  `(let [v# ~v
+         method# (fn ~multifn ~@fn-tail)]
+     (alter-var-root 
+       (var ~multifn)
+       (fn [^palisades.lakes.multimethods.java.ImmutableMultiFn f#] 
+         (.addMethod f# v# method#)))))
+
+(defmacro prefer-method-immutable 
+  
+  "Like [[prefer-method]], for a `Var` `multifn` holding an 
+   immutable multimethod (see [[defmulti]] `:immutable`):
+   rebinds `#'multifn` to an updated multimethod, 
+   with `alter-var-root`.
+
+   Throws an exception if `multifn` isn't immutable."
+  
+  {:added "faster-multimethods 0.2.1"}
+  
+  [multifn x y]
+  
+  `(let [x# ~x
+         y# ~y]
+     (alter-var-root 
+       (var ~multifn)
+       (fn [^palisades.lakes.multimethods.java.ImmutableMultiFn f#] 
+         (.preferMethod f# x# y#)))))
+
+(defmacro remove-method-immutable 
+  
+  "Like [[remove-method]], for a `Var` `multifn` holding an 
+   immutable multimethod (see [[defmulti]] `:immutable`):
+   rebinds `#'multifn` to an updated multimethod, 
+   with `alter-var-root`.
+
+   Throws an exception if `multifn` isn't immutable."
+  
+  {:added "faster-multimethods 0.2.1"}
+  
+  [multifn v]
+  
+  `(let [v# ~v]
+     (alter-var-root 
+       (var ~multifn)
+       (fn [^palisades.lakes.multimethods.java.ImmutableMultiFn f#] 
+         (.removeMethod f# v#)))))
 
 ;;----------------------------------------------------------------
 
@@ -425,7 +701,9 @@
    _preferences_, in addition to the methods, 
    and clears the cache.
 
-   **Warning:** mutates `multifn`."
+   **Warning:** mutates `multifn`, and returns it, 
+   unless it's immutable (see [[defmulti]] `:immutable`),
+   in which case it returns an updated copy."
   
   {:added "faster-multimethods 0.0.0"} 
   
@@ -447,7 +725,9 @@
    with multimethods
    defined with [[palisades.lakes.multimethods.core/defmulti]].
 
-   **Warning:** mutates `multifn`."
+   **Warning:** mutates `multifn`, and returns it, 
+   unless it's immutable (see [[defmulti]] `:immutable`),
+   in which case it returns an updated copy."
   
   {:added "faster-multimethods 0.0.0"}
   
@@ -468,7 +748,9 @@
    **Note:** [[prefer-method]] can only be used with multimethods
    defined with [[palisades.lakes.multimethods.core/defmulti]].
 
-   **Warning:** mutates `multifn`."
+   **Warning:** mutates `multifn`, and returns it, 
+   unless it's immutable (see [[defmulti]] `:immutable`),
+   in which case it returns an updated copy."
   
   {:added "faster-multimethods 0.0.0"} 
   
@@ -533,3 +815,378 @@
   (.getPreferTable multifn))
 
 ;;----------------------------------------------------------------
+
+(defn cache-evictions
+  
+  "Given a multimethod, returns the number of dispatch values
+   evicted from its method caches, over its whole lifetime.
+   Always zero unless the multimethod was defined with a
+   `:cache-size`.
+
+   **Note:** [[cache-evictions]] can only be used 
+   with multimethods
+   defined with [[palisades.lakes.multimethods.core/defmulti]]."
+  
+  {:added "faster-multimethods 0.2.1"}
+  
+  ^long [^MultiFn multifn] 
+  
+  (.cacheEvictions multifn))
+
+;;----------------------------------------------------------------
+;; freezing
+;;----------------------------------------------------------------
+;; A frozen dispatcher tests the arguments against each method's
+;; signature with `instance?`, in the order given by a 
+;; DispatchPlan, calling the first method that matches if it's
+;; safe, and falling back to the MultiFn's own lookup otherwise.
+
+(defn- loadable? 
+  "Does `c`'s name resolve to `c` itself?"
+  [^Class c]
+  (try 
+    (identical? c (RT/classForNameNonLoading (.getName c)))
+    (catch Throwable _ false)))
+
+(defn- nameable? 
+  "Will the compiler resolve `c`'s name to `c` itself, so 
+   `instance?` compiles to `instanceof`?"
+  [^Class c]
+  (and (not (.isArray c)) (loadable? c)))
+
+(defn- frozen-arity [^DispatchPlan plan msym class-sym]
+  (let [arity (.arity plan)
+        args (mapv #(symbol (str "a" %)) (range arity))
+        fallback `(.invokeUnfrozen ~'mf ~@args)
+        clauses (mapcat 
+                  (fn [i]
+                    [`(and ~@(map (fn [c a] 
+                                    (cond (nil? c) `(nil? ~a)
+                                          (nameable? c) 
+                                          `(instance? ~(symbol (.getName ^Class c)) ~a)
+                                          :else `(.isInstance ~(class-sym c) ~a)))
+                                  (.classes plan i) args))
+                     (if (.isSafe plan i) 
+                       `(.invoke ~(msym plan i) ~@args) 
+                       fallback)])
+                  (range (.count plan)))]
+    `(~args (cond ~@clauses :else ~fallback))))
+
+(defn- compile-frozen [^MultiFnWoutHierarchy multifn mt]
+  (let [plans (mapv #(DispatchPlan. multifn mt (int %)) [1 2 3])
+        slots (vec (for [^DispatchPlan plan plans 
+                         i (range (.count plan))] 
+                     [plan i]))
+        msyms (zipmap slots 
+                      (map #(with-meta (symbol (str "m" %)) 
+                              {:tag 'clojure.lang.IFn}) 
+                           (range)))
+        classes (vec (distinct 
+                       (remove nameable? 
+                               (remove nil? 
+                                       (for [[^DispatchPlan plan i] slots
+                                             c (.classes plan (int i))]
+                                         c)))))
+        csyms (zipmap classes (map #(with-meta (symbol (str "c" %))
+                                               {:tag 'java.lang.Class})
+                                   (range)))
+        form `(fn [~'mf ~'ms ~'cs]
+                (let [~(with-meta 'mf 
+                         {:tag 'palisades.lakes.multimethods.java.MultiFnWoutHierarchy}) 
+                      ~'mf
+                      ~@(mapcat (fn [slot i] [(msyms slot) `(nth ~'ms ~i)]) 
+                                slots (range))
+                      ~@(mapcat (fn [c i] [(csyms c) `(nth ~'cs ~i)]) 
+                                classes (range))]
+                  (fn ~'frozen
+                    ~@(map #(frozen-arity % (fn [p i] (msyms [p i])) csyms) 
+                           plans))))]
+    ((eval form) 
+      multifn 
+      (mapv (fn [[^DispatchPlan plan i]] (.method plan (int i))) slots)
+      classes)))
+
+(defn freeze
+  
+  "Generate a dispatcher specialized to `multifn`'s current
+   method and prefer tables, 
+   which `multifn` then tries first, for arities 1 to 3:
+   a chain of `instance?` tests, 
+   compiled to `instanceof` where possible, 
+   calling the method functions directly, 
+   and falling back to the usual method lookup
+   for arguments it can't resolve by itself.
+   Meant for multimethods whose methods are all defined
+   once an application has finished loading.
+   Any later edit ([[defmethod]], [[prefer-method]], etc.)
+   discards the frozen dispatcher; see also [[thaw]].
+
+   Returns `multifn`.
+
+   **Note:** only for multimethods defined with 
+   `:hierarchy false :dispatch :signature`;
+   throws `IllegalStateException` for any other.
+
+   **Warning:** mutates `multifn`."
+  
+  {:added "faster-multimethods 0.2.1"}
+  
+  [^MultiFnWoutHierarchy multifn] 
+  
+  (loop []
+    (let [v (.version multifn)
+          f (compile-frozen multifn (.getMethodTable multifn))]
+      (if (.freeze multifn f v)
+        multifn
+        (recur)))))
+
+(defn thaw
+  
+  "Discard any frozen dispatcher (see [[freeze]]), 
+   so `multifn` goes back to its usual method lookup.
+   Returns `multifn`.
+
+   **Warning:** mutates `multifn`."
+  
+  {:added "faster-multimethods 0.2.1"}
+  
+  [^MultiFnWoutHierarchy multifn] 
+  
+  (.thaw multifn)
+  multifn)
+
+(defn frozen?
+  
+  "Does `multifn` have a frozen dispatcher (see [[freeze]])?"
+  
+  {:added "faster-multimethods 0.2.1"}
+  
+  [multifn] 
+  
+  (and (instance? MultiFnWoutHierarchy multifn)
+       (.isFrozen ^MultiFnWoutHierarchy multifn)))
+
+(defn primitive
+  
+  "Return a view of `multifn` that implements some of the
+   primitive `IFn` interfaces, for `double` and `long` 
+   arguments, eg, `IFn$DDD`.
+   With `:dispatch :signature`, its `invokePrim` finds the
+   method for `Double` or `Long` without boxing, and calls the
+   method's `invokePrim`, if it has the same primitive 
+   signature, eg,
+   `(defmethod f (to-signature Double Double) ^double [^double x ^double y] ...)`.
+   Boxed calls just call `multifn`.
+
+   **Warning:** a primitive call dispatches on `Double` or 
+   `Long`, whatever the caller's arguments were: the caller, or
+   the compiler, has already coerced them, so an `Integer`,
+   `Ratio`, or `BigDecimal` argument never reaches its own
+   method. Only call it with arguments known to be primitive,
+   eg, `(.invokePrim ^IFn$DDD (primitive f) x y)`.
+
+   **Note:** only for multimethods defined with 
+   `:hierarchy false`, and not `:immutable`."
+  
+  {:added "faster-multimethods 0.2.1"}
+  
+  ^PrimitiveMultiFn [^MultiFnWoutHierarchy multifn] 
+  
+  (.primitive multifn))
+
+;;----------------------------------------------------------------
+;; call site caches
+;;----------------------------------------------------------------
+
+;; Each call site's cache is a constant in the code the macro
+;; expands into. The compiler prints it with print-dup, and 
+;; reads it back when the compiled code is loaded, creating a new,
+;; empty cache, so expansion interns nothing, and there's no Var
+;; to hold the cache.
+
+(clojure.core/defmethod print-dup CallSiteCache [_ ^java.io.Writer w]
+  (.write w "#=(palisades.lakes.multimethods.java.CallSiteCache. )"))
+
+(defn- constant 
+  "A form evaluating to `x` itself."
+  [x] 
+  (list 'quote x))
+
+(defmacro mm-call
+  
+  "Call `f` on `args`, like `(f arg0 arg1 ...)`, 
+   through a cache local to this call site, 
+   for 1 to 3 `args`.
+
+   If `f` is a multimethod with intrinsic signature dispatch
+   (`:hierarchy false :dispatch :signature`), the cache holds
+   the last argument classes seen here, and the method they
+   resolved to, which is called directly as long as `f`,
+   the argument classes, and `f`'s method and prefer 
+   tables are unchanged.
+   Anything else is just called.
+   Use at hot call sites that see one signature most of the 
+   time.
+
+   Each expansion holds its cache as a constant, created when 
+   the compiled code is loaded."
+  
+  {:added "faster-multimethods 0.2.1"}
+  
+  [f & args]
+  
+  (if (<= 1 (count args) 3)
+    `(.invoke ~(constant (CallSiteCache.)) ~f ~@args)
+    `(~f ~@args)))
+
+;;----------------------------------------------------------------
+;; static call sites
+;;----------------------------------------------------------------
+
+(def ^:private boxes 
+  {Long/TYPE Long Double/TYPE Double 
+   Boolean/TYPE Boolean Character/TYPE Character})
+
+(def ^:private tag-classes
+  {'long Long/TYPE 'double Double/TYPE 
+   'boolean Boolean/TYPE 'char Character/TYPE
+   'longs (Class/forName "[J") 'doubles (Class/forName "[D")
+   'ints (Class/forName "[I") 'floats (Class/forName "[F")
+   'objects (Class/forName "[Ljava.lang.Object;")})
+
+(defn- tag-class [tag]
+  (cond (class? tag) tag
+        (symbol? tag) (or (tag-classes tag)
+                          (let [c (resolve tag)] (when (class? c) c)))
+        :else nil))
+
+(defn- static-class 
+  "`[c maybe-nil?]` if the class of the value of `form` is
+   known to be `c` at compile time, otherwise `nil`."
+  [env form]
+  (if (or (number? form) (string? form) (keyword? form) 
+          (char? form) (boolean? form))
+    [(class form) false]
+    (let [c (or (tag-class (:tag (meta form)))
+                (when-let [^Compiler$LocalBinding lb 
+                           (and (symbol? form) (get env form))]
+                  (try 
+                    (when (.hasJavaClass lb) (.getJavaClass lb))
+                    (catch Throwable _ nil))))]
+      (when c
+        (if-let [b (boxes c)] 
+          [b false]
+          (when (Modifier/isFinal (.getModifiers ^Class c))
+            [c true]))))))
+
+(clojure.core/defmethod print-dup StaticCallSite 
+  [^StaticCallSite s ^java.io.Writer w]
+  (.write w "#=(palisades.lakes.multimethods.java.StaticCallSite/of")
+  (doseq [^Class c (.classes s)] 
+    (.write w " ") 
+    (.write w (pr-str (.getName c))))
+  (.write w ")"))
+
+(defn- static-site 
+  "A new call site for the argument `classes`."
+  ^StaticCallSite [[^Class c0 ^Class c1 ^Class c2 :as classes]]
+  (case (count classes)
+    1 (StaticCallSite. c0)
+    2 (StaticCallSite. c0 c1)
+    3 (StaticCallSite. c0 c1 c2)))
+
+(defmacro mm-static
+  
+  "Call `f` on `args`, like `(f arg0 arg1 ...)`, 
+   for 1 to 3 `args`, 
+   through a call site with fixed classes,
+   if the classes of the `args` are known at macroexpansion
+   time, 
+   from primitive or final class type hints, or literals, 
+   and `f` names a `Var` holding a multimethod with 
+   intrinsic signature dispatch 
+   (`:hierarchy false :dispatch :signature`).
+   
+   The expansion then calls the method through a cache local
+   to the call site, which resolves the method for those
+   classes on the first call, and then only checks that the
+   multimethod, and its method and prefer tables, are 
+   unchanged, re-resolving, for the same classes, if they 
+   aren't, and, for final class hints, that the `args` aren't
+   `nil`.
+   Otherwise expands into [[mm-call]].
+   
+   Each expansion holds its call site as a constant, created 
+   when the compiled code is loaded."
+  
+  {:added "faster-multimethods 0.2.1"}
+  
+  [f & args]
+  
+  (let [n (count args)
+        cs (mapv #(static-class &env %) args)
+        v (when (symbol? f) (resolve f))
+        mf (when (var? v) @v)]
+    (if (and (<= 1 n 3)
+             (every? some? cs)
+             (every? (comp loadable? first) cs)
+             (instance? MultiFn mf) 
+             (.isIntrinsic ^MultiFn mf))
+      (let [site (static-site (mapv first cs))
+            xs (mapv #(gensym (str "arg" %)) (range n))
+            guards (keep (fn [[x [_ maybe-nil?]]] 
+                           (when maybe-nil? `(some? ~x)))
+                         (map vector xs cs))]
+        `(let [~@(interleave xs args)]
+           (if (and ~@guards)
+             (.invoke ~(constant site) ~f ~@xs)
+             (~f ~@xs))))
+      `(mm-call ~f ~@args))))
+
+;;----------------------------------------------------------------
+;; method groups
+;;----------------------------------------------------------------
+
+(defn method-group
+  
+  "Return a group of multimethods, all with intrinsic signature 
+   dispatch (`:hierarchy false :dispatch :signature`),
+   that are called on the same arguments, for use with
+   [[group-methods]].
+   
+   The group holds the multimethods, not their `Var`s."
+  
+  {:added "faster-multimethods 0.2.1"}
+  
+  ^MultiFnGroup [& multifns]
+  
+  (MultiFnGroup. ^"[Lpalisades.lakes.multimethods.java.MultiFn;"
+                 (into-array MultiFn multifns)))
+
+(defn group-methods
+  
+  "Return the methods of each multimethod in `group`
+   for `args` (1 to 3 of them), in order, 
+   computing their signature once, and looking them up
+   together, in a cache shared by the group.
+   
+   The result is indexed, so it can be destructured, eg,
+   `(let [[intersects? distance] (group-methods g a b)] ...)`.
+   Where a multimethod has no method for the `args`, 
+   or several, none preferred, the result holds
+   the multimethod itself, so calling it throws the usual
+   exception.
+   
+   The methods are only valid until a method or prefer table of
+   some multimethod in the group changes, which
+   `(.isValid result)` checks."
+  
+  {:added "faster-multimethods 0.2.1"}
+  
+  (^MultiFnGroup$Bundle [^MultiFnGroup group a0] 
+    (.bundle1 group a0))
+  (^MultiFnGroup$Bundle [^MultiFnGroup group a0 a1] 
+    (.bundle2 group a0 a1))
+  (^MultiFnGroup$Bundle [^MultiFnGroup group a0 a1 a2] 
+    (.bundle3 group a0 a1 a2)))
+;;----------------------------------------------------------------
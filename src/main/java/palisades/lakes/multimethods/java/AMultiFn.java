@@ -0,0 +1,509 @@
+package palisades.lakes.multimethods.java;
+
+import clojure.lang.AFn;
+import clojure.lang.IFn;
+import clojure.lang.IPersistentMap;
+import clojure.lang.ISeq;
+import clojure.lang.Util;
+
+/** What {@link MultiFnWoutHierarchy} and 
+ * {@link ImmutableMultiFn} share: dispatch values, 
+ * <code>isA</code> and <code>dominates</code>
+ * (see {@link MethodTables}), and the <code>IFn</code> 
+ * methods for arity 0, arities above 3, and 
+ * <code>applyTo</code>, which only differ in how they look up
+ * the method, with or without intrinsic signature dispatch.
+ * Implementation details, subject to revision.
+ * Use the Clojure API to be future-proof.
+ *
+ * @author palisades dot lakes at gmail dot com
+ * @since 2026-10-18
+ * @version 2026-10-18
+ */
+
+@SuppressWarnings("unchecked")
+abstract class AMultiFn extends AFn implements MultiFn {
+
+  final String name;
+  final IFn dispatchFn;
+  final boolean intrinsic;
+
+  //--------------------------------------------------------------
+
+  AMultiFn (final String n,
+            final IFn dispatchF,
+            final boolean intrinsicSignature) {
+    assert (null != n) && (! n.isEmpty());
+    name = n;
+    assert null != dispatchF;
+    dispatchFn = dispatchF;
+    intrinsic = intrinsicSignature; }
+
+  /** The current tables.
+   */
+  abstract MethodTables tables ();
+
+  /** The method for <code>dispatch</code>; throws if there
+   * isn't one, or several, none preferred.
+   */
+  abstract IFn getFn (final Object dispatch);
+
+  /** <code>getFn(Signature2.get(k0,k1))</code>,
+   * without allocating the signature on a cache hit.
+   */
+  abstract IFn getFn (final Class k0,
+                      final Class k1);
+
+  /** <code>getFn(Signature3.get(k0,k1,k2))</code>,
+   * without allocating the signature on a cache hit.
+   */
+  abstract IFn getFn (final Class k0,
+                      final Class k1,
+                      final Class k2);
+
+  //--------------------------------------------------------------
+
+  /** Does this <code>MultiFn</code> compute signature dispatch
+   * values itself, rather than calling its dispatch function,
+   * for arities 0 to 3?
+   */
+  @Override
+  public final boolean isIntrinsic () { return intrinsic; }
+
+  @Override
+  public final boolean isLegalDispatchValue (final Object x) {
+    return 
+      (null == x) || 
+      (x instanceof Class) || 
+      (x instanceof Signature); }
+
+  @Override
+  public final IPersistentMap getMethodTable () {
+    return tables().getMethodTable(); }
+
+  @Override
+  public final IPersistentMap getPreferTable () {
+    return tables().getPreferTable(); }
+
+  @Override
+  public final boolean isA (final Object child,
+                            final Object parent) {
+    return MethodTables.isa(child,parent); }
+
+  @Override
+  public final boolean dominates (final Object x, 
+                                  final Object y) {
+    return tables().dominates(x,y); }
+
+  //--------------------------------------------------------------
+  // IFn interface, except arities 1 to 3
+  //--------------------------------------------------------------
+
+  @Override
+  public final Object invoke () {
+    if (intrinsic) { 
+      return getFn(Signature0.INSTANCE).invoke(); }
+    return getFn(dispatchFn.invoke()).invoke();
+  }
+
+  @Override
+  public final Object invoke (Object arg1, Object arg2, Object arg3,
+                              Object arg4) {
+    return getFn(intrinsic
+      ? SignatureN.extract(arg1,arg2,arg3,arg4)
+      : dispatchFn.invoke(arg1,arg2,arg3,arg4)).invoke(
+      Util.ret1(arg1,arg1 = null),Util.ret1(arg2,arg2 = null),
+      Util.ret1(arg3,arg3 = null),Util.ret1(arg4,arg4 = null));
+  }
+
+  @Override
+  public final Object invoke (Object arg1, Object arg2, Object arg3,
+                              Object arg4, Object arg5) {
+    return getFn(intrinsic
+      ? SignatureN.extract(arg1,arg2,arg3,arg4,arg5)
+      : dispatchFn.invoke(arg1,arg2,arg3,arg4,arg5))
+      .invoke(Util.ret1(arg1,arg1 = null),
+        Util.ret1(arg2,arg2 = null),Util.ret1(arg3,arg3 = null),
+        Util.ret1(arg4,arg4 = null),Util.ret1(arg5,arg5 = null));
+  }
+
+  @Override
+  public final Object invoke (Object arg1, Object arg2, Object arg3,
+                              Object arg4, Object arg5, Object arg6) {
+    return getFn(intrinsic
+      ? SignatureN.extract(arg1,arg2,arg3,arg4,arg5,arg6)
+      : dispatchFn.invoke(arg1,arg2,arg3,arg4,arg5,arg6))
+      .invoke(Util.ret1(arg1,arg1 = null),
+        Util.ret1(arg2,arg2 = null),Util.ret1(arg3,arg3 = null),
+        Util.ret1(arg4,arg4 = null),Util.ret1(arg5,arg5 = null),
+        Util.ret1(arg6,arg6 = null));
+  }
+
+  @Override
+  public final Object invoke (Object arg1, Object arg2, Object arg3,
+                              Object arg4, Object arg5, Object arg6,
+                              Object arg7) {
+    return getFn(intrinsic
+      ? SignatureN.extract(arg1,arg2,arg3,arg4,arg5,arg6,arg7)
+      : dispatchFn.invoke(arg1,arg2,arg3,arg4,arg5,arg6,arg7))
+      .invoke(Util.ret1(arg1,arg1 = null),
+        Util.ret1(arg2,arg2 = null),Util.ret1(arg3,arg3 = null),
+        Util.ret1(arg4,arg4 = null),Util.ret1(arg5,arg5 = null),
+        Util.ret1(arg6,arg6 = null),
+        Util.ret1(arg7,arg7 = null));
+  }
+
+  @Override
+  public final Object invoke (Object arg1, Object arg2, Object arg3,
+                              Object arg4, Object arg5, Object arg6,
+                              Object arg7, Object arg8) {
+    return getFn(intrinsic
+      ? SignatureN.extract(arg1,arg2,arg3,arg4,arg5,arg6,arg7,arg8)
+      : dispatchFn.invoke(arg1,arg2,arg3,arg4,arg5,arg6,arg7,arg8))
+      .invoke(Util.ret1(arg1,arg1 = null),
+        Util.ret1(arg2,arg2 = null),Util.ret1(arg3,arg3 = null),
+        Util.ret1(arg4,arg4 = null),Util.ret1(arg5,arg5 = null),
+        Util.ret1(arg6,arg6 = null),Util.ret1(arg7,arg7 = null),
+        Util.ret1(arg8,arg8 = null));
+  }
+
+  @Override
+  public final Object invoke (Object arg1, Object arg2, Object arg3,
+                              Object arg4, Object arg5, Object arg6,
+                              Object arg7, Object arg8, Object arg9) {
+    return getFn(intrinsic
+      ? SignatureN.extract(arg1,arg2,arg3,arg4,arg5,arg6,
+      arg7,arg8,arg9)
+      : dispatchFn.invoke(arg1,arg2,arg3,arg4,arg5,arg6,
+      arg7,arg8,arg9)).invoke(Util.ret1(arg1,arg1 = null),
+        Util.ret1(arg2,arg2 = null),Util.ret1(arg3,arg3 = null),
+        Util.ret1(arg4,arg4 = null),Util.ret1(arg5,arg5 = null),
+        Util.ret1(arg6,arg6 = null),Util.ret1(arg7,arg7 = null),
+        Util.ret1(arg8,arg8 = null),Util.ret1(arg9,arg9 = null));
+  }
+
+  @Override
+  public final Object invoke (Object arg1, Object arg2, Object arg3,
+                              Object arg4, Object arg5, Object arg6,
+                              Object arg7, Object arg8, Object arg9,
+                              Object arg10) {
+    return getFn(intrinsic
+      ? SignatureN.extract(arg1,arg2,arg3,arg4,arg5,arg6,
+      arg7,arg8,arg9,arg10)
+      : dispatchFn.invoke(arg1,arg2,arg3,arg4,arg5,arg6,
+      arg7,arg8,arg9,arg10)).invoke(Util.ret1(arg1,arg1 = null),
+        Util.ret1(arg2,arg2 = null),Util.ret1(arg3,arg3 = null),
+        Util.ret1(arg4,arg4 = null),Util.ret1(arg5,arg5 = null),
+        Util.ret1(arg6,arg6 = null),Util.ret1(arg7,arg7 = null),
+        Util.ret1(arg8,arg8 = null),Util.ret1(arg9,arg9 = null),
+        Util.ret1(arg10,arg10 = null));
+  }
+
+  @Override
+  public final Object invoke (Object arg1, Object arg2, Object arg3,
+                              Object arg4, Object arg5, Object arg6,
+                              Object arg7, Object arg8, Object arg9,
+                              Object arg10, Object arg11) {
+    return getFn(intrinsic
+      ? SignatureN.extract(arg1,arg2,arg3,arg4,arg5,arg6,
+      arg7,arg8,arg9,arg10,arg11)
+      : dispatchFn.invoke(arg1,arg2,arg3,arg4,arg5,arg6,
+      arg7,arg8,arg9,arg10,arg11)).invoke(
+        Util.ret1(arg1,arg1 = null),Util.ret1(arg2,arg2 = null),
+        Util.ret1(arg3,arg3 = null),Util.ret1(arg4,arg4 = null),
+        Util.ret1(arg5,arg5 = null),Util.ret1(arg6,arg6 = null),
+        Util.ret1(arg7,arg7 = null),Util.ret1(arg8,arg8 = null),
+        Util.ret1(arg9,arg9 = null),Util.ret1(arg10,arg10 = null),
+        Util.ret1(arg11,arg11 = null));
+  }
+
+  @Override
+  public final Object invoke (Object arg1, Object arg2, Object arg3,
+                              Object arg4, Object arg5, Object arg6,
+                              Object arg7, Object arg8, Object arg9,
+                              Object arg10, Object arg11,
+                              Object arg12) {
+    return getFn(intrinsic
+      ? SignatureN.extract(arg1,arg2,arg3,arg4,arg5,arg6,
+      arg7,arg8,arg9,arg10,arg11,arg12)
+      : dispatchFn.invoke(arg1,arg2,arg3,arg4,arg5,arg6,
+      arg7,arg8,arg9,arg10,arg11,arg12)).invoke(
+        Util.ret1(arg1,arg1 = null),Util.ret1(arg2,arg2 = null),
+        Util.ret1(arg3,arg3 = null),Util.ret1(arg4,arg4 = null),
+        Util.ret1(arg5,arg5 = null),Util.ret1(arg6,arg6 = null),
+        Util.ret1(arg7,arg7 = null),Util.ret1(arg8,arg8 = null),
+        Util.ret1(arg9,arg9 = null),Util.ret1(arg10,arg10 = null),
+        Util.ret1(arg11,arg11 = null),
+        Util.ret1(arg12,arg12 = null));
+  }
+
+  @Override
+  public final Object invoke (Object arg1, Object arg2, Object arg3,
+                              Object arg4, Object arg5, Object arg6,
+                              Object arg7, Object arg8, Object arg9,
+                              Object arg10, Object arg11, Object arg12,
+                              Object arg13) {
+    return getFn(intrinsic
+      ? SignatureN.extract(arg1,arg2,arg3,arg4,arg5,arg6,
+      arg7,arg8,arg9,arg10,arg11,arg12,arg13)
+      : dispatchFn.invoke(arg1,arg2,arg3,arg4,arg5,arg6,
+      arg7,arg8,arg9,arg10,arg11,arg12,arg13)).invoke(
+        Util.ret1(arg1,arg1 = null),Util.ret1(arg2,arg2 = null),
+        Util.ret1(arg3,arg3 = null),Util.ret1(arg4,arg4 = null),
+        Util.ret1(arg5,arg5 = null),Util.ret1(arg6,arg6 = null),
+        Util.ret1(arg7,arg7 = null),Util.ret1(arg8,arg8 = null),
+        Util.ret1(arg9,arg9 = null),Util.ret1(arg10,arg10 = null),
+        Util.ret1(arg11,arg11 = null),
+        Util.ret1(arg12,arg12 = null),
+        Util.ret1(arg13,arg13 = null));
+  }
+
+  @Override
+  public final Object invoke (Object arg1, Object arg2, Object arg3,
+                              Object arg4, Object arg5, Object arg6,
+                              Object arg7, Object arg8, Object arg9,
+                              Object arg10, Object arg11, Object arg12,
+                              Object arg13, Object arg14) {
+    return getFn(intrinsic
+      ? SignatureN.extract(arg1,arg2,arg3,arg4,arg5,arg6,
+      arg7,arg8,arg9,arg10,arg11,arg12,arg13,arg14)
+      : dispatchFn.invoke(arg1,arg2,arg3,arg4,arg5,arg6,
+      arg7,arg8,arg9,arg10,arg11,arg12,arg13,arg14)).invoke(
+        Util.ret1(arg1,arg1 = null),Util.ret1(arg2,arg2 = null),
+        Util.ret1(arg3,arg3 = null),Util.ret1(arg4,arg4 = null),
+        Util.ret1(arg5,arg5 = null),Util.ret1(arg6,arg6 = null),
+        Util.ret1(arg7,arg7 = null),Util.ret1(arg8,arg8 = null),
+        Util.ret1(arg9,arg9 = null),Util.ret1(arg10,arg10 = null),
+        Util.ret1(arg11,arg11 = null),
+        Util.ret1(arg12,arg12 = null),
+        Util.ret1(arg13,arg13 = null),
+        Util.ret1(arg14,arg14 = null));
+  }
+
+  @Override
+  public final Object invoke (Object arg1, Object arg2, Object arg3,
+                              Object arg4, Object arg5, Object arg6,
+                              Object arg7, Object arg8, Object arg9,
+                              Object arg10, Object arg11, Object arg12,
+                              Object arg13, Object arg14,
+                              Object arg15) {
+    return getFn(intrinsic
+      ? SignatureN.extract(arg1,arg2,arg3,arg4,arg5,arg6,
+      arg7,arg8,arg9,arg10,arg11,arg12,arg13,arg14,arg15)
+      : dispatchFn.invoke(arg1,arg2,arg3,arg4,arg5,arg6,
+      arg7,arg8,arg9,arg10,arg11,arg12,arg13,arg14,arg15)).invoke(
+        Util.ret1(arg1,arg1 = null),Util.ret1(arg2,arg2 = null),
+        Util.ret1(arg3,arg3 = null),Util.ret1(arg4,arg4 = null),
+        Util.ret1(arg5,arg5 = null),Util.ret1(arg6,arg6 = null),
+        Util.ret1(arg7,arg7 = null),Util.ret1(arg8,arg8 = null),
+        Util.ret1(arg9,arg9 = null),Util.ret1(arg10,arg10 = null),
+        Util.ret1(arg11,arg11 = null),
+        Util.ret1(arg12,arg12 = null),
+        Util.ret1(arg13,arg13 = null),
+        Util.ret1(arg14,arg14 = null),
+        Util.ret1(arg15,arg15 = null));
+  }
+
+  @Override
+  public final Object invoke (Object arg1, Object arg2, Object arg3,
+                              Object arg4, Object arg5, Object arg6,
+                              Object arg7, Object arg8, Object arg9,
+                              Object arg10, Object arg11, Object arg12,
+                              Object arg13, Object arg14, Object arg15,
+                              Object arg16) {
+    return getFn(intrinsic
+      ? SignatureN.extract(arg1,arg2,arg3,arg4,arg5,arg6,
+      arg7,arg8,arg9,arg10,arg11,arg12,arg13,arg14,arg15,arg16)
+      : dispatchFn.invoke(arg1,arg2,arg3,arg4,arg5,arg6,
+      arg7,arg8,arg9,arg10,arg11,arg12,arg13,arg14,arg15,arg16))
+      .invoke(Util.ret1(arg1,arg1 = null),
+        Util.ret1(arg2,arg2 = null),Util.ret1(arg3,arg3 = null),
+        Util.ret1(arg4,arg4 = null),Util.ret1(arg5,arg5 = null),
+        Util.ret1(arg6,arg6 = null),Util.ret1(arg7,arg7 = null),
+        Util.ret1(arg8,arg8 = null),Util.ret1(arg9,arg9 = null),
+        Util.ret1(arg10,arg10 = null),
+        Util.ret1(arg11,arg11 = null),
+        Util.ret1(arg12,arg12 = null),
+        Util.ret1(arg13,arg13 = null),
+        Util.ret1(arg14,arg14 = null),
+        Util.ret1(arg15,arg15 = null),
+        Util.ret1(arg16,arg16 = null));
+  }
+
+  @Override
+  public final Object invoke (Object arg1, Object arg2, Object arg3,
+                              Object arg4, Object arg5, Object arg6,
+                              Object arg7, Object arg8, Object arg9,
+                              Object arg10, Object arg11, Object arg12,
+                              Object arg13, Object arg14, Object arg15,
+                              Object arg16, Object arg17) {
+    return getFn(intrinsic
+      ? SignatureN.extract(arg1,arg2,arg3,arg4,arg5,arg6,
+      arg7,arg8,arg9,arg10,arg11,arg12,arg13,arg14,arg15,arg16,
+      arg17)
+      : dispatchFn.invoke(arg1,arg2,arg3,arg4,arg5,arg6,
+      arg7,arg8,arg9,arg10,arg11,arg12,arg13,arg14,arg15,arg16,
+      arg17)).invoke(Util.ret1(arg1,arg1 = null),
+        Util.ret1(arg2,arg2 = null),Util.ret1(arg3,arg3 = null),
+        Util.ret1(arg4,arg4 = null),Util.ret1(arg5,arg5 = null),
+        Util.ret1(arg6,arg6 = null),Util.ret1(arg7,arg7 = null),
+        Util.ret1(arg8,arg8 = null),Util.ret1(arg9,arg9 = null),
+        Util.ret1(arg10,arg10 = null),
+        Util.ret1(arg11,arg11 = null),
+        Util.ret1(arg12,arg12 = null),
+        Util.ret1(arg13,arg13 = null),
+        Util.ret1(arg14,arg14 = null),
+        Util.ret1(arg15,arg15 = null),
+        Util.ret1(arg16,arg16 = null),
+        Util.ret1(arg17,arg17 = null));
+  }
+
+  @Override
+  public final Object invoke (Object arg1, Object arg2, Object arg3,
+                              Object arg4, Object arg5, Object arg6,
+                              Object arg7, Object arg8, Object arg9,
+                              Object arg10, Object arg11, Object arg12,
+                              Object arg13, Object arg14, Object arg15,
+                              Object arg16, Object arg17,
+                              Object arg18) {
+    return getFn(intrinsic
+      ? SignatureN.extract(arg1,arg2,arg3,arg4,arg5,arg6,
+      arg7,arg8,arg9,arg10,arg11,arg12,arg13,arg14,arg15,arg16,
+      arg17,arg18)
+      : dispatchFn.invoke(arg1,arg2,arg3,arg4,arg5,arg6,
+      arg7,arg8,arg9,arg10,arg11,arg12,arg13,arg14,arg15,arg16,
+      arg17,arg18)).invoke(Util.ret1(arg1,arg1 = null),
+        Util.ret1(arg2,arg2 = null),Util.ret1(arg3,arg3 = null),
+        Util.ret1(arg4,arg4 = null),Util.ret1(arg5,arg5 = null),
+        Util.ret1(arg6,arg6 = null),Util.ret1(arg7,arg7 = null),
+        Util.ret1(arg8,arg8 = null),Util.ret1(arg9,arg9 = null),
+        Util.ret1(arg10,arg10 = null),
+        Util.ret1(arg11,arg11 = null),
+        Util.ret1(arg12,arg12 = null),
+        Util.ret1(arg13,arg13 = null),
+        Util.ret1(arg14,arg14 = null),
+        Util.ret1(arg15,arg15 = null),
+        Util.ret1(arg16,arg16 = null),
+        Util.ret1(arg17,arg17 = null),
+        Util.ret1(arg18,arg18 = null));
+  }
+
+  @Override
+  public final Object invoke (Object arg1, Object arg2, Object arg3,
+                              Object arg4, Object arg5, Object arg6,
+                              Object arg7, Object arg8, Object arg9,
+                              Object arg10, Object arg11, Object arg12,
+                              Object arg13, Object arg14, Object arg15,
+                              Object arg16, Object arg17, Object arg18,
+                              Object arg19) {
+    return getFn(intrinsic
+      ? SignatureN.extract(arg1,arg2,arg3,arg4,arg5,arg6,
+      arg7,arg8,arg9,arg10,arg11,arg12,arg13,arg14,arg15,arg16,
+      arg17,arg18,arg19)
+      : dispatchFn.invoke(arg1,arg2,arg3,arg4,arg5,arg6,
+      arg7,arg8,arg9,arg10,arg11,arg12,arg13,arg14,arg15,arg16,
+      arg17,arg18,arg19)).invoke(Util.ret1(arg1,arg1 = null),
+        Util.ret1(arg2,arg2 = null),Util.ret1(arg3,arg3 = null),
+        Util.ret1(arg4,arg4 = null),Util.ret1(arg5,arg5 = null),
+        Util.ret1(arg6,arg6 = null),Util.ret1(arg7,arg7 = null),
+        Util.ret1(arg8,arg8 = null),Util.ret1(arg9,arg9 = null),
+        Util.ret1(arg10,arg10 = null),
+        Util.ret1(arg11,arg11 = null),
+        Util.ret1(arg12,arg12 = null),
+        Util.ret1(arg13,arg13 = null),
+        Util.ret1(arg14,arg14 = null),
+        Util.ret1(arg15,arg15 = null),
+        Util.ret1(arg16,arg16 = null),
+        Util.ret1(arg17,arg17 = null),
+        Util.ret1(arg18,arg18 = null),
+        Util.ret1(arg19,arg19 = null));
+  }
+
+  @Override
+  public final Object invoke (Object arg1, Object arg2, Object arg3,
+                              Object arg4, Object arg5, Object arg6,
+                              Object arg7, Object arg8, Object arg9,
+                              Object arg10, Object arg11, Object arg12,
+                              Object arg13, Object arg14, Object arg15,
+                              Object arg16, Object arg17, Object arg18,
+                              Object arg19, Object arg20) {
+    return getFn(intrinsic
+      ? SignatureN.extract(arg1,arg2,arg3,arg4,arg5,arg6,
+      arg7,arg8,arg9,arg10,arg11,arg12,arg13,arg14,arg15,arg16,
+      arg17,arg18,arg19,arg20)
+      : dispatchFn.invoke(arg1,arg2,arg3,arg4,arg5,arg6,
+      arg7,arg8,arg9,arg10,arg11,arg12,arg13,arg14,arg15,arg16,
+      arg17,arg18,arg19,arg20)).invoke(
+        Util.ret1(arg1,arg1 = null),Util.ret1(arg2,arg2 = null),
+        Util.ret1(arg3,arg3 = null),Util.ret1(arg4,arg4 = null),
+        Util.ret1(arg5,arg5 = null),Util.ret1(arg6,arg6 = null),
+        Util.ret1(arg7,arg7 = null),Util.ret1(arg8,arg8 = null),
+        Util.ret1(arg9,arg9 = null),Util.ret1(arg10,arg10 = null),
+        Util.ret1(arg11,arg11 = null),
+        Util.ret1(arg12,arg12 = null),
+        Util.ret1(arg13,arg13 = null),
+        Util.ret1(arg14,arg14 = null),
+        Util.ret1(arg15,arg15 = null),
+        Util.ret1(arg16,arg16 = null),
+        Util.ret1(arg17,arg17 = null),
+        Util.ret1(arg18,arg18 = null),
+        Util.ret1(arg19,arg19 = null),
+        Util.ret1(arg20,arg20 = null));
+  }
+
+  @Override
+  public final Object invoke (Object arg1, Object arg2, Object arg3,
+                              Object arg4, Object arg5, Object arg6,
+                              Object arg7, Object arg8, Object arg9,
+                              Object arg10, Object arg11, Object arg12,
+                              Object arg13, Object arg14, Object arg15,
+                              Object arg16, Object arg17, Object arg18,
+                              Object arg19, Object arg20,
+                              final Object... args) {
+    return getFn(dispatchFn.invoke(arg1,arg2,arg3,arg4,arg5,arg6,
+      arg7,arg8,arg9,arg10,arg11,arg12,arg13,arg14,arg15,arg16,
+      arg17,arg18,arg19,arg20,args)).invoke(
+        Util.ret1(arg1,arg1 = null),Util.ret1(arg2,arg2 = null),
+        Util.ret1(arg3,arg3 = null),Util.ret1(arg4,arg4 = null),
+        Util.ret1(arg5,arg5 = null),Util.ret1(arg6,arg6 = null),
+        Util.ret1(arg7,arg7 = null),Util.ret1(arg8,arg8 = null),
+        Util.ret1(arg9,arg9 = null),Util.ret1(arg10,arg10 = null),
+        Util.ret1(arg11,arg11 = null),
+        Util.ret1(arg12,arg12 = null),
+        Util.ret1(arg13,arg13 = null),
+        Util.ret1(arg14,arg14 = null),
+        Util.ret1(arg15,arg15 = null),
+        Util.ret1(arg16,arg16 = null),
+        Util.ret1(arg17,arg17 = null),
+        Util.ret1(arg18,arg18 = null),
+        Util.ret1(arg19,arg19 = null),
+        Util.ret1(arg20,arg20 = null),args);
+  }
+
+  //--------------------------------------------------------------
+  // apply, without AFn.applyToHelper, which counts the seq, 
+  // and calls invoke with its elements
+
+  private final IFn intrinsicMethod (final ISeq args) {
+    if (null == args) { return getFn(Signature0.INSTANCE); }
+    final Object x0 = args.first();
+    final ISeq s1 = args.next();
+    if (null == s1) { return getFn((Object) Classes.classOf(x0)); }
+    final Object x1 = s1.first();
+    final ISeq s2 = s1.next();
+    if (null == s2) { 
+      return getFn(Classes.classOf(x0),Classes.classOf(x1)); }
+    if (null == s2.next()) { 
+      return getFn(
+        Classes.classOf(x0),
+        Classes.classOf(x1),
+        Classes.classOf(s2.first())); }
+    return getFn(SignatureN.extractSeq(args)); }
+
+  @Override
+  public final Object applyTo (final ISeq args) {
+    if (intrinsic) { return intrinsicMethod(args).applyTo(args); }
+    return getFn(dispatchFn.applyTo(args)).applyTo(args); }
+  //--------------------------------------------------------------
+}
+//--------------------------------------------------------------
@@ -0,0 +1,136 @@
+package palisades.lakes.multimethods.java;
+
+import clojure.lang.IFn;
+
+/** A monomorphic method cache for a single call site,
+ * like the JVM's inline caches, or Clojure's protocol call 
+ * site caches.
+ * Implementation details, subject to revision.
+ * Use the Clojure API to be future-proof.
+ * <p>
+ * Holds the last <code>MultiFn</code> called from the site,
+ * its {@link MultiFn#version()} at the time, the classes of 
+ * the arguments, and the method they resolved to. 
+ * A call with the same <code>MultiFn</code>, version, and 
+ * argument classes calls the method directly, skipping the 
+ * <code>MultiFn</code>'s own caches.
+ * Anything else goes through the usual lookup, and replaces the
+ * cached entry.
+ * <p>
+ * Only caches methods for intrinsic <code>MultiFn</code>s
+ * (see {@link MultiFn#isIntrinsic()}), whose methods depend 
+ * only on the argument classes; 
+ * anything else is just invoked.
+ * <p>
+ * The cached state is an immutable object in a plain field:
+ * racing calls may overwrite each other's entries, which only
+ * costs a later miss.
+ * <p>
+ * <code>mm-call</code> embeds a cache in the code it expands
+ * into, as a constant, printed with <code>print-dup</code>,
+ * so each load of the compiled code creates a new, empty one.
+ *
+ * @author palisades dot lakes at gmail dot com
+ * @since 2026-10-18
+ * @version 2026-10-18
+ */
+
+@SuppressWarnings("unchecked")
+public final class CallSiteCache {
+
+  private static final class State {
+    private final MultiFn f;
+    private final long version;
+    private final Class k0;
+    private final Class k1;
+    private final Class k2;
+    private final IFn method;
+    private State (final MultiFn f,
+                   final long version,
+                   final Class k0,
+                   final Class k1,
+                   final Class k2,
+                   final IFn method) {
+      this.f = f; this.version = version; 
+      this.k0 = k0; this.k1 = k1; this.k2 = k2; 
+      this.method = method; } }
+
+  // f is null, so calls check f isn't, and calling nil 
+  // throws, as usual
+  private static final State EMPTY = 
+    new State(null,0L,null,null,null,null);
+
+  private State state = EMPTY;
+
+  //--------------------------------------------------------------
+
+  /** A new, empty cache.
+   */
+  public CallSiteCache () { }
+
+  /** Is there a cached method? For testing.
+   */
+  public final boolean isEmpty () { return null == state.method; }
+
+  //--------------------------------------------------------------
+
+  public final Object invoke (final Object f,
+                              final Object a0) {
+    final Class k0 = Classes.classOf(a0);
+    final State s = state;
+    if ((null != f) && (f == s.f) 
+      && (k0 == s.k0) 
+      && (s.version == s.f.version())) {
+      return s.method.invoke(a0); }
+    if ((f instanceof MultiFn) && ((MultiFn) f).isIntrinsic()) {
+      final MultiFn mf = (MultiFn) f;
+      final long v = mf.version();
+      final IFn m = mf.getMethod(k0);
+      if (null != m) { 
+        state = new State(mf,v,k0,null,null,m);
+        return m.invoke(a0); } }
+    return ((IFn) f).invoke(a0); }
+
+  public final Object invoke (final Object f,
+                              final Object a0,
+                              final Object a1) {
+    final Class k0 = Classes.classOf(a0);
+    final Class k1 = Classes.classOf(a1);
+    final State s = state;
+    if ((null != f) && (f == s.f) 
+      && (k0 == s.k0) && (k1 == s.k1)
+      && (s.version == s.f.version())) {
+      return s.method.invoke(a0,a1); }
+    if ((f instanceof MultiFn) && ((MultiFn) f).isIntrinsic()) {
+      final MultiFn mf = (MultiFn) f;
+      final long v = mf.version();
+      final IFn m = mf.getMethod(Signature2.get(k0,k1));
+      if (null != m) { 
+        state = new State(mf,v,k0,k1,null,m);
+        return m.invoke(a0,a1); } }
+    return ((IFn) f).invoke(a0,a1); }
+
+  public final Object invoke (final Object f,
+                              final Object a0,
+                              final Object a1,
+                              final Object a2) {
+    final Class k0 = Classes.classOf(a0);
+    final Class k1 = Classes.classOf(a1);
+    final Class k2 = Classes.classOf(a2);
+    final State s = state;
+    if ((null != f) && (f == s.f) 
+      && (k0 == s.k0) && (k1 == s.k1) && (k2 == s.k2)
+      && (s.version == s.f.version())) {
+      return s.method.invoke(a0,a1,a2); }
+    if ((f instanceof MultiFn) && ((MultiFn) f).isIntrinsic()) {
+      final MultiFn mf = (MultiFn) f;
+      final long v = mf.version();
+      final IFn m = mf.getMethod(Signature3.get(k0,k1,k2));
+      if (null != m) { 
+        state = new State(mf,v,k0,k1,k2,m);
+        return m.invoke(a0,a1,a2); } }
+    return ((IFn) f).invoke(a0,a1,a2); }
+
+  //--------------------------------------------------------------
+}
+//--------------------------------------------------------------
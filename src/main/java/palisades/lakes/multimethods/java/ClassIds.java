@@ -0,0 +1,95 @@
+package palisades.lakes.multimethods.java;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** Small int ids for classes, assigned once per class
+ * (via <code>java.lang.ClassValue</code>, so the class isn't
+ * pinned), and packed into <code>long</code> keys for arity 2
+ * and 3 method caches.
+ * Implementation details, subject to revision.
+ * Use the Clojure API to be future-proof.
+ * <p>
+ * <code>null</code> (the 'class' of <code>nil</code>) has id 0.
+ * Ids are never reused: {@link SignatureCache} tables hold
+ * only the packed keys, which may outlive their classes, so a
+ * recycled id could hit another class's method.
+ * Arity 3 keys use 21 bits per class, arity 2 keys 32;
+ * if there are ever more than 2<sup>21</sup> ids, signatures
+ * involving the later classes get {@link #NO_KEY}, and
+ * <code>SignatureCache</code> falls back to a
+ * {@link Signature}-keyed {@link MethodCache} for them.
+ *
+ * @author palisades dot lakes at gmail dot com
+ * @since 2026-10-18
+ * @version 2026-10-18
+ */
+
+@SuppressWarnings("unchecked")
+public final class ClassIds {
+
+  /** Returned by {@link #key(Class,Class,Class)} (and the
+   * other packing functions) when the ids don't fit. 
+   * All real keys are non-negative.
+   */
+  public static final long NO_KEY = -1L;
+
+  private static final int BITS3 = 21;
+  private static final int MAX3 = (1 << BITS3) - 1;
+
+  private static final AtomicInteger counter = new AtomicInteger(0);
+
+  // Integer rather than a custom holder, since ids below 128
+  // share the Integer cache.
+  private static final ClassValue<Integer> ids =
+    new ClassValue<Integer>() {
+    @Override
+    protected final Integer computeValue (final Class c) {
+      return Integer.valueOf(counter.incrementAndGet()); } };
+
+  //--------------------------------------------------------------
+
+  public static final int id (final Class c) {
+    if (null == c) { return 0; }
+    return ids.get(c).intValue(); }
+
+  /** Pack 2 ids into a key, or {@link #NO_KEY} if either is
+   * negative (after 2<sup>31</sup> ids).
+   */
+  public static final long pack (final int i0,
+                                 final int i1) {
+    if ((i0 < 0) || (i1 < 0)) { return NO_KEY; }
+    return (((long) i0) << 32) | i1; }
+
+  /** Pack 3 ids into a key, or {@link #NO_KEY} if any is
+   * negative or doesn't fit in 21 bits.
+   */
+  public static final long pack (final int i0,
+                                 final int i1,
+                                 final int i2) {
+    if ((i0 < 0) || (i1 < 0) || (i2 < 0)
+      || (i0 > MAX3) || (i1 > MAX3) || (i2 > MAX3)) {
+      return NO_KEY; }
+    return
+      (((long) i0) << (2*BITS3))
+      | (((long) i1) << BITS3)
+      | i2; }
+
+  public static final long key (final Class k0,
+                                final Class k1) {
+    return pack(id(k0),id(k1)); }
+
+  public static final long key (final Class k0,
+                                final Class k1,
+                                final Class k2) {
+    return pack(id(k0),id(k1),id(k2)); }
+
+  //--------------------------------------------------------------
+  // disabled constructor
+
+  private ClassIds () {
+    throw new UnsupportedOperationException(
+      "can't instantiate " + getClass()); }
+
+  //--------------------------------------------------------------
+}
+//--------------------------------------------------------------
@@ -1,9 +1,11 @@
 package palisades.lakes.multimethods.java;
 
+import java.lang.reflect.Modifier;
+
 /** Utilities.
  * 
  * @author palisades dot lakes at gmail dot com
- * @version 2017-12-13
+ * @version 2026-10-18
  */
 
 @SuppressWarnings("unchecked")
@@ -38,6 +40,24 @@ public final class Classes {
     if (null == k1) { return false; }
     return k0.isAssignableFrom(k1); }
   //--------------------------------------------------------------
+  /** Could some argument be an instance of both
+   * <code>c0</code> and <code>c1</code>
+   * (or <code>null</code>, if both are)?
+   * Conservative: true unless provably false.
+   */
+  public static boolean mayOverlap (final Class c0,
+                                    final Class c1) {
+    if ((null == c0) || (null == c1)) {
+      return (null == c0) && (null == c1); }
+    if (c0.isAssignableFrom(c1) || c1.isAssignableFrom(c0)) {
+      return true; }
+    final boolean i0 = c0.isInterface();
+    final boolean i1 = c1.isInterface();
+    if (i0 && i1) { return true; }
+    if (i0) { return ! Modifier.isFinal(c1.getModifiers()); }
+    if (i1) { return ! Modifier.isFinal(c0.getModifiers()); }
+    return false; }
+  //--------------------------------------------------------------
   // disabled constructor
 
   private Classes () {
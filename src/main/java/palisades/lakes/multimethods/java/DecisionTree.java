@@ -0,0 +1,201 @@
+package palisades.lakes.multimethods.java;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** A lazily built discrimination net over the arity 2 or 3
+ * methods of a <code>MultiFn</code>, switching on the class
+ * of argument 0, then argument 1, and so on.
+ * Implementation details, subject to revision.
+ * Use the Clojure API to be future-proof.
+ * <p>
+ * Each node holds the methods whose signatures match the
+ * classes of the arguments so far, and a {@link MethodCache},
+ * keyed on the class of the next argument,
+ * from which only identity comparisons and
+ * <code>Class.hashCode()</code> are needed.
+ * The children of the last interior node are the resolved
+ * methods.
+ * Signatures that share a prefix share the nodes for it,
+ * a cold miss only has to resolve among the methods left at
+ * the last node, and a class with no applicable methods at
+ * some position stops the descent right there.
+ * <p>
+ * Nodes are added on demand, and never removed (except by
+ * eviction, in bounded node caches).
+ * Like the other caches, the whole tree is replaced,
+ * not cleared, whenever the method or prefer tables change.
+ * <p>
+ * Subclasses choose the best method among the matching
+ * candidates, by overriding {@link #resolve}, which may return
+ * {@link #STALE} to skip caching when it sees the tables
+ * have changed.
+ *
+ * @author palisades dot lakes at gmail dot com
+ * @since 2026-10-18
+ * @version 2026-10-18
+ */
+
+@SuppressWarnings("unchecked")
+public abstract class DecisionTree {
+
+  /** Returned by {@link #resolve} (and the <code>get</code>
+   * methods) when the resolution used a different basis than
+   * the one the tree was built from, so it isn't cached,
+   * and the caller should retry.
+   */
+  public static final Object STALE = new Object();
+
+  // cached in place of null, for no applicable method
+  private static final Object NO_METHOD = new Object();
+
+  private static final Map.Entry[] NO_ENTRIES = new Map.Entry[0];
+
+  private final class Node {
+    // method table entries with Signature keys of this arity,
+    // matching the argument classes so far
+    private final Map.Entry[] candidates;
+    // class of the next argument -> child Node,
+    // or resolved method at the last position
+    private final MethodCache children;
+    private Node (final Map.Entry[] es) {
+      candidates = es;
+      children = new MethodCache(cacheSize,weak,evictions); } }
+
+  private final int arity;
+  private final int cacheSize;
+  private final boolean weak;
+  private final AtomicLong evictions;
+  private final Node root;
+
+  //--------------------------------------------------------------
+
+  public final int arity () { return arity; }
+
+  /** Number of distinct classes seen at argument 0.
+   */
+  public final int branches () { return root.children.count(); }
+
+  //--------------------------------------------------------------
+
+  private static final Class classAt (final Object k,
+                                      final int i) {
+    if (k instanceof Signature2) {
+      final Signature2 s = (Signature2) k;
+      return (0 == i) ? s.class0 : s.class1; }
+    final Signature3 s = (Signature3) k;
+    switch (i) {
+    case 0: return s.class0;
+    case 1: return s.class1;
+    default: return s.class2; } }
+
+  private static final Map.Entry[] filter (final Map.Entry[] es,
+                                           final int i,
+                                           final Class c) {
+    int n = 0;
+    final Map.Entry[] b = new Map.Entry[es.length];
+    for (final Map.Entry e : es) {
+      if (Classes.isAssignableFrom(classAt(e.getKey(),i),c)) {
+        b[n++] = e; } }
+    if (0 == n) { return NO_ENTRIES; }
+    if (es.length == n) { return b; }
+    final Map.Entry[] bb = new Map.Entry[n];
+    System.arraycopy(b,0,bb,0,n);
+    return bb; }
+
+  private final Node child (final Node node,
+                            final int i,
+                            final Class c) {
+    final Object o = node.children.get(c);
+    if (null != o) { return (Node) o; }
+    // racing threads may build equivalent nodes;
+    // only the first one is cached
+    final Node b = new Node(filter(node.candidates,i,c));
+    node.children.put(c,b);
+    return b; }
+
+  private final Object leaf (final Node node,
+                             final Class k0,
+                             final Class k1,
+                             final Class k2,
+                             final Class last) {
+    final Object o = node.children.get(last);
+    if (NO_METHOD == o) { return null; }
+    if (null != o) { return o; }
+    final Object v =
+      resolve(filter(node.candidates,arity-1,last),k0,k1,k2);
+    if (STALE == v) { return STALE; }
+    node.children.put(last,(null == v) ? NO_METHOD : v);
+    return v; }
+
+  //--------------------------------------------------------------
+
+  /** Choose the best method among <code>candidates</code>,
+   * all of which match the argument classes.
+   * <code>k2</code> is <code>null</code> for arity 2.
+   * Return <code>null</code> if there is none, or
+   * {@link #STALE} to skip caching the result.
+   */
+  protected abstract Object resolve (Map.Entry[] candidates,
+                                     Class k0,
+                                     Class k1,
+                                     Class k2);
+
+  /** Return the method for <code>(k0,k1)</code>,
+   * <code>null</code> if there is none, or {@link #STALE}.
+   */
+  public final Object get (final Class k0,
+                           final Class k1) {
+    assert 2 == arity;
+    final Node n0 = child(root,0,k0);
+    if (0 == n0.candidates.length) { return null; }
+    return leaf(n0,k0,k1,null,k1); }
+
+  /** Return the method for <code>(k0,k1,k2)</code>,
+   * <code>null</code> if there is none, or {@link #STALE}.
+   */
+  public final Object get (final Class k0,
+                           final Class k1,
+                           final Class k2) {
+    assert 3 == arity;
+    final Node n0 = child(root,0,k0);
+    if (0 == n0.candidates.length) { return null; }
+    final Node n1 = child(n0,1,k1);
+    if (0 == n1.candidates.length) { return null; }
+    return leaf(n1,k0,k1,k2,k2); }
+
+  //--------------------------------------------------------------
+  // construction
+  //--------------------------------------------------------------
+
+  /** A tree over the entries of <code>methodTable</code>
+   * whose keys are <code>Signature2</code> (if
+   * <code>arity</code> is 2) or <code>Signature3</code>
+   * (if 3).
+   * <code>capacity</code>, <code>weak</code>, and
+   * <code>evictions</code> are passed to each node's
+   * {@link MethodCache}.
+   */
+  protected DecisionTree (final int arity,
+                          final Map methodTable,
+                          final int capacity,
+                          final boolean weak,
+                          final AtomicLong evictions) {
+    assert (2 == arity) || (3 == arity);
+    this.arity = arity;
+    this.cacheSize = capacity;
+    this.weak = weak;
+    this.evictions = evictions;
+    final Class sc = (2 == arity) ? Signature2.class : Signature3.class;
+    int n = 0;
+    final Map.Entry[] b = new Map.Entry[methodTable.size()];
+    for (final Object o : methodTable.entrySet()) {
+      final Map.Entry e = (Map.Entry) o;
+      if (sc.isInstance(e.getKey())) { b[n++] = e; } }
+    final Map.Entry[] es = new Map.Entry[n];
+    System.arraycopy(b,0,es,0,n);
+    root = new Node(es); }
+
+  //--------------------------------------------------------------
+}
+//--------------------------------------------------------------
@@ -0,0 +1,219 @@
+package palisades.lakes.multimethods.java;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+
+import clojure.lang.IFn;
+
+/** A static dispatch plan for one arity (1, 2, or 3) of a
+ * <code>MultiFn</code> with intrinsic signature dispatch,
+ * for generated dispatchers:
+ * the <code>Class</code> or <code>Signature</code> dispatch
+ * values of that arity, in an order where each one comes
+ * before any that it strictly dominates,
+ * their methods, and which of them are <em>safe</em>.
+ * Implementation details, subject to revision.
+ * Use the Clojure API to be future-proof.
+ * <p>
+ * A generated dispatcher tests the argument classes against
+ * each signature in order, and, at the first match,
+ * calls its method if it's safe, and otherwise falls back to
+ * the <code>MultiFn</code>'s usual lookup, as it does if
+ * nothing matches.
+ * A signature is safe if it dominates, and isn't dominated by,
+ * every later signature that might match the same arguments.
+ * Since none of the earlier ones matched, the usual lookup
+ * would choose the same method.
+ * Trailing unsafe signatures are dropped, since they would
+ * just fall back.
+ * <p>
+ * Only valid for the method and prefer tables it was
+ * computed from.
+ *
+ * @author palisades dot lakes at gmail dot com
+ * @since 2026-10-18
+ * @version 2026-10-18
+ */
+
+@SuppressWarnings("unchecked")
+public final class DispatchPlan {
+
+  private final int arity;
+  private final Object[] keys;
+  private final Class[][] classes;
+  private final IFn[] methods;
+  private final boolean[] safe;
+
+  //--------------------------------------------------------------
+
+  public final int arity () { return arity; }
+
+  public final int count () { return keys.length; }
+
+  public final Object key (final int i) { return keys[i]; }
+
+  /** The classes in the <code>i</code>th dispatch value,
+   * one per argument.
+   */
+  public final Class[] classes (final int i) {
+    return classes[i].clone(); }
+
+  public final IFn method (final int i) { return methods[i]; }
+
+  public final boolean isSafe (final int i) { return safe[i]; }
+
+  //--------------------------------------------------------------
+
+  /** The argument classes for dispatch value <code>k</code>,
+   * or <code>null</code> if it's not a <code>Class</code>,
+   * <code>Signature2</code>, or <code>Signature3</code>.
+   */
+  private static final Class[] keyClasses (final Object k) {
+    if (k instanceof Class) { return new Class[] { (Class) k }; }
+    if (k instanceof Signature2) {
+      final Signature2 s = (Signature2) k;
+      return new Class[] { s.class0, s.class1 }; }
+    if (k instanceof Signature3) {
+      final Signature3 s = (Signature3) k;
+      return new Class[] { s.class0, s.class1, s.class2 }; }
+    return null; }
+
+  private static final boolean mayOverlap (final Class[] cs0,
+                                           final Class[] cs1) {
+    for (int i=0;i<cs0.length;i++) {
+      if (! Classes.mayOverlap(cs0[i],cs1[i])) { return false; } }
+    return true; }
+
+  //--------------------------------------------------------------
+  // construction
+  //--------------------------------------------------------------
+
+  public DispatchPlan (final MultiFn f,
+                       final Map methodTable,
+                       final int arity) {
+    assert (1 <= arity) && (arity <= 3);
+    this.arity = arity;
+
+    int m = 0;
+    final Object[] ks = new Object[methodTable.size()];
+    for (final Object k : methodTable.keySet()) {
+      final Class[] cs = keyClasses(k);
+      if ((null != cs) && (arity == cs.length)) { ks[m++] = k; } }
+
+    // strict dominance, and in-degrees, for a topological sort
+    final boolean[][] above = new boolean[m][m];
+    final int[] indegree = new int[m];
+    for (int i=0;i<m;i++) {
+      for (int j=0;j<m;j++) {
+        if ((i != j)
+          && f.dominates(ks[i],ks[j])
+          && (! f.dominates(ks[j],ks[i]))) {
+          above[i][j] = true;
+          indegree[j]++; } } }
+    // ties, and any cycles, in table order
+    final int[] order = new int[m];
+    final boolean[] done = new boolean[m];
+    for (int n=0;n<m;n++) {
+      int next = -1;
+      for (int i=0;i<m;i++) {
+        if ((! done[i]) && (0 == indegree[i])) { next = i; break; } }
+      if (-1 == next) {
+        for (int i=0;i<m;i++) { if (! done[i]) { next = i; break; } } }
+      order[n] = next;
+      done[next] = true;
+      for (int j=0;j<m;j++) { if (above[next][j]) { indegree[j]--; } } }
+
+    final Object[] sorted = new Object[m];
+    final Class[][] css = new Class[m][];
+    final boolean[] ok = new boolean[m];
+    for (int n=0;n<m;n++) {
+      sorted[n] = ks[order[n]];
+      css[n] = keyClasses(sorted[n]); }
+    int nsafe = 0;
+    for (int i=0;i<m;i++) {
+      boolean s = true;
+      for (int j=i+1;s && (j<m);j++) {
+        if (mayOverlap(css[i],css[j])) {
+          s = f.dominates(sorted[i],sorted[j])
+            && (! f.dominates(sorted[j],sorted[i])); } }
+      ok[i] = s;
+      if (s) { nsafe = i+1; } }
+
+    keys = new Object[nsafe];
+    classes = new Class[nsafe][];
+    methods = new IFn[nsafe];
+    safe = new boolean[nsafe];
+    for (int i=0;i<nsafe;i++) {
+      keys[i] = sorted[i];
+      classes[i] = css[i];
+      methods[i] = (IFn) methodTable.get(sorted[i]);
+      safe[i] = ok[i]; } }
+
+  //--------------------------------------------------------------
+  // method handles
+  //--------------------------------------------------------------
+
+  private static final MethodHandle IS_INSTANCE;
+  private static final MethodHandle IS_NULL;
+  static {
+    try {
+      final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+      IS_INSTANCE = lookup.findVirtual(
+        Class.class,"isInstance",
+        MethodType.methodType(boolean.class,Object.class));
+      IS_NULL = lookup.findStatic(
+        Objects.class,"isNull",
+        MethodType.methodType(boolean.class,Object.class)); }
+    catch (final ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e); } }
+
+  /** A method handle calling <code>f.invoke</code> on
+   * <code>arity</code> arguments,
+   * of type <code>(Object...)Object</code>.
+   */
+  public static final MethodHandle invoker (final IFn f,
+                                            final int arity) {
+    try {
+      return MethodHandles.publicLookup().findVirtual(
+        IFn.class,"invoke",MethodType.genericMethodType(arity))
+        .bindTo(f); }
+    catch (final ReflectiveOperationException e) {
+      throw new IllegalStateException(e); } }
+
+  // (Object...)boolean, testing argument i
+  private final MethodHandle test (final Class c,
+                                   final int i) {
+    final MethodHandle t =
+      (null == c) ? IS_NULL : IS_INSTANCE.bindTo(c);
+    final Class[] before = new Class[i];
+    final Class[] after = new Class[arity-i-1];
+    Arrays.fill(before,Object.class);
+    Arrays.fill(after,Object.class);
+    return MethodHandles.dropArguments(
+      MethodHandles.dropArguments(t,1,after),
+      0,before); }
+
+  /** A tree of <code>guardWithTest</code>s over the argument
+   * classes, calling the methods directly,
+   * and <code>fallback</code> otherwise,
+   * of type <code>(Object...)Object</code>.
+   */
+  public final MethodHandle methodHandle (final MethodHandle fallback) {
+    assert MethodType.genericMethodType(arity).equals(fallback.type());
+    MethodHandle tree = fallback;
+    for (int i=keys.length-1;0<=i;i--) {
+      MethodHandle target =
+        safe[i] ? invoker(methods[i],arity) : fallback;
+      for (int j=arity-1;0<=j;j--) {
+        target = MethodHandles.guardWithTest(
+          test(classes[i][j],j),target,tree); }
+      tree = target; }
+    return tree; }
+
+  //--------------------------------------------------------------
+}
+//--------------------------------------------------------------
@@ -0,0 +1,632 @@
+package palisades.lakes.multimethods.java;
+
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/** Method table entries sorted so that each one comes before
+ * any that it strictly dominates, for resolving cache misses
+ * without collecting the applicable methods.
+ * Implementation details, subject to revision.
+ * Use the Clojure API to be future-proof.
+ * <p>
+ * The best entry is the one applicable entry that no other
+ * applicable entry strictly dominates
+ * (dominates, without being dominated by it);
+ * if there are none, or more than one, the methods are
+ * ambiguous. That doesn't depend on the order the methods were
+ * defined in, even where dominance isn't transitive,
+ * as it needn't be, when preferences and <code>isa?</code>
+ * are mixed.
+ * Each entry's <em>peers</em> are the later entries it doesn't
+ * strictly dominate, and which might apply to the same
+ * arguments; any minimal entry is the first applicable entry,
+ * or one of its peers, so, in the usual case, where none of
+ * them applies, the first applicable entry is the best,
+ * with no <code>dominates</code> tests at all.
+ * <p>
+ * Optionally grouped by the class of the first argument in
+ * the dispatch values (for <code>Class</code> and
+ * <code>Signature</code> keys of a single arity),
+ * so a lookup only scans the groups whose first class is the
+ * first argument's, or one of its supertypes,
+ * and, within each group, only up to the first applicable
+ * entry, or the best one found so far.
+ * <p>
+ * Immutable: {@link #with} and {@link #without} return a new 
+ * order, with one entry more or less, so the owner keeps it up
+ * to date with each edit, rather than rebuilding it.
+ * Adding an entry takes <code>2m</code> <code>dominates</code>
+ * tests, for <code>m</code> entries, inserting it after the 
+ * last entry that strictly dominates it, 
+ * if that's before the first entry it strictly dominates;
+ * otherwise the entries from that one on are sorted again,
+ * topologically, with the new one, which takes 
+ * <code>s<sup>2</sup></code> more tests, for <code>s</code>
+ * entries.
+ * Removing an entry takes none.
+ * If strict dominance has a cycle, the order is only as
+ * sorted as it can be, and resolution checks every applicable
+ * entry, rather than only the earlier ones, for one that
+ * strictly dominates a candidate.
+ * Resolution allocates nothing, except to report an ambiguity.
+ *
+ * @author palisades dot lakes at gmail dot com
+ * @since 2026-10-18
+ * @version 2026-10-18
+ */
+
+@SuppressWarnings("unchecked")
+final class DominanceOrder {
+
+  /** The relations an order is built from, and resolves with,
+   * which may depend on a particular hierarchy.
+   */
+  interface Relation extends PreferClosure.IsA {
+    boolean dominates (Object x, Object y); }
+
+  /** Returned by <code>resolve</code> when no entry applies.
+   */
+  static final int NONE = -1;
+
+  /** Returned by <code>resolve</code> when no one applicable
+   * entry is minimal.
+   */
+  static final int AMBIGUOUS = -2;
+
+  private static final Object[] NO_KEYS = new Object[0];
+
+  private final Relation relation;
+  private final boolean grouped;
+  // is no entry strictly dominated by an earlier one?
+  // false only if strict dominance has a cycle
+  private final boolean sorted;
+  private final Object[] basis;
+  private final Object[] keys;
+  private final Object[] values;
+  // later keys that might also apply, not strictly dominated;
+  // keys rather than positions, so an insertion doesn't
+  // renumber them
+  private final Object[][] peers;
+  // null unless grouped; positions in each group ascending
+  private final Class[] firsts;
+  private final int[][] groups;
+  private final Map<Class,Integer> positions;
+
+  //--------------------------------------------------------------
+
+  final int count () { return keys.length; }
+
+  final Object key (final int i) { return keys[i]; }
+
+  final Object value (final int i) { return values[i]; }
+
+  /** Was the order built from exactly these tables
+   * (compared by identity)?
+   */
+  final boolean hasBasis (final Object b0,
+                          final Object b1) {
+    return (2 == basis.length) 
+      && (b0 == basis[0]) && (b1 == basis[1]); }
+
+  final boolean hasBasis (final Object b0,
+                          final Object b1,
+                          final Object b2) {
+    return (3 == basis.length) 
+      && (b0 == basis[0]) && (b1 == basis[1]) && (b2 == basis[2]); }
+
+  //--------------------------------------------------------------
+
+  private static final Class firstClass (final Object k) {
+    if (k instanceof Class) { return (Class) k; }
+    if (k instanceof Signature2) { return ((Signature2) k).class0; }
+    if (k instanceof Signature3) { return ((Signature3) k).class0; }
+    return ((SignatureN) k).classes[0]; }
+
+  // the number of classes in a Class or Signature key,
+  // -1 for anything else
+
+  private static final int width (final Object k) {
+    if (k instanceof Class) { return 1; }
+    if (k instanceof Signature2) { return 2; }
+    if (k instanceof Signature3) { return 3; }
+    if (k instanceof SignatureN) { 
+      return ((SignatureN) k).classes.length; }
+    return -1; }
+
+  private static final Class classAt (final Object k,
+                                      final int i) {
+    if (k instanceof Class) { return (Class) k; }
+    if (k instanceof Signature2) {
+      final Signature2 s = (Signature2) k;
+      return (0 == i) ? s.class0 : s.class1; }
+    if (k instanceof Signature3) {
+      final Signature3 s = (Signature3) k;
+      switch (i) {
+      case 0: return s.class0;
+      case 1: return s.class1;
+      default: return s.class2; } }
+    return ((SignatureN) k).classes[i]; }
+
+  /** Could some arguments match both dispatch values?
+   * Conservative: true unless provably false.
+   */
+  private static final boolean mayOverlap (final Object k0,
+                                           final Object k1) {
+    final int n0 = width(k0);
+    final int n1 = width(k1);
+    if ((-1 == n0) || (-1 == n1)) { return true; }
+    if (n0 != n1) { return false; }
+    for (int i=0;i<n0;i++) {
+      if (! Classes.mayOverlap(classAt(k0,i),classAt(k1,i))) { 
+        return false; } }
+    return true; }
+
+  //--------------------------------------------------------------
+
+  // arity 0 means test dispatch with the relation,
+  // otherwise test the raw classes k0, k1, and (arity 3) k2,
+  // against a Signature2 or Signature3 key.
+  // (The classes may be null, for nil arguments.)
+
+  private final boolean applies (final Object k,
+                                 final int arity,
+                                 final Object dispatch,
+                                 final Class k0,
+                                 final Class k1,
+                                 final Class k2) {
+    switch (arity) {
+    case 2: return ((Signature) k).isAssignableFrom(k0,k1);
+    case 3: return ((Signature) k).isAssignableFrom(k0,k1,k2);
+    default: return relation.isA(dispatch,k); } }
+
+  // the first applicable position in group g before best,
+  // or best
+  private final int scanGroup (final int g,
+                               final int best,
+                               final int arity,
+                               final Object dispatch,
+                               final Class k0,
+                               final Class k1,
+                               final Class k2) {
+    for (final int i : groups[g]) {
+      if (best <= i) { return best; }
+      if (applies(keys[i],arity,dispatch,k0,k1,k2)) { return i; } }
+    return best; }
+
+  private final int first (final int arity,
+                           final Object dispatch,
+                           final Class first,
+                           final Class k0,
+                           final Class k1,
+                           final Class k2) {
+    final int n = keys.length;
+    if (null == firsts) {
+      for (int i=0;i<n;i++) {
+        if (applies(keys[i],arity,dispatch,k0,k1,k2)) { return i; } }
+      return NONE; }
+    int best = n;
+    final Class[] sts = MethodIndex.supertypes(first);
+    if ((null != sts) && (sts.length < firsts.length)) {
+      for (final Class c : sts) {
+        final Integer g = positions.get(c);
+        if (null != g) {
+          best = scanGroup(
+            g.intValue(),best,arity,dispatch,k0,k1,k2); } } }
+    else {
+      for (int g=0;g<firsts.length;g++) {
+        if (Classes.isAssignableFrom(firsts[g],first)) {
+          best = scanGroup(g,best,arity,dispatch,k0,k1,k2); } } }
+    return (n == best) ? NONE : best; }
+
+  private final boolean strictly (final Object x,
+                                  final Object y) {
+    return relation.dominates(x,y) && (! relation.dominates(y,x)); }
+
+  // does an applicable entry strictly dominate the one at c?
+  // None before b, the first applicable entry, applies,
+  // and, if sorted, none after c strictly dominates it.
+  private final boolean dominated (final int c,
+                                   final int b,
+                                   final int arity,
+                                   final Object dispatch,
+                                   final Class k0,
+                                   final Class k1,
+                                   final Class k2) {
+    final Object k = keys[c];
+    final int end = sorted ? c : keys.length;
+    for (int i=b;i<end;i++) {
+      if ((i != c) 
+        && applies(keys[i],arity,dispatch,k0,k1,k2)
+        && strictly(keys[i],k)) { 
+        return true; } }
+    return false; }
+
+  // Any applicable entry that isn't a peer of the first
+  // applicable one is strictly dominated by it, so the minimal
+  // entries are among that one and its applicable peers.
+
+  private final int resolve (final int arity,
+                             final Object dispatch,
+                             final Class first,
+                             final Class k0,
+                             final Class k1,
+                             final Class k2) {
+    final int b = first(arity,dispatch,first,k0,k1,k2);
+    if (NONE == b) { return NONE; }
+    int best = dominated(b,b,arity,dispatch,k0,k1,k2) ? NONE : b;
+    for (final Object k : peers[b]) {
+      if (applies(k,arity,dispatch,k0,k1,k2)) { 
+        final int c = position(k);
+        if (! dominated(c,b,arity,dispatch,k0,k1,k2)) {
+          if (NONE != best) { return AMBIGUOUS; }
+          best = c; } } }
+    return (NONE == best) ? AMBIGUOUS : best; }
+
+  /** The position of the best entry for <code>dispatch</code>,
+   * using {@link Relation#isA},
+   * or {@link #NONE}, or {@link #AMBIGUOUS}.
+   */
+  final int resolve (final Object dispatch) {
+    return resolve(
+      0,dispatch,(null == firsts) ? null : firstClass(dispatch),
+      null,null,null); }
+
+  /** The position of the best entry for
+   * <code>Signature2</code> keys,
+   * or {@link #NONE}, or {@link #AMBIGUOUS}.
+   */
+  final int resolve (final Class k0,
+                     final Class k1) {
+    return resolve(2,null,k0,k0,k1,null); }
+
+  /** The position of the best entry for
+   * <code>Signature3</code> keys,
+   * or {@link #NONE}, or {@link #AMBIGUOUS}.
+   */
+  final int resolve (final Class k0,
+                     final Class k1,
+                     final Class k2) {
+    return resolve(3,null,k0,k0,k1,k2); }
+
+  //--------------------------------------------------------------
+  // ambiguities, only for error messages
+
+  private final Map.Entry entry (final int i) {
+    return new AbstractMap.SimpleImmutableEntry(keys[i],values[i]); }
+
+  // the minimal entries, if there are more than one,
+  // otherwise, for a cycle, all the candidates
+  private final Set ambiguous (final int arity,
+                               final Object dispatch,
+                               final Class first,
+                               final Class k0,
+                               final Class k1,
+                               final Class k2) {
+    final Set minima = new HashSet();
+    final Set candidates = new HashSet();
+    final int b = first(arity,dispatch,first,k0,k1,k2);
+    candidates.add(entry(b));
+    if (! dominated(b,b,arity,dispatch,k0,k1,k2)) { 
+      minima.add(entry(b)); }
+    for (final Object k : peers[b]) {
+      if (applies(k,arity,dispatch,k0,k1,k2)) { 
+        final int c = position(k);
+        candidates.add(entry(c));
+        if (! dominated(c,b,arity,dispatch,k0,k1,k2)) {
+          minima.add(entry(c)); } } }
+    return (1 < minima.size()) ? minima : candidates; }
+
+  /** The entries to report when {@link #resolve(Object)}
+   * returns {@link #AMBIGUOUS}.
+   */
+  final Set ambiguous (final Object dispatch) {
+    return ambiguous(
+      0,dispatch,(null == firsts) ? null : firstClass(dispatch),
+      null,null,null); }
+
+  final Set ambiguous (final Class k0,
+                       final Class k1) {
+    return ambiguous(2,null,k0,k0,k1,null); }
+
+  final Set ambiguous (final Class k0,
+                       final Class k1,
+                       final Class k2) {
+    return ambiguous(3,null,k0,k0,k1,k2); }
+
+  //--------------------------------------------------------------
+  // construction
+  //--------------------------------------------------------------
+
+  private DominanceOrder (final Relation relation,
+                          final boolean grouped,
+                          final boolean sorted,
+                          final Object[] basis,
+                          final Object[] keys,
+                          final Object[] values,
+                          final Object[][] peers,
+                          final Class[] firsts,
+                          final int[][] groups,
+                          final Map<Class,Integer> positions) {
+    this.relation = relation;
+    this.grouped = grouped;
+    this.sorted = sorted;
+    this.basis = basis;
+    this.keys = keys;
+    this.values = values;
+    this.peers = peers;
+    this.firsts = firsts;
+    this.groups = groups;
+    this.positions = positions; }
+
+  // regroup the keys, in O(m)
+  private DominanceOrder (final Relation relation,
+                          final boolean grouped,
+                          final boolean sorted,
+                          final Object[] basis,
+                          final Object[] keys,
+                          final Object[] values,
+                          final Object[][] peers) {
+    this.relation = relation;
+    this.grouped = grouped;
+    this.sorted = sorted;
+    this.basis = basis;
+    this.keys = keys;
+    this.values = values;
+    this.peers = peers;
+    if (grouped) {
+      final int m = keys.length;
+      final Map<Class,Integer> ps = new HashMap();
+      final int[] counts = new int[m];
+      final Class[] fs = new Class[m];
+      int ng = 0;
+      for (int n=0;n<m;n++) {
+        final Class c = firstClass(keys[n]);
+        Integer g = ps.get(c);
+        if (null == g) { g = ng; ps.put(c,g); fs[ng++] = c; }
+        counts[g.intValue()]++; }
+      firsts = Arrays.copyOf(fs,ng);
+      groups = new int[ng][];
+      for (int g=0;g<ng;g++) { groups[g] = new int[counts[g]]; }
+      Arrays.fill(counts,0);
+      for (int n=0;n<m;n++) {
+        final int g = ps.get(firstClass(keys[n])).intValue();
+        groups[g][counts[g]++] = n; }
+      positions = ps; }
+    else {
+      firsts = null;
+      groups = null;
+      positions = null; } }
+
+  /** An empty order.
+   * If <code>grouped</code>, the keys must all be
+   * <code>Class</code>es, or <code>Signature</code>s of the
+   * same arity.
+   * <code>basis</code> is whatever the owner needs to check
+   * the order is still current, by identity.
+   */
+  DominanceOrder (final Relation relation,
+                  final boolean grouped,
+                  final Object... basis) {
+    this(relation,grouped,true,basis,NO_KEYS,NO_KEYS,new Object[0][]); }
+
+  /** The order of <code>entries</code>, added one at a time,
+   * for owners that can't keep one up to date.
+   */
+  static final DominanceOrder of (final Map.Entry[] entries,
+                                  final Relation relation,
+                                  final boolean grouped,
+                                  final Object... basis) {
+    DominanceOrder o = new DominanceOrder(relation,grouped,basis);
+    for (final Map.Entry e : entries) {
+      o = o.with(e.getKey(),e.getValue(),relation,basis); }
+    return o; }
+
+  //--------------------------------------------------------------
+  // edits
+  //--------------------------------------------------------------
+
+  private final int position (final Object k) {
+    for (int i=0;i<keys.length;i++) {
+      if (Objects.equals(k,keys[i])) { return i; } }
+    return -1; }
+
+  private static final Object[] append (final Object[] ks,
+                                        final Object k) {
+    final Object[] b = Arrays.copyOf(ks,ks.length+1);
+    b[ks.length] = k;
+    return b; }
+
+  private static final Object[] remove (final Object[] ks,
+                                        final Object k) {
+    for (int i=0;i<ks.length;i++) {
+      if (Objects.equals(k,ks[i])) { 
+        final Object[] b = new Object[ks.length-1];
+        System.arraycopy(ks,0,b,0,i);
+        System.arraycopy(ks,i+1,b,i,ks.length-i-1);
+        return b; } }
+    return ks; }
+
+  /** The same order, with basis <code>b</code>.
+   */
+  final DominanceOrder rebased (final Object... b) {
+    return new DominanceOrder(
+      relation,grouped,sorted,b,keys,values,peers,
+      firsts,groups,positions); }
+
+  /** A new order, with <code>v</code> for <code>k</code>,
+   * and basis <code>b</code>.
+   * <code>relation</code> must be the relation of the new
+   * tables; none if it's only a new value, otherwise
+   * <code>2m</code> tests, and <code>s<sup>2</sup></code> more
+   * if the last <code>s</code> entries need sorting again.
+   */
+  final DominanceOrder with (final Object k,
+                             final Object v,
+                             final Relation relation,
+                             final Object... b) {
+    final int m = keys.length;
+    final int i0 = position(k);
+    if (0 <= i0) {
+      final Object[] vs = values.clone();
+      vs[i0] = v;
+      return new DominanceOrder(
+        relation,grouped,sorted,b,keys,vs,peers,
+        firsts,groups,positions); }
+
+    // which entries strictly dominate k, 
+    // and which k strictly dominates
+    final boolean[] above = new boolean[m];
+    final boolean[] below = new boolean[m];
+    int last = -1;
+    int lo = m;
+    for (int i=0;i<m;i++) {
+      final boolean ik = relation.dominates(keys[i],k);
+      final boolean ki = relation.dominates(k,keys[i]);
+      above[i] = ik && (! ki);
+      below[i] = ki && (! ik);
+      if (above[i]) { last = i; }
+      if (below[i] && (m == lo)) { lo = i; } }
+    if (lo <= last) { 
+      return resort(k,v,relation,b,above,below,lo,last); }
+
+    // after the last entry that strictly dominates k,
+    // and no later than the first one it strictly dominates
+    final int p = last + 1;
+    final Object[] ks = new Object[m+1];
+    final Object[] vs = new Object[m+1];
+    final Object[][] ps = new Object[m+1][];
+    for (int i=0;i<p;i++) {
+      ks[i] = keys[i];
+      vs[i] = values[i];
+      ps[i] = ((! above[i]) && mayOverlap(keys[i],k)) 
+        ? append(peers[i],k) 
+        : peers[i]; }
+    ks[p] = k;
+    vs[p] = v;
+    final Object[] kps = new Object[m-p];
+    int np = 0;
+    for (int i=p;i<m;i++) {
+      ks[i+1] = keys[i];
+      vs[i+1] = values[i];
+      ps[i+1] = peers[i]; 
+      if ((! below[i]) && mayOverlap(k,keys[i])) { 
+        kps[np++] = keys[i]; } }
+    ps[p] = Arrays.copyOf(kps,np);
+    return new DominanceOrder(relation,grouped,sorted,b,ks,vs,ps); }
+
+  // k strictly dominates the entry at lo, and is strictly 
+  // dominated by the one at last, which comes later:
+  // sort the s entries from lo on, with k, topologically, 
+  // keeping them in their current order, with k after last, 
+  // where strict dominance allows, 
+  // and recompute their peers, which takes s^2 tests.
+  // The earlier entries stay where they are, 
+  // since k strictly dominates none of them.
+  // A cycle is broken at the earliest entry left.
+
+  private final DominanceOrder resort (final Object k,
+                                       final Object v,
+                                       final Relation relation,
+                                       final Object[] b,
+                                       final boolean[] above,
+                                       final boolean[] below,
+                                       final int lo,
+                                       final int last) {
+    final int m = keys.length;
+    final int s = m - lo + 1;
+    final int pk = last - lo + 1;
+    final Object[] sk = new Object[s];
+    final Object[] sv = new Object[s];
+    final int[] from = new int[s];
+    for (int x=0;x<s;x++) {
+      if (x == pk) { sk[x] = k; sv[x] = v; from[x] = -1; } 
+      else {
+        from[x] = (x < pk) ? (lo + x) : (lo + x - 1);
+        sk[x] = keys[from[x]]; 
+        sv[x] = values[from[x]]; } }
+
+    // strict[x][y]: sk[x] strictly dominates sk[y]
+    final boolean[][] strict = new boolean[s][s];
+    final int[] degree = new int[s];
+    for (int x=0;x<s;x++) {
+      for (int y=x+1;y<s;y++) {
+        final boolean xy;
+        final boolean yx;
+        if (x == pk) { xy = below[from[y]]; yx = above[from[y]]; }
+        else if (y == pk) { xy = above[from[x]]; yx = below[from[x]]; }
+        else {
+          final boolean dxy = relation.dominates(sk[x],sk[y]);
+          final boolean dyx = relation.dominates(sk[y],sk[x]);
+          xy = dxy && (! dyx);
+          yx = dyx && (! dxy); }
+        strict[x][y] = xy;
+        strict[y][x] = yx;
+        if (xy) { degree[y]++; }
+        if (yx) { degree[x]++; } } }
+
+    boolean acyclic = sorted;
+    final int[] order = new int[s];
+    final boolean[] done = new boolean[s];
+    for (int n=0;n<s;n++) {
+      int next = -1;
+      for (int x=0;x<s;x++) {
+        if ((! done[x]) && (0 == degree[x])) { next = x; break; } }
+      if (-1 == next) {
+        acyclic = false;
+        for (int x=0;x<s;x++) {
+          if (! done[x]) { next = x; break; } } }
+      done[next] = true;
+      order[n] = next;
+      for (int y=0;y<s;y++) { if (strict[next][y]) { degree[y]--; } } }
+
+    final Object[] ks = new Object[m+1];
+    final Object[] vs = new Object[m+1];
+    final Object[][] ps = new Object[m+1][];
+    for (int i=0;i<lo;i++) {
+      ks[i] = keys[i];
+      vs[i] = values[i];
+      ps[i] = ((! above[i]) && mayOverlap(keys[i],k)) 
+        ? append(peers[i],k) 
+        : peers[i]; }
+    for (int a=0;a<s;a++) {
+      final int x = order[a];
+      ks[lo+a] = sk[x];
+      vs[lo+a] = sv[x];
+      final Object[] kps = new Object[s-a-1];
+      int np = 0;
+      for (int c=a+1;c<s;c++) {
+        final int y = order[c];
+        if ((! strict[x][y]) && mayOverlap(sk[x],sk[y])) { 
+          kps[np++] = sk[y]; } }
+      ps[lo+a] = Arrays.copyOf(kps,np); }
+    return new DominanceOrder(relation,grouped,acyclic,b,ks,vs,ps); }
+
+  /** A new order, without <code>k</code>, 
+   * and basis <code>b</code>; no tests.
+   */
+  final DominanceOrder without (final Object k,
+                                final Object... b) {
+    final int m = keys.length;
+    final int p = position(k);
+    if (0 > p) { return rebased(b); }
+    final Object[] ks = new Object[m-1];
+    final Object[] vs = new Object[m-1];
+    final Object[][] ps = new Object[m-1][];
+    for (int i=0;i<p;i++) {
+      ks[i] = keys[i];
+      vs[i] = values[i];
+      ps[i] = remove(peers[i],k); }
+    for (int i=p+1;i<m;i++) {
+      ks[i-1] = keys[i];
+      vs[i-1] = values[i];
+      ps[i-1] = peers[i]; }
+    return new DominanceOrder(relation,grouped,sorted,b,ks,vs,ps); }
+
+  //--------------------------------------------------------------
+}
+//--------------------------------------------------------------
@@ -0,0 +1,640 @@
+package palisades.lakes.multimethods.java;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import clojure.lang.AFn;
+import clojure.lang.IFn;
+import clojure.lang.IPersistentMap;
+import clojure.lang.Keyword;
+import clojure.lang.PersistentHashMap;
+import clojure.lang.PersistentHashSet;
+import clojure.lang.Util;
+
+/** A {@link MultiFn} for interned dispatch values,
+ * <code>Keyword</code>s and <code>Enum</code> constants,
+ * with no hierarchy: a method applies only to its own
+ * dispatch value, compared by identity.
+ * Implementation details, subject to revision.
+ * Use the Clojure API to be future-proof.
+ * <p>
+ * Methods are looked up in an open addressing table,
+ * keyed on <code>System.identityHashCode</code>, 
+ * and compared with <code>==</code>, so a lookup
+ * never calls <code>hashCode</code> or <code>equals</code>,
+ * derefs a hierarchy, or checks the dispatch value.
+ * The table is sized, within limits, so that no two keys
+ * collide, and each slot holds the method itself,
+ * so a hit is usually one probe, like a <code>case</code>.
+ * Any other value gets the method for the default
+ * dispatch value, if there is one.
+ * <p>
+ * Copy-on-write: every edit rebuilds the table, under a lock,
+ * and publishes it with a single volatile write, so lookup 
+ * doesn't lock.
+ * Since no dispatch value is a child of another,
+ * there are no ambiguities, and preferences are recorded, 
+ * and checked for conflicts, but don't change which method is
+ * called.
+ *
+ * @author palisades dot lakes at gmail dot com
+ * @since 2026-10-18
+ * @version 2026-10-18
+ */
+
+@SuppressWarnings("unchecked")
+public final class IdentityMultiFn extends AFn implements MultiFn {
+
+  private static final class Table {
+    // null for empty slots
+    private final Object[] keys;
+    private final IFn[] methods;
+    private final int mask;
+    // null if there's no default method
+    private final IFn defaultMethod;
+    private Table (final Object[] ks,
+                   final IFn[] fs,
+                   final IFn f) {
+      keys = ks; methods = fs; mask = ks.length - 1; 
+      defaultMethod = f; }
+    // the defined method, or the default, or null
+    private final IFn get (final Object k) {
+      if (null == k) { return defaultMethod; }
+      int i = spread(System.identityHashCode(k)) & mask;
+      for (;;) {
+        final Object ki = keys[i];
+        if (k == ki) { return methods[i]; }
+        if (null == ki) { return defaultMethod; }
+        i = (i + 1) & mask; } } }
+
+  // most slots per method, searching for a collision-free table
+  private static final int SPARSITY = 8;
+
+  private static final int spread (final int h) {
+    return h ^ (h >>> 16); }
+
+  private static final int collisions (final Object[] ks,
+                                       final int capacity) {
+    final boolean[] used = new boolean[capacity];
+    int n = 0;
+    for (final Object k : ks) {
+      final int i = spread(System.identityHashCode(k)) & (capacity-1);
+      if (used[i]) { n++; } else { used[i] = true; } }
+    return n; }
+
+  private static final Table table (final Map methodTable,
+                                    final Object defaultDispatch) {
+    final Object[] ks = methodTable.keySet().toArray();
+    final int n = ks.length;
+    // load at most 1/2, then grow, within limits, 
+    // until each key gets its own slot
+    int capacity = 2;
+    while (capacity < 2*n) { capacity <<= 1; }
+    while ((0 < collisions(ks,capacity)) 
+      && (capacity < SPARSITY*n)) {
+      capacity <<= 1; }
+    final Object[] keys = new Object[capacity];
+    final IFn[] methods = new IFn[capacity];
+    final int mask = capacity - 1;
+    for (final Object k : ks) {
+      int i = spread(System.identityHashCode(k)) & mask;
+      while (null != keys[i]) { i = (i + 1) & mask; }
+      keys[i] = k;
+      methods[i] = (IFn) methodTable.get(k); }
+    return new Table(
+      keys,methods,(IFn) methodTable.get(defaultDispatch)); }
+
+  //--------------------------------------------------------------
+
+  private final IFn dispatchFn;
+  private final String name;
+  private final Object defaultDispatch;
+  private final ReentrantReadWriteLock rw;
+  private volatile Map methodTable;
+  private volatile Map preferTable;
+  private volatile Table table;
+  private volatile long version;
+
+  //--------------------------------------------------------------
+
+  /** Only <code>Keyword</code>s and <code>Enum</code> 
+   * constants.
+   */
+  @Override
+  public final boolean isLegalDispatchValue (final Object x) {
+    return (x instanceof Keyword) || (x instanceof Enum); }
+
+  //--------------------------------------------------------------
+  // construction
+  //--------------------------------------------------------------
+
+  /** <code>defaultd</code> may be <code>null</code>, for no
+   * default method.
+   */
+  public IdentityMultiFn (final String n,
+                          final IFn dispatchF,
+                          final Object defaultd) {
+    assert (null != n) && (! n.isEmpty());
+    name = n;
+    assert null != dispatchF;
+    dispatchFn = dispatchF;
+    if (null != defaultd) { checkLegalDispatchValue(defaultd); }
+    defaultDispatch = defaultd;
+    rw = new ReentrantReadWriteLock();
+    methodTable = Collections.emptyMap();
+    preferTable = Collections.emptyMap();
+    table = table(methodTable,defaultDispatch);
+    version = 0L; }
+
+  /** The default dispatch value, or <code>null</code>.
+   */
+  public final Object defaultDispatch () { return defaultDispatch; }
+
+  @Override
+  public final long version () { return version; }
+
+  //--------------------------------------------------------------
+
+  @Override
+  public final IPersistentMap getMethodTable () {
+    return PersistentHashMap.create(methodTable); }
+
+  @Override
+  public final IPersistentMap getPreferTable () {
+    // convert values to IPersistentSet
+    final Map pt = preferTable;
+    final Set ks = pt.keySet();
+    final Object[] kvs = new Object[2 * ks.size()];
+    int i = 0;
+    for (final Object k : ks) {
+      kvs[i++] = k;
+      kvs[i++] = PersistentHashSet.create(
+        ((Set) pt.get(k)).toArray()); }
+    return PersistentHashMap.create(kvs); }
+
+  //--------------------------------------------------------------
+  // must hold the write lock
+
+  private final void update (final Map mt,
+                             final Map pt) {
+    methodTable = mt;
+    preferTable = pt;
+    table = table(mt,defaultDispatch);
+    version++; }
+
+  @Override
+  public final MultiFn reset () {
+    rw.writeLock().lock();
+    try {
+      update(Collections.emptyMap(),Collections.emptyMap());
+      return this; }
+    finally { rw.writeLock().unlock(); } }
+
+  @Override
+  public final MultiFn addMethod (final Object x,
+                                  final IFn method) {
+    checkLegalDispatchValue(x);
+    rw.writeLock().lock();
+    try {
+      final Map b = new HashMap(methodTable);
+      b.put(x,method);
+      update(b,preferTable);
+      return this; }
+    finally { rw.writeLock().unlock(); } }
+
+  @Override
+  public final MultiFn removeMethod (final Object x) {
+    checkLegalDispatchValue(x);
+    rw.writeLock().lock();
+    try {
+      final Map b = new HashMap(methodTable);
+      b.remove(x);
+      update(b,preferTable);
+      return this; }
+    finally { rw.writeLock().unlock(); } }
+
+  //--------------------------------------------------------------
+
+  // explicit preferences, and their transitive closure
+  private final boolean prefers (final Object x,
+                                 final Object y) {
+    final Set xprefs = (Set) preferTable.get(x);
+    if (null == xprefs) { return false; }
+    if (xprefs.contains(y)) { return true; }
+    for (final Object xx : xprefs) {
+      if (prefers(xx,y)) { return true; } }
+    return false; }
+
+  @Override
+  public final MultiFn preferMethod (final Object x,
+                                     final Object y) {
+    checkLegalDispatchValue(x);
+    checkLegalDispatchValue(y);
+    rw.writeLock().lock();
+    try {
+      if (prefers(y,x)) {
+        throw new IllegalStateException(
+          String.format(
+            "Preference conflict in multimethod '%s':" +
+              "%s is already preferred to %s",
+              name,y,x)); }
+      final Map b = new HashMap(preferTable);
+      final Set s = (Set) b.get(x);
+      final Set bs = (null == s) ? new HashSet() : new HashSet(s);
+      bs.add(y);
+      b.put(x,bs);
+      update(methodTable,b);
+      return this; }
+    finally { rw.writeLock().unlock(); } }
+
+  //--------------------------------------------------------------
+
+  /** Only identical dispatch values.
+   */
+  @Override
+  public final boolean isA (final Object x,
+                            final Object y) {
+    return x == y; }
+
+  @Override
+  public final boolean dominates (final Object x,
+                                  final Object y) {
+    return (x == y) || prefers(x,y); }
+
+  //--------------------------------------------------------------
+
+  /** The method defined for <code>x</code>, or else for the 
+   * default dispatch value, or <code>null</code>.
+   */
+  @Override
+  public final IFn getMethod (final Object x) {
+    return table.get(x); }
+
+  private final IFn getFn (final Object x) {
+    final IFn f = table.get(x);
+    if (null != f) { return f; }
+    throw Unresolved.noMethod(name,x).exception(); }
+
+  //--------------------------------------------------------------
+  // IFn interface
+  //--------------------------------------------------------------
+
+  @Override
+  public final Object invoke () {
+    return getFn(dispatchFn.invoke()).invoke();
+  }
+
+  @Override
+  public final Object invoke (Object arg1) {
+    return getFn(dispatchFn.invoke(arg1))
+      .invoke(Util.ret1(arg1,arg1 = null));
+  }
+
+  @Override
+  public final Object invoke (Object arg1, 
+                              Object arg2) {
+    final Object k = dispatchFn.invoke(arg1,arg2);
+    return getFn(k).invoke(
+      Util.ret1(arg1,arg1 = null),
+      Util.ret1(arg2,arg2 = null)); }
+
+  @Override
+  public final Object invoke (Object arg1, Object arg2, Object arg3) {
+    return getFn(dispatchFn.invoke(arg1,arg2,arg3)).invoke(
+      Util.ret1(arg1,arg1 = null),
+      Util.ret1(arg2,arg2 = null),
+      Util.ret1(arg3,arg3 = null)); }
+
+  @Override
+  public final Object invoke (Object arg1, Object arg2, Object arg3,
+                              Object arg4) {
+    return getFn(dispatchFn.invoke(arg1,arg2,arg3,arg4)).invoke(
+      Util.ret1(arg1,arg1 = null),Util.ret1(arg2,arg2 = null),
+      Util.ret1(arg3,arg3 = null),Util.ret1(arg4,arg4 = null));
+  }
+
+  @Override
+  public final Object invoke (Object arg1, Object arg2, Object arg3,
+                              Object arg4, Object arg5) {
+    return getFn(dispatchFn.invoke(arg1,arg2,arg3,arg4,arg5))
+      .invoke(Util.ret1(arg1,arg1 = null),
+        Util.ret1(arg2,arg2 = null),Util.ret1(arg3,arg3 = null),
+        Util.ret1(arg4,arg4 = null),Util.ret1(arg5,arg5 = null));
+  }
+
+  @Override
+  public final Object invoke (Object arg1, Object arg2, Object arg3,
+                              Object arg4, Object arg5, Object arg6) {
+    return getFn(dispatchFn.invoke(arg1,arg2,arg3,arg4,arg5,arg6))
+      .invoke(Util.ret1(arg1,arg1 = null),
+        Util.ret1(arg2,arg2 = null),Util.ret1(arg3,arg3 = null),
+        Util.ret1(arg4,arg4 = null),Util.ret1(arg5,arg5 = null),
+        Util.ret1(arg6,arg6 = null));
+  }
+
+  @Override
+  public final Object invoke (Object arg1, Object arg2, Object arg3,
+                              Object arg4, Object arg5, Object arg6,
+                              Object arg7) {
+    return getFn(
+      dispatchFn.invoke(arg1,arg2,arg3,arg4,arg5,arg6,arg7))
+      .invoke(Util.ret1(arg1,arg1 = null),
+        Util.ret1(arg2,arg2 = null),Util.ret1(arg3,arg3 = null),
+        Util.ret1(arg4,arg4 = null),Util.ret1(arg5,arg5 = null),
+        Util.ret1(arg6,arg6 = null),
+        Util.ret1(arg7,arg7 = null));
+  }
+
+  @Override
+  public final Object invoke (Object arg1, Object arg2, Object arg3,
+                              Object arg4, Object arg5, Object arg6,
+                              Object arg7, Object arg8) {
+    return getFn(
+      dispatchFn.invoke(arg1,arg2,arg3,arg4,arg5,arg6,arg7,arg8))
+      .invoke(Util.ret1(arg1,arg1 = null),
+        Util.ret1(arg2,arg2 = null),Util.ret1(arg3,arg3 = null),
+        Util.ret1(arg4,arg4 = null),Util.ret1(arg5,arg5 = null),
+        Util.ret1(arg6,arg6 = null),Util.ret1(arg7,arg7 = null),
+        Util.ret1(arg8,arg8 = null));
+  }
+
+  @Override
+  public final Object invoke (Object arg1, Object arg2, Object arg3,
+                              Object arg4, Object arg5, Object arg6,
+                              Object arg7, Object arg8, Object arg9) {
+    return getFn(dispatchFn.invoke(arg1,arg2,arg3,arg4,arg5,arg6,
+      arg7,arg8,arg9)).invoke(Util.ret1(arg1,arg1 = null),
+        Util.ret1(arg2,arg2 = null),Util.ret1(arg3,arg3 = null),
+        Util.ret1(arg4,arg4 = null),Util.ret1(arg5,arg5 = null),
+        Util.ret1(arg6,arg6 = null),Util.ret1(arg7,arg7 = null),
+        Util.ret1(arg8,arg8 = null),Util.ret1(arg9,arg9 = null));
+  }
+
+  @Override
+  public final Object invoke (Object arg1, Object arg2, Object arg3,
+                              Object arg4, Object arg5, Object arg6,
+                              Object arg7, Object arg8, Object arg9,
+                              Object arg10) {
+    return getFn(dispatchFn.invoke(arg1,arg2,arg3,arg4,arg5,arg6,
+      arg7,arg8,arg9,arg10)).invoke(Util.ret1(arg1,arg1 = null),
+        Util.ret1(arg2,arg2 = null),Util.ret1(arg3,arg3 = null),
+        Util.ret1(arg4,arg4 = null),Util.ret1(arg5,arg5 = null),
+        Util.ret1(arg6,arg6 = null),Util.ret1(arg7,arg7 = null),
+        Util.ret1(arg8,arg8 = null),Util.ret1(arg9,arg9 = null),
+        Util.ret1(arg10,arg10 = null));
+  }
+
+  @Override
+  public final Object invoke (Object arg1, Object arg2, Object arg3,
+                              Object arg4, Object arg5, Object arg6,
+                              Object arg7, Object arg8, Object arg9,
+                              Object arg10, Object arg11) {
+    return getFn(dispatchFn.invoke(arg1,arg2,arg3,arg4,arg5,arg6,
+      arg7,arg8,arg9,arg10,arg11)).invoke(
+        Util.ret1(arg1,arg1 = null),Util.ret1(arg2,arg2 = null),
+        Util.ret1(arg3,arg3 = null),Util.ret1(arg4,arg4 = null),
+        Util.ret1(arg5,arg5 = null),Util.ret1(arg6,arg6 = null),
+        Util.ret1(arg7,arg7 = null),Util.ret1(arg8,arg8 = null),
+        Util.ret1(arg9,arg9 = null),Util.ret1(arg10,arg10 = null),
+        Util.ret1(arg11,arg11 = null));
+  }
+
+  @Override
+  public final Object invoke (Object arg1, Object arg2, Object arg3,
+                              Object arg4, Object arg5, Object arg6,
+                              Object arg7, Object arg8, Object arg9,
+                              Object arg10, Object arg11,
+                              Object arg12) {
+    return getFn(dispatchFn.invoke(arg1,arg2,arg3,arg4,arg5,arg6,
+      arg7,arg8,arg9,arg10,arg11,arg12)).invoke(
+        Util.ret1(arg1,arg1 = null),Util.ret1(arg2,arg2 = null),
+        Util.ret1(arg3,arg3 = null),Util.ret1(arg4,arg4 = null),
+        Util.ret1(arg5,arg5 = null),Util.ret1(arg6,arg6 = null),
+        Util.ret1(arg7,arg7 = null),Util.ret1(arg8,arg8 = null),
+        Util.ret1(arg9,arg9 = null),Util.ret1(arg10,arg10 = null),
+        Util.ret1(arg11,arg11 = null),
+        Util.ret1(arg12,arg12 = null));
+  }
+
+  @Override
+  public final Object invoke (Object arg1, Object arg2, Object arg3,
+                              Object arg4, Object arg5, Object arg6,
+                              Object arg7, Object arg8, Object arg9,
+                              Object arg10, Object arg11, Object arg12,
+                              Object arg13) {
+    return getFn(dispatchFn.invoke(arg1,arg2,arg3,arg4,arg5,arg6,
+      arg7,arg8,arg9,arg10,arg11,arg12,arg13)).invoke(
+        Util.ret1(arg1,arg1 = null),Util.ret1(arg2,arg2 = null),
+        Util.ret1(arg3,arg3 = null),Util.ret1(arg4,arg4 = null),
+        Util.ret1(arg5,arg5 = null),Util.ret1(arg6,arg6 = null),
+        Util.ret1(arg7,arg7 = null),Util.ret1(arg8,arg8 = null),
+        Util.ret1(arg9,arg9 = null),Util.ret1(arg10,arg10 = null),
+        Util.ret1(arg11,arg11 = null),
+        Util.ret1(arg12,arg12 = null),
+        Util.ret1(arg13,arg13 = null));
+  }
+
+  @Override
+  public final Object invoke (Object arg1, Object arg2, Object arg3,
+                              Object arg4, Object arg5, Object arg6,
+                              Object arg7, Object arg8, Object arg9,
+                              Object arg10, Object arg11, Object arg12,
+                              Object arg13, Object arg14) {
+    return getFn(dispatchFn.invoke(arg1,arg2,arg3,arg4,arg5,arg6,
+      arg7,arg8,arg9,arg10,arg11,arg12,arg13,arg14)).invoke(
+        Util.ret1(arg1,arg1 = null),Util.ret1(arg2,arg2 = null),
+        Util.ret1(arg3,arg3 = null),Util.ret1(arg4,arg4 = null),
+        Util.ret1(arg5,arg5 = null),Util.ret1(arg6,arg6 = null),
+        Util.ret1(arg7,arg7 = null),Util.ret1(arg8,arg8 = null),
+        Util.ret1(arg9,arg9 = null),Util.ret1(arg10,arg10 = null),
+        Util.ret1(arg11,arg11 = null),
+        Util.ret1(arg12,arg12 = null),
+        Util.ret1(arg13,arg13 = null),
+        Util.ret1(arg14,arg14 = null));
+  }
+
+  @Override
+  public final Object invoke (Object arg1, Object arg2, Object arg3,
+                              Object arg4, Object arg5, Object arg6,
+                              Object arg7, Object arg8, Object arg9,
+                              Object arg10, Object arg11, Object arg12,
+                              Object arg13, Object arg14,
+                              Object arg15) {
+    return getFn(dispatchFn.invoke(arg1,arg2,arg3,arg4,arg5,arg6,
+      arg7,arg8,arg9,arg10,arg11,arg12,arg13,arg14,arg15)).invoke(
+        Util.ret1(arg1,arg1 = null),Util.ret1(arg2,arg2 = null),
+        Util.ret1(arg3,arg3 = null),Util.ret1(arg4,arg4 = null),
+        Util.ret1(arg5,arg5 = null),Util.ret1(arg6,arg6 = null),
+        Util.ret1(arg7,arg7 = null),Util.ret1(arg8,arg8 = null),
+        Util.ret1(arg9,arg9 = null),Util.ret1(arg10,arg10 = null),
+        Util.ret1(arg11,arg11 = null),
+        Util.ret1(arg12,arg12 = null),
+        Util.ret1(arg13,arg13 = null),
+        Util.ret1(arg14,arg14 = null),
+        Util.ret1(arg15,arg15 = null));
+  }
+
+  @Override
+  public final Object invoke (Object arg1, Object arg2, Object arg3,
+                              Object arg4, Object arg5, Object arg6,
+                              Object arg7, Object arg8, Object arg9,
+                              Object arg10, Object arg11, Object arg12,
+                              Object arg13, Object arg14, Object arg15,
+                              Object arg16) {
+    return getFn(dispatchFn.invoke(arg1,arg2,arg3,arg4,arg5,arg6,
+      arg7,arg8,arg9,arg10,arg11,arg12,arg13,arg14,arg15,arg16))
+      .invoke(Util.ret1(arg1,arg1 = null),
+        Util.ret1(arg2,arg2 = null),Util.ret1(arg3,arg3 = null),
+        Util.ret1(arg4,arg4 = null),Util.ret1(arg5,arg5 = null),
+        Util.ret1(arg6,arg6 = null),Util.ret1(arg7,arg7 = null),
+        Util.ret1(arg8,arg8 = null),Util.ret1(arg9,arg9 = null),
+        Util.ret1(arg10,arg10 = null),
+        Util.ret1(arg11,arg11 = null),
+        Util.ret1(arg12,arg12 = null),
+        Util.ret1(arg13,arg13 = null),
+        Util.ret1(arg14,arg14 = null),
+        Util.ret1(arg15,arg15 = null),
+        Util.ret1(arg16,arg16 = null));
+  }
+
+  @Override
+  public final Object invoke (Object arg1, Object arg2, Object arg3,
+                              Object arg4, Object arg5, Object arg6,
+                              Object arg7, Object arg8, Object arg9,
+                              Object arg10, Object arg11, Object arg12,
+                              Object arg13, Object arg14, Object arg15,
+                              Object arg16, Object arg17) {
+    return getFn(dispatchFn.invoke(arg1,arg2,arg3,arg4,arg5,arg6,
+      arg7,arg8,arg9,arg10,arg11,arg12,arg13,arg14,arg15,arg16,
+      arg17)).invoke(Util.ret1(arg1,arg1 = null),
+        Util.ret1(arg2,arg2 = null),Util.ret1(arg3,arg3 = null),
+        Util.ret1(arg4,arg4 = null),Util.ret1(arg5,arg5 = null),
+        Util.ret1(arg6,arg6 = null),Util.ret1(arg7,arg7 = null),
+        Util.ret1(arg8,arg8 = null),Util.ret1(arg9,arg9 = null),
+        Util.ret1(arg10,arg10 = null),
+        Util.ret1(arg11,arg11 = null),
+        Util.ret1(arg12,arg12 = null),
+        Util.ret1(arg13,arg13 = null),
+        Util.ret1(arg14,arg14 = null),
+        Util.ret1(arg15,arg15 = null),
+        Util.ret1(arg16,arg16 = null),
+        Util.ret1(arg17,arg17 = null));
+  }
+
+  @Override
+  public final Object invoke (Object arg1, Object arg2, Object arg3,
+                              Object arg4, Object arg5, Object arg6,
+                              Object arg7, Object arg8, Object arg9,
+                              Object arg10, Object arg11, Object arg12,
+                              Object arg13, Object arg14, Object arg15,
+                              Object arg16, Object arg17,
+                              Object arg18) {
+    return getFn(dispatchFn.invoke(arg1,arg2,arg3,arg4,arg5,arg6,
+      arg7,arg8,arg9,arg10,arg11,arg12,arg13,arg14,arg15,arg16,
+      arg17,arg18)).invoke(Util.ret1(arg1,arg1 = null),
+        Util.ret1(arg2,arg2 = null),Util.ret1(arg3,arg3 = null),
+        Util.ret1(arg4,arg4 = null),Util.ret1(arg5,arg5 = null),
+        Util.ret1(arg6,arg6 = null),Util.ret1(arg7,arg7 = null),
+        Util.ret1(arg8,arg8 = null),Util.ret1(arg9,arg9 = null),
+        Util.ret1(arg10,arg10 = null),
+        Util.ret1(arg11,arg11 = null),
+        Util.ret1(arg12,arg12 = null),
+        Util.ret1(arg13,arg13 = null),
+        Util.ret1(arg14,arg14 = null),
+        Util.ret1(arg15,arg15 = null),
+        Util.ret1(arg16,arg16 = null),
+        Util.ret1(arg17,arg17 = null),
+        Util.ret1(arg18,arg18 = null));
+  }
+
+  @Override
+  public final Object invoke (Object arg1, Object arg2, Object arg3,
+                              Object arg4, Object arg5, Object arg6,
+                              Object arg7, Object arg8, Object arg9,
+                              Object arg10, Object arg11, Object arg12,
+                              Object arg13, Object arg14, Object arg15,
+                              Object arg16, Object arg17, Object arg18,
+                              Object arg19) {
+    return getFn(dispatchFn.invoke(arg1,arg2,arg3,arg4,arg5,arg6,
+      arg7,arg8,arg9,arg10,arg11,arg12,arg13,arg14,arg15,arg16,
+      arg17,arg18,arg19)).invoke(Util.ret1(arg1,arg1 = null),
+        Util.ret1(arg2,arg2 = null),Util.ret1(arg3,arg3 = null),
+        Util.ret1(arg4,arg4 = null),Util.ret1(arg5,arg5 = null),
+        Util.ret1(arg6,arg6 = null),Util.ret1(arg7,arg7 = null),
+        Util.ret1(arg8,arg8 = null),Util.ret1(arg9,arg9 = null),
+        Util.ret1(arg10,arg10 = null),
+        Util.ret1(arg11,arg11 = null),
+        Util.ret1(arg12,arg12 = null),
+        Util.ret1(arg13,arg13 = null),
+        Util.ret1(arg14,arg14 = null),
+        Util.ret1(arg15,arg15 = null),
+        Util.ret1(arg16,arg16 = null),
+        Util.ret1(arg17,arg17 = null),
+        Util.ret1(arg18,arg18 = null),
+        Util.ret1(arg19,arg19 = null));
+  }
+
+  @Override
+  public final Object invoke (Object arg1, Object arg2, Object arg3,
+                              Object arg4, Object arg5, Object arg6,
+                              Object arg7, Object arg8, Object arg9,
+                              Object arg10, Object arg11, Object arg12,
+                              Object arg13, Object arg14, Object arg15,
+                              Object arg16, Object arg17, Object arg18,
+                              Object arg19, Object arg20) {
+    return getFn(dispatchFn.invoke(arg1,arg2,arg3,arg4,arg5,arg6,
+      arg7,arg8,arg9,arg10,arg11,arg12,arg13,arg14,arg15,arg16,
+      arg17,arg18,arg19,arg20)).invoke(
+        Util.ret1(arg1,arg1 = null),Util.ret1(arg2,arg2 = null),
+        Util.ret1(arg3,arg3 = null),Util.ret1(arg4,arg4 = null),
+        Util.ret1(arg5,arg5 = null),Util.ret1(arg6,arg6 = null),
+        Util.ret1(arg7,arg7 = null),Util.ret1(arg8,arg8 = null),
+        Util.ret1(arg9,arg9 = null),Util.ret1(arg10,arg10 = null),
+        Util.ret1(arg11,arg11 = null),
+        Util.ret1(arg12,arg12 = null),
+        Util.ret1(arg13,arg13 = null),
+        Util.ret1(arg14,arg14 = null),
+        Util.ret1(arg15,arg15 = null),
+        Util.ret1(arg16,arg16 = null),
+        Util.ret1(arg17,arg17 = null),
+        Util.ret1(arg18,arg18 = null),
+        Util.ret1(arg19,arg19 = null),
+        Util.ret1(arg20,arg20 = null));
+  }
+
+  @Override
+  public final Object invoke (Object arg1, Object arg2, Object arg3,
+                              Object arg4, Object arg5, Object arg6,
+                              Object arg7, Object arg8, Object arg9,
+                              Object arg10, Object arg11, Object arg12,
+                              Object arg13, Object arg14, Object arg15,
+                              Object arg16, Object arg17, Object arg18,
+                              Object arg19, Object arg20,
+                              final Object... args) {
+    return getFn(dispatchFn.invoke(arg1,arg2,arg3,arg4,arg5,arg6,
+      arg7,arg8,arg9,arg10,arg11,arg12,arg13,arg14,arg15,arg16,
+      arg17,arg18,arg19,arg20,args)).invoke(
+        Util.ret1(arg1,arg1 = null),Util.ret1(arg2,arg2 = null),
+        Util.ret1(arg3,arg3 = null),Util.ret1(arg4,arg4 = null),
+        Util.ret1(arg5,arg5 = null),Util.ret1(arg6,arg6 = null),
+        Util.ret1(arg7,arg7 = null),Util.ret1(arg8,arg8 = null),
+        Util.ret1(arg9,arg9 = null),Util.ret1(arg10,arg10 = null),
+        Util.ret1(arg11,arg11 = null),
+        Util.ret1(arg12,arg12 = null),
+        Util.ret1(arg13,arg13 = null),
+        Util.ret1(arg14,arg14 = null),
+        Util.ret1(arg15,arg15 = null),
+        Util.ret1(arg16,arg16 = null),
+        Util.ret1(arg17,arg17 = null),
+        Util.ret1(arg18,arg18 = null),
+        Util.ret1(arg19,arg19 = null),
+        Util.ret1(arg20,arg20 = null),args);
+  }
+
+  //--------------------------------------------------------------
+}
+//--------------------------------------------------------------
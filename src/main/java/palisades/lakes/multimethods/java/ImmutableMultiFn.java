@@ -0,0 +1,268 @@
+/** Fork of clojure.lang.MultiFn for performance experiments.
+ *  Original MultiFn.java:
+ *  
+ *   Copyright (c) Rich Hickey. All rights reserved.
+ *   The use and distribution terms for this software are covered by the
+ *   Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ *   which can be found in the file epl-v10.html at the root of this distribution.
+ *   By using this software in any fashion, you are agreeing to be bound by
+ * 	 the terms of this license.
+ *   You must not remove this notice, or any other, from this software.
+ **/
+
+/* rich Sep 13, 2007 */
+
+package palisades.lakes.multimethods.java;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.atomic.AtomicLong;
+
+import clojure.lang.IFn;
+import clojure.lang.Util;
+
+/** An immutable {@link MultiFn}, with the same dispatch 
+ * semantics as {@link MultiFnWoutHierarchy}: only 
+ * <code>Class</code> and {@link Signature} dispatch values, 
+ * no hierarchy, no default, optional intrinsic signature 
+ * dispatch.
+ * <p>
+ * {@link #addMethod(Object,IFn)}, 
+ * {@link #removeMethod(Object)},
+ * {@link #preferMethod(Object,Object)}, and {@link #reset()}
+ * return a new instance, leaving this one unchanged.
+ * The Clojure API rebinds the multimethod's <code>Var</code>
+ * (see <code>defmethod-immutable</code>, etc.).
+ * <p>
+ * The tables are a <code>final</code> {@link MethodTables},
+ * the same value {@link MultiFnWoutHierarchy} replaces with
+ * each edit, and resolves cache misses against; 
+ * the method caches are also <code>final</code>, 
+ * created once per instance, and never replaced or cleared:
+ * no lock, no re-validation of a cache miss against 
+ * concurrent edits, and no <code>volatile</code> reads of the 
+ * <code>MultiFn</code>'s own fields, on any lookup.
+ * (The caches themselves still publish their entries safely;
+ * they have no adaptive linear caches in front.)
+ * <p>
+ * Only unbounded caches, with strong keys.
+ * No primitive <code>IFn</code> interfaces.
+ * <p>
+ * Implementation details, subject to revision.
+ * Use the Clojure API to be future-proof.
+ * 
+ * @author palisades dot lakes at gmail dot com
+ * @since 2026-10-18
+ * @version 2026-10-18
+ */
+@SuppressWarnings("unchecked")
+public final class ImmutableMultiFn extends AMultiFn {
+
+  private final MethodTables tables;
+  private final MethodCache methodCache;
+  private final SignatureCache methodCache2;
+  private final SignatureCache methodCache3;
+  private final ClassCache classCache;
+
+  //--------------------------------------------------------------
+
+  private ImmutableMultiFn (final String n, 
+                            final IFn dispatchF,
+                            final boolean intrinsicSignature,
+                            final MethodTables t) {
+    super(n,dispatchF,intrinsicSignature);
+    tables = t;
+    methodCache = new MethodCache();
+    methodCache2 = new SignatureCache(0,false,new AtomicLong(0));
+    methodCache3 = new SignatureCache(0,false,new AtomicLong(0));
+    classCache = new ClassCache(); }
+
+  /** If <code>intrinsicSignature</code>, then the dispatch
+   * function must be equivalent to 
+   * <code>palisades.lakes.multimethods.core/signature</code>,
+   * and is only called for arities above 3.
+   */
+  public ImmutableMultiFn (final String n, 
+                           final IFn dispatchF,
+                           final boolean intrinsicSignature) {
+    this(n,dispatchF,intrinsicSignature,MethodTables.EMPTY); }
+
+  public ImmutableMultiFn (final String n, 
+                           final IFn dispatchF) {
+    this(n,dispatchF,false); }
+
+  @Override
+  final MethodTables tables () { return tables; }
+
+  /** Always zero: an <code>ImmutableMultiFn</code> never 
+   * changes.
+   */
+  @Override
+  public final long version () { return 0L; }
+
+  /** With intrinsic dispatch, for arities 1 to 3, a 
+   * <code>guardWithTest</code> tree specialized to this 
+   * instance's tables, which never needs invalidating.
+   */
+  @Override
+  public final MethodHandle asMethodHandle (final MethodType type) {
+    final int n = type.parameterCount();
+    final MethodHandle fallback = DispatchPlan.invoker(this,n);
+    if ((! intrinsic) || (n < 1) || (3 < n)) { 
+      return fallback.asType(type); }
+    return new DispatchPlan(this,tables.methodTable,n)
+      .methodHandle(fallback)
+      .asType(type); }
+
+  //--------------------------------------------------------------
+  // edits return a new instance, with new, empty caches
+
+  private final ImmutableMultiFn with (final MethodTables t) {
+    return new ImmutableMultiFn(name,dispatchFn,intrinsic,t); }
+
+  @Override
+  public final MultiFn reset () { return with(MethodTables.EMPTY); }
+
+  @Override
+  public final MultiFn addMethod (final Object x,
+                                  final IFn method) {
+    checkLegalDispatchValue(x);
+    return with(tables.assoc(x,method)); }
+
+  @Override
+  public final MultiFn removeMethod (final Object x) {
+    checkLegalDispatchValue(x);
+    return with(tables.dissoc(x)); }
+
+  @Override
+  public final MultiFn preferMethod (final Object x,
+                                     final Object y) {
+    checkLegalDispatchValue(x);
+    checkLegalDispatchValue(y);
+    return with(tables.prefer(name,x,y)); }
+
+  //--------------------------------------------------------------
+  // Tables never change, so a cache miss is resolved and 
+  // cached without re-checking them.
+  // Every cache holds the method, or an Unresolved, for no
+  // applicable method, or ambiguous ones, so a repeated failure
+  // is a cache hit too.
+  // ClassValue caches whatever computeValue returns.
+
+  private final class ClassCache extends ClassValue {
+    @Override
+    protected final Object computeValue (final Class c) {
+      return tables.resolve(name,c); } }
+
+  private final IFn lookup (final Class k0,
+                            final Class k1) {
+    final IFn targetFn = methodCache2.get(k0,k1);
+    if (targetFn != null) { return targetFn; }
+    final IFn f = tables.resolve(name,k0,k1);
+    methodCache2.put(k0,k1,f); 
+    return f; }
+
+  private final IFn lookup (final Class k0,
+                            final Class k1,
+                            final Class k2) {
+    final IFn targetFn = methodCache3.get(k0,k1,k2);
+    if (targetFn != null) { return targetFn; }
+    final IFn f = tables.resolve(name,k0,k1,k2);
+    methodCache3.put(k0,k1,k2,f); 
+    return f; }
+
+  private final IFn lookup (final Object x) {
+    if (x instanceof Class) { return (IFn) classCache.get((Class) x); }
+    if (x instanceof Signature2) { 
+      final Signature2 s = (Signature2) x;
+      return lookup(s.class0,s.class1); }
+    if (x instanceof Signature3) { 
+      final Signature3 s = (Signature3) x;
+      return lookup(s.class0,s.class1,s.class2); }
+    final IFn targetFn = (IFn) methodCache.get(x);
+    if (targetFn != null) { return targetFn; }
+    final IFn f = tables.resolve(name,x);
+    methodCache.put(x,f); 
+    return f; }
+
+  /** Equivalent to 
+   * <code>getMethod(Signature2.get(k0,k1))</code>,
+   * without allocating the signature on a cache hit.
+   */
+  public final IFn getMethod (final Class k0,
+                              final Class k1) {
+    return Unresolved.method(lookup(k0,k1)); }
+
+  /** Equivalent to 
+   * <code>getMethod(Signature3.get(k0,k1,k2))</code>,
+   * without allocating the signature on a cache hit.
+   */
+  public final IFn getMethod (final Class k0,
+                              final Class k1,
+                              final Class k2) {
+    return Unresolved.method(lookup(k0,k1,k2)); }
+
+  @Override
+  public final IFn getMethod (final Object x) {
+    return Unresolved.method(lookup(x)); }
+
+  @Override
+  final IFn getFn (final Object dispatch) {
+    return Unresolved.fn(lookup(dispatch)); }
+
+  @Override
+  final IFn getFn (final Class k0,
+                   final Class k1) {
+    return Unresolved.fn(lookup(k0,k1)); }
+
+  @Override
+  final IFn getFn (final Class k0,
+                   final Class k1,
+                   final Class k2) {
+    return Unresolved.fn(lookup(k0,k1,k2)); }
+
+  //--------------------------------------------------------------
+  // IFn interface, arities 1 to 3; the rest are in AMultiFn
+  //--------------------------------------------------------------
+
+  @Override
+  public final Object invoke (Object arg1) {
+    if (intrinsic) { 
+      return getFn(Classes.classOf(arg1))
+        .invoke(Util.ret1(arg1,arg1 = null)); }
+    return getFn(dispatchFn.invoke(arg1))
+      .invoke(Util.ret1(arg1,arg1 = null));
+  }
+
+  @Override
+  public final Object invoke (Object arg1, 
+                              Object arg2) {
+    if (intrinsic) {
+      return getFn(
+        Classes.classOf(arg1),
+        Classes.classOf(arg2))
+        .invoke(
+          Util.ret1(arg1,arg1 = null),
+          Util.ret1(arg2,arg2 = null)); }
+    return getFn(dispatchFn.invoke(arg1,arg2)).invoke(
+      Util.ret1(arg1,arg1 = null),
+      Util.ret1(arg2,arg2 = null)); }
+
+  @Override
+  public final Object invoke (Object arg1, Object arg2, Object arg3) {
+    if (intrinsic) {
+      return getFn(
+        Classes.classOf(arg1),
+        Classes.classOf(arg2),
+        Classes.classOf(arg3))
+        .invoke(
+          Util.ret1(arg1,arg1 = null),
+          Util.ret1(arg2,arg2 = null),
+          Util.ret1(arg3,arg3 = null)); }
+    return getFn(dispatchFn.invoke(arg1,arg2,arg3)).invoke(
+      Util.ret1(arg1,arg1 = null),
+      Util.ret1(arg2,arg2 = null),
+      Util.ret1(arg3,arg3 = null)); }
+
+  //--------------------------------------------------------------
+}
@@ -0,0 +1,157 @@
+package palisades.lakes.multimethods.java;
+
+import java.lang.ref.WeakReference;
+
+/** An immutable (dispatch key, method) pair, for the small
+ * linear caches checked before the hashed method caches.
+ * Implementation details, subject to revision.
+ * Use the Clojure API to be future-proof.
+ * <p>
+ * Like an inline cache in a JIT, each method cache moves
+ * through 3 states, held in a single <code>volatile</code>
+ * array of entries, checked in order, comparing classes by
+ * identity, before the hashed table:
+ * <ol>
+ * <li> <em>monomorphic</em>: {@link #MONOMORPHIC}, 
+ * empty, until the first hit or insert, and then a single
+ * entry.
+ * <li> <em>polymorphic</em>: 2 to {@link #LIMIT} entries,
+ * one added for each new distinct key.
+ * <li> <em>megamorphic</em>: once more than {@link #LIMIT}
+ * distinct keys have been seen, the array is replaced by
+ * {@link #MEGAMORPHIC}, and lookup goes straight to the
+ * hashed table.
+ * </ol>
+ * A method cache never moves back down; the owning
+ * <code>MultiFn</code> replaces it with a new, monomorphic one
+ * whenever its method or prefer tables change.
+ * <p>
+ * A <em>linear</em> cache (<code>:lookup :linear</code>) 
+ * grows the same way, up to {@link #LINEAR_LIMIT} entries,
+ * and then stays as it is, never going megamorphic:
+ * the first distinct keys seen are always checked without 
+ * hashing, and later ones fall through to the hashed table.
+ * <p>
+ * Keys are either a single dispatch value, held strongly,
+ * for {@link MethodCache}, whose hashed table holds it strongly
+ * anyway, or 1, 2, or 3 classes, held weakly, for the 
+ * <code>ClassValue</code> and {@link SignatureCache} caches,
+ * which otherwise don't pin classes.
+ * An entry whose class has been collected never matches again;
+ * it just takes up a slot until the cache is replaced.
+ *
+ * @author palisades dot lakes at gmail dot com
+ * @since 2026-10-18
+ * @version 2026-10-18
+ */
+
+@SuppressWarnings("unchecked")
+public final class InlineEntry {
+
+  /** Most distinct keys in a polymorphic cache, before it
+   * goes megamorphic.
+   */
+  public static final int LIMIT = 8;
+
+  /** Most distinct keys in a linear cache, which then stops
+   * growing, but keeps its entries.
+   */
+  public static final int LINEAR_LIMIT = 16;
+
+  /** The initial, empty, state. */
+  public static final InlineEntry[] MONOMORPHIC =
+    new InlineEntry[0];
+
+  /** The final, empty, state, distinct from
+   * {@link #MONOMORPHIC}.
+   */
+  public static final InlineEntry[] MEGAMORPHIC =
+    new InlineEntry[0];
+
+  /** The dispatch value, or <code>null</code> for class keys.
+   */
+  public final Object k0;
+  // null for a null class, or an unused position
+  private final WeakReference c0;
+  private final WeakReference c1;
+  private final WeakReference c2;
+  public final Object value;
+
+  //--------------------------------------------------------------
+
+  private static final WeakReference weak (final Class c) {
+    return (null == c) ? null : new WeakReference(c); }
+
+  private static final boolean same (final WeakReference r,
+                                     final Class c) {
+    if (null == r) { return null == c; }
+    // a collected class is never the same as nil
+    return (null != c) && (c == r.get()); }
+
+  public final boolean matches (final Class k) {
+    return same(c0,k); }
+
+  public final boolean matches (final Class k0,
+                                final Class k1) {
+    return same(c0,k0) && same(c1,k1); }
+
+  public final boolean matches (final Class k0,
+                                final Class k1,
+                                final Class k2) {
+    return same(c0,k0) && same(c1,k1) && same(c2,k2); }
+
+  //--------------------------------------------------------------
+  /** Return the next state, after adding <code>e</code>,
+   * which the caller has already checked isn't in
+   * <code>es</code>.
+   */
+  public static final InlineEntry[] add (final InlineEntry[] es,
+                                         final InlineEntry e) {
+    if (MEGAMORPHIC == es) { return es; }
+    final int n = es.length;
+    if (LIMIT <= n) { return MEGAMORPHIC; }
+    return append(es,e); }
+
+  /** Return the next state of a linear cache, after adding 
+   * <code>e</code>, which the caller has already checked isn't
+   * in <code>es</code>: <code>es</code> itself, if it's full.
+   */
+  public static final InlineEntry[] addLinear (final InlineEntry[] es,
+                                               final InlineEntry e) {
+    if (LINEAR_LIMIT <= es.length) { return es; }
+    return append(es,e); }
+
+  private static final InlineEntry[] append (final InlineEntry[] es,
+                                             final InlineEntry e) {
+    final int n = es.length;
+    final InlineEntry[] b = new InlineEntry[n+1];
+    System.arraycopy(es,0,b,0,n);
+    b[n] = e;
+    return b; }
+
+  //--------------------------------------------------------------
+  // construction
+  //--------------------------------------------------------------
+
+  /** A class key, 1 to 3 classes, held weakly; 
+   * unused positions are <code>null</code>, like 
+   * <code>nil</code>'s class, so a given cache must only use
+   * one arity.
+   */
+  public InlineEntry (final Class key0,
+                      final Class key1,
+                      final Class key2,
+                      final Object v) {
+    k0 = null; 
+    c0 = weak(key0); c1 = weak(key1); c2 = weak(key2); 
+    value = v; }
+
+  /** A dispatch value key, held strongly.
+   */
+  public InlineEntry (final Object key,
+                      final Object v) {
+    k0 = key; c0 = null; c1 = null; c2 = null; value = v; }
+
+  //--------------------------------------------------------------
+}
+//--------------------------------------------------------------
@@ -0,0 +1,390 @@
+package palisades.lakes.multimethods.java;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/** A concurrent open-addressing hash table mapping dispatch
+ * values to methods.
+ * Implementation details, subject to revision.
+ * Use the Clojure API to be future-proof.
+ * <p>
+ * Insert-only: a cache is never cleared; the owning
+ * <code>MultiFn</code> replaces it with a new, empty one
+ * whenever its method or prefer tables change.
+ * <p>
+ * A miss is resolved and written with a single CAS into an
+ * empty slot; there is no copying of the whole table
+ * (except when it grows) and no lock.
+ * An insert that races with growing the table may be lost,
+ * which only costs a later miss.
+ * <p>
+ * Keys are compared with <code>Objects.equals</code>,
+ * like <code>java.util.HashMap</code>, so <code>null</code>
+ * is a legal key.
+ * <p>
+ * Optionally bounded: with a positive <code>capacity</code>,
+ * the table never grows; a hit sets the entry's reference bit,
+ * and an insert into a full cache first rebuilds the table,
+ * in one batch, keeping only referenced entries, with their
+ * bits cleared, and, if that didn't free a quarter of the
+ * capacity, dropping referenced entries too, in slot order.
+ * That's second chance (approximately least recently used)
+ * applied to the whole table at once, not CLOCK:
+ * the survivors are rehashed into a fresh table, so there's
+ * no hand position to carry from one rebuild to the next.
+ * The number of dropped entries is added to the
+ * <code>evictions</code> counter, which may be shared by
+ * several caches.
+ * <p>
+ * Optionally weak: <code>Class</code> and {@link Signature}
+ * keys are then held as weak references to their classes,
+ * rather than strongly, so the cache doesn't keep classes,
+ * and their class loaders, from being unloaded.
+ * Entries whose classes have been collected are dropped 
+ * on the next insert.
+ * Other keys are still held strongly.
+ * <p>
+ * Unless weak or bounded, an adaptive linear cache 
+ * (see {@link InlineEntry}) is checked first, comparing keys
+ * by identity (and <code>Signature</code> keys by the identity
+ * of their classes), so call sequences that see few distinct
+ * dispatch values skip hashing the key.
+ * It's a field of the cache, so it starts over, monomorphic,
+ * whenever the <code>MultiFn</code> replaces the cache.
+ *
+ * @author palisades dot lakes at gmail dot com
+ * @since 2026-10-18
+ * @version 2026-10-18
+ */
+
+@SuppressWarnings("unchecked")
+public final class MethodCache {
+
+  private static class Entry {
+    private final int hash;
+    private final Object value;
+    // second chance reference bit; a racy hint, so not volatile
+    private boolean referenced;
+    private Entry (final int h, final Object v) {
+      hash = h; value = v; } 
+    boolean matches (final Object k) { return false; }
+    boolean isStale () { return false; } }
+
+  private static final class StrongEntry extends Entry {
+    private final Object key;
+    private StrongEntry (final Object k, final int h, final Object v) {
+      super(h,v); key = k; } 
+    @Override
+    final boolean matches (final Object k) { 
+      return Objects.equals(key,k); } }
+
+  /** A <code>Class</code> or <code>Signature</code> key, 
+   * with its classes held weakly.
+   * The key's own class (eg <code>Signature2.class</code>)
+   * is always loaded with this library, so held strongly.
+   */
+  private static final class WeakEntry extends Entry {
+    private final Class kind;
+    private final WeakReference[] classes;
+    private WeakEntry (final Object k, 
+                       final int h, 
+                       final Object v,
+                       final ReferenceQueue q) {
+      super(h,v); 
+      kind = k.getClass();
+      final Class[] cs = classes(k);
+      classes = new WeakReference[cs.length];
+      for (int i=0;i<cs.length;i++) {
+        if (null != cs[i]) { 
+          classes[i] = new WeakReference(cs[i],q); } } }
+    private final boolean same (final int i, final Class c) {
+      final WeakReference r = classes[i];
+      if (null == r) { return null == c; }
+      return (null != c) && (c == r.get()); }
+    @Override
+    final boolean matches (final Object k) {
+      if ((null == k) || (kind != k.getClass())) { return false; }
+      if (k instanceof Class) { return same(0,(Class) k); }
+      if (k instanceof Signature2) {
+        final Signature2 s = (Signature2) k;
+        return same(0,s.class0) && same(1,s.class1); }
+      if (k instanceof Signature3) {
+        final Signature3 s = (Signature3) k;
+        return 
+          same(0,s.class0) && same(1,s.class1) && same(2,s.class2); }
+      final Class[] cs = ((SignatureN) k).classes;
+      if (cs.length != classes.length) { return false; }
+      for (int i=0;i<cs.length;i++) { 
+        if (! same(i,cs[i])) { return false; } }
+      return true; } 
+    @Override
+    final boolean isStale () { 
+      for (final WeakReference r : classes) {
+        if ((null != r) && (null == r.get())) { return true; } }
+      return false; } }
+
+  private static final boolean isWeakKey (final Object k) {
+    return 
+      (k instanceof Class) 
+      || (k instanceof Signature2) 
+      || (k instanceof Signature3) 
+      || (k instanceof SignatureN); }
+
+  private static final Class[] classes (final Object k) {
+    if (k instanceof Class) { return new Class[] { (Class) k, }; }
+    if (k instanceof Signature2) {
+      final Signature2 s = (Signature2) k;
+      return new Class[] { s.class0, s.class1, }; }
+    if (k instanceof Signature3) {
+      final Signature3 s = (Signature3) k;
+      return new Class[] { s.class0, s.class1, s.class2, }; }
+    return ((SignatureN) k).classes; }
+
+  private final Entry entry (final Object key,
+                             final Object value) {
+    final int h = hash(key);
+    if ((null != queue) && isWeakKey(key)) { 
+      return new WeakEntry(key,h,value,queue); }
+    return new StrongEntry(key,h,value); }
+
+  // always megamorphic if weak
+  private volatile InlineEntry[] inline;
+
+  private volatile AtomicReferenceArray<Entry> table;
+  private final AtomicInteger count;
+  // zero means unbounded
+  private final int capacity;
+  private final AtomicLong evictions;
+  // null unless weak
+  private final ReferenceQueue queue;
+
+  //--------------------------------------------------------------
+
+  private static final int hash (final Object key) {
+    final int h = Objects.hashCode(key);
+    return h ^ (h >>> 16); }
+
+  //--------------------------------------------------------------
+
+  public final int count () { return count.get(); }
+
+  /** Zero if unbounded.
+   */
+  public final int capacity () { return capacity; }
+
+  public final long evictions () { return evictions.get(); }
+
+  public final boolean isWeak () { return null != queue; }
+
+  /** Same key, comparing classes by identity, 
+   * to avoid hashing.
+   */
+  private static final boolean same (final Object k0,
+                                     final Object k1) {
+    if (k0 == k1) { return true; }
+    if ((null == k0) || (null == k1)) { return false; }
+    if (k0 instanceof Class) { return false; }
+    if (k0 instanceof Signature2) {
+      if (! (k1 instanceof Signature2)) { return false; }
+      final Signature2 s0 = (Signature2) k0;
+      final Signature2 s1 = (Signature2) k1;
+      return (s0.class0 == s1.class0) && (s0.class1 == s1.class1); }
+    if (k0 instanceof Signature3) {
+      if (! (k1 instanceof Signature3)) { return false; }
+      final Signature3 s0 = (Signature3) k0;
+      final Signature3 s1 = (Signature3) k1;
+      return 
+        (s0.class0 == s1.class0) 
+        && (s0.class1 == s1.class1)
+        && (s0.class2 == s1.class2); }
+    if (k0 instanceof SignatureN) {
+      if (! (k1 instanceof SignatureN)) { return false; }
+      final Class[] cs0 = ((SignatureN) k0).classes;
+      final Class[] cs1 = ((SignatureN) k1).classes;
+      if (cs0.length != cs1.length) { return false; }
+      for (int i=0;i<cs0.length;i++) {
+        if (cs0[i] != cs1[i]) { return false; } }
+      return true; }
+    return k0.equals(k1); }
+
+  /** Number of entries in the linear cache, 
+   * or <code>-1</code> if megamorphic.
+   */
+  public final int inlineCount () {
+    final InlineEntry[] es = inline;
+    if (InlineEntry.MEGAMORPHIC == es) { return -1; }
+    return es.length; }
+
+  private final void record (final Object key,
+                             final Object value) {
+    final InlineEntry[] es = inline;
+    if (InlineEntry.MEGAMORPHIC == es) { return; }
+    for (final InlineEntry e : es) { if (same(e.k0,key)) { return; } }
+    // racy, but each state is immutable and from this cache
+    inline = InlineEntry.add(es,new InlineEntry(key,value)); }
+
+  /** Return the cached value for <code>key</code>,
+   * or <code>null</code>.
+   */
+  public final Object get (final Object key) {
+    final InlineEntry[] es = inline;
+    for (final InlineEntry e : es) {
+      if (same(e.k0,key)) { return e.value; } }
+    final Object v = getHashed(key);
+    if (null != v) { record(key,v); }
+    return v; }
+
+  private final Object getHashed (final Object key) {
+    final AtomicReferenceArray<Entry> t = table;
+    final int h = hash(key);
+    final int m = t.length() - 1;
+    int i = h & m;
+    for (int n=0;n<=m;n++) {
+      final Entry e = t.get(i);
+      if (null == e) { return null; }
+      if ((h == e.hash) && e.matches(key)) {
+        if ((0 < capacity) && (! e.referenced)) { 
+          e.referenced = true; }
+        return e.value; }
+      i = (i + 1) & m; }
+    return null; }
+
+  //--------------------------------------------------------------
+
+  private static final boolean insert (final AtomicReferenceArray<Entry> t,
+                                       final Object key,
+                                       final Entry e) {
+    final int m = t.length() - 1;
+    int i = e.hash & m;
+    for (int n=0;n<=m;n++) {
+      final Entry ei = t.get(i);
+      if (null == ei) {
+        if (t.compareAndSet(i,null,e)) { return true; }
+        // lost the race for this slot; re-check it
+        continue; }
+      if ((e.hash == ei.hash) && ei.matches(key)) {
+        // someone else cached it first
+        return false; }
+      i = (i + 1) & m; }
+    return false; }
+
+  /** Only for rebuilding into a new table, not yet shared,
+   * so no CAS, and the entries are known to be distinct.
+   */
+  private static final void reinsert (final AtomicReferenceArray<Entry> t,
+                                      final Entry e) {
+    final int m = t.length() - 1;
+    int i = e.hash & m;
+    while (null != t.get(i)) { i = (i + 1) & m; }
+    t.lazySet(i,e); }
+
+  private final synchronized void grow (final AtomicReferenceArray<Entry> t) {
+    if (t != table) { return; }
+    final int n = t.length();
+    final AtomicReferenceArray<Entry> b =
+      new AtomicReferenceArray(2*n);
+    for (int i=0;i<n;i++) {
+      final Entry e = t.get(i);
+      if (null != e) { reinsert(b,e); } }
+    table = b; }
+
+  private final synchronized void evict (final AtomicReferenceArray<Entry> t) {
+    if (t != table) { return; }
+    final int n = t.length();
+    final int target = capacity - Math.max(1,capacity/4);
+    // second chance for referenced entries, in slot order
+    final Entry[] kept = new Entry[n];
+    int nkept = 0;
+    int dropped = 0;
+    for (int i=0;i<n;i++) {
+      final Entry e = t.get(i);
+      if (null != e) {
+        if (e.referenced) { 
+          e.referenced = false; 
+          kept[nkept++] = e; }
+        else { dropped++; } } }
+    // still too full: drop referenced entries, in slot order;
+    // slots are hash order, so that's an arbitrary choice
+    final int start = Math.max(0,nkept - target);
+    dropped += start;
+    // a rebuild, not a sweep in place
+    final AtomicReferenceArray<Entry> b = new AtomicReferenceArray(n);
+    for (int j=start;j<nkept;j++) { reinsert(b,kept[j]); }
+    count.set(nkept - start);
+    evictions.addAndGet(dropped);
+    table = b; }
+
+  /** Drop entries whose classes have been collected.
+   */
+  private final synchronized void expunge (final AtomicReferenceArray<Entry> t) {
+    if (t != table) { return; }
+    final int n = t.length();
+    final AtomicReferenceArray<Entry> b = new AtomicReferenceArray(n);
+    int nkept = 0;
+    for (int i=0;i<n;i++) {
+      final Entry e = t.get(i);
+      if ((null != e) && (! e.isStale())) { 
+        reinsert(b,e); 
+        nkept++; } }
+    count.set(nkept);
+    table = b; }
+
+  /** Cache <code>value</code> for <code>key</code>, unless
+   * there's already a value for an equal key.
+   */
+  public final void put (final Object key,
+                         final Object value) {
+    assert null != value;
+    if ((null != queue) && (null != queue.poll())) {
+      while (null != queue.poll()) { /* drain */ }
+      expunge(table); }
+    final Entry e = entry(key,value);
+    if (0 < capacity) { 
+      if (count.get() >= capacity) { evict(table); }
+      if (insert(table,key,e)) { count.incrementAndGet(); } }
+    else {
+      final AtomicReferenceArray<Entry> t = table;
+      if (insert(t,key,e)) {
+        // keep the load factor at or below 1/2
+        if ((2*count.incrementAndGet()) > t.length()) { 
+          grow(t); } } } 
+    record(key,value); }
+
+  //--------------------------------------------------------------
+  // construction
+  //--------------------------------------------------------------
+
+  /** A bounded cache if <code>capacity</code> is positive,
+   * otherwise unbounded.
+   * Holds <code>Class</code> and <code>Signature</code> keys
+   * weakly if <code>weak</code>.
+   */
+  public MethodCache (final int capacity,
+                      final boolean weak,
+                      final AtomicLong evictions) {
+    assert null != evictions;
+    this.capacity = Math.max(0,capacity);
+    this.evictions = evictions;
+    queue = weak ? new ReferenceQueue() : null;
+    // hits on the linear cache would bypass the
+    // reference bits, so bounded caches start megamorphic
+    inline = (weak || (0 < capacity)) 
+      ? InlineEntry.MEGAMORPHIC 
+      : InlineEntry.MONOMORPHIC;
+    // bounded: room for twice the capacity, so the load factor
+    // stays at or below 1/2, with slack for racing inserts
+    final int n = (0 < capacity) 
+      ? Math.max(16,Integer.highestOneBit(4*capacity - 1))
+      : 16;
+    table = new AtomicReferenceArray(n);
+    count = new AtomicInteger(0); }
+
+  public MethodCache () { this(0,false,new AtomicLong(0)); }
+
+  //--------------------------------------------------------------
+}
+//--------------------------------------------------------------
@@ -0,0 +1,298 @@
+package palisades.lakes.multimethods.java;
+
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/** An index over the method table of a <code>MultiFn</code>
+ * without a hierarchy, for resolving cache misses:
+ * the entries are grouped by arity, and, within an arity,
+ * by the class of the first argument in their dispatch value,
+ * so a miss only tests entries of the same arity,
+ * whose first class is the first argument's, or one of its
+ * supertypes.
+ * Implementation details, subject to revision.
+ * Use the Clojure API to be future-proof.
+ * <p>
+ * <code>Class</code> dispatch values are arity 1,
+ * <code>Signature2</code> 2, <code>Signature3</code> 3,
+ * and <code>SignatureN</code> its length;
+ * anything else (<code>null</code>, <code>Signature0</code>)
+ * is only ever an exact match, and kept in a short list of
+ * its own.
+ * <p>
+ * Immutable: {@link #assoc} and {@link #dissoc} return a new
+ * index, copying only the changed arity's first-class table
+ * and the changed group, so the owner keeps it up to date
+ * with each edit, rather than rebuilding it.
+ *
+ * @author palisades dot lakes at gmail dot com
+ * @since 2026-10-18
+ * @version 2026-10-18
+ */
+
+@SuppressWarnings("unchecked")
+final class MethodIndex {
+
+  private static final Map.Entry[] NO_ENTRIES = new Map.Entry[0];
+
+  //--------------------------------------------------------------
+  // the class, its superclasses, and all its interfaces
+
+  private static final ClassValue SUPERTYPES = new ClassValue() {
+    @Override
+    protected final Object computeValue (final Class c) {
+      final Set<Class> b = new LinkedHashSet();
+      for (Class s = c; null != s; s = s.getSuperclass()) {
+        b.add(s);
+        addInterfaces(s,b); }
+      // Object.class.isAssignableFrom(anInterface)
+      if (c.isInterface()) { b.add(Object.class); }
+      return b.toArray(new Class[b.size()]); } };
+
+  private static final void addInterfaces (final Class c,
+                                           final Set<Class> b) {
+    for (final Class i : c.getInterfaces()) {
+      if (b.add(i)) { addInterfaces(i,b); } } }
+
+  /** The classes assignable from <code>c</code>, 
+   * or <code>null</code> if <code>c</code> is 
+   * <code>null</code> or an array class, whose covariant
+   * supertypes aren't enumerated.
+   */
+  static final Class[] supertypes (final Class c) {
+    if ((null == c) || c.isArray()) { return null; }
+    return (Class[]) SUPERTYPES.get(c); }
+
+  //--------------------------------------------------------------
+  // one arity: first class -> entries, in parallel arrays,
+  // with a map from first class to position
+
+  private static final class Arity {
+    private final Class[] firsts;
+    private final Map.Entry[][] entries;
+    private final Map<Class,Integer> positions;
+    private final int count;
+    private Arity (final Class[] firsts,
+                   final Map.Entry[][] entries,
+                   final int count) {
+      this.firsts = firsts; this.entries = entries;
+      this.count = count;
+      positions = new HashMap(2*firsts.length);
+      for (int i=0;i<firsts.length;i++) { positions.put(firsts[i],i); } }
+
+    private final int position (final Class c) {
+      final Integer i = positions.get(c);
+      return (null == i) ? -1 : i.intValue(); }
+
+    private final Arity assoc (final Class c,
+                               final Map.Entry e) {
+      final int i = position(c);
+      if (0 > i) {
+        final int n = firsts.length;
+        final Class[] fs = new Class[n+1];
+        final Map.Entry[][] es = new Map.Entry[n+1][];
+        System.arraycopy(firsts,0,fs,0,n);
+        System.arraycopy(entries,0,es,0,n);
+        fs[n] = c;
+        es[n] = new Map.Entry[] { e };
+        return new Arity(fs,es,count+1); }
+      final Map.Entry[] ei = without(entries[i],e.getKey());
+      final Map.Entry[] b = new Map.Entry[ei.length+1];
+      System.arraycopy(ei,0,b,0,ei.length);
+      b[ei.length] = e;
+      final Map.Entry[][] es = entries.clone();
+      es[i] = b;
+      return new Arity(
+        firsts,es,count+1-(entries[i].length-ei.length)); }
+
+    // null if empty
+    private final Arity dissoc (final Class c,
+                                final Object k) {
+      final int i = position(c);
+      if (0 > i) { return this; }
+      final Map.Entry[] ei = without(entries[i],k);
+      if (ei.length == entries[i].length) { return this; }
+      if (1 == count) { return null; }
+      if (0 < ei.length) {
+        final Map.Entry[][] es = entries.clone();
+        es[i] = ei;
+        return new Arity(firsts,es,count-1); }
+      final int n = firsts.length;
+      final Class[] fs = new Class[n-1];
+      final Map.Entry[][] es = new Map.Entry[n-1][];
+      System.arraycopy(firsts,0,fs,0,i);
+      System.arraycopy(entries,0,es,0,i);
+      System.arraycopy(firsts,i+1,fs,i,n-i-1);
+      System.arraycopy(entries,i+1,es,i,n-i-1);
+      return new Arity(fs,es,count-1); }
+
+    // Positions of the groups whose first class is assignable 
+    // from k0: 
+    // look up each supertype of k0, if there are fewer of 
+    // them than groups, otherwise test each group.
+    // Arrays, with their covariant supertypes, and null, 
+    // are always tested.
+    private final int[] matches (final Class k0) {
+      final Class[] sts = supertypes(k0);
+      final int[] b;
+      int n = 0;
+      if ((null != sts) && (sts.length < firsts.length)) {
+        b = new int[sts.length];
+        for (final Class c : sts) {
+          final int i = position(c);
+          if (0 <= i) { b[n++] = i; } } }
+      else {
+        b = new int[firsts.length];
+        for (int i=0;i<firsts.length;i++) {
+          if (Classes.isAssignableFrom(firsts[i],k0)) { b[n++] = i; } } }
+      return (n == b.length) ? b : Arrays.copyOf(b,n); }
+
+    private final Map.Entry[] entries () {
+      final Map.Entry[] b = new Map.Entry[count];
+      int n = 0;
+      for (final Map.Entry[] es : entries) {
+        System.arraycopy(es,0,b,n,es.length);
+        n += es.length; }
+      return b; }
+
+    private final Map.Entry[] candidates (final Class k0) {
+      final int[] is = matches(k0);
+      int n = 0;
+      for (final int i : is) { n += entries[i].length; }
+      if (0 == n) { return NO_ENTRIES; }
+      final Map.Entry[] b = new Map.Entry[n];
+      n = 0;
+      for (final int i : is) {
+        System.arraycopy(entries[i],0,b,n,entries[i].length);
+        n += entries[i].length; }
+      return b; } }
+
+  private static final Map.Entry[] without (final Map.Entry[] es,
+                                            final Object k) {
+    for (int i=0;i<es.length;i++) {
+      if (Objects.equals(k,es[i].getKey())) {
+        final Map.Entry[] b = new Map.Entry[es.length-1];
+        System.arraycopy(es,0,b,0,i);
+        System.arraycopy(es,i+1,b,i,es.length-i-1);
+        return b; } }
+    return es; }
+
+  private static final Arity EMPTY_ARITY =
+    new Arity(new Class[0],new Map.Entry[0][],0);
+
+  //--------------------------------------------------------------
+
+  public static final MethodIndex EMPTY =
+    new MethodIndex(Collections.emptyMap(),NO_ENTRIES);
+
+  // arity -> Arity, for Class and Signature2/3 keys
+  // (arities 1, 2, 3), and SignatureN keys (minus their length)
+  private final Map arities;
+  private final Map.Entry[] others;
+
+  private MethodIndex (final Map arities,
+                       final Map.Entry[] others) {
+    this.arities = arities; this.others = others; }
+
+  //--------------------------------------------------------------
+  // SignatureN keys are filed under minus their length,
+  // since they never match Signature2/3 ones
+
+  /** <code>1</code> for <code>Class</code> dispatch values,
+   * <code>2</code> for <code>Signature2</code>, 
+   * <code>3</code> for <code>Signature3</code>,
+   * minus the length for non-empty <code>SignatureN</code>,
+   * and <code>null</code> for anything else, which is only
+   * ever an exact match.
+   */
+  static final Object arityOf (final Object k) {
+    if (k instanceof Class) { return 1; }
+    if (k instanceof Signature2) { return 2; }
+    if (k instanceof Signature3) { return 3; }
+    if ((k instanceof SignatureN)
+      && (0 < ((SignatureN) k).classes.length)) {
+      return -((SignatureN) k).classes.length; }
+    return null; }
+
+  private static final Class firstClass (final Object k) {
+    if (k instanceof Class) { return (Class) k; }
+    if (k instanceof Signature2) { return ((Signature2) k).class0; }
+    if (k instanceof Signature3) { return ((Signature3) k).class0; }
+    return ((SignatureN) k).classes[0]; }
+
+  private final Arity arity (final Object a) {
+    final Arity ar = (Arity) arities.get(a);
+    return (null == ar) ? EMPTY_ARITY : ar; }
+
+  /** The entries of arity <code>a</code>, 
+   * see {@link #arityOf(Object)}.
+   */
+  public final Map.Entry[] entries (final Object a) {
+    return arity(a).entries(); }
+
+  /** Number of methods of arity 1 to 3
+   * (<code>Class</code>, <code>Signature2</code>, and
+   * <code>Signature3</code> dispatch values).
+   */
+  public final int count (final int a) {
+    assert (1 <= a) && (a <= 3);
+    return arity(a).count; }
+
+  //--------------------------------------------------------------
+
+  public final MethodIndex assoc (final Object k,
+                                  final Object method) {
+    final Map.Entry e =
+      new AbstractMap.SimpleImmutableEntry(k,method);
+    final Object a = arityOf(k);
+    if (null == a) {
+      final Map.Entry[] os = without(others,k);
+      final Map.Entry[] b = new Map.Entry[os.length+1];
+      System.arraycopy(os,0,b,0,os.length);
+      b[os.length] = e;
+      return new MethodIndex(arities,b); }
+    final Map b = new HashMap(arities);
+    b.put(a,arity(a).assoc(firstClass(k),e));
+    return new MethodIndex(b,others); }
+
+  public final MethodIndex dissoc (final Object k) {
+    final Object a = arityOf(k);
+    if (null == a) {
+      return new MethodIndex(arities,without(others,k)); }
+    final Arity ar = arity(a).dissoc(firstClass(k),k);
+    final Map b = new HashMap(arities);
+    if (null == ar) { b.remove(a); } else { b.put(a,ar); }
+    return new MethodIndex(b,others); }
+
+  //--------------------------------------------------------------
+
+  /** The entries that might apply to <code>dispatch</code>:
+   * those of the same arity, whose first class is assignable
+   * from <code>dispatch</code>'s, or, for dispatch values
+   * with no arity, the other entries.
+   * The caller still has to check each one.
+   */
+  public final Map.Entry[] candidates (final Object dispatch) {
+    final Object a = arityOf(dispatch);
+    if (null == a) { return others; }
+    return arity(a).candidates(firstClass(dispatch)); }
+
+  /** The entries of arity <code>a</code>
+   * (<code>Class</code>, <code>Signature2</code>, or
+   * <code>Signature3</code> keys) whose first class is
+   * assignable from <code>k0</code>.
+   */
+  public final Map.Entry[] candidates (final int a,
+                                       final Class k0) {
+    assert (1 <= a) && (a <= 3);
+    return arity(a).candidates(k0); }
+
+  //--------------------------------------------------------------
+}
+//--------------------------------------------------------------
@@ -0,0 +1,398 @@
+package palisades.lakes.multimethods.java;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import clojure.lang.IFn;
+import clojure.lang.IPersistentMap;
+import clojure.lang.IPersistentVector;
+import clojure.lang.PersistentHashMap;
+import clojure.lang.PersistentHashSet;
+
+/** The method and prefer tables of a <code>MultiFn</code>
+ * without a hierarchy, as a single immutable value,
+ * together with what's derived from them
+ * (the {@link MethodIndex}, the {@link PreferClosure},
+ * and a {@link DominanceOrder} for each arity),
+ * and the resolution of cache misses against them.
+ * Each edit updates what's derived incrementally:
+ * adding a method takes <code>O(m)</code> 
+ * <code>dominates</code> tests, for the <code>m</code> methods
+ * of its arity, and a preference <code>O(m)</code> for each 
+ * method it changes the preferences of,
+ * unless part of an order has to be sorted again
+ * (see {@link DominanceOrder#with}).
+ * Implementation details, subject to revision.
+ * Use the Clojure API to be future-proof.
+ * <p>
+ * Shared by {@link MultiFnWoutHierarchy}, which replaces its
+ * tables with each edit, and {@link ImmutableMultiFn},
+ * which returns a new instance holding the new tables.
+ * Either way, a lookup reads the tables once,
+ * and a cache miss is resolved against that one value;
+ * the owner can tell if it's stale by comparing identity.
+ * <p>
+ * Resolution returns the best method, or an
+ * {@link Unresolved}, for no applicable method, or
+ * ambiguous ones, so the owner caches failures too.
+ *
+ * @author palisades dot lakes at gmail dot com
+ * @since 2026-10-18
+ * @version 2026-10-18
+ */
+
+@SuppressWarnings("unchecked")
+final class MethodTables implements DominanceOrder.Relation {
+
+  final Map methodTable;
+  // methodTable by arity and first class, for cache misses
+  final MethodIndex index;
+  final Map preferTable;
+  // preferTable's transitive closure
+  final PreferClosure preferClosure;
+  // arity -> DominanceOrder, updated by each edit
+  private final Map orders;
+
+  //--------------------------------------------------------------
+
+  private MethodTables (final Map mt,
+                        final MethodIndex ix,
+                        final Map pt,
+                        final PreferClosure pc,
+                        final Map os) {
+    methodTable = mt;
+    index = ix;
+    preferTable = pt;
+    preferClosure = pc;
+    orders = os; }
+
+  // isA doesn't depend on the tables, so the closure, which is
+  // shared by the tables derived from these, doesn't refer to
+  // any of them.
+
+  private static final PreferClosure.IsA IS_A =
+    new PreferClosure.IsA() {
+    @Override
+    public final boolean isA (final Object child,
+                              final Object parent) {
+      return isa(child,parent); } };
+
+  // The relation the orders keep, which only refers to the
+  // closure, so they don't keep the tables they were built
+  // from.
+
+  private static final class Dominance 
+  implements DominanceOrder.Relation {
+    private final PreferClosure closure;
+    private Dominance (final PreferClosure closure) { 
+      this.closure = closure; }
+    @Override
+    public final boolean isA (final Object child,
+                              final Object parent) {
+      return isa(child,parent); }
+    @Override
+    public final boolean dominates (final Object x,
+                                    final Object y) {
+      return closure.prefers(x,y) || isa(x,y); } }
+
+  /** No methods, no preferences.
+   */
+  static final MethodTables EMPTY =
+    new MethodTables(
+      Collections.emptyMap(),MethodIndex.EMPTY,
+      Collections.emptyMap(),new PreferClosure(IS_A),
+      Collections.emptyMap());
+
+  private static final DominanceOrder NO_ORDER = 
+    new DominanceOrder(new Dominance(EMPTY.preferClosure),true);
+
+  private final DominanceOrder order (final Object arity) {
+    final DominanceOrder o = (DominanceOrder) orders.get(arity);
+    if (null == o) { return NO_ORDER; }
+    return o; }
+
+  //--------------------------------------------------------------
+
+  final IPersistentMap getMethodTable () {
+    return PersistentHashMap.create(methodTable); }
+
+  final IPersistentMap getPreferTable () {
+    // convert values to IPersistentSet
+    final Set ks = preferTable.keySet();
+    final Object[] kvs = new Object[2 * ks.size()];
+    int i = 0;
+    for (final Object k : ks) {
+      kvs[i++] = k;
+      final Set v = (Set) preferTable.get(k);
+      kvs[i++] = PersistentHashSet.create(v.toArray()); }
+    return PersistentHashMap.create(kvs); }
+
+  //--------------------------------------------------------------
+  // edits
+  //--------------------------------------------------------------
+
+  private static final Map assoc (final Map m,
+                                  final Object k,
+                                  final Object v) {
+    final HashMap b = new HashMap(m);
+    b.put(k,v);
+    return b; }
+
+  private static final Map dissoc (final Map m,
+                                   final Object k) {
+    final Map b = new HashMap(m);
+    b.remove(k);
+    return b; }
+
+  private static final Set add (final Set s,
+                                final Object v) {
+    if (null == s) { return Collections.singleton(v); }
+    final Set b = new HashSet(s);
+    b.add(v);
+    return b; }
+
+  private static final Map add (final Map m,
+                                final Object k,
+                                final Object v) {
+    final Map b = new HashMap(m);
+    b.put(k,add((Set) b.get(k),v));
+    return b; }
+
+  // anything without an arity only matches exactly,
+  // and isn't in any order
+
+  final MethodTables assoc (final Object x,
+                            final IFn method) {
+    final Object arity = MethodIndex.arityOf(x);
+    final Map os = (null == arity) 
+      ? orders 
+      : assoc(orders,arity,order(arity).with(x,method,new Dominance(preferClosure)));
+    return new MethodTables(
+      assoc(methodTable,x,method),index.assoc(x,method),
+      preferTable,preferClosure,os); }
+
+  final MethodTables dissoc (final Object x) {
+    final Object arity = MethodIndex.arityOf(x);
+    final Map os = (null == arity) 
+      ? orders 
+      : assoc(orders,arity,order(arity).without(x));
+    return new MethodTables(
+      dissoc(methodTable,x),index.dissoc(x),
+      preferTable,preferClosure,os); }
+
+  /** @throws IllegalStateException if <code>y</code> is
+   * already preferred to <code>x</code>.
+   */
+  final MethodTables prefer (final String name,
+                             final Object x,
+                             final Object y) {
+    if (prefers(y,x)) {
+      throw new IllegalStateException(
+        String.format(
+          "Preference conflict in multimethod '%s':" +
+            "%s is already preferred to %s",
+            name,y,x)); }
+    return new MethodTables(
+      methodTable,index,add(preferTable,x,y),
+      preferClosure.with(x,y),orders)
+      .reorder(preferClosure,y); }
+
+  // The methods whose preferences changed, from pc0, are those
+  // now preferred to y, but not before, since the closure is
+  // transitive; each is removed and added again, with the new
+  // relation.
+
+  private final MethodTables reorder (final PreferClosure pc0,
+                                      final Object y) {
+    final Dominance r = new Dominance(preferClosure);
+    Map os = null;
+    for (final Object o : orders.entrySet()) {
+      final Map.Entry e = (Map.Entry) o;
+      final DominanceOrder o0 = (DominanceOrder) e.getValue();
+      DominanceOrder o1 = o0;
+      for (int i=0;i<o0.count();i++) {
+        final Object k = o0.key(i);
+        if (preferClosure.prefers(k,y) && (! pc0.prefers(k,y))) {
+          o1 = o1.without(k).with(k,o0.value(i),r); } }
+      if (o0 != o1) { 
+        if (null == os) { os = new HashMap(orders); }
+        os.put(e.getKey(),o1); } }
+    if (null == os) { return this; }
+    return new MethodTables(
+      methodTable,index,preferTable,preferClosure,os); }
+
+  //--------------------------------------------------------------
+  // A bit test in the closure, rather than a recursive search
+  // of the prefer table, and the parents of x in the global
+  // hierarchy, which, for legal dispatch values, are the
+  // classes it is-a, or keywords, which have no preferences.
+
+  final boolean prefers (final Object x,
+                         final Object y) {
+    return preferClosure.prefers(x,y); }
+
+  //--------------------------------------------------------------
+  /** See clojure.core/isa?
+   */
+
+  private static final boolean isA (final Class child,
+                                    final Class parent) {
+    // Note: not correct for primitive types like Float/TYPE,
+    // which are never dispatch values here: primitive calls
+    // dispatch on the boxed classes
+    return Classes.isAssignableFrom(parent,child); }
+
+  private static final boolean isA (final Signature child,
+                                    final Signature parent) {
+    return parent.isAssignableFrom(child); }
+
+  private static final boolean isA (final IPersistentVector child,
+                                    final IPersistentVector parent) {
+    final int n = child.length();
+    if (n != parent.length()) { return false; }
+    for (int i = 0; i < n; i++) {
+      if (!isa(child.nth(i),parent.nth(i))) { return false; } }
+    return true; }
+
+  static final boolean isa (final Object child,
+                            final Object parent) {
+
+    if (Objects.equals(child,parent)) { return true; }
+
+    if ((child instanceof Class) && (parent instanceof Class)) {
+      return isA((Class) child, (Class)parent); }
+
+    if ((child instanceof Signature)
+      && (parent instanceof Signature)) {
+      return isA((Signature) child, (Signature)parent); }
+
+    if ((child instanceof IPersistentVector)
+      && (parent instanceof IPersistentVector)) {
+      return isA(
+        (IPersistentVector) child,
+        (IPersistentVector) parent); }
+
+    return false; }
+
+  @Override
+  public final boolean isA (final Object child,
+                            final Object parent) {
+    return isa(child,parent); }
+
+  @Override
+  public final boolean dominates (final Object x,
+                                  final Object y) {
+    return prefers(x,y) || isa(x,y); }
+
+  //--------------------------------------------------------------
+  // resolution
+  //--------------------------------------------------------------
+
+  // Misses are resolved with the DominanceOrder for the
+  // dispatch value's arity, which allocates nothing,
+  // except to report an ambiguity.
+
+  /** The best method for <code>dispatch</code>, or an
+   * {@link Unresolved}.
+   */
+  final IFn resolve (final String name,
+                     final Object dispatch) {
+    final Object exact = methodTable.get(dispatch);
+    if (null != exact) { return (IFn) exact; }
+    final Object arity = MethodIndex.arityOf(dispatch);
+    // anything else only matches exactly
+    if (null == arity) { return Unresolved.noMethod(name,dispatch); }
+    final DominanceOrder o = order(arity);
+    final int i = o.resolve(dispatch);
+    if (DominanceOrder.NONE == i) {
+      return Unresolved.noMethod(name,dispatch); }
+    if (DominanceOrder.AMBIGUOUS != i) { return (IFn) o.value(i); }
+    return Unresolved.ambiguous(name,dispatch,o.ambiguous(dispatch)); }
+
+  // intrinsic signature dispatch:
+  // resolve the raw classes with Signature.isAssignableFrom,
+  // only allocating a Signature for an exact match check on a
+  // cache miss, and for error messages.
+
+  /** The best method for <code>Signature2.get(k0,k1)</code>,
+   * or an {@link Unresolved}.
+   */
+  final IFn resolve (final String name,
+                     final Class k0,
+                     final Class k1) {
+    final Object exact = methodTable.get(Signature2.get(k0,k1));
+    if (null != exact) { return (IFn) exact; }
+    final DominanceOrder o = order(2);
+    final int i = o.resolve(k0,k1);
+    if (DominanceOrder.NONE == i) {
+      return Unresolved.noMethod(name,Signature2.get(k0,k1)); }
+    if (DominanceOrder.AMBIGUOUS != i) { return (IFn) o.value(i); }
+    return Unresolved.ambiguous(
+      name,Signature2.get(k0,k1),o.ambiguous(k0,k1)); }
+
+  /** The best method for <code>Signature3.get(k0,k1,k2)</code>,
+   * or an {@link Unresolved}.
+   */
+  final IFn resolve (final String name,
+                     final Class k0,
+                     final Class k1,
+                     final Class k2) {
+    final Object exact = methodTable.get(Signature3.get(k0,k1,k2));
+    if (null != exact) { return (IFn) exact; }
+    final DominanceOrder o = order(3);
+    final int i = o.resolve(k0,k1,k2);
+    if (DominanceOrder.NONE == i) {
+      return Unresolved.noMethod(name,Signature3.get(k0,k1,k2)); }
+    if (DominanceOrder.AMBIGUOUS != i) { return (IFn) o.value(i); }
+    return Unresolved.ambiguous(
+      name,Signature3.get(k0,k1,k2),o.ambiguous(k0,k1,k2)); }
+
+  /** The best method among <code>candidates</code>,
+   * which all apply to <code>dispatch</code>,
+   * or an {@link Unresolved}.
+   */
+  final IFn resolve (final String name,
+                     final Map.Entry[] candidates,
+                     final Object dispatch) {
+    for (final Map.Entry e : candidates) {
+      if (dispatch.equals(e.getKey())) {
+        return (IFn) e.getValue(); } }
+    if (0 == candidates.length) {
+      return Unresolved.noMethod(name,dispatch); }
+    Map.Entry best = null;
+    for (final Map.Entry e : candidates) {
+      if (minimal(e,candidates)) {
+        if (null != best) { return ambiguous(name,candidates,dispatch); }
+        best = e; } }
+    if (null == best) { return ambiguous(name,candidates,dispatch); }
+    return (IFn) best.getValue(); }
+
+  // is no other candidate strictly preferred to e's?
+  private final boolean minimal (final Map.Entry e,
+                                 final Map.Entry[] candidates) {
+    final Object k = e.getKey();
+    for (final Map.Entry c : candidates) {
+      final Object kc = c.getKey();
+      if ((e != c) && dominates(kc,k) && (! dominates(k,kc))) { 
+        return false; } }
+    return true; }
+
+  // the minimal candidates, if there are more than one,
+  // otherwise, for a cycle, all of them
+  private final IFn ambiguous (final String name,
+                               final Map.Entry[] candidates,
+                               final Object dispatch) {
+    final Set minima = new HashSet();
+    for (final Map.Entry e : candidates) {
+      if (minimal(e,candidates)) { minima.add(e); } }
+    if (2 > minima.size()) { minima.addAll(Arrays.asList(candidates)); }
+    return Unresolved.ambiguous(name,dispatch,minima); }
+
+  //--------------------------------------------------------------
+}
+//--------------------------------------------------------------
@@ -1,5 +1,8 @@
 package palisades.lakes.multimethods.java;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+
 import clojure.lang.IFn;
 import clojure.lang.IPersistentMap;
 
@@ -10,7 +13,7 @@ import clojure.lang.IPersistentMap;
  *
  * @author palisades dot lakes at gmail dot com
  * @since 2017-07-16
- * @version 2017-10-09
+ * @version 2026-10-18
  */
 @SuppressWarnings("unchecked")
 public interface MultiFn extends IFn {
@@ -50,7 +53,9 @@ public interface MultiFn extends IFn {
   /** Clear the <code>MultiFn</code>, removing all defined
    * methods and preferences, and emptying the cache.
    * 
-   * @return the modified <code>MultiFn</code>.
+   * @return the modified <code>MultiFn</code>, 
+   * or a new one, for immutable implementations,
+   * like {@link ImmutableMultiFn}.
    */
   public MultiFn reset();
 
@@ -62,7 +67,9 @@ public interface MultiFn extends IFn {
    * is not a legal dispatch value for this
    * <code>MultiFn</code>.
    * 
-   * @return the modified <code>MultiFn</code>.
+   * @return the modified <code>MultiFn</code>, 
+   * or a new one, for immutable implementations,
+   * like {@link ImmutableMultiFn}.
    */
   public MultiFn addMethod (final Object x, 
                             final IFn f);
@@ -74,7 +81,9 @@ public interface MultiFn extends IFn {
    * is not a legal dispatch value for this
    * <code>MultiFn</code>.
    * 
-   * @return the modified <code>MultiFn</code>.
+   * @return the modified <code>MultiFn</code>, 
+   * or a new one, for immutable implementations,
+   * like {@link ImmutableMultiFn}.
    */
   public MultiFn removeMethod (final Object x);
 
@@ -85,7 +94,9 @@ public interface MultiFn extends IFn {
    * <code>y</code> are not legal dispatch values for this
    * <code>MultiFn</code>.
    * 
-   * @return the modified <code>MultiFn</code>.
+   * @return the modified <code>MultiFn</code>, 
+   * or a new one, for immutable implementations,
+   * like {@link ImmutableMultiFn}.
    */
   public MultiFn preferMethod (final Object x, 
                                final Object y);
@@ -122,4 +133,47 @@ public interface MultiFn extends IFn {
    */
   public IPersistentMap getPreferTable();
 
+  /** How many entries have been evicted from this
+   * <code>MultiFn</code>'s method caches, 
+   * over its whole lifetime? Always zero if the caches 
+   * are unbounded.
+   */
+  public default long cacheEvictions () { return 0L; }
+
+  /** Does this <code>MultiFn</code> compute signature dispatch
+   * values itself, from the classes of the arguments, 
+   * for arities 0 to 3? If so, its method for a given
+   * arglist depends only on the classes of the arguments,
+   * and on its {@link #version()}.
+   */
+  public default boolean isIntrinsic () { return false; }
+
+  /** A stamp that changes whenever the method or prefer 
+   * tables do, so callers can cache methods, and check they're
+   * still valid. Identity of the <code>MultiFn</code> must also 
+   * be checked: unrelated instances may have the same version.
+   * Only meaningful if {@link #isIntrinsic()}.
+   */
+  public default long version () { return 0L; }
+
+  /** Return a method handle of the given <code>type</code>,
+   * which calls this <code>MultiFn</code>,
+   * for Java callers, who can keep it in a 
+   * <code>static final</code> field.
+   * Implementations with intrinsic signature dispatch
+   * return a tree of <code>guardWithTest</code>s over the 
+   * argument classes (for arities 1 to 3), 
+   * calling the methods directly, 
+   * falling back to <code>invoke</code>, 
+   * and discarded by the next edit of the method or prefer 
+   * tables, after which the handle just calls 
+   * <code>invoke</code> (see {@link DispatchPlan}).
+   * <p>
+   * This default just calls <code>invoke</code>.
+   * At most 20 parameters.
+   */
+  public default MethodHandle asMethodHandle (final MethodType type) {
+    return DispatchPlan.invoker(this,type.parameterCount())
+      .asType(type); }
+
 }
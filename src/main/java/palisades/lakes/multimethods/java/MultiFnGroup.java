@@ -0,0 +1,181 @@
+package palisades.lakes.multimethods.java;
+
+import clojure.lang.Counted;
+import clojure.lang.IFn;
+import clojure.lang.Indexed;
+
+/** A fixed group of intrinsic {@link MultiFn}s, called on the
+ * same arguments, whose methods are looked up together:
+ * the signature of the arguments is computed once,
+ * and resolved against every member in one step,
+ * returning a {@link Bundle} of the members' methods.
+ * Implementation details, subject to revision.
+ * Use the Clojure API to be future-proof.
+ * <p>
+ * Bundles are cached in a {@link MethodCache}, keyed on the
+ * interned signature, along with the members'
+ * {@link MultiFn#version()}s when it was created.
+ * The cache is replaced, not cleared, when a lookup sees that
+ * any member's version has changed.
+ * A bundle is only valid until then, which callers who keep
+ * one can check with {@link Bundle#isValid()}.
+ * <p>
+ * The group holds the <code>MultiFn</code>s themselves,
+ * not their <code>Var</code>s, so an immutable member that's
+ * been replaced, eg by <code>defmethod</code>,
+ * keeps its old methods here.
+ *
+ * @author palisades dot lakes at gmail dot com
+ * @since 2026-10-18
+ * @version 2026-10-18
+ */
+
+@SuppressWarnings("unchecked")
+public final class MultiFnGroup {
+
+  /** The methods of each member of a {@link MultiFnGroup} for
+   * one signature, in the order of the members.
+   * Where a member has no method, or several, none preferred,
+   * the bundle holds the member itself, so calling it throws
+   * the usual exception.
+   */
+  public static final class Bundle implements Indexed, Counted {
+    private final MultiFn[] members;
+    private final long[] versions;
+    private final Object key;
+    private final IFn[] methods;
+    private Bundle (final MultiFn[] members,
+                    final long[] versions,
+                    final Object key,
+                    final IFn[] methods) {
+      this.members = members; this.versions = versions;
+      this.key = key; this.methods = methods; }
+
+    /** The signature (or class, for arity 1)
+     * the methods were resolved for.
+     */
+    public final Object key () { return key; }
+
+    /** Has no member's method or prefer table changed since
+     * this bundle was created?
+     */
+    public final boolean isValid () {
+      for (int i=0;i<members.length;i++) {
+        if (versions[i] != members[i].version()) { return false; } }
+      return true; }
+
+    @Override
+    public final int count () { return methods.length; }
+
+    @Override
+    public final Object nth (final int i) { return methods[i]; }
+
+    @Override
+    public final Object nth (final int i,
+                             final Object notFound) {
+      if ((0 <= i) && (i < methods.length)) { return methods[i]; }
+      return notFound; } }
+
+  //--------------------------------------------------------------
+
+  private static final class State {
+    private final long[] versions;
+    private final MethodCache cache;
+    private State (final long[] versions) {
+      this.versions = versions;
+      cache = new MethodCache(); } }
+
+  private final MultiFn[] members;
+  private volatile State state;
+
+  //--------------------------------------------------------------
+
+  public final int count () { return members.length; }
+
+  public final MultiFn member (final int i) { return members[i]; }
+
+  //--------------------------------------------------------------
+
+  private final long[] versions () {
+    final long[] vs = new long[members.length];
+    for (int i=0;i<members.length;i++) {
+      vs[i] = members[i].version(); }
+    return vs; }
+
+  // the current state, replacing it if any member has changed
+  private final State current () {
+    final State s = state;
+    final long[] vs = s.versions;
+    for (int i=0;i<members.length;i++) {
+      if (vs[i] != members[i].version()) {
+        // racing threads may replace it more than once,
+        // which only costs later misses
+        final State ss = new State(versions());
+        state = ss;
+        return ss; } }
+    return s; }
+
+  private final Bundle resolve (final State s,
+                                final Object k) {
+    // methods resolved after the versions were read,
+    // so an edit in between leaves the bundle invalid,
+    // rather than stale but valid
+    final IFn[] fs = new IFn[members.length];
+    for (int i=0;i<members.length;i++) {
+      final MultiFn f = members[i];
+      IFn m;
+      try { m = f.getMethod(k); }
+      catch (final IllegalArgumentException e) { m = null; }
+      fs[i] = (null == m) ? f : m; }
+    final Bundle b = new Bundle(members,s.versions,k,fs);
+    s.cache.put(k,b);
+    return b; }
+
+  //--------------------------------------------------------------
+
+  /** The bundle for dispatch value <code>k</code>,
+   * a <code>Class</code> or <code>Signature</code>.
+   */
+  public final Bundle bundle (final Object k) {
+    final State s = current();
+    final Object b = s.cache.get(k);
+    if (null != b) { return (Bundle) b; }
+    return resolve(s,k); }
+
+  public final Bundle bundle1 (final Object a0) {
+    return bundle(Classes.classOf(a0)); }
+
+  public final Bundle bundle2 (final Object a0,
+                               final Object a1) {
+    return bundle(
+      Signature2.get(Classes.classOf(a0),Classes.classOf(a1))); }
+
+  public final Bundle bundle3 (final Object a0,
+                               final Object a1,
+                               final Object a2) {
+    return bundle(
+      Signature3.get(
+        Classes.classOf(a0),
+        Classes.classOf(a1),
+        Classes.classOf(a2))); }
+
+  //--------------------------------------------------------------
+  // construction
+  //--------------------------------------------------------------
+
+  /** Throws <code>IllegalArgumentException</code> unless every
+   * member is intrinsic (see {@link MultiFn#isIntrinsic()}),
+   * so its methods depend only on the argument classes,
+   * and its version.
+   */
+  public MultiFnGroup (final MultiFn... fs) {
+    for (final MultiFn f : fs) {
+      if (! f.isIntrinsic()) {
+        throw new IllegalArgumentException(
+          "not intrinsic: " + f); } }
+    members = fs.clone();
+    state = new State(versions()); }
+
+  //--------------------------------------------------------------
+}
+//--------------------------------------------------------------
@@ -13,6 +13,7 @@
 package palisades.lakes.multimethods.java;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -20,6 +21,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import clojure.lang.AFn;
@@ -29,6 +31,7 @@ import clojure.lang.IPersistentVector;
 import clojure.lang.IRef;
 import clojure.lang.ISeq;
 import clojure.lang.Keyword;
+import clojure.lang.LazilyPersistentVector;
 import clojure.lang.Named;
 import clojure.lang.PersistentHashMap;
 import clojure.lang.PersistentHashSet;
@@ -84,10 +87,35 @@ import clojure.lang.Var;
  * mutable objects as immutable.
  * Eventually, should replace with minimal immutable version.
  * <li> Permit Signature as a dispatch value.
+ * <li> Vector dispatch values, of 2 or more elements, 
+ * are canonicalized, in the tables and on a cache miss
+ * (the cache is keyed on the dispatch values as given):
+ * all-class vectors (like the values of 
+ * <code>(juxt class class)</code>) into the equal 
+ * <code>Signature</code>, and others into an internal
+ * {@link Tuple}, with a cached hash.
+ * The method and prefer tables still report the vectors.
+ * <li> Lookup doesn't lock: methods are cached in an
+ * insert-only {@link MethodCache}, which is replaced,
+ * not copied, whenever the tables or hierarchy change.
+ * <li> <code>prefers</code> is a bit test in a
+ * {@link PreferClosure}, the transitive closure of the prefer
+ * table under the current hierarchy, updated by each
+ * <code>preferMethod</code>, and rebuilt when the hierarchy
+ * changes.
+ * <li> Optionally bounded cache, with second chance eviction,
+ * for multimethods that see very many distinct dispatch values.
+ * <li> The cache checks a small adaptive linear cache first, 
+ * comparing classes by identity, without hashing,
+ * until it sees too many distinct dispatch values
+ * (see {@link InlineEntry}).
+ * <li> Optionally weak cache keys, so cached dispatch values 
+ * don't keep classes (and their class loaders) from being
+ * unloaded.
  *</ol>
  *
  * @author palisades dot lakes at gmail dot com
- * @version 2017-12-13
+ * @version 2026-10-18
  */
 @SuppressWarnings("unchecked")
 public final class MultiFnWithHierarchy extends AFn implements MultiFn {
@@ -97,10 +125,23 @@ public final class MultiFnWithHierarchy extends AFn implements MultiFn {
   private final ReentrantReadWriteLock rw;
   private volatile Map methodTable;
   private volatile Map preferTable;
-  private volatile Map methodCache;
+  // preferTable's transitive closure, checked against the
+  // prefer table and hierarchy it was built for
+  private volatile PreferClosure preferClosure;
+  // canonical Signatures that were given as vectors, 
+  // for reporting the tables
+  private volatile Set vectorSignatures;
+  private volatile MethodCache methodCache;
+  // built lazily by cache misses, checked against the tables
+  // and hierarchy it was built from
+  private volatile DominanceOrder order;
   private final Object defaultDispatch;
   private final IRef hierarchy;
   private volatile Map cachedHierarchy;
+  // zero means unbounded
+  private final int cacheSize;
+  private final boolean weakKeys;
+  private final AtomicLong evictions;
 
   //--------------------------------------------------------------
 
@@ -138,43 +179,153 @@ public final class MultiFnWithHierarchy extends AFn implements MultiFn {
       isRecursiveDispatchValue(x); }
 
   //--------------------------------------------------------------
+  // canonical dispatch values
 
+  private static final Object canonical (final Object x) {
+    if (! (x instanceof IPersistentVector)) { return x; }
+    final IPersistentVector v = (IPersistentVector) x;
+    final int n = v.count();
+    // [c] is not the same dispatch value as c
+    if (n < 2) { return x; }
+    for (int i=0;i<n;i++) {
+      final Object vi = v.nth(i);
+      if (! ((null == vi) || (vi instanceof Class))) {
+        return new Tuple(v); } }
+    switch (n) {
+    case 2: return Signature2.get((Class) v.nth(0),(Class) v.nth(1));
+    case 3: 
+      return Signature3.get(
+        (Class) v.nth(0),(Class) v.nth(1),(Class) v.nth(2));
+    default: 
+      final Class[] cs = new Class[n];
+      for (int i=0;i<n;i++) { cs[i] = (Class) v.nth(i); }
+      return SignatureN.get(cs); } }
+
+  private static final boolean isSignatureVector (final Object x,
+                                                  final Object k) {
+    return (k instanceof Signature) && (x != k); }
+
+  private final Object reported (final Object k) {
+    if (k instanceof Tuple) { return ((Tuple) k).toVector(); }
+    if (vectorSignatures.contains(k)) {
+      if (k instanceof Signature2) {
+        final Signature2 s = (Signature2) k;
+        return RT.vector(s.class0,s.class1); }
+      if (k instanceof Signature3) {
+        final Signature3 s = (Signature3) k;
+        return RT.vector(s.class0,s.class1,s.class2); }
+      // an Object[], so the vector can hold anything
+      final Class[] cs = ((SignatureN) k).classes;
+      return LazilyPersistentVector.createOwning(
+        Arrays.copyOf(cs,cs.length,Object[].class)); }
+    return k; }
+
+  // the number of elements in a canonical tuple or signature,
+  // or -1
+  private static final int tupleLength (final Object x) {
+    if (x instanceof Tuple) { return ((Tuple) x).length(); }
+    if (x instanceof Signature2) { return 2; }
+    if (x instanceof Signature3) { return 3; }
+    if (x instanceof SignatureN) { 
+      return ((SignatureN) x).classes.length; }
+    return -1; }
+
+  private static final Object tupleElement (final Object x,
+                                            final int i) {
+    if (x instanceof Tuple) { return ((Tuple) x).get(i); }
+    if (x instanceof Signature2) { 
+      final Signature2 s = (Signature2) x;
+      return (0 == i) ? s.class0 : s.class1; }
+    if (x instanceof Signature3) { 
+      final Signature3 s = (Signature3) x;
+      switch (i) {
+      case 0: return s.class0;
+      case 1: return s.class1;
+      default: return s.class2; } }
+    return ((SignatureN) x).classes[i]; }
+
+  //--------------------------------------------------------------
+
+  /** If <code>cacheSz</code> is positive, it bounds the
+   * number of entries in the method cache.
+   * If <code>weak</code>, <code>Class</code> and 
+   * <code>Signature</code> dispatch values are held 
+   * weakly in the method cache. 
+   * Other dispatch values, including vectors of classes, are
+   * held strongly.
+   */
   public MultiFnWithHierarchy (final String n, 
                                final IFn dispatchF, 
                                final Object defaultd, 
-                               final IRef hierarky) {
+                               final IRef hierarky,
+                               final int cacheSz,
+                               final boolean weak) {
     rw = new ReentrantReadWriteLock();
     assert (null != n) && (! n.isEmpty());
     name = n;
     assert null != dispatchF;
     dispatchFn = dispatchF;
+    assert 0 <= cacheSz;
+    cacheSize = cacheSz;
+    weakKeys = weak;
+    evictions = new AtomicLong(0);
     methodTable = Collections.emptyMap();
-    methodCache = Collections.emptyMap();
+    methodCache = new MethodCache(cacheSize,weakKeys,evictions);
     preferTable = Collections.emptyMap();
+    vectorSignatures = Collections.emptySet();
     // can be null?
     checkLegalDispatchValue(defaultd);
       
-    defaultDispatch = defaultd;
+    defaultDispatch = canonical(defaultd);
     assert null != hierarky;
     hierarchy = hierarky;
     cachedHierarchy = null; }
 
+  public MultiFnWithHierarchy (final String n, 
+                               final IFn dispatchF, 
+                               final Object defaultd, 
+                               final IRef hierarky) {
+    this(n,dispatchF,defaultd,hierarky,0,false); }
+
+  /** Zero if the method cache is unbounded.
+   */
+  public final int cacheSize () { return cacheSize; }
+
+  /** Does the method cache hold the classes in dispatch values
+   * weakly?
+   */
+  public final boolean hasWeakCacheKeys () { return weakKeys; }
+
+  @Override
+  public final long cacheEvictions () { return evictions.get(); }
+
   //--------------------------------------------------------------
 
   @Override
   public final IPersistentMap getMethodTable () {
-    return PersistentHashMap.create(methodTable); }
+    final Map mt = methodTable;
+    final Object[] kvs = new Object[2 * mt.size()];
+    int i = 0;
+    for (final Object o : mt.entrySet()) {
+      final Map.Entry e = (Map.Entry) o;
+      kvs[i++] = reported(e.getKey());
+      kvs[i++] = e.getValue(); }
+    return PersistentHashMap.create(kvs); }
 
   @Override
   public final IPersistentMap getPreferTable () {
     // convert values to IPersistentSet
-    final Set ks = preferTable.keySet();
+    final Map pt = preferTable;
+    final Set ks = pt.keySet();
     final Object[] kvs = new Object[2 * ks.size()];
     int i = 0;
     for (final Object k : ks) {
-      kvs[i++] = k;
-      final Set v = (Set) preferTable.get(k);
-      kvs[i++] = PersistentHashSet.create(v.toArray()); }
+      kvs[i++] = reported(k);
+      final Set v = (Set) pt.get(k);
+      final Object[] vs = new Object[v.size()];
+      int j = 0;
+      for (final Object vj : v) { vs[j++] = reported(vj); }
+      kvs[i++] = PersistentHashSet.create(vs); }
     return PersistentHashMap.create(kvs); }
 
   //--------------------------------------------------------------
@@ -184,9 +335,11 @@ public final class MultiFnWithHierarchy extends AFn implements MultiFn {
     rw.writeLock().lock();
     try {
       methodTable = Collections.emptyMap();
-      methodCache = Collections.emptyMap();
       preferTable = Collections.emptyMap();
+      preferClosure = null;
+      vectorSignatures = Collections.emptySet();
       cachedHierarchy = null;
+      methodCache = new MethodCache(cacheSize,weakKeys,evictions);
       return this; }
     finally { rw.writeLock().unlock(); } }
 
@@ -225,61 +378,58 @@ public final class MultiFnWithHierarchy extends AFn implements MultiFn {
   public final MultiFn addMethod (final Object x,
                                   final IFn method) {
     checkLegalDispatchValue(x);
+    final Object k = canonical(x);
     rw.writeLock().lock();
     try {
-      methodTable = assoc(methodTable,x,method);
+      if (isSignatureVector(x,k)) { 
+        vectorSignatures = add(vectorSignatures,k); }
+      final Map mt0 = methodTable;
+      methodTable = assoc(mt0,k,method);
       resetCache();
+      final DominanceOrder o = current(mt0,preferTable);
+      if (null != o) {
+        final Map ch = cachedHierarchy;
+        order = o.with(
+          k,method,new Bound(ch),methodTable,preferTable,ch); }
       return this; }
     finally { rw.writeLock().unlock(); } }
 
   @Override
   public final MultiFn removeMethod (final Object x) {
     checkLegalDispatchValue(x);
+    final Object k = canonical(x);
     rw.writeLock().lock();
     try {
-      methodTable = dissoc(methodTable,x);
+      final Map mt0 = methodTable;
+      methodTable = dissoc(mt0,k);
       resetCache();
+      final DominanceOrder o = current(mt0,preferTable);
+      if (null != o) {
+        order = o.without(k,methodTable,preferTable,cachedHierarchy); }
       return this; }
     finally { rw.writeLock().unlock(); } }
 
   //--------------------------------------------------------------
 
-  private static final Var parents = RT.var("clojure.core","parents");
+  // The closure covers x's parents in the hierarchy, 
+  // since x is-a each of them.
+
+  private final PreferClosure preferClosure (final Map hierarky) {
+    final Map pt = preferTable;
+    final PreferClosure c = preferClosure;
+    if ((null != c) && c.hasBasis(pt,hierarky)) { return c; }
+    // racing lookups may build it more than once
+    final PreferClosure b = 
+      PreferClosure.of(pt,new Bound(hierarky),pt,hierarky);
+    preferClosure = b;
+    return b; }
 
   private final boolean prefers (final Map hierarky,
                                  final Object x, 
                                  final Object y) {
-
-    final Set xprefs = (Set) preferTable.get(x);
-    if (xprefs != null) {
-
-      // is there an explicit prefer-method entry for (x,y)?
-      if (xprefs.contains(y)) { return true; }
-
-      // transitive closure of prefer-method relation
-      // is x preferred to anything that is preferred to y?
-      for (final Object xx : xprefs) {
-        if (prefers(hierarky,xx,y)) { return true; } } }
-
-    // For multi-arity dispatch functions, we need to check the
-    // keys of the preferTable.
-    // TODO: does this make the next loop unnecessary?
-    for (final Object k : preferTable.keySet()) {
-      if ((!Objects.equals(x,k)) 
-        && isA(hierarky,x,k) 
-        && prefers(hierarky,k,y)) {
-        return true; } }
-
-    // Note: this only works for atomic dispatch values
-    // are any of x's parents preferred to y?
-    // parents either in the multimethod's hierarchy or thru 
-    // Class.isAssignableFrom
-    for (ISeq ps = RT.seq(parents.invoke(hierarky,x)); 
-      ps != null;
-      ps = ps.next()) {
-      if (prefers(hierarky,ps.first(),y)) { return true; } }
-
-    return false; }
+    // every case needs some explicit preference
+    if (preferTable.isEmpty()) { return false; }
+    return preferClosure(hierarky).prefers(x,y); }
 
   //--------------------------------------------------------------
 
@@ -289,16 +439,30 @@ public final class MultiFnWithHierarchy extends AFn implements MultiFn {
     // TODO: check that x and y have the same shape if recursive?
     checkLegalDispatchValue(x);
     checkLegalDispatchValue(y);
+    final Object kx = canonical(x);
+    final Object ky = canonical(y);
     rw.writeLock().lock();
     try {
-      if (prefers(cachedHierarchy,y,x)) { 
+      if (prefers(cachedHierarchy,ky,kx)) { 
         throw new IllegalStateException(
           String.format(
             "Preference conflict in multimethod '%s':" +
               "%s is already preferred to %s",
               name,y,x)); }
-      preferTable = add(preferTable,x,y);
+      if (isSignatureVector(x,kx)) { 
+        vectorSignatures = add(vectorSignatures,kx); }
+      if (isSignatureVector(y,ky)) { 
+        vectorSignatures = add(vectorSignatures,ky); }
+      final Map pt0 = preferTable;
+      final Map pt = add(pt0,kx,ky);
+      // the hierarchy resetCache() will cache
+      final Map h = (Map) hierarchy.deref();
+      final PreferClosure c0 = preferClosure(h);
+      preferClosure = c0.with(kx,ky,pt,h);
+      preferTable = pt;
       resetCache();
+      final DominanceOrder o = current(methodTable,pt0);
+      if (null != o) { order = reorder(o,c0,ky); }
       return this; }
     finally { rw.writeLock().unlock(); } }
 
@@ -369,6 +533,15 @@ public final class MultiFnWithHierarchy extends AFn implements MultiFn {
       return 
         ((Signature) parent).isAssignableFrom((Signature) child); }
 
+    // canonical vectors, at least one with a non-class element
+    if ((child instanceof Tuple) || (parent instanceof Tuple)) {
+      final int n = tupleLength(child);
+      if ((n < 0) || (n != tupleLength(parent))) { return false; }
+      for (int i = 0; i < n; i++) {
+        if (!isA(h,tupleElement(child,i),tupleElement(parent,i))) {
+          return false; } }
+      return true; }
+
     if ((child instanceof IPersistentVector) 
       && (parent instanceof IPersistentVector)) {
       return isA(h,
@@ -379,7 +552,7 @@ public final class MultiFnWithHierarchy extends AFn implements MultiFn {
   @Override
   public final boolean isA (final Object x,
                             final Object y) {
-    return isA((Map) hierarchy,x,y); }
+    return isA((Map) hierarchy.deref(),canonical(x),canonical(y)); }
 
   //--------------------------------------------------------------
 
@@ -391,91 +564,142 @@ public final class MultiFnWithHierarchy extends AFn implements MultiFn {
   @Override
   public final boolean dominates (final Object x, 
                                   final Object y) {
-    return dominates((Map) hierarchy,x,y); }
+    return dominates(
+      (Map) hierarchy.deref(),canonical(x),canonical(y)); }
   //--------------------------------------------------------------
 
-  private final Map resetCache () {
+  // Lookup doesn't lock.
+  // Edits replace the tables and the cached hierarchy first,
+  // and then the cache,
+  // so a lookup that reads the cache and then the tables
+  // can tell if its basis is stale by re-reading the cache.
+
+  private final void resetCache () {
     rw.writeLock().lock();
     try {
-      methodCache = methodTable;
-      cachedHierarchy = (Map) hierarchy.deref();
-      return methodCache; }
+      final Map h = (Map) hierarchy.deref();
+      if (h != cachedHierarchy) {
+        cachedHierarchy = h;
+        // just to free it; a stale order would be rebuilt anyway
+        order = null; }
+      methodCache = new MethodCache(cacheSize,weakKeys,evictions); }
     finally { rw.writeLock().unlock(); } }
 
   //--------------------------------------------------------------
 
-  private final Set updateMinima (final Map h,
-                                  final Map.Entry e0,
-                                  final Set<Map.Entry> minima) {
-    boolean add = true;
-    final Set<Map.Entry> updated = new HashSet(minima.size());
-    final Object k0 = e0.getKey();
-    for (final Map.Entry e : minima) {
-      final Object k = e.getKey();
-      if (dominates(h,k,k0)) { add = false; }
-      if (! dominates(h,k0,k)) { updated.add(e); } } 
-    if (add) { updated.add(e0); }
-    return updated; }
-
-  private static final Map.Entry first (final Set<Map.Entry> i) {
-    return i.iterator().next(); }
-
-  private final IFn findAndCacheBestMethod (final Object x) {
-    rw.readLock().lock();
-    Object bestValue;
+  // Misses are resolved with a DominanceOrder, which allocates
+  // nothing, except to report an ambiguity.
+
+  private final class Bound implements DominanceOrder.Relation {
+    private final Map h;
+    private Bound (final Map h) { this.h = h; }
+    @Override
+    public final boolean isA (final Object child,
+                              final Object parent) {
+      return MultiFnWithHierarchy.isA(h,child,parent); }
+    @Override
+    public final boolean dominates (final Object x,
+                                    final Object y) {
+      return MultiFnWithHierarchy.this.dominates(h,x,y); } }
+
+  private final DominanceOrder order (final Map mt,
+                                      final Map pt,
+                                      final Map ch) {
+    final DominanceOrder o = order;
+    if ((null != o) && o.hasBasis(mt,pt,ch)) { return o; }
+    // racing misses may build it more than once
+    final Map.Entry[] es = 
+      (Map.Entry[]) mt.entrySet().toArray(new Map.Entry[mt.size()]);
+    final DominanceOrder b = 
+      DominanceOrder.of(es,new Bound(ch),false,mt,pt,ch);
+    order = b;
+    return b; }
+
+  // Edits, under the write lock, after resetCache(), update the
+  // order incrementally, if there is one for the tables they
+  // replaced, mt0 and pt0, and the cached hierarchy.
+
+  private final DominanceOrder current (final Map mt0,
+                                        final Map pt0) {
+    final DominanceOrder o = order;
+    if ((null != o) && o.hasBasis(mt0,pt0,cachedHierarchy)) { 
+      return o; }
+    return null; }
+
+  // The keys whose preferences changed, from c0, are those now
+  // preferred to y, but not before, since the closure is
+  // transitive; each is removed and added again, with the new
+  // relation.
+
+  private final DominanceOrder reorder (final DominanceOrder o0,
+                                        final PreferClosure c0,
+                                        final Object y) {
     final Map mt = methodTable;
     final Map pt = preferTable;
     final Map ch = cachedHierarchy;
-    try {
-      Set<Map.Entry> minima = new HashSet(); // should be immutable?
-      for (final Object o : methodTable.entrySet()) {
-        final Map.Entry e = (Map.Entry) o;
-        if (isA(ch,x,e.getKey())) {
-          minima = updateMinima(ch,e,minima); } } 
-      if (minima.isEmpty()) { 
-        bestValue = methodTable.get(defaultDispatch);
-        if (bestValue == null) { return null; } }
-      else if (1 != minima.size()) {
-        throw new IllegalArgumentException(
-          String.format(
-            "Multiple methods in multimethod '%s' " + 
-              "match dispatch value: %s -> %s, " +
-              "and none is preferred",
-              name, x, minima));  }
-      else {
-        bestValue = first(minima).getValue(); } }
-    finally { rw.readLock().unlock(); }
-
+    final PreferClosure c1 = preferClosure(ch);
+    final Bound r = new Bound(ch);
+    DominanceOrder o1 = o0.rebased(mt,pt,ch);
+    for (int i=0;i<o0.count();i++) {
+      final Object k = o0.key(i);
+      if (c1.prefers(k,y) && (! c0.prefers(k,y))) {
+        o1 = o1.without(k,mt,pt,ch).with(k,o0.value(i),r,mt,pt,ch); } }
+    return o1; }
+
+  private final Object findBestMethod (final Map mt,
+                                       final Map pt,
+                                       final Map ch,
+                                       final Object x) {
+    final Object exact = mt.get(x);
+    if (null != exact) { return exact; }
+    final DominanceOrder dom = order(mt,pt,ch);
+    final int i = dom.resolve(x);
+    if (DominanceOrder.NONE == i) { return mt.get(defaultDispatch); }
+    if (DominanceOrder.AMBIGUOUS != i) { return dom.value(i); }
+    return Unresolved.ambiguous(name,x,dom.ambiguous(x)); }
+
+  // k is x's canonical form, which is resolved, and x the
+  // cache key
+
+  private final IFn findAndCacheBestMethod (final Object x,
+                                            final Object k) {
+    final MethodCache cache = methodCache;
+    final Map mt = methodTable;
+    final Map pt = preferTable;
+    final Map ch = cachedHierarchy;
+    // cache failures too, see Unresolved
+    final Object found = findBestMethod(mt,pt,ch,k);
+    final IFn bestValue = (null == found) 
+      ? Unresolved.noMethod(name,x) 
+      : (IFn) found;
     // ensure basis has stayed stable throughout, else redo
-    rw.writeLock().lock();
-    try {
-      if ((mt == methodTable) && 
-        (pt == preferTable) &&
-        (ch == cachedHierarchy) &&
-        (cachedHierarchy == hierarchy.deref())) {
-        methodCache = assoc(methodCache,x,bestValue);
-        return (IFn) bestValue; }
-      resetCache();
-      return findAndCacheBestMethod(x); }
-    finally { rw.writeLock().unlock(); } }
+    if ((cache == methodCache) &&
+      (mt == methodTable) && 
+      (pt == preferTable) &&
+      (ch == cachedHierarchy)) {
+      if (ch == hierarchy.deref()) {
+        cache.put(x,bestValue);
+        return bestValue; }
+      resetCache(); }
+    return findAndCacheBestMethod(x,k); }
 
   //--------------------------------------------------------------
 
   @Override
   public final IFn getMethod (final Object x) {
+    return Unresolved.method(lookup(x)); }
+
+  // the method, or an Unresolved, never null.
+  // The cache is keyed on the dispatch value as given, 
+  // so a hit doesn't canonicalize it; only a miss does.
+  private final IFn lookup (final Object x) {
     if(cachedHierarchy != hierarchy.deref()) { resetCache(); }
     final IFn targetFn = (IFn) methodCache.get(x);
     if (targetFn != null) { return targetFn; }
-    return findAndCacheBestMethod(x); }
+    return findAndCacheBestMethod(x,canonical(x)); }
 
   private final IFn getFn (final Object x) {
-    final IFn targetFn = getMethod(x);
-    if (targetFn == null) { 
-      throw new IllegalArgumentException(
-        String.format(
-          "No method in multimethod '%s' for dispatch value: %s",
-          name,x)); }
-    return targetFn; }
+    return Unresolved.fn(lookup(x)); }
 
   //--------------------------------------------------------------
   // IFn interface
@@ -496,9 +720,7 @@ public final class MultiFnWithHierarchy extends AFn implements MultiFn {
   public final Object invoke (Object arg1, 
                               Object arg2) {
     final Object k = dispatchFn.invoke(arg1,arg2);
-    final IFn f = getMethod(k);
-    assert null != f;
-    return f.invoke(
+    return getFn(k).invoke(
       Util.ret1(arg1,arg1 = null),
       Util.ret1(arg2,arg2 = null)); }
 
@@ -14,24 +14,15 @@
 
 package palisades.lakes.multimethods.java;
 
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.SwitchPoint;
 import java.util.Map;
-import java.util.Objects;
-import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
-import clojure.lang.AFn;
 import clojure.lang.IFn;
-import clojure.lang.IPersistentMap;
-import clojure.lang.IPersistentVector;
-import clojure.lang.ISeq;
-import clojure.lang.PersistentHashMap;
-import clojure.lang.PersistentHashSet;
-import clojure.lang.RT;
 import clojure.lang.Util;
-import clojure.lang.Var;
 
 /**An implementation of {@link MultiFn} that optimizes for pure
  * Class-based method definition and lookup.
@@ -72,319 +63,615 @@ import clojure.lang.Var;
  * Eventually, should replace with minimal immutable version.
  * <li> Only classes and signatures as a dispatch values.
  * <li> No hierarchy or default dispatch value.
+ * <li> Optional <em>intrinsic</em> signature dispatch:
+ * for arities 0 to 3, the <code>MultiFn</code> reads the classes
+ * of the arguments itself, rather than calling the dispatch
+ * function, and caches methods keyed on the raw classes,
+ * so a cache hit allocates nothing.
+ * The dispatch function must then be equivalent to
+ * <code>palisades.lakes.multimethods.core/signature</code>;
+ * it's still used for higher arities.
+ * <li> Methods for <code>Class</code> dispatch values are cached
+ * in a <code>java.lang.ClassValue</code>, which is replaced
+ * whenever the method or prefer tables change.
+ * <li> Methods for <code>Signature2</code> and 
+ * <code>Signature3</code> dispatch values, 
+ * intrinsic or not, are cached in a primitive 
+ * <code>long</code>-keyed {@link SignatureCache}.
+ * <li> Lookup doesn't lock: the caches are insert-only,
+ * written with a CAS on a miss, and replaced, not copied,
+ * whenever the method or prefer tables change.
+ * <li> <code>prefers</code> is a bit test in a
+ * {@link PreferClosure}, the transitive closure of the prefer
+ * table, updated by each <code>preferMethod</code>.
+ * <li> Optionally bounded caches, with second chance eviction,
+ * for multimethods that see very many distinct dispatch values.
+ * <li> Each cache checks a small adaptive linear cache first, 
+ * comparing classes by identity, without hashing,
+ * until it sees too many distinct dispatch values
+ * (see {@link InlineEntry}).
+ * <li> Optionally, for arities 1 to 3, linear caches of 
+ * up to {@link InlineEntry#LINEAR_LIMIT} entries, which never
+ * go megamorphic, instead of the adaptive ones.
+ * <li> Optionally, methods for <code>Signature2</code> and
+ * <code>Signature3</code> dispatch values are looked up in a
+ * {@link DecisionTree}, switching on one argument class at a
+ * time, instead of the hashed signature caches.
+ * <li> An intrinsic <code>MultiFn</code> can be <em>frozen</em>,
+ * installing a generated dispatcher, specialized to the current 
+ * method table, that's tried first for arities 1 to 3.
+ * Any edit discards it.
+ * <li> For Java callers, {@link #asMethodHandle(MethodType)} 
+ * returns a <code>guardWithTest</code> tree, specialized to the
+ * current method table, guarded by a <code>SwitchPoint</code>
+ * that the next edit invalidates.
+ * <li> Optionally weak cache keys, so cached dispatch values 
+ * don't keep classes (and their class loaders) from being
+ * unloaded.
+ * <li> Doesn't implement the primitive <code>IFn</code>
+ * interfaces, so primitive <code>:arglists</code> can't make
+ * the compiler coerce the arguments, and bypass class dispatch;
+ * {@link #primitive()} is the explicit primitive entry point.
  * </ol>
  * @author palisades dot lakes at gmail dot com
- * @version 2017-12-13
+ * @version 2026-10-18
  */
 @SuppressWarnings("unchecked")
-public final class MultiFnWoutHierarchy extends AFn implements MultiFn {
+public final class MultiFnWoutHierarchy extends AMultiFn {
 
-  private final IFn dispatchFn;
-  private final String name;
   private final ReentrantReadWriteLock rw;
-  private volatile Map methodTable;
-  private volatile Map preferTable;
-  private volatile Map methodCache;
+  // method and prefer tables, and what's derived from them,
+  // replaced by each edit
+  private volatile MethodTables tables;
+  private volatile MethodCache methodCache;
+  private volatile SignatureCache methodCache2;
+  private volatile SignatureCache methodCache3;
+  private volatile ClassCache classCache;
+  // zero means unbounded
+  private final int cacheSize;
+  private final boolean weakKeys;
+  private final AtomicLong evictions;
+  private final boolean linearLookup;
+  private final boolean treeLookup;
+  // null unless treeLookup
+  private volatile SignatureTree tree2;
+  private volatile SignatureTree tree3;
+  // incremented by every edit
+  private volatile long version;
+  // null unless frozen
+  private volatile IFn frozen;
+  private final PrimitiveMultiFn primitive;
+  // null until a method handle needs one; 
+  // only touched under the write lock
+  private SwitchPoint switchPoint;
 
   //--------------------------------------------------------------
 
+  /** Construction options, an immutable value, 
+   * starting from {@link #DEFAULT}, eg,
+   * <code>Options.DEFAULT.withIntrinsic(true).withCacheSize(64)</code>.
+   * <p>
+   * <code>intrinsic</code>: compute signature dispatch values
+   * directly for arities 0 to 3, rather than calling the
+   * dispatch function, which must be <code>signature</code>.
+   * <p>
+   * If <code>cacheSize</code> is positive, it bounds the
+   * number of entries in each of the method caches for
+   * general, arity 2, and arity 3 dispatch values.
+   * Methods for <code>Class</code> dispatch values are always
+   * cached in a <code>java.lang.ClassValue</code>, which holds
+   * at most one entry per loaded class.
+   * <p>
+   * If <code>weakKeys</code>, the general method cache holds 
+   * the classes in its dispatch values weakly.
+   * The <code>ClassValue</code> and arity 2 and 3 caches 
+   * never hold classes strongly, since they are keyed on the 
+   * classes themselves, or on {@link ClassIds}, 
+   * and their adaptive linear caches 
+   * (see {@link InlineEntry}) hold classes weakly.
+   * <p>
+   * If <code>linear</code>, the <code>ClassValue</code> and 
+   * arity 2 and 3 caches check linear caches of up to
+   * {@link InlineEntry#LINEAR_LIMIT} entries first, which fill
+   * up and stay full, rather than the adaptive ones,
+   * which go megamorphic.
+   * <p>
+   * If <code>tree</code>, methods for <code>Signature2</code>
+   * and <code>Signature3</code> dispatch values are looked up
+   * in a {@link DecisionTree} rather than a 
+   * {@link SignatureCache}; its nodes' caches are bounded by
+   * <code>cacheSize</code>, and use weak keys if 
+   * <code>weakKeys</code>.
+   * Can't be combined with <code>linear</code>.
+   */
+  public static final class Options {
+    public final boolean intrinsic;
+    public final int cacheSize;
+    public final boolean weakKeys;
+    public final boolean linear;
+    public final boolean tree;
+    private Options (final boolean intrinsic,
+                     final int cacheSize,
+                     final boolean weakKeys,
+                     final boolean linear,
+                     final boolean tree) {
+      assert 0 <= cacheSize;
+      this.intrinsic = intrinsic;
+      this.cacheSize = cacheSize;
+      this.weakKeys = weakKeys;
+      this.linear = linear;
+      this.tree = tree; }
+    /** Not intrinsic, unbounded, strong keys, hashed lookup.
+     */
+    public static final Options DEFAULT = 
+      new Options(false,0,false,false,false);
+    public final Options withIntrinsic (final boolean b) {
+      return new Options(b,cacheSize,weakKeys,linear,tree); }
+    public final Options withCacheSize (final int n) {
+      return new Options(intrinsic,n,weakKeys,linear,tree); }
+    public final Options withWeakKeys (final boolean b) {
+      return new Options(intrinsic,cacheSize,b,linear,tree); }
+    public final Options withLinear (final boolean b) {
+      return new Options(intrinsic,cacheSize,weakKeys,b,tree); }
+    public final Options withTree (final boolean b) {
+      return new Options(intrinsic,cacheSize,weakKeys,linear,b); } }
+
   public MultiFnWoutHierarchy (final String n, 
-                               final IFn dispatchF) {
+                               final IFn dispatchF,
+                               final Options options) {
+    super(n,dispatchF,options.intrinsic);
     rw = new ReentrantReadWriteLock();
-    assert (null != n) && (! n.isEmpty());
-    name = n;
-    assert null != dispatchF;
-    dispatchFn = dispatchF;
-    methodTable = Collections.emptyMap();
-    methodCache = Collections.emptyMap();
-    preferTable = Collections.emptyMap(); }
+    cacheSize = options.cacheSize;
+    weakKeys = options.weakKeys;
+    evictions = new AtomicLong(0);
+    linearLookup = options.linear;
+    assert ! (options.linear && options.tree);
+    treeLookup = options.tree;
+    tables = MethodTables.EMPTY;
+    primitive = new PrimitiveMultiFn(this);
+    resetCache(); }
 
-  //--------------------------------------------------------------
+  public MultiFnWoutHierarchy (final String n, 
+                               final IFn dispatchF) {
+    this(n,dispatchF,Options.DEFAULT); }
 
-  @Override
-  public final boolean isLegalDispatchValue (final Object x) {
-    return 
-      (null == x) || 
-      (x instanceof Class) || 
-      (x instanceof Signature); }
+  /** Zero if the method caches are unbounded.
+   */
+  public final int cacheSize () { return cacheSize; }
 
-  //--------------------------------------------------------------
+  /** Does the method cache hold the classes in dispatch values
+   * weakly?
+   */
+  public final boolean hasWeakCacheKeys () { return weakKeys; }
 
-  @Override
-  public final IPersistentMap getMethodTable () {
-    return PersistentHashMap.create(methodTable); }
+  /** Are methods for arities 1 to 3 looked up in linear 
+   * caches first, which never go megamorphic?
+   */
+  public final boolean hasLinearLookup () { return linearLookup; }
+
+  /** Number of entries in the current inline cache for
+   * <code>arity</code> (1, 2, or 3), or <code>-1</code> if
+   * it's megamorphic.
+   */
+  public final int inlineCount (final int arity) {
+    switch (arity) {
+    case 1: return classCache.inlineCount();
+    case 2: return methodCache2.inlineCount();
+    case 3: return methodCache3.inlineCount();
+    default: return -1; } }
+
+  /** Are methods for <code>Signature2</code> and 
+   * <code>Signature3</code> dispatch values looked up in a 
+   * {@link DecisionTree}?
+   */
+  public final boolean hasTreeLookup () { return treeLookup; }
 
+  /** The current decision tree for <code>arity</code>
+   * (2 or 3), or <code>null</code> if there isn't one.
+   */
+  public final DecisionTree tree (final int arity) {
+    switch (arity) {
+    case 2: return tree2;
+    case 3: return tree3;
+    default: return null; } }
+
+  /** Changes whenever the method or prefer tables do.
+   */
   @Override
-  public final IPersistentMap getPreferTable () {
-    // convert values to IPersistentSet
-    final Set ks = preferTable.keySet();
-    final Object[] kvs = new Object[2 * ks.size()];
-    int i = 0;
-    for (final Object k : ks) {
-      kvs[i++] = k;
-      final Set v = (Set) preferTable.get(k);
-      kvs[i++] = PersistentHashSet.create(v.toArray()); }
-    return PersistentHashMap.create(kvs); }
+  public final long version () { return version; }
+
+  /** Install <code>dispatcher</code>, which must implement 
+   * arities 1 to 3, and be equivalent to this 
+   * <code>MultiFn</code> at <code>version</code>,
+   * calling {@link #invokeUnfrozen(Object)}, etc., for
+   * argument classes it doesn't handle itself.
+   * The <code>MultiFn</code> calls the dispatcher first, 
+   * for arities 1 to 3, until the next edit, or 
+   * {@link #thaw()}.
+   * <p>
+   * Returns <code>false</code>, and does nothing, if the 
+   * tables have changed since <code>version</code>.
+   * Only supported for intrinsic signature dispatch;
+   * throws <code>IllegalStateException</code> otherwise.
+   */
+  public final boolean freeze (final IFn dispatcher,
+                               final long v) {
+    if (! intrinsic) {
+      throw new IllegalStateException(
+        String.format(
+          "Can't freeze multimethod '%s', " +
+            "which doesn't use intrinsic signature dispatch.",
+            name)); }
+    assert null != dispatcher;
+    rw.writeLock().lock();
+    try {
+      if (v != version) { return false; }
+      frozen = dispatcher;
+      return true; }
+    finally { rw.writeLock().unlock(); } }
 
-  //--------------------------------------------------------------
+  /** Discard the frozen dispatcher, if any.
+   */
+  public final void thaw () { 
+    rw.writeLock().lock();
+    try { frozen = null; }
+    finally { rw.writeLock().unlock(); } }
+
+  public final boolean isFrozen () { return null != frozen; }
+
+  /** The primitive <code>IFn</code> view of this 
+   * <code>MultiFn</code>, which dispatches a primitive call on
+   * <code>Double</code> or <code>Long</code>, whatever the
+   * caller's arguments were; see {@link PrimitiveMultiFn}.
+   */
+  public final PrimitiveMultiFn primitive () { return primitive; }
 
   @Override
-  public final MultiFn reset () {
+  public final MethodHandle asMethodHandle (final MethodType type) {
+    final int n = type.parameterCount();
+    final MethodHandle fallback = DispatchPlan.invoker(this,n);
+    if ((! intrinsic) || (n < 1) || (3 < n)) { 
+      return fallback.asType(type); }
+    // no edits while planning, so the plan matches the 
+    // switch point
     rw.writeLock().lock();
     try {
-      methodTable = Collections.emptyMap();
-      methodCache = Collections.emptyMap();
-      preferTable = Collections.emptyMap();
-      return this; }
+      final DispatchPlan plan = 
+        new DispatchPlan(this,tables.methodTable,n);
+      if (null == switchPoint) { switchPoint = new SwitchPoint(); }
+      return switchPoint
+        .guardWithTest(plan.methodHandle(fallback),fallback)
+        .asType(type); }
     finally { rw.writeLock().unlock(); } }
 
+  @Override
+  public final long cacheEvictions () { return evictions.get(); }
+
   //--------------------------------------------------------------
 
-  private static final Map assoc (final Map m,
-                                  final Object k,
-                                  final Object v) {
-    final HashMap b = new HashMap(m);
-    b.put(k,v);
-    return b; }
-
-  private static final Map dissoc (final Map m,
-                                   final Object k) {
-    final Map b = new HashMap(m);
-    b.remove(k);
-    return b; }
-
-  private static final Set add (final Set s,
-                                final Object v) {
-    if (null == s) { return Collections.singleton(v); }
-    final Set b = new HashSet(s);
-    b.add(v);
-    return b; }
-
-  private static final Map add (final Map m,
-                                final Object k,
-                                final Object v) {
-    final Map b = new HashMap(m);
-    b.put(k,add((Set) b.get(k),v));
-    return b; }
+  @Override
+  final MethodTables tables () { return tables; }
 
   //--------------------------------------------------------------
+  // edits replace the tables, and then the caches,
+  // under the write lock
+
+  private final MultiFn edit (final MethodTables t) {
+    tables = t;
+    resetCache();
+    return this; }
+
+  @Override
+  public final MultiFn reset () {
+    rw.writeLock().lock();
+    try { return edit(MethodTables.EMPTY); }
+    finally { rw.writeLock().unlock(); } }
 
   @Override
   public final MultiFn addMethod (final Object x,
                                   final IFn method) {
     checkLegalDispatchValue(x);
     rw.writeLock().lock();
-    try {
-      methodTable = assoc(methodTable,x,method);
-      resetCache();
-      return this; }
+    try { return edit(tables.assoc(x,method)); }
     finally { rw.writeLock().unlock(); } }
 
   @Override
   public final MultiFn removeMethod (final Object x) {
     checkLegalDispatchValue(x);
     rw.writeLock().lock();
-    try {
-      methodTable = dissoc(methodTable,x);
-      resetCache();
-      return this; }
+    try { return edit(tables.dissoc(x)); }
     finally { rw.writeLock().unlock(); } }
 
-  //--------------------------------------------------------------
-  // TODO: replace call to clojure.core/parents with something
-  // that doesn't refer to the global-hierarchy (a\or any hierarchy)
-
-  private static final Var parents = RT.var("clojure.core","parents");
-
-  private final boolean prefers (final Object x, 
-                                 final Object y) {
-
-    final Set xprefs = (Set) preferTable.get(x);
-
-    if (xprefs != null) {
-      // is there an explicit prefer-method entry for (x,y)?
-      if (xprefs.contains(y)) { return true; }
-      // transitive closure of prefer-method relation
-      // is x preferred to anything that is preferred to y?
-      for (final Object xx : xprefs) {
-        if (prefers(xx,y)) { return true; } } }
-
-    // For multi-arity dispatch functions, we need to check the
-    // keys of the preferTable.
-    // TODO: does this make the next loop unnecessary?
-    for (final Object k : preferTable.keySet()) {
-      if ((!Objects.equals(x,k)) 
-        && isA(x,k) 
-        && prefers(k,y)) { 
-        return true; } }
-
-    // are any of x's parents preferred to y?
-    // parents either in the multimethod's hierarchy or thru 
-    // Class.isAssignableFrom
-    for (ISeq ps = RT.seq(parents.invoke(x)); 
-      ps != null;
-      ps = ps.next()) {
-      if (prefers(ps.first(),y)) { return true; } }
-
-    return false; }
-
-  //--------------------------------------------------------------
-
   @Override
   public final MultiFn preferMethod (final Object x,
                                      final Object y) {
     checkLegalDispatchValue(x);
     checkLegalDispatchValue(y);
     rw.writeLock().lock();
-    try {
-      if (prefers(y,
-        x)) { throw new IllegalStateException(
-          String.format(
-            "Preference conflict in multimethod '%s':" +
-              "%s is already preferred to %s",
-              name,y,x)); }
-      preferTable = add(preferTable,x,y);
-      resetCache();
-      return this; }
+    try { return edit(tables.prefer(name,x,y)); }
     finally { rw.writeLock().unlock(); } }
 
   //--------------------------------------------------------------
-  /** See clojure.core/isa?
-   */
 
-  private static final boolean isA (final Class child,
-                                    final Class parent) {
-    // Note: not correct for primitive types like Float/TYPE
-    return Classes.isAssignableFrom(parent,child); }
+  // Lookup doesn't lock.
+  // Edits replace the tables first, and then the caches,
+  // so a lookup that reads a cache and then the tables
+  // can tell if its basis is stale by re-reading the cache.
 
-  private static final boolean isA (final Signature child,
-                                    final Signature parent) {
-    return parent.isAssignableFrom(child); }
+  private final SignatureCache signatureCache () {
+    if (linearLookup) { 
+      return SignatureCache.linear(cacheSize,evictions); }
+    return new SignatureCache(cacheSize,true,evictions); }
 
-  private final boolean isA (final IPersistentVector child,
-                             final IPersistentVector parent) {
-    final int n = child.length();
-    if (n != parent.length()) { return false; }
-    for (int i = 0; i < n; i++) {
-      if (!isA(child.nth(i),parent.nth(i))) { return false; } }
-    return true; } 
+  private final void resetCache () {
+    rw.writeLock().lock();
+    try {
+      methodCache = new MethodCache(cacheSize,weakKeys,evictions);
+      methodCache2 = signatureCache();
+      methodCache3 = signatureCache();
+      classCache = new ClassCache(); 
+      if (treeLookup) {
+        tree2 = new SignatureTree(2,tables);
+        tree3 = new SignatureTree(3,tables); }
+      frozen = null;
+      if (null != switchPoint) {
+        SwitchPoint.invalidateAll(new SwitchPoint[] { switchPoint });
+        switchPoint = null; }
+      version++; }
+    finally { rw.writeLock().unlock(); } }
 
-  @Override
-  public final boolean isA (final Object child,
-                            final Object parent) {
+  //--------------------------------------------------------------
+  // Misses are resolved against the tables (see MethodTables),
+  // read once, after the cache.
 
-    if (Objects.equals(child,parent)) { return true; }
+  private final IFn findAndCacheBestMethod (final Object dispatch) {
+    final MethodCache cache = methodCache;
+    final MethodTables t = tables;
+    final IFn bestValue = t.resolve(name,dispatch);
+    // ensure basis has stayed stable throughout, else redo
+    if ((cache == methodCache) && (t == tables)) {
+      cache.put(dispatch,bestValue);
+      return bestValue; }
+    return findAndCacheBestMethod(dispatch); }
 
-    if ((child instanceof Class) && (parent instanceof Class)) {
-      return isA((Class) child, (Class)parent); }
+  //--------------------------------------------------------------
+  // decision tree lookup:
+  // the tree records the tables it was built from, 
+  // and doesn't cache resolutions that saw different ones.
+
+  private final class SignatureTree extends DecisionTree {
+    private final MethodTables t;
+    private SignatureTree (final int arity,
+                           final MethodTables t) {
+      super(arity,t.methodTable,cacheSize,weakKeys,evictions);
+      this.t = t; }
+    @Override
+    protected final Object resolve (final Map.Entry[] candidates,
+                                    final Class k0,
+                                    final Class k1,
+                                    final Class k2) {
+      // by arity, not k2: nil is a legal third argument
+      final Signature dispatch = (2 == arity()) 
+        ? Signature2.get(k0,k1) 
+        : Signature3.get(k0,k1,k2);
+      final IFn bestValue = t.resolve(name,candidates,dispatch);
+      // ensure basis has stayed stable throughout
+      if (t == tables) { return bestValue; }
+      return STALE; } }
+
+  // retry with the current tree until a resolution 
+  // isn't overtaken by an edit
+
+  private final IFn getTreeMethod (final Class k0,
+                                   final Class k1) {
+    for (;;) {
+      final Object f = tree2.get(k0,k1);
+      if (DecisionTree.STALE != f) { return (IFn) f; } } }
+
+  private final IFn getTreeMethod (final Class k0,
+                                   final Class k1,
+                                   final Class k2) {
+    for (;;) {
+      final Object f = tree3.get(k0,k1,k2);
+      if (DecisionTree.STALE != f) { return (IFn) f; } } }
 
-    if ((child instanceof Signature) 
-      && (parent instanceof Signature)) {
-      return isA((Signature) child, (Signature)parent); }
+  //--------------------------------------------------------------
 
-    if ((child instanceof IPersistentVector) 
-      && (parent instanceof IPersistentVector)) {
-      return isA(
-        (IPersistentVector) child, 
-        (IPersistentVector) parent); }
+  private final IFn findAndCacheBestMethod (final Class k0,
+                                            final Class k1) {
+    final SignatureCache cache = methodCache2;
+    final MethodTables t = tables;
+    final IFn bestValue = t.resolve(name,k0,k1);
+    // ensure basis has stayed stable throughout, else redo
+    if ((cache == methodCache2) && (t == tables)) {
+      cache.put(k0,k1,bestValue);
+      return bestValue; }
+    return findAndCacheBestMethod(k0,k1); }
+
+  private final IFn findAndCacheBestMethod (final Class k0,
+                                            final Class k1,
+                                            final Class k2) {
+    final SignatureCache cache = methodCache3;
+    final MethodTables t = tables;
+    final IFn bestValue = t.resolve(name,k0,k1,k2);
+    // ensure basis has stayed stable throughout, else redo
+    if ((cache == methodCache3) && (t == tables)) {
+      cache.put(k0,k1,k2,bestValue);
+      return bestValue; }
+    return findAndCacheBestMethod(k0,k1,k2); }
+
+  /** Equivalent to 
+   * <code>getMethod(Signature2.get(k0,k1))</code>,
+   * without allocating the signature on a cache hit.
+   */
+  public final IFn getMethod (final Class k0,
+                              final Class k1) {
+    return Unresolved.method(lookup(k0,k1)); }
 
-    return false; }
+  /** Equivalent to 
+   * <code>getMethod(Signature3.get(k0,k1,k2))</code>,
+   * without allocating the signature on a cache hit.
+   */
+  public final IFn getMethod (final Class k0,
+                              final Class k1,
+                              final Class k2) {
+    return Unresolved.method(lookup(k0,k1,k2)); }
+
+  // lookup: the method, or an Unresolved, 
+  // or null from a tree, whose nodes cache the absence of
+  // candidates instead
+
+  private final IFn lookup (final Class k0,
+                            final Class k1) {
+    if (treeLookup) { return getTreeMethod(k0,k1); }
+    final IFn targetFn = methodCache2.get(k0,k1);
+    if (targetFn != null) { return targetFn; }
+    return findAndCacheBestMethod(k0,k1); }
 
-  //--------------------------------------------------------------
+  private final IFn lookup (final Class k0,
+                            final Class k1,
+                            final Class k2) {
+    if (treeLookup) { return getTreeMethod(k0,k1,k2); }
+    final IFn targetFn = methodCache3.get(k0,k1,k2);
+    if (targetFn != null) { return targetFn; }
+    return findAndCacheBestMethod(k0,k1,k2); }
 
   @Override
-  public final boolean dominates (final Object x, 
-                                  final Object y) {
-    return prefers(x,y) || isA(x,y); }
+  final IFn getFn (final Class k0,
+                   final Class k1) {
+    final IFn f = lookup(k0,k1);
+    if (null == f) { 
+      throw Unresolved.noMethod(name,Signature2.get(k0,k1))
+      .exception(); }
+    return Unresolved.fn(f); }
 
-  //--------------------------------------------------------------
-
-  private final Map resetCache () {
-    rw.writeLock().lock();
-    try {
-      methodCache = methodTable;
-      return methodCache; }
-    finally { rw.writeLock().unlock(); } }
+  @Override
+  final IFn getFn (final Class k0,
+                   final Class k1,
+                   final Class k2) {
+    final IFn f = lookup(k0,k1,k2);
+    if (null == f) { 
+      throw Unresolved.noMethod(name,Signature3.get(k0,k1,k2))
+      .exception(); }
+    return Unresolved.fn(f); }
 
   //--------------------------------------------------------------
-
-  private final Set updateMinima (final Map.Entry e0,
-                                  final Set<Map.Entry> minima) {
-    boolean add = true;
-    final Set<Map.Entry> updated = new HashSet(minima.size());
-    final Object k0 = e0.getKey();
-    for (final Map.Entry e : minima) {
-      final Object k = e.getKey();
-      if (dominates(k,k0)) { add = false; }
-      if (! dominates(k0,k)) { updated.add(e); } } 
-    if (add) { updated.add(e0); }
-    return updated; }
-
-  private static final Map.Entry first (final Set<Map.Entry> i) {
-    return i.iterator().next(); }
-
-  private final IFn findAndCacheBestMethod (final Object dispatch) {
-    rw.readLock().lock();
-    Object bestValue;
-    final Map mt = methodTable;
-    final Map pt = preferTable;
-    try {
-      Set<Map.Entry> minima = new HashSet(); // should be immutable?
-      for (final Object o : methodTable.entrySet()) {
-        final Map.Entry e = (Map.Entry) o;
-        if (isA(dispatch,e.getKey())) {
-          minima = updateMinima(e,minima); } } 
-      if (minima.isEmpty()) { return null; } 
-      else if (1 != minima.size()) {
-        throw new IllegalArgumentException(
-          String.format(
-            "Multiple methods in multimethod '%s' " + 
-              "match dispatch value: %s -> %s, " +
-              "and none is preferred",
-              name, dispatch, minima));  }
-      else {
-        bestValue = first(minima).getValue(); } }
-    finally { rw.readLock().unlock(); }
-
-    // ensure basis has stayed stable throughout, else redo
-    rw.writeLock().lock();
-    try {
-      if ((mt == methodTable) && 
-        (pt == preferTable)) {
-        methodCache = assoc(methodCache,dispatch,bestValue);
-        return (IFn) bestValue; }
-      resetCache();
-      return findAndCacheBestMethod(dispatch); }
-    finally { rw.writeLock().unlock(); } }
+  // single dispatch on a (non-null) Class:
+  // ClassValue caches whatever computeValue returns, 
+  // including an Unresolved for no applicable method, 
+  // or ambiguous ones.
+  // An adaptive (or linear) inline cache is checked first,
+  // by class identity, like SignatureCache.
+
+  private final class ClassCache extends ClassValue {
+    private volatile InlineEntry[] inline;
+    private ClassCache () { inline = InlineEntry.MONOMORPHIC; }
+    private final int inlineCount () {
+      final InlineEntry[] es = inline;
+      if (InlineEntry.MEGAMORPHIC == es) { return -1; }
+      return es.length; }
+    @Override
+    protected final Object computeValue (final Class c) {
+      return tables.resolve(name,c); } 
+    private final IFn getInline (final Class c) {
+      final InlineEntry[] es = inline;
+      for (final InlineEntry e : es) {
+        if (e.matches(c)) { return (IFn) e.value; } }
+      return null; }
+    private final void record (final Class c,
+                               final IFn f) {
+      final InlineEntry[] es = inline;
+      if ((InlineEntry.MEGAMORPHIC == es) || (null == f)) { return; }
+      // a full linear cache stays as it is
+      if (linearLookup && (InlineEntry.LINEAR_LIMIT <= es.length)) {
+        return; }
+      final InlineEntry e = new InlineEntry(c,null,null,f);
+      // racy, but each state is immutable and from this cache
+      inline = linearLookup 
+        ? InlineEntry.addLinear(es,e) 
+        : InlineEntry.add(es,e); } }
+
+  private final IFn getClassMethod (final Class c) {
+    final ClassCache cache = classCache;
+    final IFn inlined = cache.getInline(c);
+    if (null != inlined) { return inlined; }
+    final IFn targetFn = (IFn) cache.get(c);
+    // a table edit may have happened during computeValue 
+    if (cache == classCache) { 
+      cache.record(c,targetFn);
+      return targetFn; }
+    return getClassMethod(c); }
 
   //--------------------------------------------------------------
 
   @Override
   public final IFn getMethod (final Object x) {
+    return Unresolved.method(lookup(x)); }
+
+  private final IFn lookup (final Object x) {
+    if (x instanceof Class) { return getClassMethod((Class) x); }
+    if (x instanceof Signature2) { 
+      final Signature2 s = (Signature2) x;
+      return lookup(s.class0,s.class1); }
+    if (x instanceof Signature3) { 
+      final Signature3 s = (Signature3) x;
+      return lookup(s.class0,s.class1,s.class2); }
     final IFn targetFn = (IFn) methodCache.get(x);
     if (targetFn != null) { return targetFn; }
     return findAndCacheBestMethod(x); }
 
-  private final IFn getFn (final Object dispatch) {
-    final IFn targetFn = getMethod(dispatch);
-    if (targetFn == null) { 
-      throw new IllegalArgumentException(
-        String.format(
-          "No method in multimethod '%s' for dispatch value: %s",
-          name,dispatch)); }
-    return targetFn; }
+  @Override
+  final IFn getFn (final Object dispatch) {
+    final IFn f = lookup(dispatch);
+    if (null == f) { 
+      throw Unresolved.noMethod(name,dispatch).exception(); }
+    return Unresolved.fn(f); }
 
   //--------------------------------------------------------------
-  // IFn interface
+  // IFn interface, arities 1 to 3; the rest are in AMultiFn
   //--------------------------------------------------------------
 
-  @Override
-  public final Object invoke () {
-    return getFn(dispatchFn.invoke()).invoke();
-  }
+  /** Intrinsic signature dispatch, ignoring any frozen 
+   * dispatcher.
+   */
+  public final Object invokeUnfrozen (Object arg1) {
+    return getFn(Classes.classOf(arg1))
+      .invoke(Util.ret1(arg1,arg1 = null)); }
+
+  /** Intrinsic signature dispatch, ignoring any frozen 
+   * dispatcher.
+   */
+  public final Object invokeUnfrozen (Object arg1, 
+                                      Object arg2) {
+    return getFn(
+      Classes.classOf(arg1),
+      Classes.classOf(arg2))
+      .invoke(
+        Util.ret1(arg1,arg1 = null),
+        Util.ret1(arg2,arg2 = null)); }
+
+  /** Intrinsic signature dispatch, ignoring any frozen 
+   * dispatcher.
+   */
+  public final Object invokeUnfrozen (Object arg1, 
+                                      Object arg2, 
+                                      Object arg3) {
+    return getFn(
+      Classes.classOf(arg1),
+      Classes.classOf(arg2),
+      Classes.classOf(arg3))
+      .invoke(
+        Util.ret1(arg1,arg1 = null),
+        Util.ret1(arg2,arg2 = null),
+        Util.ret1(arg3,arg3 = null)); }
 
   @Override
   public final Object invoke (Object arg1) {
+    if (intrinsic) { 
+      final IFn fz = frozen;
+      if (null != fz) { 
+        return fz.invoke(Util.ret1(arg1,arg1 = null)); }
+      return invokeUnfrozen(Util.ret1(arg1,arg1 = null)); }
     return getFn(dispatchFn.invoke(arg1))
       .invoke(Util.ret1(arg1,arg1 = null));
   }
@@ -392,345 +679,37 @@ public final class MultiFnWoutHierarchy extends AFn implements MultiFn {
   @Override
   public final Object invoke (Object arg1, 
                               Object arg2) {
+    if (intrinsic) {
+      final IFn fz = frozen;
+      if (null != fz) { 
+        return fz.invoke(
+          Util.ret1(arg1,arg1 = null),
+          Util.ret1(arg2,arg2 = null)); }
+      return invokeUnfrozen(
+        Util.ret1(arg1,arg1 = null),
+        Util.ret1(arg2,arg2 = null)); }
     final Object k = dispatchFn.invoke(arg1,arg2);
-    final IFn f = getMethod(k);
-    assert null != f;
-    return f.invoke(
+    return getFn(k).invoke(
       Util.ret1(arg1,arg1 = null),
       Util.ret1(arg2,arg2 = null)); }
 
   @Override
   public final Object invoke (Object arg1, Object arg2, Object arg3) {
+    if (intrinsic) {
+      final IFn fz = frozen;
+      if (null != fz) { 
+        return fz.invoke(
+          Util.ret1(arg1,arg1 = null),
+          Util.ret1(arg2,arg2 = null),
+          Util.ret1(arg3,arg3 = null)); }
+      return invokeUnfrozen(
+        Util.ret1(arg1,arg1 = null),
+        Util.ret1(arg2,arg2 = null),
+        Util.ret1(arg3,arg3 = null)); }
     return getFn(dispatchFn.invoke(arg1,arg2,arg3)).invoke(
       Util.ret1(arg1,arg1 = null),
       Util.ret1(arg2,arg2 = null),
       Util.ret1(arg3,arg3 = null)); }
 
-  @Override
-  public final Object invoke (Object arg1, Object arg2, Object arg3,
-                              Object arg4) {
-    return getFn(dispatchFn.invoke(arg1,arg2,arg3,arg4)).invoke(
-      Util.ret1(arg1,arg1 = null),Util.ret1(arg2,arg2 = null),
-      Util.ret1(arg3,arg3 = null),Util.ret1(arg4,arg4 = null));
-  }
-
-  @Override
-  public final Object invoke (Object arg1, Object arg2, Object arg3,
-                              Object arg4, Object arg5) {
-    return getFn(dispatchFn.invoke(arg1,arg2,arg3,arg4,arg5))
-      .invoke(Util.ret1(arg1,arg1 = null),
-        Util.ret1(arg2,arg2 = null),Util.ret1(arg3,arg3 = null),
-        Util.ret1(arg4,arg4 = null),Util.ret1(arg5,arg5 = null));
-  }
-
-  @Override
-  public final Object invoke (Object arg1, Object arg2, Object arg3,
-                              Object arg4, Object arg5, Object arg6) {
-    return getFn(dispatchFn.invoke(arg1,arg2,arg3,arg4,arg5,arg6))
-      .invoke(Util.ret1(arg1,arg1 = null),
-        Util.ret1(arg2,arg2 = null),Util.ret1(arg3,arg3 = null),
-        Util.ret1(arg4,arg4 = null),Util.ret1(arg5,arg5 = null),
-        Util.ret1(arg6,arg6 = null));
-  }
-
-  @Override
-  public final Object invoke (Object arg1, Object arg2, Object arg3,
-                              Object arg4, Object arg5, Object arg6,
-                              Object arg7) {
-    return getFn(
-      dispatchFn.invoke(arg1,arg2,arg3,arg4,arg5,arg6,arg7))
-      .invoke(Util.ret1(arg1,arg1 = null),
-        Util.ret1(arg2,arg2 = null),Util.ret1(arg3,arg3 = null),
-        Util.ret1(arg4,arg4 = null),Util.ret1(arg5,arg5 = null),
-        Util.ret1(arg6,arg6 = null),
-        Util.ret1(arg7,arg7 = null));
-  }
-
-  @Override
-  public final Object invoke (Object arg1, Object arg2, Object arg3,
-                              Object arg4, Object arg5, Object arg6,
-                              Object arg7, Object arg8) {
-    return getFn(
-      dispatchFn.invoke(arg1,arg2,arg3,arg4,arg5,arg6,arg7,arg8))
-      .invoke(Util.ret1(arg1,arg1 = null),
-        Util.ret1(arg2,arg2 = null),Util.ret1(arg3,arg3 = null),
-        Util.ret1(arg4,arg4 = null),Util.ret1(arg5,arg5 = null),
-        Util.ret1(arg6,arg6 = null),Util.ret1(arg7,arg7 = null),
-        Util.ret1(arg8,arg8 = null));
-  }
-
-  @Override
-  public final Object invoke (Object arg1, Object arg2, Object arg3,
-                              Object arg4, Object arg5, Object arg6,
-                              Object arg7, Object arg8, Object arg9) {
-    return getFn(dispatchFn.invoke(arg1,arg2,arg3,arg4,arg5,arg6,
-      arg7,arg8,arg9)).invoke(Util.ret1(arg1,arg1 = null),
-        Util.ret1(arg2,arg2 = null),Util.ret1(arg3,arg3 = null),
-        Util.ret1(arg4,arg4 = null),Util.ret1(arg5,arg5 = null),
-        Util.ret1(arg6,arg6 = null),Util.ret1(arg7,arg7 = null),
-        Util.ret1(arg8,arg8 = null),Util.ret1(arg9,arg9 = null));
-  }
-
-  @Override
-  public final Object invoke (Object arg1, Object arg2, Object arg3,
-                              Object arg4, Object arg5, Object arg6,
-                              Object arg7, Object arg8, Object arg9,
-                              Object arg10) {
-    return getFn(dispatchFn.invoke(arg1,arg2,arg3,arg4,arg5,arg6,
-      arg7,arg8,arg9,arg10)).invoke(Util.ret1(arg1,arg1 = null),
-        Util.ret1(arg2,arg2 = null),Util.ret1(arg3,arg3 = null),
-        Util.ret1(arg4,arg4 = null),Util.ret1(arg5,arg5 = null),
-        Util.ret1(arg6,arg6 = null),Util.ret1(arg7,arg7 = null),
-        Util.ret1(arg8,arg8 = null),Util.ret1(arg9,arg9 = null),
-        Util.ret1(arg10,arg10 = null));
-  }
-
-  @Override
-  public final Object invoke (Object arg1, Object arg2, Object arg3,
-                              Object arg4, Object arg5, Object arg6,
-                              Object arg7, Object arg8, Object arg9,
-                              Object arg10, Object arg11) {
-    return getFn(dispatchFn.invoke(arg1,arg2,arg3,arg4,arg5,arg6,
-      arg7,arg8,arg9,arg10,arg11)).invoke(
-        Util.ret1(arg1,arg1 = null),Util.ret1(arg2,arg2 = null),
-        Util.ret1(arg3,arg3 = null),Util.ret1(arg4,arg4 = null),
-        Util.ret1(arg5,arg5 = null),Util.ret1(arg6,arg6 = null),
-        Util.ret1(arg7,arg7 = null),Util.ret1(arg8,arg8 = null),
-        Util.ret1(arg9,arg9 = null),Util.ret1(arg10,arg10 = null),
-        Util.ret1(arg11,arg11 = null));
-  }
-
-  @Override
-  public final Object invoke (Object arg1, Object arg2, Object arg3,
-                              Object arg4, Object arg5, Object arg6,
-                              Object arg7, Object arg8, Object arg9,
-                              Object arg10, Object arg11,
-                              Object arg12) {
-    return getFn(dispatchFn.invoke(arg1,arg2,arg3,arg4,arg5,arg6,
-      arg7,arg8,arg9,arg10,arg11,arg12)).invoke(
-        Util.ret1(arg1,arg1 = null),Util.ret1(arg2,arg2 = null),
-        Util.ret1(arg3,arg3 = null),Util.ret1(arg4,arg4 = null),
-        Util.ret1(arg5,arg5 = null),Util.ret1(arg6,arg6 = null),
-        Util.ret1(arg7,arg7 = null),Util.ret1(arg8,arg8 = null),
-        Util.ret1(arg9,arg9 = null),Util.ret1(arg10,arg10 = null),
-        Util.ret1(arg11,arg11 = null),
-        Util.ret1(arg12,arg12 = null));
-  }
-
-  @Override
-  public final Object invoke (Object arg1, Object arg2, Object arg3,
-                              Object arg4, Object arg5, Object arg6,
-                              Object arg7, Object arg8, Object arg9,
-                              Object arg10, Object arg11, Object arg12,
-                              Object arg13) {
-    return getFn(dispatchFn.invoke(arg1,arg2,arg3,arg4,arg5,arg6,
-      arg7,arg8,arg9,arg10,arg11,arg12,arg13)).invoke(
-        Util.ret1(arg1,arg1 = null),Util.ret1(arg2,arg2 = null),
-        Util.ret1(arg3,arg3 = null),Util.ret1(arg4,arg4 = null),
-        Util.ret1(arg5,arg5 = null),Util.ret1(arg6,arg6 = null),
-        Util.ret1(arg7,arg7 = null),Util.ret1(arg8,arg8 = null),
-        Util.ret1(arg9,arg9 = null),Util.ret1(arg10,arg10 = null),
-        Util.ret1(arg11,arg11 = null),
-        Util.ret1(arg12,arg12 = null),
-        Util.ret1(arg13,arg13 = null));
-  }
-
-  @Override
-  public final Object invoke (Object arg1, Object arg2, Object arg3,
-                              Object arg4, Object arg5, Object arg6,
-                              Object arg7, Object arg8, Object arg9,
-                              Object arg10, Object arg11, Object arg12,
-                              Object arg13, Object arg14) {
-    return getFn(dispatchFn.invoke(arg1,arg2,arg3,arg4,arg5,arg6,
-      arg7,arg8,arg9,arg10,arg11,arg12,arg13,arg14)).invoke(
-        Util.ret1(arg1,arg1 = null),Util.ret1(arg2,arg2 = null),
-        Util.ret1(arg3,arg3 = null),Util.ret1(arg4,arg4 = null),
-        Util.ret1(arg5,arg5 = null),Util.ret1(arg6,arg6 = null),
-        Util.ret1(arg7,arg7 = null),Util.ret1(arg8,arg8 = null),
-        Util.ret1(arg9,arg9 = null),Util.ret1(arg10,arg10 = null),
-        Util.ret1(arg11,arg11 = null),
-        Util.ret1(arg12,arg12 = null),
-        Util.ret1(arg13,arg13 = null),
-        Util.ret1(arg14,arg14 = null));
-  }
-
-  @Override
-  public final Object invoke (Object arg1, Object arg2, Object arg3,
-                              Object arg4, Object arg5, Object arg6,
-                              Object arg7, Object arg8, Object arg9,
-                              Object arg10, Object arg11, Object arg12,
-                              Object arg13, Object arg14,
-                              Object arg15) {
-    return getFn(dispatchFn.invoke(arg1,arg2,arg3,arg4,arg5,arg6,
-      arg7,arg8,arg9,arg10,arg11,arg12,arg13,arg14,arg15)).invoke(
-        Util.ret1(arg1,arg1 = null),Util.ret1(arg2,arg2 = null),
-        Util.ret1(arg3,arg3 = null),Util.ret1(arg4,arg4 = null),
-        Util.ret1(arg5,arg5 = null),Util.ret1(arg6,arg6 = null),
-        Util.ret1(arg7,arg7 = null),Util.ret1(arg8,arg8 = null),
-        Util.ret1(arg9,arg9 = null),Util.ret1(arg10,arg10 = null),
-        Util.ret1(arg11,arg11 = null),
-        Util.ret1(arg12,arg12 = null),
-        Util.ret1(arg13,arg13 = null),
-        Util.ret1(arg14,arg14 = null),
-        Util.ret1(arg15,arg15 = null));
-  }
-
-  @Override
-  public final Object invoke (Object arg1, Object arg2, Object arg3,
-                              Object arg4, Object arg5, Object arg6,
-                              Object arg7, Object arg8, Object arg9,
-                              Object arg10, Object arg11, Object arg12,
-                              Object arg13, Object arg14, Object arg15,
-                              Object arg16) {
-    return getFn(dispatchFn.invoke(arg1,arg2,arg3,arg4,arg5,arg6,
-      arg7,arg8,arg9,arg10,arg11,arg12,arg13,arg14,arg15,arg16))
-      .invoke(Util.ret1(arg1,arg1 = null),
-        Util.ret1(arg2,arg2 = null),Util.ret1(arg3,arg3 = null),
-        Util.ret1(arg4,arg4 = null),Util.ret1(arg5,arg5 = null),
-        Util.ret1(arg6,arg6 = null),Util.ret1(arg7,arg7 = null),
-        Util.ret1(arg8,arg8 = null),Util.ret1(arg9,arg9 = null),
-        Util.ret1(arg10,arg10 = null),
-        Util.ret1(arg11,arg11 = null),
-        Util.ret1(arg12,arg12 = null),
-        Util.ret1(arg13,arg13 = null),
-        Util.ret1(arg14,arg14 = null),
-        Util.ret1(arg15,arg15 = null),
-        Util.ret1(arg16,arg16 = null));
-  }
-
-  @Override
-  public final Object invoke (Object arg1, Object arg2, Object arg3,
-                              Object arg4, Object arg5, Object arg6,
-                              Object arg7, Object arg8, Object arg9,
-                              Object arg10, Object arg11, Object arg12,
-                              Object arg13, Object arg14, Object arg15,
-                              Object arg16, Object arg17) {
-    return getFn(dispatchFn.invoke(arg1,arg2,arg3,arg4,arg5,arg6,
-      arg7,arg8,arg9,arg10,arg11,arg12,arg13,arg14,arg15,arg16,
-      arg17)).invoke(Util.ret1(arg1,arg1 = null),
-        Util.ret1(arg2,arg2 = null),Util.ret1(arg3,arg3 = null),
-        Util.ret1(arg4,arg4 = null),Util.ret1(arg5,arg5 = null),
-        Util.ret1(arg6,arg6 = null),Util.ret1(arg7,arg7 = null),
-        Util.ret1(arg8,arg8 = null),Util.ret1(arg9,arg9 = null),
-        Util.ret1(arg10,arg10 = null),
-        Util.ret1(arg11,arg11 = null),
-        Util.ret1(arg12,arg12 = null),
-        Util.ret1(arg13,arg13 = null),
-        Util.ret1(arg14,arg14 = null),
-        Util.ret1(arg15,arg15 = null),
-        Util.ret1(arg16,arg16 = null),
-        Util.ret1(arg17,arg17 = null));
-  }
-
-  @Override
-  public final Object invoke (Object arg1, Object arg2, Object arg3,
-                              Object arg4, Object arg5, Object arg6,
-                              Object arg7, Object arg8, Object arg9,
-                              Object arg10, Object arg11, Object arg12,
-                              Object arg13, Object arg14, Object arg15,
-                              Object arg16, Object arg17,
-                              Object arg18) {
-    return getFn(dispatchFn.invoke(arg1,arg2,arg3,arg4,arg5,arg6,
-      arg7,arg8,arg9,arg10,arg11,arg12,arg13,arg14,arg15,arg16,
-      arg17,arg18)).invoke(Util.ret1(arg1,arg1 = null),
-        Util.ret1(arg2,arg2 = null),Util.ret1(arg3,arg3 = null),
-        Util.ret1(arg4,arg4 = null),Util.ret1(arg5,arg5 = null),
-        Util.ret1(arg6,arg6 = null),Util.ret1(arg7,arg7 = null),
-        Util.ret1(arg8,arg8 = null),Util.ret1(arg9,arg9 = null),
-        Util.ret1(arg10,arg10 = null),
-        Util.ret1(arg11,arg11 = null),
-        Util.ret1(arg12,arg12 = null),
-        Util.ret1(arg13,arg13 = null),
-        Util.ret1(arg14,arg14 = null),
-        Util.ret1(arg15,arg15 = null),
-        Util.ret1(arg16,arg16 = null),
-        Util.ret1(arg17,arg17 = null),
-        Util.ret1(arg18,arg18 = null));
-  }
-
-  @Override
-  public final Object invoke (Object arg1, Object arg2, Object arg3,
-                              Object arg4, Object arg5, Object arg6,
-                              Object arg7, Object arg8, Object arg9,
-                              Object arg10, Object arg11, Object arg12,
-                              Object arg13, Object arg14, Object arg15,
-                              Object arg16, Object arg17, Object arg18,
-                              Object arg19) {
-    return getFn(dispatchFn.invoke(arg1,arg2,arg3,arg4,arg5,arg6,
-      arg7,arg8,arg9,arg10,arg11,arg12,arg13,arg14,arg15,arg16,
-      arg17,arg18,arg19)).invoke(Util.ret1(arg1,arg1 = null),
-        Util.ret1(arg2,arg2 = null),Util.ret1(arg3,arg3 = null),
-        Util.ret1(arg4,arg4 = null),Util.ret1(arg5,arg5 = null),
-        Util.ret1(arg6,arg6 = null),Util.ret1(arg7,arg7 = null),
-        Util.ret1(arg8,arg8 = null),Util.ret1(arg9,arg9 = null),
-        Util.ret1(arg10,arg10 = null),
-        Util.ret1(arg11,arg11 = null),
-        Util.ret1(arg12,arg12 = null),
-        Util.ret1(arg13,arg13 = null),
-        Util.ret1(arg14,arg14 = null),
-        Util.ret1(arg15,arg15 = null),
-        Util.ret1(arg16,arg16 = null),
-        Util.ret1(arg17,arg17 = null),
-        Util.ret1(arg18,arg18 = null),
-        Util.ret1(arg19,arg19 = null));
-  }
-
-  @Override
-  public final Object invoke (Object arg1, Object arg2, Object arg3,
-                              Object arg4, Object arg5, Object arg6,
-                              Object arg7, Object arg8, Object arg9,
-                              Object arg10, Object arg11, Object arg12,
-                              Object arg13, Object arg14, Object arg15,
-                              Object arg16, Object arg17, Object arg18,
-                              Object arg19, Object arg20) {
-    return getFn(dispatchFn.invoke(arg1,arg2,arg3,arg4,arg5,arg6,
-      arg7,arg8,arg9,arg10,arg11,arg12,arg13,arg14,arg15,arg16,
-      arg17,arg18,arg19,arg20)).invoke(
-        Util.ret1(arg1,arg1 = null),Util.ret1(arg2,arg2 = null),
-        Util.ret1(arg3,arg3 = null),Util.ret1(arg4,arg4 = null),
-        Util.ret1(arg5,arg5 = null),Util.ret1(arg6,arg6 = null),
-        Util.ret1(arg7,arg7 = null),Util.ret1(arg8,arg8 = null),
-        Util.ret1(arg9,arg9 = null),Util.ret1(arg10,arg10 = null),
-        Util.ret1(arg11,arg11 = null),
-        Util.ret1(arg12,arg12 = null),
-        Util.ret1(arg13,arg13 = null),
-        Util.ret1(arg14,arg14 = null),
-        Util.ret1(arg15,arg15 = null),
-        Util.ret1(arg16,arg16 = null),
-        Util.ret1(arg17,arg17 = null),
-        Util.ret1(arg18,arg18 = null),
-        Util.ret1(arg19,arg19 = null),
-        Util.ret1(arg20,arg20 = null));
-  }
-
-  @Override
-  public final Object invoke (Object arg1, Object arg2, Object arg3,
-                              Object arg4, Object arg5, Object arg6,
-                              Object arg7, Object arg8, Object arg9,
-                              Object arg10, Object arg11, Object arg12,
-                              Object arg13, Object arg14, Object arg15,
-                              Object arg16, Object arg17, Object arg18,
-                              Object arg19, Object arg20,
-                              final Object... args) {
-    return getFn(dispatchFn.invoke(arg1,arg2,arg3,arg4,arg5,arg6,
-      arg7,arg8,arg9,arg10,arg11,arg12,arg13,arg14,arg15,arg16,
-      arg17,arg18,arg19,arg20,args)).invoke(
-        Util.ret1(arg1,arg1 = null),Util.ret1(arg2,arg2 = null),
-        Util.ret1(arg3,arg3 = null),Util.ret1(arg4,arg4 = null),
-        Util.ret1(arg5,arg5 = null),Util.ret1(arg6,arg6 = null),
-        Util.ret1(arg7,arg7 = null),Util.ret1(arg8,arg8 = null),
-        Util.ret1(arg9,arg9 = null),Util.ret1(arg10,arg10 = null),
-        Util.ret1(arg11,arg11 = null),
-        Util.ret1(arg12,arg12 = null),
-        Util.ret1(arg13,arg13 = null),
-        Util.ret1(arg14,arg14 = null),
-        Util.ret1(arg15,arg15 = null),
-        Util.ret1(arg16,arg16 = null),
-        Util.ret1(arg17,arg17 = null),
-        Util.ret1(arg18,arg18 = null),
-        Util.ret1(arg19,arg19 = null),
-        Util.ret1(arg20,arg20 = null),args);
-  }
-
   //--------------------------------------------------------------
 }
@@ -0,0 +1,206 @@
+package palisades.lakes.multimethods.java;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/** The transitive closure of a prefer table, as a bit matrix
+ * over the dispatch values that appear in it, so
+ * <code>prefers(x,y)</code> is a bit test, rather than a
+ * recursive search of the prefer table, the dispatch values
+ * it contains that <code>x</code> is-a, and <code>x</code>'s
+ * parents.
+ * Implementation details, subject to revision.
+ * Use the Clojure API to be future-proof.
+ * <p>
+ * <code>x</code> is preferred to <code>y</code> if
+ * <code>x</code> is-a <code>k</code> (or equals it),
+ * and <code>y</code> is in the prefer table entry for
+ * <code>k</code>, or is preferred to something that is.
+ * Since is-a is transitive, a dispatch value is preferred to
+ * whatever the keys it is-a are preferred to, which covers
+ * its parents too.
+ * <p>
+ * Immutable: {@link #with} returns a new closure, with one more
+ * preference, updating only the rows that gain it, so the
+ * owner keeps it up to date with each
+ * <code>preferMethod</code>, rather than rebuilding it.
+ * Rows for dispatch values that aren't in the prefer table
+ * are computed the first time they're needed, and kept for
+ * the life of the closure.
+ *
+ * @author palisades dot lakes at gmail dot com
+ * @since 2026-10-18
+ * @version 2026-10-18
+ */
+
+@SuppressWarnings("unchecked")
+final class PreferClosure {
+
+  /** The is-a relation between dispatch values, which may
+   * depend on a particular hierarchy; the only relation a
+   * closure needs.
+   */
+  interface IsA {
+    boolean isA (Object child, Object parent); }
+
+  private static final long[] NO_ROW = new long[0];
+
+  private final IsA relation;
+  private final Object[] basis;
+  // dispatch value -> position
+  private final Map nodes;
+  private final Object[] values;
+  // positions of the values with preferences of their own
+  private final int[] keys;
+  // bit j of rows[i] is set if values[i] is preferred to
+  // values[j]
+  private final long[][] rows;
+  // rows for other dispatch values, no nulls
+  private final ConcurrentHashMap others;
+
+  //--------------------------------------------------------------
+  // bits
+
+  private static final int words (final int n) {
+    return (n + 63) >>> 6; }
+
+  private static final boolean get (final long[] r,
+                                    final int i) {
+    final int w = i >>> 6;
+    return (w < r.length) && (0L != (r[w] & (1L << i))); }
+
+  private static final void set (final long[] r,
+                                 final int i) {
+    r[i >>> 6] |= (1L << i); }
+
+  private static final void or (final long[] r,
+                                final long[] s) {
+    for (int w=0;w<s.length;w++) { r[w] |= s[w]; } }
+
+  private static final boolean intersects (final long[] r,
+                                           final long[] s) {
+    final int n = Math.min(r.length,s.length);
+    for (int w=0;w<n;w++) { if (0L != (r[w] & s[w])) { return true; } }
+    return false; }
+
+  //--------------------------------------------------------------
+
+  private PreferClosure (final IsA relation,
+                         final Object[] basis,
+                         final Map nodes,
+                         final Object[] values,
+                         final int[] keys,
+                         final long[][] rows) {
+    this.relation = relation;
+    this.basis = basis;
+    this.nodes = nodes;
+    this.values = values;
+    this.keys = keys;
+    this.rows = rows;
+    others = new ConcurrentHashMap(); }
+
+  /** An empty prefer table.
+   * <code>basis</code> is whatever the owner needs to check
+   * the closure is still current, by identity.
+   */
+  PreferClosure (final IsA relation,
+                 final Object... basis) {
+    this(relation,basis,
+      new HashMap(),new Object[0],new int[0],new long[0][]); }
+
+  /** The closure of the prefer table <code>pt</code>,
+   * a map from dispatch value to set of dispatch values.
+   */
+  static final PreferClosure of (final Map pt,
+                                 final IsA relation,
+                                 final Object... basis) {
+    PreferClosure c = new PreferClosure(relation,basis);
+    for (final Object o : pt.entrySet()) {
+      final Map.Entry e = (Map.Entry) o;
+      for (final Object y : (Set) e.getValue()) {
+        c = c.with(e.getKey(),y,basis); } }
+    return c; }
+
+  //--------------------------------------------------------------
+
+  /** Was the closure built for exactly these
+   * (compared by identity)?
+   */
+  final boolean hasBasis (final Object b0,
+                          final Object b1) {
+    return (2 == basis.length)
+      && (b0 == basis[0]) && (b1 == basis[1]); }
+
+  //--------------------------------------------------------------
+
+  private final long[] row (final Object x) {
+    final Integer i = (Integer) nodes.get(x);
+    if (null != i) { return rows[i.intValue()]; }
+    if ((null == x) || (0 == keys.length)) { return NO_ROW; }
+    final long[] r = (long[]) others.get(x);
+    if (null != r) { return r; }
+    final long[] b = new long[words(values.length)];
+    for (final int k : keys) {
+      if (relation.isA(x,values[k])) { or(b,rows[k]); } }
+    others.putIfAbsent(x,b);
+    return b; }
+
+  /** Is <code>x</code> preferred to <code>y</code>?
+   */
+  final boolean prefers (final Object x,
+                         final Object y) {
+    final Integer j = (Integer) nodes.get(y);
+    if (null == j) { return false; }
+    return get(row(x),j.intValue()); }
+
+  //--------------------------------------------------------------
+
+  /** A new closure, with <code>x</code> preferred to
+   * <code>y</code>.
+   */
+  final PreferClosure with (final Object x,
+                            final Object y,
+                            final Object... b) {
+    final int n0 = values.length;
+    final Map ns = new HashMap(nodes);
+    final Object[] vs = Arrays.copyOf(values,n0+2);
+    int n = n0;
+    if (! ns.containsKey(x)) { ns.put(x,n); vs[n++] = x; }
+    if (! ns.containsKey(y)) { ns.put(y,n); vs[n++] = y; }
+    final int w = words(n);
+    final long[][] rs = new long[n][];
+    for (int i=0;i<n0;i++) { rs[i] = Arrays.copyOf(rows[i],w); }
+    // a new value is preferred to whatever the keys it is-a are
+    for (int i=n0;i<n;i++) {
+      rs[i] = new long[w];
+      for (final int k : keys) {
+        if (relation.isA(vs[i],vs[k])) { or(rs[i],rs[k]); } } }
+
+    final int ix = ((Integer) ns.get(x)).intValue();
+    final int iy = ((Integer) ns.get(y)).intValue();
+    int[] ks = keys;
+    if (0 > Arrays.binarySearch(keys,ix)) {
+      ks = Arrays.copyOf(keys,keys.length+1);
+      ks[keys.length] = ix;
+      Arrays.sort(ks); }
+
+    // y, and whatever it's preferred to, is now preferred to
+    // by x, whatever is-a x, and whatever is preferred to
+    // either
+    final long[] a = new long[w];
+    for (int i=0;i<n;i++) {
+      if ((i == ix) || relation.isA(vs[i],x)) { set(a,i); } }
+    final long[] gained = rs[iy].clone();
+    set(gained,iy);
+    for (int i=0;i<n;i++) {
+      if (get(a,i) || intersects(rs[i],a)) { or(rs[i],gained); } }
+
+    return new PreferClosure(
+      relation,b,ns,Arrays.copyOf(vs,n),ks,rs); }
+
+  //--------------------------------------------------------------
+}
+//--------------------------------------------------------------
@@ -0,0 +1,206 @@
+package palisades.lakes.multimethods.java;
+
+import clojure.lang.AFn;
+import clojure.lang.IFn;
+import clojure.lang.ISeq;
+import clojure.lang.RT;
+import clojure.lang.Util;
+
+/** The explicit primitive entry point to a
+ * {@link MultiFnWoutHierarchy}: a view that implements some of
+ * the primitive <code>IFn</code> interfaces
+ * (<code>IFn.DD</code>, <code>IFn.DDD</code>,
+ * <code>IFn.LLL</code>, ...), which the multimethod itself
+ * doesn't.
+ * Implementation details, subject to revision.
+ * Use the Clojure API to be future-proof.
+ * <p>
+ * <b>Warning:</b> a call to <code>invokePrim</code> has already
+ * coerced its arguments to <code>double</code> or
+ * <code>long</code>, so it dispatches on <code>Double</code>
+ * or <code>Long</code>, whatever the caller's arguments were;
+ * an <code>Integer</code>, <code>Ratio</code>, or
+ * <code>BigDecimal</code> argument never reaches its own
+ * method. That's also what happens when the compiler sees
+ * primitive <code>:arglists</code> on a <code>Var</code>
+ * holding the view, so only use the view where the arguments
+ * are known to be primitive.
+ * <p>
+ * With intrinsic signature dispatch, and not frozen,
+ * <code>invokePrim</code> looks up the method for the
+ * corresponding boxed classes
+ * (<code>Double</code>, <code>Long</code>),
+ * which are constants, and calls its <code>invokePrim</code>,
+ * without boxing, if it implements the same interface.
+ * Otherwise the arguments are boxed, and the result unboxed,
+ * as Clojure does.
+ * The boxed <code>invoke</code> methods, for arities 1 to 3,
+ * and <code>applyTo</code>, just call the multimethod.
+ * <p>
+ * The view reads the multimethod's current tables on each
+ * call, so it never needs updating.
+ * {@link ImmutableMultiFn} has no primitive view.
+ *
+ * @author palisades dot lakes at gmail dot com
+ * @since 2026-10-18
+ * @version 2026-10-18
+ */
+
+public final class PrimitiveMultiFn extends AFn
+implements
+IFn.DD, IFn.LL, IFn.OD,
+IFn.DDD, IFn.LLL, IFn.DLD, IFn.LDD, IFn.OOD,
+IFn.DDDD, IFn.LLLL {
+
+  private final MultiFnWoutHierarchy multifn;
+
+  //--------------------------------------------------------------
+
+  PrimitiveMultiFn (final MultiFnWoutHierarchy f) {
+    assert null != f;
+    multifn = f; }
+
+  /** The multimethod this is a view of.
+   */
+  public final MultiFnWoutHierarchy multifn () { return multifn; }
+
+  //--------------------------------------------------------------
+  // boxed calls
+  //--------------------------------------------------------------
+
+  @Override
+  public final Object invoke (Object arg1) {
+    return multifn.invoke(Util.ret1(arg1,arg1 = null)); }
+
+  @Override
+  public final Object invoke (Object arg1,
+                              Object arg2) {
+    return multifn.invoke(
+      Util.ret1(arg1,arg1 = null),
+      Util.ret1(arg2,arg2 = null)); }
+
+  @Override
+  public final Object invoke (Object arg1,
+                              Object arg2,
+                              Object arg3) {
+    return multifn.invoke(
+      Util.ret1(arg1,arg1 = null),
+      Util.ret1(arg2,arg2 = null),
+      Util.ret1(arg3,arg3 = null)); }
+
+  @Override
+  public final Object applyTo (final ISeq args) {
+    return multifn.applyTo(args); }
+
+  //--------------------------------------------------------------
+  // primitive calls
+  //--------------------------------------------------------------
+  // Intrinsic dispatch on a primitive argument uses the boxed
+  // class, the same as the boxed call would, so methods defined
+  // for Double or Long apply.
+  // Frozen dispatchers and dispatch functions only take boxed
+  // arguments.
+
+  private final boolean isPrimitiveDirect () {
+    return multifn.isIntrinsic() && (! multifn.isFrozen()); }
+
+  @Override
+  public final double invokePrim (final double arg1) {
+    if (isPrimitiveDirect()) {
+      final IFn f = multifn.getFn((Object) Double.class);
+      if (f instanceof IFn.DD) { return ((IFn.DD) f).invokePrim(arg1); }
+      return RT.doubleCast(f.invoke(arg1)); }
+    return RT.doubleCast(multifn.invoke(arg1)); }
+
+  @Override
+  public final long invokePrim (final long arg1) {
+    if (isPrimitiveDirect()) {
+      final IFn f = multifn.getFn((Object) Long.class);
+      if (f instanceof IFn.LL) { return ((IFn.LL) f).invokePrim(arg1); }
+      return RT.longCast(f.invoke(arg1)); }
+    return RT.longCast(multifn.invoke(arg1)); }
+
+  @Override
+  public final double invokePrim (final Object arg1) {
+    if (isPrimitiveDirect()) {
+      final IFn f = multifn.getFn((Object) Classes.classOf(arg1));
+      if (f instanceof IFn.OD) { return ((IFn.OD) f).invokePrim(arg1); }
+      return RT.doubleCast(f.invoke(arg1)); }
+    return RT.doubleCast(multifn.invoke(arg1)); }
+
+  @Override
+  public final double invokePrim (final double arg1,
+                                  final double arg2) {
+    if (isPrimitiveDirect()) {
+      final IFn f = multifn.getFn(Double.class,Double.class);
+      if (f instanceof IFn.DDD) {
+        return ((IFn.DDD) f).invokePrim(arg1,arg2); }
+      return RT.doubleCast(f.invoke(arg1,arg2)); }
+    return RT.doubleCast(multifn.invoke(arg1,arg2)); }
+
+  @Override
+  public final long invokePrim (final long arg1,
+                                final long arg2) {
+    if (isPrimitiveDirect()) {
+      final IFn f = multifn.getFn(Long.class,Long.class);
+      if (f instanceof IFn.LLL) {
+        return ((IFn.LLL) f).invokePrim(arg1,arg2); }
+      return RT.longCast(f.invoke(arg1,arg2)); }
+    return RT.longCast(multifn.invoke(arg1,arg2)); }
+
+  @Override
+  public final double invokePrim (final double arg1,
+                                  final long arg2) {
+    if (isPrimitiveDirect()) {
+      final IFn f = multifn.getFn(Double.class,Long.class);
+      if (f instanceof IFn.DLD) {
+        return ((IFn.DLD) f).invokePrim(arg1,arg2); }
+      return RT.doubleCast(f.invoke(arg1,arg2)); }
+    return RT.doubleCast(multifn.invoke(arg1,arg2)); }
+
+  @Override
+  public final double invokePrim (final long arg1,
+                                  final double arg2) {
+    if (isPrimitiveDirect()) {
+      final IFn f = multifn.getFn(Long.class,Double.class);
+      if (f instanceof IFn.LDD) {
+        return ((IFn.LDD) f).invokePrim(arg1,arg2); }
+      return RT.doubleCast(f.invoke(arg1,arg2)); }
+    return RT.doubleCast(multifn.invoke(arg1,arg2)); }
+
+  @Override
+  public final double invokePrim (final Object arg1,
+                                  final Object arg2) {
+    if (isPrimitiveDirect()) {
+      final IFn f =
+        multifn.getFn(Classes.classOf(arg1),Classes.classOf(arg2));
+      if (f instanceof IFn.OOD) {
+        return ((IFn.OOD) f).invokePrim(arg1,arg2); }
+      return RT.doubleCast(f.invoke(arg1,arg2)); }
+    return RT.doubleCast(multifn.invoke(arg1,arg2)); }
+
+  @Override
+  public final double invokePrim (final double arg1,
+                                  final double arg2,
+                                  final double arg3) {
+    if (isPrimitiveDirect()) {
+      final IFn f =
+        multifn.getFn(Double.class,Double.class,Double.class);
+      if (f instanceof IFn.DDDD) {
+        return ((IFn.DDDD) f).invokePrim(arg1,arg2,arg3); }
+      return RT.doubleCast(f.invoke(arg1,arg2,arg3)); }
+    return RT.doubleCast(multifn.invoke(arg1,arg2,arg3)); }
+
+  @Override
+  public final long invokePrim (final long arg1,
+                                final long arg2,
+                                final long arg3) {
+    if (isPrimitiveDirect()) {
+      final IFn f = multifn.getFn(Long.class,Long.class,Long.class);
+      if (f instanceof IFn.LLLL) {
+        return ((IFn.LLLL) f).invokePrim(arg1,arg2,arg3); }
+      return RT.longCast(f.invoke(arg1,arg2,arg3)); }
+    return RT.longCast(multifn.invoke(arg1,arg2,arg3)); }
+
+  //--------------------------------------------------------------
+}
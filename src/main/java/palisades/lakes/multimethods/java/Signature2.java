@@ -4,17 +4,21 @@ import java.util.Objects;
 
 /** A pair of classes, for optimizing multimethod dispatch
  * functions.
+ * <p>
+ * {@link #get} and {@link #extract} return interned instances,
+ * (see {@link SignaturePool}), so equal signatures are usually
+ * identical, and cache probes succeed on the identity check.
  *
  * @author palisades dot lakes at gmail dot com
- * @version 2018-02-12
+ * @version 2026-10-18
  */
 
 @SuppressWarnings("unchecked")
 public final class Signature2 implements Signature {
 
   private final int hash;
-  private final Class class0;
-  private final Class class1;
+  public final Class class0;
+  public final Class class1;
 
   //--------------------------------------------------------------
 
@@ -76,7 +80,8 @@ public final class Signature2 implements Signature {
       Classes.getSimpleName(class1); }
 
   //--------------------------------------------------------------
-  // TODO: memoize singleton instances?
+
+  private static final SignaturePool POOL = new SignaturePool();
 
   public Signature2 (final Class k0, final Class k1) {
     hash = 31*((31*17) + Objects.hashCode(k0)) 
@@ -84,15 +89,18 @@ public final class Signature2 implements Signature {
     class0 = k0; 
     class1 = k1; }
 
+  /** The interned signature for <code>(k0,k1)</code>.
+   */
   public static final Signature2 get (final Class k0,
                                       final Class k1) {
-    return new Signature2(k0,k1); }
+    final SignaturePool p = POOL.next(k0).next(k1);
+    final Object s = p.signature();
+    if (null != s) { return (Signature2) s; }
+    return (Signature2) p.intern(new Signature2(k0,k1)); }
 
   public static final Signature2 extract (final Object k0,
                                           final Object k1) {
-    return new Signature2(
-      Classes.classOf(k0),
-      Classes.classOf(k1)); }
+    return get(Classes.classOf(k0),Classes.classOf(k1)); }
 
   //--------------------------------------------------------------
 }
@@ -4,14 +4,19 @@ import java.util.Objects;
 
 /** A triple of classes, for optimizing multimethod dispatch
  * functions.
+ * <p>
+ * {@link #get} and {@link #extract} return interned instances,
+ * (see {@link SignaturePool}), so equal signatures are usually
+ * identical, and cache probes succeed on the identity check.
  *
  * @author palisades dot lakes at gmail dot com
- * @version 2018-02-12
+ * @version 2026-10-18
  */
 
 @SuppressWarnings("unchecked")
 public final class Signature3 implements Signature {
 
+  private final int hash;
   public final Class class0;
   public final Class class1;
   public final Class class2;
@@ -59,17 +64,15 @@ public final class Signature3 implements Signature {
   //--------------------------------------------------------------
 
   @Override
-  public final int hashCode () {
-    return
-      (31*((31*((31*17) + Objects.hashCode(class0)))
-        + Objects.hashCode(class1)))
-      + Objects.hashCode(class2); }
+  public final int hashCode () { return hash; }
 
   @Override
   public final boolean equals (final Object that) {
     if (this == that) { return true; }
     if (that instanceof Signature3) {
       return
+        (hash == ((Signature3) that).hash)
+        &&
         Objects.equals(class0,((Signature3) that).class0)
         &&
         Objects.equals(class1,((Signature3) that).class1)
@@ -85,22 +88,32 @@ public final class Signature3 implements Signature {
       + Classes.getName(class2) + ")"; }
 
   //--------------------------------------------------------------
-  // TODO: memoize singleton instances?
+
+  private static final SignaturePool POOL = new SignaturePool();
 
   public Signature3 (final Class k0,
                      final Class k1,
                      final Class k2) {
+    hash = 
+      (31*((31*((31*17) + Objects.hashCode(k0)))
+        + Objects.hashCode(k1)))
+      + Objects.hashCode(k2);
     class0 = k0; class1 = k1; class2 = k2; }
 
+  /** The interned signature for <code>(k0,k1,k2)</code>.
+   */
   public static final Signature3 get (final Class k0,
                                       final Class k1,
                                       final Class k2) {
-    return new Signature3(k0,k1,k2); }
+    final SignaturePool p = POOL.next(k0).next(k1).next(k2);
+    final Object s = p.signature();
+    if (null != s) { return (Signature3) s; }
+    return (Signature3) p.intern(new Signature3(k0,k1,k2)); }
 
   public static final Signature3 extract (final Object k0,
                                           final Object k1,
                                           final Object k2) {
-    return new Signature3(
+    return get(
       Classes.classOf(k0),
       Classes.classOf(k1),
       Classes.classOf(k2)); }
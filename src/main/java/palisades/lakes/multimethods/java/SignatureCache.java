@@ -0,0 +1,376 @@
+package palisades.lakes.multimethods.java;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import clojure.lang.IFn;
+
+/** A concurrent open-addressing hash table mapping 2 or 3
+ * classes to method functions, so a cache hit doesn't need to
+ * allocate a {@link Signature} dispatch value.
+ * Implementation details, subject to revision.
+ * Use the Clojure API to be future-proof.
+ * <p>
+ * The classes are packed into a single primitive
+ * <code>long</code> key with {@link ClassIds}, so a probe
+ * is a <code>long</code> comparison, with no
+ * <code>hashCode</code>/<code>equals</code> calls on
+ * signatures, no entry objects, and no references to the
+ * classes themselves.
+ * <p>
+ * Insert-only, like {@link MethodCache}: an insert claims an
+ * empty key slot with a CAS, and then publishes the method;
+ * a reader that sees the key before the method just misses.
+ * <p>
+ * A given table is used for a single arity; arity 2 and 3
+ * keys must not be mixed in one table.
+ * <p>
+ * Classes whose ids don't fit in a packed key (see
+ * {@link ClassIds#NO_KEY}) are cached in an overflow
+ * {@link MethodCache}, keyed by interned {@link Signature}s,
+ * created the first time it's needed, so they pay for hashing
+ * a signature, but are still cached.
+ * The overflow cache holds its classes weakly, so the table
+ * still doesn't pin classes.
+ * <p>
+ * Optionally bounded, with the same batched second chance
+ * eviction as {@link MethodCache}.
+ * <p>
+ * In front of the hashed table is an adaptive linear cache
+ * (see {@link InlineEntry}), checked by class identity, 
+ * so call sequences that see few distinct signatures skip the
+ * class id lookups and hashing. 
+ * It's a field of the cache, so it starts over, monomorphic,
+ * whenever the <code>MultiFn</code> replaces the cache.
+ * A {@link #linear} cache's entries fill up, and then stay
+ * as they are, rather than going megamorphic.
+ * The inline entries hold their classes weakly, so they don't
+ * pin classes either.
+ * They're also off in bounded caches, since hits on them
+ * would bypass the reference bits.
+ *
+ * @author palisades dot lakes at gmail dot com
+ * @since 2026-10-18
+ * @version 2026-10-18
+ */
+
+@SuppressWarnings("unchecked")
+public final class SignatureCache {
+
+  // all real keys are non-negative
+  private static final long EMPTY = ClassIds.NO_KEY;
+
+  private static final class Table {
+    private final AtomicLongArray keys;
+    private final AtomicReferenceArray<IFn> methods;
+    // second chance reference bits; racy hints
+    private final boolean[] referenced;
+    private final int mask;
+    private Table (final int n) {
+      assert Integer.bitCount(n) == 1;
+      keys = new AtomicLongArray(n);
+      for (int i=0;i<n;i++) { keys.set(i,EMPTY); }
+      methods = new AtomicReferenceArray(n);
+      referenced = new boolean[n];
+      mask = n - 1; } }
+
+  private volatile InlineEntry[] inline;
+  private final boolean linear;
+
+  private volatile Table table;
+  private final AtomicInteger count;
+  // zero means unbounded
+  private final int capacity;
+  private final AtomicLong evictions;
+  // for signatures without a long key; null until needed
+  private volatile MethodCache overflow;
+
+  //--------------------------------------------------------------
+
+  private static final int hash (final long key) {
+    final long h = key * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32)); }
+
+  //--------------------------------------------------------------
+
+  public final int count () { return count.get(); }
+
+  /** Zero if unbounded.
+   */
+  public final int capacity () { return capacity; }
+
+  public final long evictions () { return evictions.get(); }
+
+  public final IFn get (final long key) {
+    final Table t = table;
+    final int m = t.mask;
+    int i = hash(key) & m;
+    for (int n=0;n<=m;n++) {
+      final long k = t.keys.get(i);
+      if (EMPTY == k) { return null; }
+      if (key == k) { 
+        if ((0 < capacity) && (! t.referenced[i])) { 
+          t.referenced[i] = true; }
+        return t.methods.get(i); }
+      i = (i + 1) & m; }
+    return null; }
+
+  /** Number of entries in the inline cache, 
+   * or <code>-1</code> if megamorphic.
+   */
+  public final int inlineCount () {
+    final InlineEntry[] es = inline;
+    if (InlineEntry.MEGAMORPHIC == es) { return -1; }
+    return es.length; }
+
+  private final void record (final Class k0,
+                             final Class k1,
+                             final Class k2,
+                             final IFn f) {
+    final InlineEntry[] es = inline;
+    if (InlineEntry.MEGAMORPHIC == es) { return; }
+    // a full linear cache stays as it is
+    if (linear && (InlineEntry.LINEAR_LIMIT <= es.length)) { return; }
+    for (final InlineEntry e : es) { 
+      if (e.matches(k0,k1,k2)) { return; } }
+    final InlineEntry e = new InlineEntry(k0,k1,k2,f);
+    // racy, but each state is immutable and from this cache
+    inline = linear 
+      ? InlineEntry.addLinear(es,e) 
+      : InlineEntry.add(es,e); }
+
+  public final IFn get (final Class k0,
+                        final Class k1) {
+    final InlineEntry[] es = inline;
+    for (final InlineEntry e : es) {
+      if (e.matches(k0,k1)) { return (IFn) e.value; } }
+    return get(ClassIds.key(k0,k1),k0,k1); }
+
+  public final IFn get (final Class k0,
+                        final Class k1,
+                        final Class k2) {
+    final InlineEntry[] es = inline;
+    for (final InlineEntry e : es) {
+      if (e.matches(k0,k1,k2)) { return (IFn) e.value; } }
+    return get(ClassIds.key(k0,k1,k2),k0,k1,k2); }
+
+  /** Look up <code>key</code>, which must be 
+   * <code>ClassIds.key(k0,k1)</code>, or, 
+   * if that's {@link ClassIds#NO_KEY}, the signature in the 
+   * overflow cache. 
+   * Public for testing the overflow path.
+   */
+  public final IFn get (final long key,
+                        final Class k0,
+                        final Class k1) {
+    final IFn f;
+    if (EMPTY == key) {
+      final MethodCache c = overflow;
+      if (null == c) { return null; }
+      f = (IFn) c.get(Signature2.get(k0,k1)); }
+    else {
+      f = get(key); }
+    if (null != f) { record(k0,k1,null,f); }
+    return f; }
+
+  /** Look up <code>key</code>, which must be 
+   * <code>ClassIds.key(k0,k1,k2)</code>, or, 
+   * if that's {@link ClassIds#NO_KEY}, the signature in the 
+   * overflow cache. 
+   * Public for testing the overflow path.
+   */
+  public final IFn get (final long key,
+                        final Class k0,
+                        final Class k1,
+                        final Class k2) {
+    final IFn f;
+    if (EMPTY == key) {
+      final MethodCache c = overflow;
+      if (null == c) { return null; }
+      f = (IFn) c.get(Signature3.get(k0,k1,k2)); }
+    else {
+      f = get(key); }
+    if (null != f) { record(k0,k1,k2,f); }
+    return f; }
+
+  /** Number of entries in the overflow cache.
+   */
+  public final int overflowCount () {
+    final MethodCache c = overflow;
+    return (null == c) ? 0 : c.count(); }
+
+  //--------------------------------------------------------------
+
+  private static final boolean insert (final Table t,
+                                       final long key,
+                                       final IFn f) {
+    final int m = t.mask;
+    int i = hash(key) & m;
+    for (int n=0;n<=m;n++) {
+      final long k = t.keys.get(i);
+      if (EMPTY == k) {
+        if (t.keys.compareAndSet(i,EMPTY,key)) {
+          t.methods.set(i,f);
+          return true; }
+        // lost the race for this slot; re-check it
+        continue; }
+      if (key == k) {
+        // someone else cached it first (or is about to)
+        t.methods.compareAndSet(i,null,f);
+        return false; }
+      i = (i + 1) & m; }
+    return false; }
+
+  private final synchronized void grow (final Table t) {
+    if (t != table) { return; }
+    final Table b = new Table(2*(t.mask + 1));
+    for (int i=0;i<=t.mask;i++) {
+      final IFn f = t.methods.get(i);
+      if (null != f) { insert(b,t.keys.get(i),f); } }
+    table = b; }
+
+  private final synchronized void evict (final Table t) {
+    if (t != table) { return; }
+    final int n = t.mask + 1;
+    final int target = capacity - Math.max(1,capacity/4);
+    // second chance for referenced entries, in slot order
+    final int[] kept = new int[n];
+    int nkept = 0;
+    int dropped = 0;
+    for (int i=0;i<n;i++) {
+      if (null != t.methods.get(i)) {
+        if (t.referenced[i]) { 
+          t.referenced[i] = false; 
+          kept[nkept++] = i; }
+        else { dropped++; } } }
+    // still too full: drop referenced entries, in slot order;
+    // slots are hash order, so that's an arbitrary choice
+    final int start = Math.max(0,nkept - target);
+    dropped += start;
+    // a rebuild, not a sweep in place
+    final Table b = new Table(n);
+    for (int j=start;j<nkept;j++) {
+      final int i = kept[j];
+      insert(b,t.keys.get(i),t.methods.get(i)); }
+    count.set(nkept - start);
+    evictions.addAndGet(dropped);
+    table = b; }
+
+  public final void put (final long key,
+                         final IFn f) {
+    assert null != f;
+    assert 0L <= key;
+    if (0 < capacity) { 
+      if (count.get() >= capacity) { evict(table); }
+      if (insert(table,key,f)) { count.incrementAndGet(); } }
+    else {
+      final Table t = table;
+      if (insert(t,key,f)) {
+        // keep the load factor at or below 1/2
+        if ((2*count.incrementAndGet()) > (t.mask + 1)) { 
+          grow(t); } } } }
+
+  private final MethodCache overflow () {
+    MethodCache c = overflow;
+    if (null == c) { 
+      synchronized (this) {
+        c = overflow;
+        if (null == c) { 
+          // weak, so it doesn't pin classes either
+          c = new MethodCache(capacity,true,evictions);
+          overflow = c; } } }
+    return c; }
+
+  public final void put (final Class k0,
+                         final Class k1,
+                         final IFn f) {
+    put(ClassIds.key(k0,k1),k0,k1,f); }
+
+  public final void put (final Class k0,
+                         final Class k1,
+                         final Class k2,
+                         final IFn f) {
+    put(ClassIds.key(k0,k1,k2),k0,k1,k2,f); }
+
+  /** Cache <code>f</code> under <code>key</code>, which must be 
+   * <code>ClassIds.key(k0,k1)</code>, or, 
+   * if that's {@link ClassIds#NO_KEY}, under the signature in 
+   * the overflow cache. 
+   * Public for testing the overflow path.
+   */
+  public final void put (final long key,
+                         final Class k0,
+                         final Class k1,
+                         final IFn f) {
+    if (EMPTY == key) { overflow().put(Signature2.get(k0,k1),f); }
+    else { put(key,f); }
+    record(k0,k1,null,f); }
+
+  /** Cache <code>f</code> under <code>key</code>, which must be 
+   * <code>ClassIds.key(k0,k1,k2)</code>, or, 
+   * if that's {@link ClassIds#NO_KEY}, under the signature in 
+   * the overflow cache. 
+   * Public for testing the overflow path.
+   */
+  public final void put (final long key,
+                         final Class k0,
+                         final Class k1,
+                         final Class k2,
+                         final IFn f) {
+    if (EMPTY == key) { overflow().put(Signature3.get(k0,k1,k2),f); }
+    else { put(key,f); }
+    record(k0,k1,k2,f); }
+
+  //--------------------------------------------------------------
+  // construction
+  //--------------------------------------------------------------
+
+  private SignatureCache (final int capacity,
+                          final boolean adaptive,
+                          final boolean linear,
+                          final AtomicLong evictions) {
+    assert null != evictions;
+    // hits on the adaptive cache would bypass the
+    // reference bits, so bounded caches start megamorphic;
+    // a linear cache holds its entries anyway
+    inline = (linear || (adaptive && (0 >= capacity)))
+      ? InlineEntry.MONOMORPHIC 
+      : InlineEntry.MEGAMORPHIC;
+    this.linear = linear;
+    this.capacity = Math.max(0,capacity);
+    this.evictions = evictions;
+    // bounded: room for twice the capacity, so the load factor
+    // stays at or below 1/2, with slack for racing inserts
+    final int n = (0 < capacity) 
+      ? Math.max(16,Integer.highestOneBit(4*capacity - 1))
+      : 16;
+    table = new Table(n);
+    count = new AtomicInteger(0); }
+
+  /** A bounded cache if <code>capacity</code> is positive,
+   * otherwise unbounded.
+   * Checks an adaptive cache of up to {@link InlineEntry#LIMIT} 
+   * entries first if <code>adaptive</code> and unbounded.
+   */
+  public SignatureCache (final int capacity,
+                         final boolean adaptive,
+                         final AtomicLong evictions) {
+    this(capacity,adaptive,false,evictions); }
+
+  public SignatureCache () { this(0,true,new AtomicLong(0)); }
+
+  /** A cache that first checks a linear cache of up to
+   * {@link InlineEntry#LINEAR_LIMIT} entries, which never goes
+   * megamorphic, bounded or not.
+   */
+  public static final SignatureCache linear (final int capacity,
+                                             final AtomicLong evictions) {
+    return new SignatureCache(capacity,false,true,evictions); }
+
+  public final boolean isLinear () { return linear; }
+
+  //--------------------------------------------------------------
+}
+//--------------------------------------------------------------
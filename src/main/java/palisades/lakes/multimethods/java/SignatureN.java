@@ -3,11 +3,17 @@ package palisades.lakes.multimethods.java;
 import java.util.List;
 import java.util.Objects;
 
+import clojure.lang.ISeq;
+
 /** An immutable 'array list' of classes, for optimizing 
  * multimethod dispatch functions.
+ * <p>
+ * {@link #get} and {@link #extract} return interned instances,
+ * (see {@link SignaturePool}), so equal signatures are usually
+ * identical, and cache probes succeed on the identity check.
  *
  * @author palisades dot lakes at gmail dot com
- * @version 2018-02-12
+ * @version 2026-10-18
  */
 
 @SuppressWarnings("unchecked")
@@ -18,6 +24,7 @@ public final class SignatureN implements Signature {
   // TODO: replace Class[] with List to make Clojure 
   // interface simpler?
 
+  private final int hash;
   public final Class[] classes;
 
   //--------------------------------------------------------------
@@ -62,17 +69,15 @@ public final class SignatureN implements Signature {
   //--------------------------------------------------------------
 
   @Override
-  public final int hashCode () {
-    int result = 17;
-    for (final Class c : classes) {
-      result = (31*result) + Objects.hashCode(c); }
-    return result; }
+  public final int hashCode () { return hash; }
 
   @Override
   public final boolean equals (final Object that) {
     if (this == that) { return true; }
     if (! (that instanceof SignatureN)) { return false; }
+    if (hash != ((SignatureN) that).hash) { return false; }
     final Class[] those = ((SignatureN) that).classes;
+    if (classes.length != those.length) { return false; }
     for (int i=0;i<classes.length;i++) {
       if (! Objects.equals(classes[i],those[i])) {
         return false; } }
@@ -91,12 +96,20 @@ public final class SignatureN implements Signature {
     return builder.toString(); }
 
   //--------------------------------------------------------------
-  // TODO: memoize singleton instances?
+
+  private static final SignaturePool POOL = new SignaturePool();
+
+  private static final int hash (final Class[] ks) {
+    int result = 17;
+    for (final Class c : ks) {
+      result = (31*result) + Objects.hashCode(c); }
+    return result; }
 
   public SignatureN (final Class... ks) {
     assert ks.length > 3;
     // is this safe?
-    classes = ks; }
+    classes = ks; 
+    hash = hash(ks); }
 
   public SignatureN (final Class c0,
                      final Class c1,
@@ -111,46 +124,139 @@ public final class SignatureN implements Signature {
     classes[1] = c1;
     classes[2] = c2;
     for (int i=3,j=0;i<n;i++,j++) { 
-      classes[i] = (Class) cs[j]; } }
+      classes[i] = (Class) cs[j]; } 
+    hash = hash(classes); }
+
+  // interned instances own their arrays
+  private static final SignatureN intern (final SignaturePool p,
+                                          final Class[] ks) {
+    return (SignatureN) p.intern(new SignatureN(ks)); }
 
-  // TODO: copy array?
+  /** The interned signature for <code>ks</code>.
+   */
   public static final SignatureN get (final Class... ks) {
-    return new SignatureN(ks); }
+    SignaturePool p = POOL;
+    for (final Class k : ks) { p = p.next(k); }
+    final Object s = p.signature();
+    if (null != s) { return (SignatureN) s; }
+    return intern(p,ks.clone()); }
 
   public static final SignatureN get (final Class k0,
                                       final Class k1,
                                       final Class k2,
                                       final List ks) {
+    SignaturePool p = POOL.next(k0).next(k1).next(k2);
+    for (final Object k : ks) { p = p.next((Class) k); }
+    final Object s = p.signature();
+    if (null != s) { return (SignatureN) s; }
     final Class[] classes = new Class[3 + ks.size()];
     classes[0] = k0;
     classes[1] = k1;
     classes[2] = k2;
     int i = 3;
     for (final Object k : ks) { classes[i++] = (Class) k; }
-    return new SignatureN(classes); }
+    return intern(p,classes); }
+
+  // extract: walk the pool with the argument classes, 
+  // only allocating the class array on a miss
 
   public static final SignatureN extract (final Object... xs) {
     final int n = xs.length;
     assert n > 3;
+    SignaturePool p = POOL;
+    for (final Object x : xs) { p = p.next(Classes.classOf(x)); }
+    final Object s = p.signature();
+    if (null != s) { return (SignatureN) s; }
     final Class[] ks = new Class[n];
     for (int i=0;i<n;i++) { ks[i] = Classes.classOf(xs[i]); }
-    return new SignatureN(ks); }
+    return intern(p,ks); }
 
   public static final SignatureN extract (final Object x0,
                                           final Object x1,
                                           final Object x2,
                                           final List as) {
-    // not really safe, trying to be fast, maybe not worth it
-    final Object[] xs = as.toArray();
-    final int n = xs.length + 3;
+    SignaturePool p = POOL
+      .next(Classes.classOf(x0))
+      .next(Classes.classOf(x1))
+      .next(Classes.classOf(x2));
+    for (final Object x : as) { p = p.next(Classes.classOf(x)); }
+    final Object s = p.signature();
+    if (null != s) { return (SignatureN) s; }
+    final int n = as.size() + 3;
     assert n > 3;
     final Class[] cs = new Class[n];
     cs[0] = Classes.classOf(x0);
     cs[1] = Classes.classOf(x1);
     cs[2] = Classes.classOf(x2);
-    for (int i=3,j=0;i<n;i++,j++) { 
-      cs[i] = Classes.classOf(xs[j]); } 
-    return new SignatureN(cs); }
+    int i = 3;
+    for (final Object x : as) { cs[i++] = Classes.classOf(x); } 
+    return intern(p,cs); }
+
+  /** The signature of the elements of <code>xs</code>,
+   * which must have more than 3, without realizing an array,
+   * or allocating anything if it's already interned.
+   */
+  public static final SignatureN extractSeq (final ISeq xs) {
+    SignaturePool p = POOL;
+    int n = 0;
+    for (ISeq s = xs;null != s;s = s.next(),n++) { 
+      p = p.next(Classes.classOf(s.first())); }
+    assert n > 3;
+    final Object s = p.signature();
+    if (null != s) { return (SignatureN) s; }
+    final Class[] cs = new Class[n];
+    int i = 0;
+    for (ISeq t = xs;null != t;t = t.next()) { 
+      cs[i++] = Classes.classOf(t.first()); }
+    return intern(p,cs); }
+
+  public static final SignatureN extract (final Object x0,
+                                          final Object x1,
+                                          final Object x2,
+                                          final Object x3) {
+    final Class k0 = Classes.classOf(x0);
+    final Class k1 = Classes.classOf(x1);
+    final Class k2 = Classes.classOf(x2);
+    final Class k3 = Classes.classOf(x3);
+    final SignaturePool p = 
+      POOL.next(k0).next(k1).next(k2).next(k3);
+    final Object s = p.signature();
+    if (null != s) { return (SignatureN) s; }
+    return intern(p,new Class[] { k0, k1, k2, k3, }); }
+
+  public static final SignatureN extract (final Object x0,
+                                          final Object x1,
+                                          final Object x2,
+                                          final Object x3,
+                                          final Object x4) {
+    final Class k0 = Classes.classOf(x0);
+    final Class k1 = Classes.classOf(x1);
+    final Class k2 = Classes.classOf(x2);
+    final Class k3 = Classes.classOf(x3);
+    final Class k4 = Classes.classOf(x4);
+    final SignaturePool p = 
+      POOL.next(k0).next(k1).next(k2).next(k3).next(k4);
+    final Object s = p.signature();
+    if (null != s) { return (SignatureN) s; }
+    return intern(p,new Class[] { k0, k1, k2, k3, k4, }); }
+
+  public static final SignatureN extract (final Object x0,
+                                          final Object x1,
+                                          final Object x2,
+                                          final Object x3,
+                                          final Object x4,
+                                          final Object x5) {
+    final Class k0 = Classes.classOf(x0);
+    final Class k1 = Classes.classOf(x1);
+    final Class k2 = Classes.classOf(x2);
+    final Class k3 = Classes.classOf(x3);
+    final Class k4 = Classes.classOf(x4);
+    final Class k5 = Classes.classOf(x5);
+    final SignaturePool p = 
+      POOL.next(k0).next(k1).next(k2).next(k3).next(k4).next(k5);
+    final Object s = p.signature();
+    if (null != s) { return (SignatureN) s; }
+    return intern(p,new Class[] { k0, k1, k2, k3, k4, k5, }); }
 
   //--------------------------------------------------------------
 }
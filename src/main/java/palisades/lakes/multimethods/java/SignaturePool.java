@@ -0,0 +1,145 @@
+package palisades.lakes.multimethods.java;
+
+import java.lang.ref.WeakReference;
+
+/** A node in a trie, one level per argument position,
+ * for interning signatures.
+ * Implementation details, subject to revision.
+ * Use the Clojure API to be future-proof.
+ * <p>
+ * The root finds the child for the first class with a single
+ * <code>ClassValue</code>; every other node maps classes to
+ * children with a small open-addressing identity table,
+ * replaced, not updated, when a child is added,
+ * so a lookup doesn't lock.
+ * Looking up a signature is one <code>ClassValue</code> lookup,
+ * and an identity probe per remaining class, with no hashing
+ * of the whole signature, and no allocation once it's been
+ * interned.
+ * <p>
+ * Nodes hold classes, and the interned signature, only
+ * weakly, so the pool doesn't keep classes
+ * (and their class loaders) from being unloaded.
+ * A signature that's no longer referenced anywhere else may be
+ * collected, and a later lookup interns a new, equal one.
+ * Table entries for unloaded classes are dropped the next time
+ * the table grows.
+ *
+ * @author palisades dot lakes at gmail dot com
+ * @since 2026-10-18
+ * @version 2026-10-18
+ */
+
+@SuppressWarnings("unchecked")
+final class SignaturePool {
+
+  // stands in for null, the class of nil
+  private static final class Nil { }
+
+  private static final WeakReference EMPTY = new WeakReference(null);
+
+  /** The children of the root.
+   */
+  private static final class Firsts extends ClassValue {
+    @Override
+    protected final Object computeValue (final Class c) {
+      return new SignaturePool(false); } }
+
+  private static final Object[] NO_CHILDREN = new Object[2*4];
+
+  // null unless this is the root
+  private final Firsts firsts;
+  // the children of any other node, never modified once 
+  // published: weak references to classes at even positions, 
+  // and the children at odd ones; at most half full, 
+  // so a probe always reaches an empty slot
+  private volatile Object[] children = NO_CHILDREN;
+  private volatile WeakReference signature = EMPTY;
+
+  //--------------------------------------------------------------
+
+  private SignaturePool (final boolean root) {
+    firsts = root ? new Firsts() : null; }
+
+  /** A new, empty root.
+   */
+  SignaturePool () { this(true); }
+
+  //--------------------------------------------------------------
+  // identity table
+
+  private static final int slot (final Class c,
+                                 final int n) {
+    // n is a power of 2
+    return (System.identityHashCode(c) & (n - 1)) << 1; }
+
+  private static final SignaturePool find (final Object[] t,
+                                           final Class c) {
+    final int n = t.length >>> 1;
+    for (int i=slot(c,n);;i=(i+2) & (t.length-1)) {
+      final WeakReference r = (WeakReference) t[i];
+      if (null == r) { return null; }
+      if (c == r.get()) { return (SignaturePool) t[i+1]; } } }
+
+  private static final void put (final Object[] t,
+                                 final WeakReference r,
+                                 final Object child) {
+    final int n = t.length >>> 1;
+    int i = slot((Class) r.get(),n);
+    while (null != t[i]) { i = (i+2) & (t.length-1); }
+    t[i] = r;
+    t[i+1] = child; }
+
+  // a copy of t, with room for one more, without cleared
+  // entries
+  private static final Object[] copy (final Object[] t) {
+    int live = 0;
+    for (int i=0;i<t.length;i+=2) {
+      final WeakReference r = (WeakReference) t[i];
+      if ((null != r) && (null != r.get())) { live++; } }
+    int n = t.length >>> 1;
+    while (n < 2*(live+1)) { n = n << 1; }
+    final Object[] b = new Object[2*n];
+    for (int i=0;i<t.length;i+=2) {
+      final WeakReference r = (WeakReference) t[i];
+      if ((null != r) && (null != r.get())) { put(b,r,t[i+1]); } }
+    return b; }
+
+  private final synchronized SignaturePool add (final Class c) {
+    final Object[] t = children;
+    final SignaturePool old = find(t,c);
+    if (null != old) { return old; }
+    final Object[] b = copy(t);
+    final SignaturePool child = new SignaturePool(false);
+    put(b,new WeakReference(c),child);
+    children = b;
+    return child; }
+
+  //--------------------------------------------------------------
+
+  /** The child for argument class <code>c</code>,
+   * which may be <code>null</code>.
+   */
+  final SignaturePool next (final Class c) {
+    final Class k = (null == c) ? Nil.class : c;
+    if (null != firsts) { return (SignaturePool) firsts.get(k); }
+    final SignaturePool child = find(children,k);
+    if (null != child) { return child; }
+    return add(k); }
+
+  /** The interned signature, or <code>null</code>.
+   */
+  final Object signature () { return signature.get(); }
+
+  /** Return the interned signature, interning <code>s</code> if
+   * there is none.
+   */
+  final synchronized Object intern (final Object s) {
+    final Object old = signature.get();
+    if (null != old) { return old; }
+    signature = new WeakReference(s);
+    return s; }
+
+  //--------------------------------------------------------------
+}
+//--------------------------------------------------------------
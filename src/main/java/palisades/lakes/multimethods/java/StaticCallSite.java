@@ -0,0 +1,136 @@
+package palisades.lakes.multimethods.java;
+
+import clojure.lang.IFn;
+import clojure.lang.RT;
+
+/** A method cache for a single call site whose argument
+ * classes are known when it's compiled, from primitive or
+ * final class type hints, or literals.
+ * Implementation details, subject to revision.
+ * Use the Clojure API to be future-proof.
+ * <p>
+ * Like {@link CallSiteCache}, but the classes are fixed, 
+ * so a hit only checks the identity and 
+ * {@link MultiFn#version()} of the <code>MultiFn</code>, 
+ * and never looks at the arguments.
+ * The caller is responsible for the arguments actually having
+ * the given classes (eg, not <code>null</code>).
+ * <p>
+ * Only caches methods for intrinsic <code>MultiFn</code>s
+ * (see {@link MultiFn#isIntrinsic()}); anything else is 
+ * just invoked.
+ * <p>
+ * Like a {@link CallSiteCache}, <code>mm-static</code> embeds a
+ * site in the code it expands into, as a constant.
+ *
+ * @author palisades dot lakes at gmail dot com
+ * @since 2026-10-18
+ * @version 2026-10-18
+ */
+
+@SuppressWarnings("unchecked")
+public final class StaticCallSite {
+
+  private static final class State {
+    private final MultiFn f;
+    private final long version;
+    private final IFn method;
+    private State (final MultiFn f,
+                   final long version,
+                   final IFn method) {
+      this.f = f; this.version = version; this.method = method; } }
+
+  // f is null, so calls check f isn't
+  private static final State EMPTY = new State(null,0L,null);
+
+  private final Class[] classes;
+  private final Object key;
+  // racy, but each state is immutable
+  private State state = EMPTY;
+
+  //--------------------------------------------------------------
+
+  /** Is there a cached method? For testing.
+   */
+  public final boolean isEmpty () { return null == state.method; }
+
+  /** The argument classes, for printing the site as a constant.
+   */
+  public final Class[] classes () { return classes.clone(); }
+
+  private final IFn method (final Object f) {
+    if ((f instanceof MultiFn) && ((MultiFn) f).isIntrinsic()) {
+      final MultiFn mf = (MultiFn) f;
+      final long v = mf.version();
+      final IFn m = mf.getMethod(key);
+      if (null != m) { 
+        state = new State(mf,v,m); 
+        return m; } }
+    // let f throw the usual exceptions
+    return (IFn) f; }
+
+  //--------------------------------------------------------------
+
+  public final Object invoke (final Object f,
+                              final Object a0) {
+    final State s = state;
+    if ((null != f) && (f == s.f) && (s.version == s.f.version())) {
+      return s.method.invoke(a0); }
+    return method(f).invoke(a0); }
+
+  public final Object invoke (final Object f,
+                              final Object a0,
+                              final Object a1) {
+    final State s = state;
+    if ((null != f) && (f == s.f) && (s.version == s.f.version())) {
+      return s.method.invoke(a0,a1); }
+    return method(f).invoke(a0,a1); }
+
+  public final Object invoke (final Object f,
+                              final Object a0,
+                              final Object a1,
+                              final Object a2) {
+    final State s = state;
+    if ((null != f) && (f == s.f) && (s.version == s.f.version())) {
+      return s.method.invoke(a0,a1,a2); }
+    return method(f).invoke(a0,a1,a2); }
+
+  //--------------------------------------------------------------
+  // construction
+  //--------------------------------------------------------------
+
+  public StaticCallSite (final Class k0) { 
+    classes = new Class[] { k0 };
+    key = k0; }
+
+  public StaticCallSite (final Class k0,
+                         final Class k1) {
+    classes = new Class[] { k0, k1 };
+    key = Signature2.get(k0,k1); }
+
+  public StaticCallSite (final Class k0,
+                         final Class k1,
+                         final Class k2) {
+    classes = new Class[] { k0, k1, k2 };
+    key = Signature3.get(k0,k1,k2); }
+
+  // for reading a printed site: class names rather than 
+  // classes, so array classes are easy to refer to
+
+  public static final StaticCallSite of (final String k0) {
+    return new StaticCallSite(RT.classForName(k0)); }
+
+  public static final StaticCallSite of (final String k0,
+                                         final String k1) {
+    return new StaticCallSite(
+      RT.classForName(k0),RT.classForName(k1)); }
+
+  public static final StaticCallSite of (final String k0,
+                                         final String k1,
+                                         final String k2) {
+    return new StaticCallSite(
+      RT.classForName(k0),RT.classForName(k1),RT.classForName(k2)); }
+
+  //--------------------------------------------------------------
+}
+//--------------------------------------------------------------
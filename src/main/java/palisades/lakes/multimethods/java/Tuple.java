@@ -0,0 +1,80 @@
+package palisades.lakes.multimethods.java;
+
+import clojure.lang.IPersistentVector;
+import clojure.lang.LazilyPersistentVector;
+import clojure.lang.Util;
+
+/** The canonical form, in {@link MultiFnWithHierarchy}, of a 
+ * vector dispatch value whose elements aren't all classes,
+ * eg, <code>[::circle Double]</code>.
+ * Implementation details, subject to revision.
+ * Use the Clojure API to be future-proof.
+ * <p>
+ * A flat array of the elements, with a cached hash, 
+ * so cache probes don't rehash a persistent vector, 
+ * and <code>isA</code> doesn't go through <code>nth</code>.
+ * Equality and hashing are consistent with the vector's 
+ * (<code>Util.equiv</code> and <code>Util.hasheq</code>).
+ * <p>
+ * All-class vectors become <code>Signature</code>s instead.
+ *
+ * @author palisades dot lakes at gmail dot com
+ * @since 2026-10-18
+ * @version 2026-10-18
+ */
+
+@SuppressWarnings("unchecked")
+final class Tuple {
+
+  private final Object[] elements;
+  private final int hash;
+
+  //--------------------------------------------------------------
+
+  final int length () { return elements.length; }
+
+  final Object get (final int i) { return elements[i]; }
+
+  /** An equal vector, for reporting method and prefer tables.
+   */
+  final IPersistentVector toVector () {
+    return LazilyPersistentVector.createOwning(elements.clone()); }
+
+  //--------------------------------------------------------------
+  // Object interface
+  //--------------------------------------------------------------
+
+  @Override
+  public final int hashCode () { return hash; }
+
+  @Override
+  public final boolean equals (final Object that) {
+    if (this == that) { return true; }
+    if (! (that instanceof Tuple)) { return false; }
+    final Tuple t = (Tuple) that;
+    if ((hash != t.hash) || (elements.length != t.elements.length)) {
+      return false; }
+    for (int i=0;i<elements.length;i++) {
+      if (! Util.equiv(elements[i],t.elements[i])) { return false; } }
+    return true; }
+
+  @Override
+  public final String toString () { return toVector().toString(); }
+
+  //--------------------------------------------------------------
+  // construction
+  //--------------------------------------------------------------
+
+  Tuple (final IPersistentVector v) {
+    final int n = v.count();
+    elements = new Object[n];
+    int h = 17;
+    for (int i=0;i<n;i++) {
+      final Object e = v.nth(i);
+      elements[i] = e;
+      h = (31*h) + Util.hasheq(e); }
+    hash = h; }
+
+  //--------------------------------------------------------------
+}
+//--------------------------------------------------------------
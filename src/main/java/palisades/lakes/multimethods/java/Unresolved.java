@@ -0,0 +1,98 @@
+package palisades.lakes.multimethods.java;
+
+import java.util.Collections;
+import java.util.Set;
+
+import clojure.lang.AFn;
+import clojure.lang.IFn;
+
+/** A cached method lookup that failed: no applicable method,
+ * or several, none preferred.
+ * Implementation details, subject to revision.
+ * Use the Clojure API to be future-proof.
+ * <p>
+ * Stored in the method caches like a method, so a repeated
+ * failure is a cache hit, rather than another scan of the
+ * method table, and another formatted message.
+ * Invalidated, like any cached method, when the caches are
+ * replaced after an edit.
+ * Never returned from <code>getMethod</code>, 
+ * which returns <code>null</code> for no method, and throws
+ * for ambiguous ones, as before.
+ *
+ * @author palisades dot lakes at gmail dot com
+ * @since 2026-10-18
+ * @version 2026-10-18
+ */
+
+@SuppressWarnings("unchecked")
+final class Unresolved extends AFn {
+
+  private final String message;
+  // method table entries, empty for no method
+  private final Set candidates;
+
+  //--------------------------------------------------------------
+
+  final boolean isAmbiguous () { return ! candidates.isEmpty(); }
+
+  /** The minimal method table entries that matched, 
+   * none preferred; empty if nothing matched.
+   */
+  final Set candidates () { return candidates; }
+
+  final IllegalArgumentException exception () {
+    return new IllegalArgumentException(message); }
+
+  //--------------------------------------------------------------
+
+  /** <code>getMethod</code> semantics:
+   * <code>null</code> for no method, 
+   * throw for ambiguous methods.
+   */
+  static final IFn method (final Object f) {
+    if (f instanceof Unresolved) {
+      final Unresolved u = (Unresolved) f;
+      if (u.isAmbiguous()) { throw u.exception(); }
+      return null; }
+    return (IFn) f; }
+
+  /** Throw for no method or ambiguous methods.
+   */
+  static final IFn fn (final Object f) {
+    if (f instanceof Unresolved) { 
+      throw ((Unresolved) f).exception(); }
+    return (IFn) f; }
+
+  //--------------------------------------------------------------
+  // construction
+  //--------------------------------------------------------------
+
+  private Unresolved (final String message,
+                      final Set candidates) {
+    this.message = message;
+    this.candidates = candidates; }
+
+  static final Unresolved noMethod (final String name,
+                                    final Object dispatch) {
+    return new Unresolved(
+      String.format(
+        "No method in multimethod '%s' for dispatch value: %s",
+        name,dispatch),
+      Collections.emptySet()); }
+
+  static final Unresolved ambiguous (final String name,
+                                     final Object dispatch,
+                                     final Set minima) {
+    assert 1 < minima.size();
+    return new Unresolved(
+      String.format(
+        "Multiple methods in multimethod '%s' " + 
+          "match dispatch value: %s -> %s, " +
+          "and none is preferred",
+          name, dispatch, minima),
+      Collections.unmodifiableSet(minima)); }
+
+  //--------------------------------------------------------------
+}
+//--------------------------------------------------------------
@@ -0,0 +1,93 @@
+(set! *warn-on-reflection* true)
+(set! *unchecked-math* :warn-on-boxed)
+;;----------------------------------------------------------------
+(ns palisades.lakes.multimethods.test.adaptive
+
+  {:doc "adaptive mono/poly/megamorphic method caches."
+   :author "palisades dot lakes at gmail dot com"
+   :since "2026-10-18"
+   :version "2026-10-18"}
+  (:require [clojure.test :as test]
+            [palisades.lakes.multimethods.core :as d])
+  (:import [java.util.concurrent.atomic AtomicLong]
+           [clojure.lang IFn]
+           [palisades.lakes.multimethods.java 
+            InlineEntry MethodCache SignatureCache]))
+;; mvn clojure:test -Dtest=palisades.lakes.multimethods.test.adaptive
+;;----------------------------------------------------------------
+(def ^:private classes
+  [Byte Short Integer Long Float Double 
+   clojure.lang.Ratio clojure.lang.BigInt 
+   java.math.BigInteger java.math.BigDecimal
+   String clojure.lang.Keyword clojure.lang.Symbol])
+(defn- instances []
+  [(byte 1) (short 1) (int 1) 1 (float 1) 1.0 
+   1/2 1N (biginteger 1) 1M "1" :a 'a])
+;;----------------------------------------------------------------
+(test/deftest method-cache-states
+  (let [cache (MethodCache.)]
+    (test/is (== 0 (.inlineCount cache)))
+    (.put cache (first classes) :v)
+    (test/is (== 1 (.inlineCount cache)))
+    ;; hits don't add entries
+    (dotimes [_ 4] (test/is (= :v (.get cache (first classes)))))
+    (test/is (== 1 (.inlineCount cache)))
+    (doseq [c (take InlineEntry/LIMIT classes)] (.put cache c :v))
+    (test/is (== InlineEntry/LIMIT (.inlineCount cache)))
+    (.put cache (nth classes InlineEntry/LIMIT) :v)
+    (test/is (== -1 (.inlineCount cache)))
+    ;; still hits, from the hashed table
+    (doseq [c (take (inc InlineEntry/LIMIT) classes)]
+      (test/is (= :v (.get cache c))))
+    (test/is (== -1 (.inlineCount cache)))
+    ;; weak and bounded caches start megamorphic
+    (test/is (== -1 (.inlineCount (MethodCache. 0 true (AtomicLong. 0)))))
+    (test/is (== -1 (.inlineCount (MethodCache. 8 false (AtomicLong. 0)))))))
+
+(test/deftest signature-cache-states
+  (let [cache (SignatureCache.)
+        ^IFn f (fn [] nil)]
+    (test/is (== 0 (.inlineCount cache)))
+    (.put cache Long Long f)
+    (test/is (== 1 (.inlineCount cache)))
+    (test/is (identical? f (.get cache Long Long)))
+    (test/is (== 1 (.inlineCount cache)))
+    (doseq [^Class c classes] (.put cache c c f))
+    (test/is (== -1 (.inlineCount cache)))
+    (doseq [^Class c classes] 
+      (test/is (identical? f (.get cache c c))))
+    (test/is (== -1 (.inlineCount (SignatureCache. 0 false (AtomicLong. 0)))))))
+;;----------------------------------------------------------------
+;; megamorphic multimethods fall back down after edits
+;;----------------------------------------------------------------
+(test/deftest megamorphic
+  (doseq [^IFn f 
+          [(do (d/defmulti m0 d/signature :hierarchy false) m0)
+           (do (d/defmulti m1 d/signature 
+                 :hierarchy false :dispatch :signature) m1)
+           (do (d/defmulti m2 d/signature) m2)]]
+    (d/defmethod f Object [_] Object)
+    (d/defmethod f (d/to-signature Object Object) [_ _] Object)
+    (d/defmethod f (d/to-signature Object Object Object) [_ _ _] Object)
+    (d/defmethod f (d/to-signature Object Object Object Object) 
+      [_ _ _ _] Object)
+    (dotimes [_ 2]
+      (doseq [x (instances) y (instances)]
+        (test/is (= Object (f x)))
+        (test/is (= Object (f x y)))
+        (test/is (= Object (f x y x)))
+        (test/is (= Object (f x y x y)))))
+    (d/defmethod f Number [_] Number)
+    (d/defmethod f (d/to-signature Number Number) [_ _] Number)
+    (d/defmethod f (d/to-signature Number Number Number) [_ _ _] Number)
+    (d/defmethod f (d/to-signature Number Number Number Number) 
+      [_ _ _ _] Number)
+    (test/is (= Number (f 1)))
+    (test/is (= Number (f 1 1.0)))
+    (test/is (= Number (f 1 1.0 1N)))
+    (test/is (= Number (f 1 1.0 1N 1/2)))
+    (test/is (= Object (f :a)))
+    (test/is (= Object (f 1 :a)))
+    (test/is (= Object (f 1 1 :a)))
+    (test/is (= Object (f 1 1 1 :a)))))
+;;----------------------------------------------------------------
@@ -0,0 +1,113 @@
+(set! *warn-on-reflection* true)
+(set! *unchecked-math* :warn-on-boxed)
+;;----------------------------------------------------------------
+(ns palisades.lakes.multimethods.test.bounded
+
+  {:doc "bounded method caches (:cache-size)."
+   :author "palisades dot lakes at gmail dot com"
+   :since "2026-10-18"
+   :version "2026-10-18"}
+  (:require [clojure.test :as test]
+            [palisades.lakes.multimethods.core :as d])
+  (:import [java.util.concurrent.atomic AtomicLong]
+           [clojure.lang IFn]
+           [palisades.lakes.multimethods.java 
+            MethodCache MultiFnWoutHierarchy MultiFnWithHierarchy
+            SignatureCache]))
+;; mvn clojure:test -Dtest=palisades.lakes.multimethods.test.bounded
+;;----------------------------------------------------------------
+(def ^:private classes
+  [Byte Short Integer Long Float Double 
+   clojure.lang.Ratio clojure.lang.BigInt 
+   java.math.BigInteger java.math.BigDecimal
+   String clojure.lang.Keyword clojure.lang.Symbol])
+(defn- instances []
+  [(byte 1) (short 1) (int 1) 1 (float 1) 1.0 
+   1/2 1N (biginteger 1) 1M "1" :a 'a])
+;;----------------------------------------------------------------
+(test/deftest options
+  (d/defmulti unbounded d/signature :hierarchy false)
+  (d/defmulti bounded d/signature :hierarchy false :cache-size 8)
+  (d/defmulti bounded-intrinsic d/signature 
+    :hierarchy false :dispatch :signature :cache-size 8)
+  (d/defmulti bounded-hierarchy d/signature :cache-size 8)
+  (test/is (== 0 (.cacheSize ^MultiFnWoutHierarchy unbounded)))
+  (test/is (== 8 (.cacheSize ^MultiFnWoutHierarchy bounded)))
+  (test/is (== 8 (.cacheSize ^MultiFnWoutHierarchy bounded-intrinsic)))
+  (test/is (== 8 (.cacheSize ^MultiFnWithHierarchy bounded-hierarchy)))
+  (test/is (== 0 (d/cache-evictions unbounded))))
+
+(test/deftest cache-size-option
+  ;; any form, evaluated with the defmulti
+  (d/defmulti bounded-form d/signature 
+    :hierarchy false :cache-size (* 2 (count [0 1 2 3])))
+  (test/is (== 8 (.cacheSize ^MultiFnWoutHierarchy bounded-form)))
+  (doseq [size [0 -1 1.5 "8" (list 'str 8) (list 'identity -1)]]
+    (test/is (thrown? Throwable
+                      (eval 
+                        `(d/defmulti ~(gensym "bad") d/signature 
+                           :hierarchy false :cache-size ~size))))))
+;;----------------------------------------------------------------
+(defn- exercise [f]
+  (doseq [x (instances) y (instances)]
+    (test/is (= [Object Object] (f x y))))
+  (doseq [x (instances) y (instances) z (take 2 (instances))]
+    (test/is (= [Object Object Object] (f x y z))))
+  ;; SignatureN and hierarchy dispatch values go thru MethodCache
+  (doseq [x (instances) y (instances)]
+    (test/is (= [Object Object Object Object] (f x y x y)))))
+
+(test/deftest evictions
+  (doseq [^IFn f 
+          [(do (d/defmulti b0 d/signature :hierarchy false :cache-size 8)
+             b0)
+           (do (d/defmulti b1 d/signature 
+                 :hierarchy false :dispatch :signature :cache-size 8)
+             b1)
+           (do (d/defmulti b2 d/signature :cache-size 8)
+             b2)]]
+    (d/defmethod f (d/to-signature Object Object) [_ _] 
+      [Object Object])
+    (d/defmethod f (d/to-signature Object Object Object) [_ _ _] 
+      [Object Object Object])
+    (d/defmethod f (d/to-signature Object Object Object Object) 
+      [_ _ _ _] 
+      [Object Object Object Object])
+    (exercise f)
+    (test/is (< 0 (d/cache-evictions f)))
+    (let [n (d/cache-evictions f)]
+      ;; edits don't reset the count
+      (d/defmethod f (d/to-signature Long Long) [_ _] [Long Long])
+      (test/is (= [Long Long] (f 1 1)))
+      (test/is (= [Object Object] (f 1 1.0)))
+      (test/is (<= n (d/cache-evictions f))))))
+;;----------------------------------------------------------------
+;; the hot working set survives a scan
+;;----------------------------------------------------------------
+(test/deftest clock
+  (let [counter (AtomicLong. 0)
+        cache (MethodCache. 8 false counter)
+        hot [:a :b :c :d]]
+    (doseq [k hot] (.put cache k k))
+    (dotimes [i 64]
+      (doseq [k hot] (test/is (= k (.get cache k))))
+      (.put cache i i))
+    (test/is (<= (.count cache) 8))
+    (test/is (< 0 (.get counter)))
+    (doseq [k hot] (test/is (= k (.get cache k))))))
+
+(test/deftest clock-signature
+  (let [counter (AtomicLong. 0)
+        cache (SignatureCache. 8 false counter)
+        ^IFn f (fn [] nil)
+        hot [[Long Long] [Double Double] [String String]]]
+    (doseq [[k0 k1] hot] (.put cache ^Class k0 ^Class k1 f))
+    (doseq [^Class c0 classes ^Class c1 classes]
+      (doseq [[k0 k1] hot] 
+        (test/is (identical? f (.get cache ^Class k0 ^Class k1))))
+      (.put cache c1 c0 f))
+    (test/is (<= (.count cache) 8))
+    (test/is (< 0 (.get counter)))
+    (doseq [[k0 k1] hot] 
+      (test/is (identical? f (.get cache ^Class k0 ^Class k1))))))
+;;----------------------------------------------------------------
@@ -0,0 +1,92 @@
+(set! *warn-on-reflection* true)
+(set! *unchecked-math* :warn-on-boxed)
+;;----------------------------------------------------------------
+(ns palisades.lakes.multimethods.test.callsite
+
+  {:doc "call site caches (mm-call)."
+   :author "palisades dot lakes at gmail dot com"
+   :since "2026-10-18"
+   :version "2026-10-18"}
+  (:require [clojure.test :as test]
+            [palisades.lakes.multimethods.core :as d])
+  (:import [palisades.lakes.multimethods.java CallSiteCache]))
+;; mvn clojure:test -Dtest=palisades.lakes.multimethods.test.callsite
+;;----------------------------------------------------------------
+(d/defmulti plus d/signature :hierarchy false :dispatch :signature)
+(d/defmethod plus Object [_] Object)
+(d/defmethod plus (d/to-signature Number Number) [_ _] [Number Number])
+(d/defmethod plus (d/to-signature Double Double) [_ _] [Double Double])
+(d/defmethod plus (d/to-signature Number Number Number) [_ _ _] 
+  [Number Number Number])
+(d/defmulti iplus d/signature 
+  :hierarchy false :dispatch :signature :immutable true)
+(d/defmethod-immutable iplus (d/to-signature Number Number) [_ _] [Number Number])
+(d/defmulti extrinsic d/signature :hierarchy false)
+(d/defmethod extrinsic (d/to-signature Number Number) [_ _] 
+  [Number Number])
+;;----------------------------------------------------------------
+(defn- site 
+  "The cache in `(mm-call ...)`'s expansion."
+  [form] 
+  (first (filter #(instance? CallSiteCache %) 
+                 (tree-seq coll? seq (macroexpand-1 form)))))
+(defn- call1 [x] (d/mm-call plus x))
+(defn- call2 [x y] (d/mm-call plus x y))
+(defn- call3 [x y z] (d/mm-call plus x y z))
+(defn- icall2 [x y] (d/mm-call iplus x y))
+(defn- ecall2 [x y] (d/mm-call extrinsic x y))
+(defn- fcall2 [f x y] (d/mm-call f x y))
+;;----------------------------------------------------------------
+(test/deftest calls
+  (test/is (= Object (call1 1)))
+  (test/is (thrown? IllegalArgumentException (call1 nil)))
+  (test/is (= [Double Double] (call2 1.0 1.0)))
+  (test/is (= [Double Double] (call2 1.0 1.0)))
+  (test/is (= [Number Number] (call2 1 1.0)))
+  (test/is (= [Number Number Number] (call3 1 1.0 1)))
+  (test/is (thrown? IllegalArgumentException (call2 :a 1.0)))
+  (test/is (thrown? IllegalArgumentException (call3 :a 1.0 1)))
+  (test/is (= [Number Number] (icall2 1 1)))
+  (test/is (= [Number Number] (ecall2 1 1)))
+  (test/is (= 3 (fcall2 + 1 2)))
+  (test/is (= [Number Number] (fcall2 plus 1 2)))
+  (test/is (= [Number Number] (fcall2 iplus 1 2)))
+  (test/is (= 3 (fcall2 + 1 2)))
+  (test/is (= 6 (d/mm-call + 1 2 3)))
+  ;; calling nil throws, as usual
+  (test/is (thrown? NullPointerException (d/mm-call nil nil)))
+  (test/is (thrown? NullPointerException (fcall2 nil nil nil)))
+  (test/is (= 10 (d/mm-call + 1 2 3 4))))
+;;----------------------------------------------------------------
+(test/deftest edits
+  (test/is (= [Number Number] (call2 1.0 1)))
+  (d/defmethod plus (d/to-signature Double Number) [_ _] [Double Number])
+  (test/is (= [Double Number] (call2 1.0 1)))
+  (d/defmethod plus (d/to-signature Number Long) [_ _] [Number Long])
+  (test/is (thrown? IllegalArgumentException (call2 1.0 1)))
+  (d/prefer-method plus 
+                   (d/to-signature Number Long) 
+                   (d/to-signature Double Number))
+  (test/is (= [Number Long] (call2 1.0 1)))
+  (d/remove-method plus (d/to-signature Number Long))
+  (d/remove-method plus (d/to-signature Double Number))
+  (test/is (= [Number Number] (call2 1.0 1)))
+  ;; immutable: the Var's new value is a different MultiFn
+  (test/is (= [Number Number] (icall2 1.0 1.0)))
+  (d/defmethod-immutable iplus (d/to-signature Double Double) [_ _] [Double Double])
+  (test/is (= [Double Double] (icall2 1.0 1.0))))
+;;----------------------------------------------------------------
+(test/deftest sites
+  ;; a cache per expansion, and a new one when the compiled code
+  ;; is loaded
+  (let [c (site `(d/mm-call plus 1 1))]
+    (test/is (some? c))
+    (test/is (not (identical? c (site `(d/mm-call plus 1 1)))))
+    (let [c1 (read-string (binding [*print-dup* true] (pr-str c)))]
+      (test/is (instance? CallSiteCache c1))
+      (test/is (not (identical? c c1)))))
+  (let [c (CallSiteCache.)]
+    (test/is (.isEmpty c))
+    (test/is (= [Number Number] (.invoke c plus 1 1)))
+    (test/is (not (.isEmpty c)))))
+;;----------------------------------------------------------------
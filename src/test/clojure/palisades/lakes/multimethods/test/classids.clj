@@ -0,0 +1,79 @@
+(set! *warn-on-reflection* true)
+(set! *unchecked-math* :warn-on-boxed)
+;;----------------------------------------------------------------
+(ns palisades.lakes.multimethods.test.classids
+
+  {:doc "class ids packed into long cache keys."
+   :author "palisades dot lakes at gmail dot com"
+   :since "2026-10-18"
+   :version "2026-10-18"}
+  (:require [clojure.test :as test])
+  (:import [clojure.lang IFn]
+           [palisades.lakes.multimethods.java ClassIds SignatureCache]))
+;; mvn clojure:test -Dtest=palisades.lakes.multimethods.test.classids
+;;----------------------------------------------------------------
+(def ^:private classes
+  [nil Byte Short Integer Long Float Double
+   clojure.lang.Ratio clojure.lang.BigInt
+   java.math.BigInteger java.math.BigDecimal
+   String clojure.lang.Keyword clojure.lang.Symbol])
+(def ^:private ^:const max3 (dec (bit-shift-left 1 21)))
+;;----------------------------------------------------------------
+(test/deftest ids
+  (test/is (== 0 (ClassIds/id nil)))
+  (test/is (== (ClassIds/id Long) (ClassIds/id Long)))
+  (test/is (every? pos? (map #(ClassIds/id %) (rest classes))))
+  (test/is (apply distinct? (map #(ClassIds/id %) classes))))
+;;----------------------------------------------------------------
+(test/deftest packing
+  (test/is (== 0 (ClassIds/key nil nil)))
+  (test/is (== 0 (ClassIds/key nil nil nil)))
+  (doseq [^Class c0 classes ^Class c1 classes]
+    (let [k (ClassIds/key c0 c1)]
+      (test/is (<= 0 k))
+      (test/is (== (ClassIds/id c0) (bit-shift-right k 32)))
+      (test/is (== (ClassIds/id c1) (bit-and k 0xFFFFFFFF)))))
+  (doseq [^Class c0 classes ^Class c1 classes ^Class c2 classes]
+    (let [k (ClassIds/key c0 c1 c2)]
+      (test/is (<= 0 k))
+      (test/is (== (ClassIds/id c0) (bit-shift-right k 42)))
+      (test/is (== (ClassIds/id c1) (bit-and (bit-shift-right k 21) max3)))
+      (test/is (== (ClassIds/id c2) (bit-and k max3)))))
+  (test/is (apply distinct?
+                  (for [^Class c0 classes ^Class c1 classes]
+                    (ClassIds/key c0 c1))))
+  (test/is (apply distinct?
+                  (for [^Class c0 classes ^Class c1 classes ^Class c2 classes]
+                    (ClassIds/key c0 c1 c2)))))
+;;----------------------------------------------------------------
+(test/deftest overflow
+  (test/is (== max3 (bit-shift-right 
+                      (ClassIds/pack (int max3) (int 0) (int 0)) 42)))
+  (test/is (== ClassIds/NO_KEY (ClassIds/pack (int (inc max3)) (int 0) (int 0))))
+  (test/is (== ClassIds/NO_KEY (ClassIds/pack (int 0) (int (inc max3)) (int 0))))
+  (test/is (== ClassIds/NO_KEY (ClassIds/pack (int 0) (int 0) (int (inc max3)))))
+  (test/is (<= 0 (ClassIds/pack Integer/MAX_VALUE Integer/MAX_VALUE)))
+  (test/is (== ClassIds/NO_KEY (ClassIds/pack (int -1) (int 0))))
+  (test/is (== ClassIds/NO_KEY (ClassIds/pack (int 0) (int -1))))
+  (test/is (== ClassIds/NO_KEY (ClassIds/pack (int -1) (int 0) (int 0)))))
+;;----------------------------------------------------------------
+;; signatures without a packed key are still cached
+;;----------------------------------------------------------------
+(test/deftest overflow-cache
+  (let [cache (SignatureCache.)
+        ^IFn f (fn [] :f)
+        ^IFn g (fn [] :g)]
+    (test/is (nil? (.get cache ClassIds/NO_KEY Long Double)))
+    (test/is (nil? (.get cache ClassIds/NO_KEY Long Double Float)))
+    (test/is (== 0 (.overflowCount cache)))
+    (.put cache ClassIds/NO_KEY Long Double f)
+    (.put cache ClassIds/NO_KEY Long Double Float g)
+    (test/is (== 2 (.overflowCount cache)))
+    (test/is (== 0 (.count cache)))
+    (test/is (identical? f (.get cache ClassIds/NO_KEY Long Double)))
+    (test/is (identical? g (.get cache ClassIds/NO_KEY Long Double Float)))
+    (test/is (nil? (.get cache ClassIds/NO_KEY Double Long)))
+    ;; the packed table doesn't see them
+    (test/is (nil? (.get cache (ClassIds/key Long Double))))
+    (test/is (nil? (.get cache (ClassIds/key Long Double Float))))))
+;;----------------------------------------------------------------
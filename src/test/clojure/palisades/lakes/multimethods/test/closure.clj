@@ -0,0 +1,92 @@
+(set! *warn-on-reflection* true)
+(set! *unchecked-math* :warn-on-boxed)
+;;----------------------------------------------------------------
+(ns palisades.lakes.multimethods.test.closure
+
+  {:doc "prefers from the transitive closure of the prefer table."
+   :author "palisades dot lakes at gmail dot com"
+   :since "2026-10-18"
+   :version "2026-10-18"}
+  (:require [clojure.test :as test]
+            [palisades.lakes.multimethods.core :as d])
+  (:import [java.io Serializable]
+           [java.util List RandomAccess]
+           [palisades.lakes.multimethods.java MultiFn]))
+;; mvn clojure:test -Dtest=palisades.lakes.multimethods.test.closure
+;;----------------------------------------------------------------
+;; a long chain of preferences, among keywords that all apply
+
+(def ^:private chain
+  (mapv #(keyword (str *ns*) (str "chain-" %)) (range 48)))
+
+(def ^:private chain-hierarchy
+  (reduce #(derive %1 ::chain-bottom %2) (make-hierarchy) chain))
+
+(d/defmulti closure-chain identity :hierarchy #'chain-hierarchy)
+(doseq [k chain] (d/defmethod closure-chain k [_] k))
+
+(test/deftest long-chain
+  (test/is (thrown-with-msg?
+             IllegalArgumentException #"Multiple methods"
+             (closure-chain ::chain-bottom)))
+  ;; in reverse, so no preference is implied by an earlier one
+  (doseq [[x y] (reverse (partition 2 1 chain))]
+    (d/prefer-method closure-chain x y))
+  (test/is (= (first chain) (closure-chain ::chain-bottom)))
+  (test/is (.dominates ^MultiFn closure-chain (first chain) (peek chain)))
+  (test/is (not (.dominates ^MultiFn closure-chain
+                            (peek chain) (first chain))))
+  (test/is (thrown? IllegalStateException
+                    (d/prefer-method closure-chain
+                                     (peek chain) (first chain)))))
+;;----------------------------------------------------------------
+;; preferences of a key apply to whatever is-a that key,
+;; under the current hierarchy
+
+(def ^:private h (make-hierarchy))
+(d/defmulti closure-local identity :hierarchy #'h)
+(d/defmethod closure-local ::c [_] :c)
+(d/defmethod closure-local ::b [_] :b)
+(d/prefer-method closure-local ::a ::b)
+
+(test/deftest hierarchy
+  (alter-var-root #'h derive ::d ::c)
+  (alter-var-root #'h derive ::d ::b)
+  (test/is (thrown-with-msg?
+             IllegalArgumentException #"Multiple methods"
+             (closure-local ::d)))
+  (alter-var-root #'h derive ::c ::a)
+  (test/is (= :c (closure-local ::d)))
+  (test/is (thrown? IllegalStateException
+                    (d/prefer-method closure-local ::b ::c))))
+;;----------------------------------------------------------------
+;; classes, without a hierarchy
+
+(defn- classes [^MultiFn f0]
+  (let [f (reduce (fn [^MultiFn f [k v]] (.addMethod f k (fn [_] v)))
+                  f0
+                  [[List :list]
+                   [RandomAccess :random-access]
+                   [Cloneable :cloneable]
+                   [Serializable :serializable]])
+        ^MultiFn f (reduce (fn [^MultiFn f [x y]] (.preferMethod f x y))
+                           f
+                           [[Cloneable Serializable]
+                            [Serializable List]
+                            [RandomAccess Cloneable]])]
+    (test/is (= :random-access (f (java.util.ArrayList.))))
+    (test/is (= :cloneable (f (java.util.LinkedList.))))
+    (test/is (.dominates f RandomAccess List))
+    (test/is (not (.dominates f List RandomAccess)))
+    (test/is (thrown? IllegalStateException
+                      (.preferMethod f List RandomAccess)))))
+
+(d/defmulti closure-intrinsic d/signature
+  :hierarchy false :dispatch :signature)
+(d/defmulti closure-immutable d/signature
+  :hierarchy false :dispatch :signature :immutable true)
+
+(test/deftest without-hierarchy
+  (classes closure-intrinsic)
+  (classes closure-immutable))
+;;----------------------------------------------------------------
@@ -0,0 +1,89 @@
+(set! *warn-on-reflection* true)
+(set! *unchecked-math* :warn-on-boxed)
+;;----------------------------------------------------------------
+(ns palisades.lakes.multimethods.test.dominance
+
+  {:doc "cache misses resolved from a precomputed dominance order."
+   :author "palisades dot lakes at gmail dot com"
+   :since "2026-10-18"
+   :version "2026-10-18"}
+  (:require [clojure.test :as test]
+            [palisades.lakes.multimethods.core :as d])
+  (:import [java.util Collection List RandomAccess]))
+;; mvn clojure:test -Dtest=palisades.lakes.multimethods.test.dominance
+;;----------------------------------------------------------------
+(defmacro ^:private defs [f & options]
+  `(do
+     (d/defmulti ~f d/signature ~@options)
+     (d/defmethod ~f (d/to-signature Object Object) [~'_ ~'_] :object)
+     (d/defmethod ~f (d/to-signature Collection Object) [~'_ ~'_]
+       :collection)
+     (d/defmethod ~f (d/to-signature List Object) [~'_ ~'_] :list)
+     (d/defmethod ~f (d/to-signature RandomAccess Object) [~'_ ~'_]
+       :random-access)
+     (d/defmethod ~f (d/to-signature Object Number) [~'_ ~'_]
+       :number)
+     ;; disjoint from each other, and most of the above
+     (d/defmethod ~f (d/to-signature String String) [~'_ ~'_]
+       :strings)
+     (d/defmethod ~f (d/to-signature Long Long) [~'_ ~'_] :longs)))
+
+(defs dominance-intrinsic :hierarchy false :dispatch :signature)
+(defs dominance-extrinsic :hierarchy false)
+(defs dominance-hierarchy)
+
+(defn- check [f]
+  (let [o (d/to-signature Object Number)
+        l (d/to-signature List Object)
+        r (d/to-signature RandomAccess Object)]
+    (test/is (= :longs (f 1 2)))
+    (test/is (= :strings (f "a" "b")))
+    (test/is (= :object (f "a" :b)))
+    (test/is (= :collection (f #{} :b)))
+    (test/is (= :list (f (java.util.LinkedList.) :b)))
+    ;; List and RandomAccess are incomparable
+    (test/is (thrown-with-msg?
+               IllegalArgumentException #"Multiple methods"
+               (f [] :b)))
+    ;; so are List and Number
+    (test/is (thrown-with-msg?
+               IllegalArgumentException #"Multiple methods"
+               (f (java.util.LinkedList.) 1)))
+    (test/is (= :number (f "a" 1)))
+    (d/prefer-method f l r)
+    (test/is (= :list (f [] :b)))
+    (d/prefer-method f o l)
+    (test/is (= :number (f (java.util.LinkedList.) 1)))
+    ;; preferences are transitive
+    (test/is (= :number (f (java.util.ArrayList.) 1)))
+    (test/is (= :list (f (java.util.ArrayList.) :b)))
+    ;; Collection and RandomAccess are incomparable
+    (d/remove-method f l)
+    (test/is (thrown-with-msg?
+               IllegalArgumentException #"Multiple methods"
+               (f [] :b)))
+    (test/is (= :collection (f (java.util.LinkedList.) :b)))))
+
+(test/deftest dominance
+  (check dominance-intrinsic)
+  (check dominance-extrinsic)
+  (check dominance-hierarchy))
+;;----------------------------------------------------------------
+;; hierarchy changes rebuild the order
+
+(def ^:private h (make-hierarchy))
+(d/defmulti dominance-local identity :hierarchy #'h)
+(d/defmethod dominance-local ::a [_] :a)
+(d/defmethod dominance-local ::b [_] :b)
+
+(test/deftest hierarchy
+  (alter-var-root #'h derive ::x ::a)
+  (test/is (= :a (dominance-local ::x)))
+  (alter-var-root #'h derive ::y ::a)
+  (alter-var-root #'h derive ::y ::b)
+  (test/is (thrown-with-msg?
+             IllegalArgumentException #"Multiple methods"
+             (dominance-local ::y)))
+  (alter-var-root #'h derive ::b ::a)
+  (test/is (= :b (dominance-local ::y))))
+;;----------------------------------------------------------------
@@ -0,0 +1,82 @@
+(set! *warn-on-reflection* true)
+(set! *unchecked-math* :warn-on-boxed)
+;;----------------------------------------------------------------
+(ns palisades.lakes.multimethods.test.frozen
+
+  {:doc "frozen dispatchers."
+   :author "palisades dot lakes at gmail dot com"
+   :since "2026-10-18"
+   :version "2026-10-18"}
+  (:require [clojure.test :as test]
+            [palisades.lakes.multimethods.core :as d])
+  (:import [java.util Collection List RandomAccess]))
+;; mvn clojure:test -Dtest=palisades.lakes.multimethods.test.frozen
+;;----------------------------------------------------------------
+(defmacro ^:private result [form]
+  `(try ~form (catch IllegalArgumentException e# ::none)))
+(defn- instances []
+  [nil (byte 1) (int 1) 1 1.0 1/2 1N 1M "1" :a [1] '(1) 
+   (java.util.ArrayList.) (object-array 1)])
+(defn- define-methods [f]
+  (d/defmethod f nil [_] nil)
+  (d/defmethod f Object [_] Object)
+  (d/defmethod f Number [_] Number)
+  (d/defmethod f Long [_] Long)
+  (d/defmethod f Collection [_] Collection)
+  (d/defmethod f RandomAccess [_] RandomAccess)
+  (d/prefer-method f RandomAccess Collection)
+  (d/defmethod f (d/to-signature Object Object) [_ _] [Object Object])
+  (d/defmethod f (d/to-signature Number Object) [_ _] [Number Object])
+  (d/defmethod f (d/to-signature Object Number) [_ _] [Object Number])
+  (d/defmethod f (d/to-signature Long Long) [_ _] [Long Long])
+  (d/defmethod f (d/to-signature List Collection) [_ _] [List Collection])
+  (d/defmethod f (d/to-signature Collection List) [_ _] [Collection List])
+  (d/defmethod f (d/to-signature nil Object) [_ _] [nil Object])
+  (d/defmethod f (d/to-signature Number Number Number) [_ _ _] 
+    [Number Number Number])
+  (d/defmethod f (d/to-signature Long Number Number) [_ _ _] 
+    [Long Number Number])
+  (d/defmethod f (d/to-signature Number Long Number) [_ _ _] 
+    [Number Long Number])
+  (d/defmethod f (d/to-signature (Class/forName "[Ljava.lang.Object;") 
+                                 Object Object) [_ _ _] 
+    [Object Object Object])
+  (d/prefer-method 
+    f (d/to-signature Long Number Number) 
+    (d/to-signature Number Long Number)))
+;;----------------------------------------------------------------
+(test/deftest frozen
+  (d/defmulti dynamic d/signature :hierarchy false :dispatch :signature)
+  (d/defmulti frozen d/signature :hierarchy false :dispatch :signature)
+  (define-methods dynamic)
+  (define-methods frozen)
+  (test/is (not (d/frozen? frozen)))
+  (test/is (identical? frozen (d/freeze frozen)))
+  (test/is (d/frozen? frozen))
+  (doseq [x (instances)]
+    (test/is (= (result (dynamic x)) (result (frozen x))))
+    (doseq [y (instances)]
+      (test/is (= (result (dynamic x y)) (result (frozen x y))))
+      (doseq [z (instances)]
+        (test/is (= (result (dynamic x y z)) (result (frozen x y z)))))))
+  (test/is (d/frozen? frozen))
+  ;; edits thaw
+  (d/defmethod frozen Double [_] Double)
+  (test/is (not (d/frozen? frozen)))
+  (test/is (= Double (frozen 1.0)))
+  (d/freeze frozen)
+  (test/is (= Double (frozen 1.0)))
+  (d/remove-method frozen RandomAccess)
+  (test/is (not (d/frozen? frozen)))
+  (d/freeze frozen)
+  (test/is (= Collection (frozen [1])))
+  (d/thaw frozen)
+  (test/is (not (d/frozen? frozen)))
+  (test/is (= Collection (frozen [1]))))
+;;----------------------------------------------------------------
+(test/deftest not-intrinsic
+  (d/defmulti extrinsic d/signature :hierarchy false)
+  (d/defmethod extrinsic Object [_] Object)
+  (test/is (thrown? IllegalStateException (d/freeze extrinsic)))
+  (test/is (not (d/frozen? extrinsic))))
+;;----------------------------------------------------------------
@@ -0,0 +1,60 @@
+(set! *warn-on-reflection* true)
+(set! *unchecked-math* :warn-on-boxed)
+;;----------------------------------------------------------------
+(ns palisades.lakes.multimethods.test.group
+
+  {:doc "looking up methods of several multimethods at once."
+   :author "palisades dot lakes at gmail dot com"
+   :since "2026-10-18"
+   :version "2026-10-18"}
+  (:require [clojure.test :as test]
+            [palisades.lakes.multimethods.core :as d])
+  (:import [palisades.lakes.multimethods.java MultiFnGroup$Bundle]))
+;; mvn clojure:test -Dtest=palisades.lakes.multimethods.test.group
+;;----------------------------------------------------------------
+(d/defmulti group-plus d/signature :hierarchy false :dispatch :signature)
+(d/defmethod group-plus (d/to-signature Long Long) [a b] :long-plus)
+(d/defmethod group-plus (d/to-signature Number Number) [a b] :number-plus)
+
+(d/defmulti group-times d/signature :hierarchy false :dispatch :signature)
+(d/defmethod group-times (d/to-signature Number Number) [a b] :number-times)
+
+(d/defmulti group-show d/signature
+  :hierarchy false :dispatch :signature :immutable true)
+(d/defmethod-immutable group-show Object [a] :object-show)
+
+(d/defmulti group-extrinsic d/signature :hierarchy false)
+;;----------------------------------------------------------------
+(test/deftest bundles
+  (let [g (d/method-group group-plus group-times)
+        ^MultiFnGroup$Bundle b (d/group-methods g 1 2)]
+    (test/is (== 2 (count b)))
+    (test/is (.isValid b))
+    (let [[plus times] b]
+      (test/is (= :long-plus (plus 1 2)))
+      (test/is (= :number-times (times 1 2))))
+    ;; cached, for the same signature
+    (test/is (identical? b (d/group-methods g 3 4)))
+    (let [[plus times] (d/group-methods g 1.0 2)]
+      (test/is (= :number-plus (plus 1.0 2)))
+      (test/is (= :number-times (times 1.0 2))))
+    ;; no method: the multimethod itself, which throws
+    (let [[plus times] (d/group-methods g "a" 2)]
+      (test/is (identical? group-plus plus))
+      (test/is (thrown? IllegalArgumentException (times "a" 2))))
+    ;; edits invalidate the bundles
+    (d/defmethod group-times (d/to-signature Long Long) [a b]
+      :long-times)
+    (test/is (not (.isValid b)))
+    (let [^MultiFnGroup$Bundle bb (d/group-methods g 1 2)
+          [_ times] bb]
+      (test/is (not (identical? b bb)))
+      (test/is (.isValid bb))
+      (test/is (= :long-times (times 1 2))))))
+;;----------------------------------------------------------------
+(test/deftest arities
+  (let [g (d/method-group group-show)]
+    (test/is (= :object-show ((nth (d/group-methods g :a) 0) :a))))
+  (test/is (thrown? IllegalArgumentException
+                    (d/method-group group-plus group-extrinsic))))
+;;----------------------------------------------------------------
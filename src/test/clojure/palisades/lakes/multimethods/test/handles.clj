@@ -0,0 +1,94 @@
+(set! *warn-on-reflection* true)
+(set! *unchecked-math* :warn-on-boxed)
+;;----------------------------------------------------------------
+(ns palisades.lakes.multimethods.test.handles
+
+  {:doc "method handles for Java callers."
+   :author "palisades dot lakes at gmail dot com"
+   :since "2026-10-18"
+   :version "2026-10-18"}
+  (:require [clojure.test :as test]
+            [palisades.lakes.multimethods.core :as d])
+  (:import [java.lang.invoke MethodType]
+           [java.util Collection List RandomAccess]
+           [palisades.lakes.multimethods.java DispatchPlan MultiFn]))
+;; mvn clojure:test -Dtest=palisades.lakes.multimethods.test.handles
+;;----------------------------------------------------------------
+(defmacro ^:private result [form]
+  `(try ~form 
+     (catch IllegalArgumentException e# ::none)))
+(defn- instances []
+  [nil (byte 1) (int 1) 1 1.0 1/2 1N 1M "1" :a [1] '(1) 
+   (java.util.ArrayList.)])
+(defn- define-methods [f]
+  (d/defmethod f Object [_] Object)
+  (d/defmethod f Number [_] Number)
+  (d/defmethod f Long [_] Long)
+  (d/defmethod f Collection [_] Collection)
+  (d/defmethod f RandomAccess [_] RandomAccess)
+  (d/prefer-method f RandomAccess Collection)
+  (d/defmethod f (d/to-signature Object Object) [_ _] [Object Object])
+  (d/defmethod f (d/to-signature Number Object) [_ _] [Number Object])
+  (d/defmethod f (d/to-signature Object Number) [_ _] [Object Number])
+  (d/defmethod f (d/to-signature Long Long) [_ _] [Long Long])
+  (d/defmethod f (d/to-signature List Collection) [_ _] [List Collection])
+  (d/defmethod f (d/to-signature Collection List) [_ _] [Collection List])
+  (d/defmethod f (d/to-signature nil Object) [_ _] [nil Object])
+  (d/defmethod f (d/to-signature Number Number Number) [_ _ _] 
+    [Number Number Number])
+  (d/defmethod f (d/to-signature Long Number Number) [_ _ _] 
+    [Long Number Number]))
+(defn- handle ^java.lang.invoke.MethodHandle [^MultiFn f ^long n]
+  (.asMethodHandle f (MethodType/genericMethodType (int n))))
+;;----------------------------------------------------------------
+(test/deftest handles
+  (d/defmulti direct d/signature :hierarchy false :dispatch :signature)
+  (d/defmulti handled d/signature :hierarchy false :dispatch :signature)
+  (d/defmulti ihandled d/signature 
+    :hierarchy false :dispatch :signature :immutable true)
+  (define-methods direct)
+  (define-methods handled)
+  (alter-var-root #'ihandled 
+                  (fn [f] (reduce (fn [^MultiFn f [k m]] (.addMethod f k m))
+                                  f (d/methods direct))))
+  (d/prefer-method-immutable ihandled RandomAccess Collection)
+  (doseq [f [handled ihandled]]
+    (let [^java.lang.invoke.MethodHandle h1 (handle f 1) 
+          ^java.lang.invoke.MethodHandle h2 (handle f 2) 
+          ^java.lang.invoke.MethodHandle h3 (handle f 3)]
+      (doseq [x (instances)]
+        (test/is (= (result (direct x)) 
+                    (result (.invokeWithArguments h1 [x]))))
+        (doseq [y (instances)]
+          (test/is (= (result (direct x y)) 
+                      (result (.invokeWithArguments h2 [x y]))))
+          (doseq [z (instances)]
+            (test/is (= (result (direct x y z)) 
+                        (result (.invokeWithArguments h3 [x y z])))))))))
+  ;; edits invalidate the switch point, falling back to invoke
+  (let [^java.lang.invoke.MethodHandle h1 (handle handled 1)]
+    (test/is (= Long (.invokeWithArguments h1 [1])))
+    (d/defmethod handled Long [_] :long)
+    (test/is (= :long (.invokeWithArguments h1 [1])))
+    (test/is (= :long (.invokeWithArguments (handle handled 1) [1]))))
+  ;; other arities and types
+  (test/is (= [Number Object] 
+              (.invokeWithArguments 
+                (.asMethodHandle ^MultiFn handled 
+                  (MethodType/methodType Object Long/TYPE 
+                                         (into-array Class [Object])))
+                [1 :a]))))
+;;----------------------------------------------------------------
+(test/deftest plans
+  (d/defmulti planned d/signature :hierarchy false :dispatch :signature)
+  (define-methods planned)
+  (let [plan (DispatchPlan. planned (d/methods planned) 1)
+        ^java.util.List ks (mapv #(.key plan (int %)) 
+                                 (range (.count plan)))]
+    ;; more specific first
+    (test/is (< (.indexOf ks Long) (.indexOf ks Number)))
+    (test/is (< (.indexOf ks RandomAccess) (.indexOf ks Collection)))
+    (test/is (.isSafe plan (.indexOf ks Long)))
+    (test/is (= Object (peek ks)))
+    (test/is (.isSafe plan (dec (.count plan))))))
+;;----------------------------------------------------------------
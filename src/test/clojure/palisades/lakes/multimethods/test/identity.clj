@@ -0,0 +1,88 @@
+(set! *warn-on-reflection* true)
+(set! *unchecked-math* :warn-on-boxed)
+;;----------------------------------------------------------------
+(ns palisades.lakes.multimethods.test.identity
+
+  {:doc "keyword and enum dispatch with :dispatch :identity."
+   :author "palisades dot lakes at gmail dot com"
+   :since "2026-10-18"
+   :version "2026-10-18"}
+  (:require [clojure.test :as test]
+            [palisades.lakes.multimethods.core :as d])
+  (:import [java.util.concurrent TimeUnit]
+           [palisades.lakes.multimethods.java IdentityMultiFn
+            MultiFn]))
+;; mvn clojure:test -Dtest=palisades.lakes.multimethods.test.identity
+;;----------------------------------------------------------------
+(d/defmulti area :type :hierarchy false :dispatch :identity)
+(d/defmethod area :square [{:keys [side]}] (* (double side) (double side)))
+(d/defmethod area :rectangle [{:keys [w h]}] (* (double w) (double h)))
+(d/defmethod area :default [_] :unknown)
+
+(d/defmulti unit-name (fn [u _] u)
+  :hierarchy false :dispatch :identity :default nil)
+(d/defmethod unit-name TimeUnit/SECONDS [_ _] "s")
+(d/defmethod unit-name TimeUnit/MILLISECONDS [_ _] "ms")
+
+(d/defmulti many identity :hierarchy false :dispatch :identity)
+;;----------------------------------------------------------------
+(test/deftest options
+  (test/is (instance? IdentityMultiFn area))
+  (test/is (thrown? Throwable
+                    (eval
+                      '(palisades.lakes.multimethods.core/defmulti
+                         identity-hierarchy :type :dispatch :identity))))
+  (test/is (thrown? Throwable
+                    (eval
+                      '(palisades.lakes.multimethods.core/defmulti
+                         identity-lookup :type
+                         :hierarchy false :dispatch :identity
+                         :lookup :linear)))))
+;;----------------------------------------------------------------
+(test/deftest keywords
+  (test/is (== 4.0 (double (area {:type :square :side 2.0}))))
+  (test/is (== 6.0 (double (area {:type :rectangle :w 2.0 :h 3.0}))))
+  (test/is (= :unknown (area {:type :circle :r 1.0})))
+  (test/is (= :unknown (area {})))
+  ;; equal, but not identical, values are just other values
+  (test/is (= :unknown (area {:type "square" :side 2.0})))
+  (test/is (thrown? IllegalArgumentException
+                    (d/defmethod area "circle" [_] nil)))
+  (test/is (thrown? IllegalArgumentException
+                    (d/defmethod area String [_] nil)))
+  (test/is (= #{:square :rectangle :default}
+              (set (keys (d/methods area))))))
+;;----------------------------------------------------------------
+(test/deftest enums
+  (test/is (= "s" (unit-name TimeUnit/SECONDS 1)))
+  (test/is (= "ms" (unit-name TimeUnit/MILLISECONDS 1)))
+  (test/is (nil? (d/get-method unit-name TimeUnit/DAYS)))
+  (test/is (thrown-with-msg?
+             IllegalArgumentException #"No method"
+             (unit-name TimeUnit/DAYS 1)))
+  (test/is (thrown-with-msg?
+             IllegalArgumentException #"No method"
+             (unit-name nil 1))))
+;;----------------------------------------------------------------
+(test/deftest edits
+  (let [ks (mapv #(keyword "k" (str %)) (range 256))
+        ^MultiFn f many]
+    (doseq [k ks] (d/defmethod many k [_] k))
+    (test/is (every? #(identical? % (many %)) ks))
+    (test/is (thrown? IllegalArgumentException (many :k/none)))
+    (let [v (.version f)]
+      (d/remove-method many (first ks))
+      (test/is (< v (.version f))))
+    (test/is (thrown? IllegalArgumentException (many (first ks))))
+    (test/is (every? #(identical? % (many %)) (rest ks)))
+    (d/defmethod many :default [_] :default)
+    (test/is (= :default (many (first ks))))
+    ;; preferences don't matter, but are recorded and checked
+    (d/prefer-method many (second ks) (first ks))
+    (test/is (contains? (get (d/prefers many) (second ks)) (first ks)))
+    (test/is (thrown? IllegalStateException
+                      (d/prefer-method many (first ks) (second ks))))
+    (d/remove-all-methods many)
+    (test/is (empty? (d/methods many)))
+    (test/is (thrown? IllegalArgumentException (many (second ks))))))
+;;----------------------------------------------------------------
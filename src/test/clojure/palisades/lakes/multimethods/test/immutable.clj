@@ -0,0 +1,122 @@
+(set! *warn-on-reflection* true)
+(set! *unchecked-math* :warn-on-boxed)
+;;----------------------------------------------------------------
+(ns palisades.lakes.multimethods.test.immutable
+
+  {:doc "immutable multimethods."
+   :author "palisades dot lakes at gmail dot com"
+   :since "2026-10-18"
+   :version "2026-10-18"}
+  (:require [clojure.test :as test]
+            [palisades.lakes.multimethods.core :as d])
+  (:import [palisades.lakes.multimethods.java ImmutableMultiFn]))
+;; mvn clojure:test -Dtest=palisades.lakes.multimethods.test.immutable
+;;----------------------------------------------------------------
+(d/defmulti snap d/signature :hierarchy false :immutable true)
+(d/defmulti isnap d/signature 
+  :hierarchy false :dispatch :signature :immutable true)
+(d/defmulti mutable d/signature :hierarchy false)
+;;----------------------------------------------------------------
+(test/deftest options
+  (test/is (instance? ImmutableMultiFn snap))
+  (test/is (.isIntrinsic ^ImmutableMultiFn isnap))
+  (test/is (not (instance? ImmutableMultiFn mutable)))
+  (test/is (thrown? Throwable
+                    (eval 
+                      '(palisades.lakes.multimethods.core/defmulti 
+                         immutable-hierarchy 
+                         palisades.lakes.multimethods.core/signature 
+                         :immutable true))))
+  (test/is (thrown? Throwable
+                    (eval 
+                      '(palisades.lakes.multimethods.core/defmulti 
+                         immutable-bounded 
+                         palisades.lakes.multimethods.core/signature 
+                         :hierarchy false :immutable true 
+                         :cache-size 16)))))
+;;----------------------------------------------------------------
+(defmacro ^:private define-methods [f]
+  `(do
+     (d/defmethod-immutable ~f Object [~'_] Object)
+     (d/defmethod-immutable ~f Number [~'_] Number)
+     (d/defmethod-immutable ~f (d/to-signature Object Object) [~'_ ~'_] 
+       [Object Object])
+     (d/defmethod-immutable ~f (d/to-signature Long Number) [~'_ ~'_] 
+       [Long Number])
+     (d/defmethod-immutable ~f (d/to-signature Number Long) [~'_ ~'_] 
+       [Number Long])
+     (d/defmethod-immutable ~f (d/to-signature Number Number Number) [~'_ ~'_ ~'_] 
+       [Number Number Number])))
+(test/deftest rebinding
+  (doseq [v [#'snap #'isnap]]
+    (let [f0 @v]
+      (test/is (empty? (d/methods f0)))
+      (if (= #'snap v) (define-methods snap) (define-methods isnap))
+      (let [f1 @v]
+        (test/is (not (identical? f0 f1)))
+        ;; the original is unchanged
+        (test/is (empty? (d/methods f0)))
+        (test/is (thrown? IllegalArgumentException (f0 1)))
+        (test/is (== 6 (count (d/methods f1))))
+        (test/is (= Number (f1 1)))
+        (test/is (= Object (f1 :a)))
+        (test/is (= [Object Object] (f1 :a 1)))
+        (test/is (= [Long Number] (f1 1 1.0)))
+        (test/is (thrown? IllegalArgumentException (f1 1 1)))
+        (test/is (= [Number Number Number] (f1 1 1 1)))
+        (test/is (thrown? IllegalArgumentException (f1 1 1 :a)))
+        (if (= #'snap v)
+          (d/prefer-method-immutable 
+            snap (d/to-signature Number Long) (d/to-signature Long Number))
+          (d/prefer-method-immutable 
+            isnap (d/to-signature Number Long) (d/to-signature Long Number)))
+        (let [f2 @v]
+          (test/is (thrown? IllegalArgumentException (f1 1 1)))
+          (test/is (= [Number Long] (f2 1 1)))
+          (test/is (thrown? IllegalStateException
+                            (d/prefer-method 
+                              f2
+                              (d/to-signature Long Number)
+                              (d/to-signature Number Long))))
+          (if (= #'snap v)
+            (d/remove-method-immutable snap Number)
+            (d/remove-method-immutable isnap Number))
+          (test/is (= Object (@v 1)))
+          (test/is (= Number (f2 1)))
+          (alter-var-root v d/remove-all-methods)
+          (test/is (empty? (d/methods @v)))
+          (test/is (= [Number Long] (f2 1 1))))))))
+;;----------------------------------------------------------------
+(test/deftest mutable-unchanged
+  (let [f0 mutable]
+    (d/defmethod mutable Object [_] Object)
+    (test/is (identical? f0 mutable))
+    (test/is (identical? f0 (d/prefer-method mutable Object Number)))
+    (test/is (= Object (mutable 1)))))
+;;----------------------------------------------------------------
+(test/deftest defmethod-rebinds
+  (d/defmulti rebound d/signature :hierarchy false :immutable true)
+  (let [f0 rebound]
+    ;; defmethod rebinds the Var, like defmethod-immutable
+    (d/defmethod rebound Object [_] Object)
+    (test/is (not (identical? f0 rebound)))
+    (test/is (empty? (d/methods f0)))
+    (test/is (= Object (rebound 1)))
+    ;; the edit fns only return the updated multimethod
+    (test/is (= {Number #{Object}}
+                (d/prefers (d/prefer-method rebound Number Object))))
+    (test/is (empty? (d/prefers rebound))))
+  (test/is (thrown? ClassCastException 
+                    (d/defmethod-immutable mutable Number [_] Number))))
+;;----------------------------------------------------------------
+(test/deftest concurrent-defmethods
+  (d/defmulti many d/signature :hierarchy false :immutable true)
+  (let [classes [Byte Short Integer Long Float Double 
+                 clojure.lang.Ratio clojure.lang.BigInt 
+                 java.math.BigInteger java.math.BigDecimal
+                 String clojure.lang.Keyword clojure.lang.Symbol]]
+    (doall 
+      (pmap (fn [^Class c] (d/defmethod-immutable many c [_] c)) classes))
+    (test/is (== (count classes) (count (d/methods many))))
+    (test/is (= Long (many 1)))))
+;;----------------------------------------------------------------
@@ -0,0 +1,97 @@
+(set! *warn-on-reflection* true)
+(set! *unchecked-math* :warn-on-boxed)
+;;----------------------------------------------------------------
+(ns palisades.lakes.multimethods.test.index
+
+  {:doc "method table index by arity and first class."
+   :author "palisades dot lakes at gmail dot com"
+   :since "2026-10-18"
+   :version "2026-10-18"}
+  (:require [clojure.test :as test]
+            [palisades.lakes.multimethods.core :as d])
+  (:import [java.util List RandomAccess]
+           [palisades.lakes.multimethods.java MultiFn]))
+;; mvn clojure:test -Dtest=palisades.lakes.multimethods.test.index
+;;----------------------------------------------------------------
+(def ^:private filler
+  ;; many first classes, so lookup goes through the supertypes
+  [Byte Short Integer Float Character Boolean StringBuilder
+   java.util.HashMap java.util.TreeMap java.util.HashSet
+   java.util.TreeSet java.util.LinkedList java.util.ArrayDeque
+   java.util.Date java.math.BigInteger java.math.BigDecimal
+   java.util.regex.Pattern java.io.File java.net.URI
+   java.util.UUID clojure.lang.Keyword clojure.lang.Symbol])
+
+;; works for immutable multimethods too
+(defn- add ^MultiFn [^MultiFn f k m] (.addMethod f k m))
+(defn- fill ^MultiFn [^MultiFn f]
+  (reduce (fn [f ^Class c]
+            (-> f
+                (add c (fn [_] c))
+                (add (d/to-signature c c) (fn [_ _] [c c]))
+                (add (d/to-signature c c c) (fn [_ _ _] [c c c]))))
+          f
+          filler))
+
+(defn- check ^MultiFn [^MultiFn f0]
+  (let [f (reduce (fn [f [k v]] (add f k (fn [& _] v)))
+                  (fill f0)
+                  [[Object :object]
+                   [Number :number]
+                   [CharSequence :chars]
+                   [RandomAccess :random-access]
+                   [(d/to-signature Object Object) :object2]
+                   [(d/to-signature Number Long) :number-long]
+                   [(d/to-signature List Object) :list-object]
+                   [(d/to-signature nil Object) :nil-object]
+                   [(d/to-signature (Class/forName "[Ljava.lang.Object;")
+                                    Object)
+                    :objects-object]
+                   [(d/to-signature Object Object Object) :object3]
+                   [(d/to-signature Comparable Long Object) :comparable3]
+                   [(d/to-signature Object Object Object Object)
+                    :object4]
+                   [(d/to-signature Long Object Object Object)
+                    :long4]])]
+    (test/is (= :number (f 1)))
+    (test/is (= :chars (f "a")))
+    (test/is (= :object (f (Object.))))
+    (test/is (= Byte (f (byte 1))))
+    (test/is (= :random-access (f (java.util.ArrayList.))))
+    (test/is (= :number-long (f 1.0 1)))
+    (test/is (= :object2 (f 1.0 1.0)))
+    (test/is (= :list-object (f (java.util.ArrayList.) 1)))
+    (test/is (= :nil-object (f nil 1)))
+    (test/is (= :objects-object (f (into-array String ["a"]) 1)))
+    (test/is (= :object2 (f (int-array 1) 1)))
+    (test/is (= [Integer Integer] (f (int 1) (int 2))))
+    (test/is (= :comparable3 (f "a" 1 :b)))
+    (test/is (= :object3 (f (Object.) 1 :b)))
+    (test/is (= :long4 (f 1 2 3 4)))
+    (test/is (= :object4 (f 1.0 2 3 4)))
+    f))
+
+(defn- removals [^MultiFn f]
+  (let [f (.removeMethod f Number)]
+    (test/is (= :object (f 1)))
+    (let [f (.removeMethod f (d/to-signature Number Long))]
+      (test/is (= :object2 (f 1.0 1)))
+      (let [f (.removeMethod f (d/to-signature Comparable Long Object))]
+        (test/is (= :object3 (f "a" 1 :b)))
+        (let [f (add f (d/to-signature Comparable Long Object)
+                     (fn [_ _ _] :again))]
+          (test/is (= :again (f "a" 1 :b))))))))
+;;----------------------------------------------------------------
+(d/defmulti index-intrinsic d/signature
+  :hierarchy false :dispatch :signature)
+(d/defmulti index-extrinsic d/signature :hierarchy false)
+(d/defmulti index-tree d/signature
+  :hierarchy false :dispatch :signature :lookup :tree)
+(d/defmulti index-immutable d/signature
+  :hierarchy false :dispatch :signature :immutable true)
+;;----------------------------------------------------------------
+(test/deftest index
+  (doseq [f [index-intrinsic index-extrinsic index-tree 
+             index-immutable]]
+    (removals (check f))))
+;;----------------------------------------------------------------
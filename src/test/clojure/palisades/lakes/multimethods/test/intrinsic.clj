@@ -0,0 +1,125 @@
+(set! *warn-on-reflection* true)
+(set! *unchecked-math* :warn-on-boxed)
+;;----------------------------------------------------------------
+(ns palisades.lakes.multimethods.test.intrinsic
+
+  {:doc "intrinsic signature dispatch (:dispatch :signature)."
+   :author "palisades dot lakes at gmail dot com"
+   :since "2026-10-18"
+   :version "2026-10-18"}
+  (:require [clojure.test :as test]
+            [palisades.lakes.multimethods.core :as d]
+            [palisades.lakes.multimethods.test.classes])
+  (:import [java.util Collection]
+           [clojure.lang IFn]
+           [palisades.lakes.multimethods.java MultiFnWoutHierarchy]
+           [palisades.lakes.multimethods.test.classes
+            A B C D A0 B0 C0 D0 A1 B1 C1 D1 A2 B2 C2 D2 E2]))
+;; mvn clojure:test -Dtest=palisades.lakes.multimethods.test.intrinsic
+;;----------------------------------------------------------------
+(test/deftest options
+  (d/defmulti options d/signature :hierarchy false :dispatch :signature)
+  (test/is (instance? MultiFnWoutHierarchy options))
+  (test/is (.isIntrinsic ^MultiFnWoutHierarchy options))
+  (test/is
+    (thrown-with-msg?
+      IllegalArgumentException
+      #"requires signature"
+      (d/defmulti bad2 class :hierarchy false :dispatch :signature))))
+;;----------------------------------------------------------------
+(test/deftest arity
+  (d/defmulti arity d/signature :hierarchy false :dispatch :signature)
+  (d/defmethod arity (d/to-signature) [] 0)
+  (d/defmethod arity (d/to-signature Object) [a] 1)
+  (d/defmethod arity (d/to-signature Object Object) [a b] 2)
+  (d/defmethod arity
+    (d/to-signature Object Object Object)
+    [a b c]
+    3)
+  (d/defmethod arity
+    (d/to-signature Object Object Object Object)
+    [a b c d]
+    4)
+  (d/defmethod arity
+    (d/to-signature Object Object Object Object Object)
+    [a b c d e]
+    5)
+  (test/is (== 0 (arity)))
+  (test/is (== 1 (arity :foo)))
+  (test/is (== 2 (arity :foo :bar)))
+  (test/is (== 3 (arity :foo :bar :foo)))
+  (test/is (== 4 (arity :foo :bar :foo :bar)))
+  (test/is (== 5 (arity :foo :bar :foo :bar :foo)))
+  ;; cached
+  (test/is (== 2 (arity :foo :bar)))
+  (test/is (== 3 (arity :foo :bar :foo))))
+;;----------------------------------------------------------------
+(test/deftest nils
+  (d/defmulti nils d/signature :hierarchy false :dispatch :signature)
+  (d/defmethod nils (d/to-signature nil nil) [_ _] :nil-nil)
+  (d/defmethod nils (d/to-signature IFn nil) [_ _] :ifn-nil)
+  (d/defmethod nils (d/to-signature IFn Collection) [_ _] :ifn-coll)
+  (d/defmethod nils (d/to-signature IFn nil Collection) [_ _ _]
+    :ifn-nil-coll)
+  (test/is (= :nil-nil (nils nil nil)))
+  (test/is (= :ifn-nil (nils inc nil)))
+  (test/is (= :ifn-coll (nils inc [])))
+  (test/is (= :ifn-nil-coll (nils inc nil [])))
+  (test/is
+    (thrown-with-msg?
+      IllegalArgumentException
+      #"No method in multimethod 'nils'"
+      (nils nil inc)))
+  (test/is
+    (thrown-with-msg?
+      IllegalArgumentException
+      #"No method in multimethod 'nils'"
+      (nils nil nil nil))))
+;;----------------------------------------------------------------
+;; method table edits invalidate the raw class caches
+;;----------------------------------------------------------------
+(test/deftest edits
+  (d/defmulti edits d/signature :hierarchy false :dispatch :signature)
+  (d/defmethod edits (d/to-signature Object Object) [_ _] :object)
+  (d/defmethod edits (d/to-signature Object Object Object) [_ _ _]
+    :object)
+  (test/is (= :object (edits 1 2)))
+  (test/is (= :object (edits 1 2 3)))
+  (d/defmethod edits (d/to-signature Long Long) [_ _] :long)
+  (d/defmethod edits (d/to-signature Long Long Long) [_ _ _] :long)
+  (test/is (= :long (edits 1 2)))
+  (test/is (= :long (edits 1 2 3)))
+  (d/remove-method edits (d/to-signature Long Long))
+  (test/is (= :object (edits 1 2)))
+  (test/is (= :long (edits 1 2 3)))
+  (d/remove-all-methods edits)
+  (test/is (nil? (d/get-method edits (d/signature 1 2 3))))
+  (test/is
+    (thrown-with-msg?
+      IllegalArgumentException
+      #"No method in multimethod 'edits'"
+      (edits 1 2))))
+;;----------------------------------------------------------------
+;; prefer-method transitivity, same as nohierarchy
+;;----------------------------------------------------------------
+(test/deftest transitive2
+  (d/defmulti transitive2 d/signature :hierarchy false :dispatch :signature)
+  (d/defmethod transitive2
+    (d/to-signature B0 B1)
+    [x0 x1]
+    [(d/to-signature B0 B1) (d/signature x0 x1)])
+  (d/defmethod transitive2
+    (d/to-signature C0 C1)
+    [x0 x1]
+    [(d/to-signature C0 C1) (d/signature x0 x1)])
+  (test/is
+    (thrown-with-msg?
+      IllegalArgumentException
+      #"Multiple methods in multimethod"
+      (transitive2 (D0.) (D1.))))
+  (d/prefer-method transitive2
+                   (d/to-signature A0 A1)
+                   (d/to-signature B0 B1))
+  (test/is (= [(d/to-signature C0 C1) (d/to-signature D0 D1)]
+              (transitive2 (D0.) (D1.)))))
+;;----------------------------------------------------------------
@@ -0,0 +1,109 @@
+(set! *warn-on-reflection* true)
+(set! *unchecked-math* :warn-on-boxed)
+;;----------------------------------------------------------------
+(ns palisades.lakes.multimethods.test.linear
+
+  {:doc "linear inline method caches (:lookup :linear)."
+   :author "palisades dot lakes at gmail dot com"
+   :since "2026-10-18"
+   :version "2026-10-18"}
+  (:require [clojure.test :as test]
+            [palisades.lakes.multimethods.core :as d])
+  (:import [java.util.concurrent.atomic AtomicLong]
+           [clojure.lang IFn]
+           [palisades.lakes.multimethods.java 
+            InlineEntry MultiFnWoutHierarchy SignatureCache]))
+;; mvn clojure:test -Dtest=palisades.lakes.multimethods.test.linear
+;;----------------------------------------------------------------
+(def ^:private classes
+  [Byte Short Integer Long Float Double 
+   clojure.lang.Ratio clojure.lang.BigInt 
+   java.math.BigInteger java.math.BigDecimal
+   String clojure.lang.Keyword clojure.lang.Symbol])
+(defn- instances []
+  [(byte 1) (short 1) (int 1) 1 (float 1) 1.0 
+   1/2 1N (biginteger 1) 1M "1" :a 'a])
+;;----------------------------------------------------------------
+(test/deftest linear-cache
+  (let [cache (SignatureCache/linear 0 (AtomicLong. 0))
+        ^IFn f (fn [] nil)]
+    (test/is (.isLinear cache))
+    (test/is (== 0 (.inlineCount cache)))
+    (test/is (nil? (.get cache Long Long)))
+    (.put cache Long Long f)
+    (.put cache Long Long f)
+    (.put cache nil Long f)
+    (test/is (== 2 (.inlineCount cache)))
+    (test/is (identical? f (.get cache Long Long)))
+    (test/is (identical? f (.get cache nil Long)))
+    (test/is (nil? (.get cache Long nil)))
+    (doseq [^Class c0 classes ^Class c1 classes] (.put cache c0 c1 f))
+    ;; full, but never megamorphic
+    (test/is (== InlineEntry/LINEAR_LIMIT (.inlineCount cache)))
+    (doseq [^Class c0 classes ^Class c1 classes]
+      (test/is (identical? f (.get cache c0 c1))))
+    (test/is (== InlineEntry/LINEAR_LIMIT (.inlineCount cache)))
+    ;; bounded caches are linear too
+    (test/is 
+      (== 0 (.inlineCount (SignatureCache/linear 8 (AtomicLong. 0)))))))
+;;----------------------------------------------------------------
+(test/deftest options
+  (d/defmulti hashed d/signature :hierarchy false)
+  (d/defmulti linear d/signature :hierarchy false :lookup :linear)
+  (d/defmulti linear-weak d/signature 
+    :hierarchy false :lookup :linear :cache-keys :weak)
+  (test/is (not (.hasLinearLookup ^MultiFnWoutHierarchy hashed)))
+  (test/is (.hasLinearLookup ^MultiFnWoutHierarchy linear))
+  (test/is (.hasLinearLookup ^MultiFnWoutHierarchy linear-weak))
+  (test/is (== 0 (.inlineCount ^MultiFnWoutHierarchy hashed 2)))
+  (test/is (== 0 (.inlineCount ^MultiFnWoutHierarchy linear 2))))
+;;----------------------------------------------------------------
+(test/deftest lookup
+  (doseq [^MultiFnWoutHierarchy f 
+          [(do (d/defmulti l0 d/signature 
+                 :hierarchy false :lookup :linear) 
+             l0)
+           (do (d/defmulti l1 d/signature 
+                 :hierarchy false :dispatch :signature :lookup :linear) 
+             l1)
+           (do (d/defmulti l2 d/signature 
+                 :hierarchy false :dispatch :signature :lookup :linear
+                 :cache-keys :weak) 
+             l2)]]
+    (d/defmethod f Object [_] Object)
+    (d/defmethod f (d/to-signature Object Object) [_ _] Object)
+    (d/defmethod f (d/to-signature Object Object Object) [_ _ _] Object)
+    (dotimes [_ 2]
+      (doseq [x (take 3 (instances)) y (take 3 (instances))]
+        (test/is (= Object (f x)))
+        (test/is (= Object (f x y)))
+        (test/is (= Object (f x y x)))))
+    (test/is (== 3 (.inlineCount f 1)))
+    (test/is (== 9 (.inlineCount f 2)))
+    (test/is (== 9 (.inlineCount f 3)))
+    ;; edits replace the linear caches
+    (d/defmethod f Number [_] Number)
+    (d/defmethod f (d/to-signature Number Number) [_ _] Number)
+    (d/defmethod f (d/to-signature Number Number Number) [_ _ _] Number)
+    (test/is (== 0 (.inlineCount f 2)))
+    (test/is (= Number (f 1)))
+    (test/is (= Number (f 1 1.0)))
+    (test/is (= Number (f 1 1.0 1N)))
+    (test/is (= Object (f :a)))
+    (test/is (= Object (f 1 :a)))
+    (test/is (= Object (f 1 1 :a)))
+    ;; full, not megamorphic
+    (doseq [x (instances) y (instances)]
+      (test/is (#{Object Number} (f x y))))
+    (test/is (== InlineEntry/LINEAR_LIMIT (.inlineCount f 2)))
+    (test/is (= Number (f 1 1.0)))
+    (test/is (= Object (f :a :a)))
+    (test/is (== InlineEntry/LINEAR_LIMIT (.inlineCount f 2)))
+    ;; any number of methods
+    (doseq [^Class c classes]
+      (d/defmethod f (d/to-signature c c) [_ _] c))
+    (test/is (== 0 (.inlineCount f 2)))
+    (test/is (= Long (f 1 1)))
+    (test/is (= String (f "a" "b")))
+    (test/is (== 2 (.inlineCount f 2)))))
+;;----------------------------------------------------------------
@@ -6,7 +6,7 @@
   {:doc "prefers transitivity with signature dispatch and no hierarchy."
    :author "palisades dot lakes at gmail dot com"
    :since "2017-09-14"
-   :version "2017-10-11"}
+   :version "2026-10-18"}
   (:require [clojure.test :as test]
             [palisades.lakes.multimethods.core :as d]
             [palisades.lakes.multimethods.test.classes])
@@ -54,3 +54,87 @@
       #"Multiple methods in multimethod"
       (= [B2 C2] (sins-of-the-parents (C2.))))))
 ;;----------------------------------------------------------------
+;; ClassValue cache for Class dispatch values is replaced on
+;; table edits
+;;----------------------------------------------------------------
+(test/deftest class-cache
+  (d/defmulti class-cache d/signature :hierarchy false)
+  (test/is (nil? (d/get-method class-cache Long)))
+  (d/defmethod class-cache Object [x] Object) 
+  (test/is (= Object (class-cache 1)))
+  (d/defmethod class-cache Number [x] Number) 
+  (test/is (= Number (class-cache 1)))
+  (test/is (= Object (class-cache :a)))
+  (d/defmethod class-cache Comparable [x] Comparable) 
+  (test/is 
+    (thrown-with-msg? 
+      IllegalArgumentException 
+      #"Multiple methods in multimethod"
+      (class-cache 1)))
+  (d/prefer-method class-cache Comparable Number)
+  (test/is (= Comparable (class-cache 1)))
+  (d/remove-method class-cache Comparable)
+  (test/is (= Number (class-cache 1)))
+  (d/remove-all-methods class-cache)
+  (test/is (nil? (d/get-method class-cache Long))))
+;;----------------------------------------------------------------
+;; concurrent cache misses and edits
+;;----------------------------------------------------------------
+(test/deftest concurrent-misses
+  (d/defmulti concurrent-misses d/signature :hierarchy false)
+  (d/defmethod concurrent-misses (d/to-signature Object Object) 
+    [x y] Object)
+  (let [xs [1 1.0 :a "a" 'a [] {} #{} (list) 1N]
+        calls (fn []
+                (doall
+                  (for [x xs y xs] 
+                    (concurrent-misses x y))))
+        results (doall 
+                  (for [i (range 8)] 
+                    (future 
+                      (when (== 4 (long i))
+                        (d/defmethod concurrent-misses 
+                          (d/to-signature Number Number) 
+                          [x y] Number))
+                      (calls))))]
+    (doseq [r results]
+      (test/is (every? #{Object Number} @r)))
+    (test/is (= Number (concurrent-misses 1 1.0)))
+    (test/is (= Object (concurrent-misses 1 :a)))))
+;;----------------------------------------------------------------
+;; front (most recently used) cache entries are discarded on edits
+;;----------------------------------------------------------------
+(test/deftest front-cache
+  (d/defmulti front-cache d/signature :hierarchy false)
+  (d/defmulti front-cache-intrinsic d/signature 
+    :hierarchy false :dispatch :signature)
+  (d/defmulti front-cache-hierarchy d/signature)
+  (doseq [f [front-cache front-cache-intrinsic front-cache-hierarchy]]
+    (d/defmethod f Object [x] Object) 
+    (d/defmethod f (d/to-signature Object Object) [x y] Object) 
+    (d/defmethod f (d/to-signature Object Object Object) [x y z] Object) 
+    (d/defmethod f (d/to-signature Object Object Object Object) 
+      [x y z w] Object) 
+    ;; mono, bi, and polymorphic sequences
+    (dotimes [i 4]
+      (test/is (= Object (f 1)))
+      (test/is (= Object (f 1 1)))
+      (test/is (= Object (f 1 1 1)))
+      (test/is (= Object (f 1 1 1 1)))
+      (test/is (= Object (f (if (even? i) 1 :a))))
+      (test/is (= Object (f 1 (if (even? i) 1 :a))))
+      (test/is (= Object (f 1 1 (if (even? i) 1 :a))))
+      (test/is (= Object (f 1 1 1 (if (even? i) 1 :a)))))
+    (d/defmethod f Long [x] Long) 
+    (d/defmethod f (d/to-signature Long Long) [x y] Long) 
+    (d/defmethod f (d/to-signature Long Long Long) [x y z] Long) 
+    (d/defmethod f (d/to-signature Long Long Long Long) [x y z w] Long) 
+    (test/is (= Long (f 1)))
+    (test/is (= Long (f 1 1)))
+    (test/is (= Long (f 1 1 1)))
+    (test/is (= Long (f 1 1 1 1)))
+    (test/is (= Object (f :a)))
+    (d/remove-all-methods f)
+    (test/is (nil? (d/get-method f Long)))
+    (test/is (nil? (d/get-method f (d/signature 1 1))))))
+;;----------------------------------------------------------------
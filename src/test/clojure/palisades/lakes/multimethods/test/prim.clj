@@ -0,0 +1,63 @@
+(set! *warn-on-reflection* true)
+(set! *unchecked-math* :warn-on-boxed)
+;;----------------------------------------------------------------
+(ns palisades.lakes.multimethods.test.prim
+
+  {:doc "primitive invokePrim paths."
+   :author "palisades dot lakes at gmail dot com"
+   :since "2026-10-18"
+   :version "2026-10-18"}
+  (:require [clojure.test :as test]
+            [palisades.lakes.multimethods.core :as d])
+  (:import [clojure.lang IFn IFn$DD IFn$DDD IFn$LLL IFn$DLD IFn$OD
+            IFn$DDDD]))
+;; mvn clojure:test -Dtest=palisades.lakes.multimethods.test.prim
+;;----------------------------------------------------------------
+(d/defmulti plus d/signature :hierarchy false :dispatch :signature)
+(d/defmethod plus (d/to-signature Double Double) 
+  ^double [^double x ^double y] (+ x y))
+(d/defmethod plus (d/to-signature Long Long) 
+  ^long [^long x ^long y] (+ x y))
+(d/defmethod plus (d/to-signature Double Long) 
+  [x y] (+ (double x) (double y)))
+(d/defmethod plus (d/to-signature Number Number Number) 
+  [x y z] (+ (double x) (double y) (double z)))
+(d/defmethod plus Number [x] (- (double x)))
+;; the explicit primitive entry point
+(def ^:private prim-plus (d/primitive plus))
+(defn- fast-plus ^double [^double x ^double y] 
+  (.invokePrim ^IFn$DDD prim-plus x y))
+;;----------------------------------------------------------------
+(test/deftest invoke-prim
+  ;; so primitive arglists can't bypass class dispatch
+  (test/is (not (instance? IFn$DDD plus)))
+  (test/is (instance? IFn$DDD prim-plus))
+  (test/is (identical? prim-plus (d/primitive plus)))
+  (test/is (== 3.0 (fast-plus 1.0 2.0)))
+  (test/is (== 3.0 (.invokePrim ^IFn$DDD prim-plus 1.0 2.0)))
+  (test/is (== 3 (.invokePrim ^IFn$LLL prim-plus 1 2)))
+  ;; boxed method, unboxed result
+  (test/is (== 3.0 (.invokePrim ^IFn$DLD prim-plus 1.0 2)))
+  (test/is (== 6.0 (.invokePrim ^IFn$DDDD prim-plus 1.0 2.0 3.0)))
+  (test/is (== -2.0 (.invokePrim ^IFn$DD prim-plus 2.0)))
+  (test/is (== -2.0 (.invokePrim ^IFn$OD prim-plus (int 2))))
+  ;; boxed calls unchanged
+  (test/is (= 3 (plus 1 2)))
+  (test/is (= 3.0 (plus 1.0 2.0)))
+  (test/is (= 3 (.invoke ^IFn prim-plus 1 2)))
+  (test/is (= 3.0 (.invoke ^IFn prim-plus 1.0 2.0)))
+  (test/is (= 6.0 (apply prim-plus [1 2 3]))))
+;;----------------------------------------------------------------
+(d/defmulti dsum d/signature :hierarchy false)
+(d/defmethod dsum (d/to-signature Double Double) [x y] 
+  (+ (double x) (double y)))
+(test/deftest not-intrinsic
+  (test/is 
+    (== 3.0 (.invokePrim ^IFn$DDD (d/primitive dsum) 1.0 2.0))))
+;;----------------------------------------------------------------
+(test/deftest frozen
+  (d/freeze plus)
+  (test/is (== 3.0 (fast-plus 1.0 2.0)))
+  (test/is (== 3 (.invokePrim ^IFn$LLL prim-plus 1 2)))
+  (d/thaw plus))
+;;----------------------------------------------------------------
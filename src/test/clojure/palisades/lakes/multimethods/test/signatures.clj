@@ -80,3 +80,68 @@
       #"Multiple methods in multimethod"
       (= [B2 C2] (sins-of-the-parents (C2.))))))
 ;;----------------------------------------------------------------
+;; interned signatures
+;;----------------------------------------------------------------
+(test/deftest interned
+  (test/is (identical? (d/to-signature A B) (d/to-signature A B)))
+  (test/is (identical? (d/to-signature Long String) (d/signature 1 "b")))
+  (test/is (identical? (d/to-signature Long String Double) (d/signature 1 "b" 1.0)))
+  (test/is (identical? (d/to-signature Long String Double Long) 
+                       (d/signature 1 "b" 1.0 2)))
+  (test/is (identical? (d/to-signature A B C D A) 
+                       (d/to-signature A B C D A)))
+  (test/is (identical? (d/signature nil nil) (d/signature nil nil)))
+  (test/is (not (identical? (d/to-signature A B) (d/to-signature B A))))
+  (test/is (not= (d/to-signature A B C D) (d/to-signature A B C D A)))
+  (test/is (not= (d/to-signature A B C D A) (d/to-signature A B C D)))
+  (test/is (= (hash (d/to-signature A B C)) 
+              (.hashCode (palisades.lakes.multimethods.java.Signature3. 
+                           A B C))))
+  (test/is (= (d/to-signature A B C)
+              (palisades.lakes.multimethods.java.Signature3. A B C))))
+;;----------------------------------------------------------------
+;; high arity and apply
+;;----------------------------------------------------------------
+(d/defmulti high d/signature :hierarchy false :dispatch :signature)
+(d/defmethod high (d/to-signature) [] 0)
+(d/defmethod high Object [a] 1)
+(d/defmethod high (d/to-signature Object Object) [a b] 2)
+(d/defmethod high (d/to-signature Object Object Object) [a b c] 3)
+(d/defmethod high (d/to-signature Long Object Object Object) 
+  [a b c d] [Long 4])
+(d/defmethod high (d/to-signature Object Object Object Object) 
+  [a b c d] 4)
+(d/defmethod high (d/to-signature Object Object Object Object Object) 
+  [a b c d e] 5)
+(d/defmethod high 
+  (d/to-signature Object Object Object Object Object Object) 
+  [a b c d e f] 6)
+(d/defmethod high 
+  (d/to-signature Object Object Object Object Object Object Object) 
+  [a b c d e f g] 7)
+(d/defmulti high-fn d/signature :hierarchy false)
+(d/defmethod high-fn 
+  (d/to-signature Object Object Object Object Object Object Object) 
+  [a b c d e f g] 7)
+(test/deftest high-arity
+  (test/is (identical? (d/to-signature Long String Long String Long)
+                       (d/signature 1 "a" 2 "b" 3)))
+  (test/is (identical? 
+             (d/to-signature Long String Long String Long String Long)
+             (d/signature 1 "a" 2 "b" 3 "c" 4)))
+  (test/is (= [Long 4] (high 1 :a :b :c)))
+  (test/is (== 4 (high :a :b :c :d)))
+  (test/is (== 5 (high :a :b :c :d :e)))
+  (test/is (== 6 (high :a :b :c :d :e :f)))
+  (test/is (== 7 (high :a :b :c :d :e :f :g)))
+  (test/is (== 7 (high-fn :a :b :c :d :e :f :g)))
+  (test/is (== 0 (apply high [])))
+  (test/is (== 1 (apply high [:a])))
+  (test/is (== 2 (apply high :a [:b])))
+  (test/is (== 3 (apply high (range 3))))
+  (test/is (= [Long 4] (apply high (range 4))))
+  (test/is (== 4 (apply high (map keyword ["a" "b" "c" "d"]))))
+  (test/is (== 7 (apply high (range 7))))
+  (test/is (== 7 (apply high-fn (range 7))))
+  (test/is (thrown? IllegalArgumentException (apply high (range 8)))))
+;;----------------------------------------------------------------
@@ -0,0 +1,77 @@
+(set! *warn-on-reflection* true)
+(set! *unchecked-math* :warn-on-boxed)
+;;----------------------------------------------------------------
+(ns palisades.lakes.multimethods.test.static
+
+  {:doc "static call sites (mm-static)."
+   :author "palisades dot lakes at gmail dot com"
+   :since "2026-10-18"
+   :version "2026-10-18"}
+  (:require [clojure.test :as test]
+            [palisades.lakes.multimethods.core :as d])
+  (:import [palisades.lakes.multimethods.java 
+            CallSiteCache StaticCallSite]))
+;; mvn clojure:test -Dtest=palisades.lakes.multimethods.test.static
+;;----------------------------------------------------------------
+(d/defmulti kernel d/signature :hierarchy false :dispatch :signature)
+(d/defmethod kernel Object [_] Object)
+(d/defmethod kernel Double [_] Double)
+(d/defmethod kernel String [_] String)
+(d/defmethod kernel (d/to-signature Number Number) [_ _] [Number Number])
+(d/defmethod kernel (d/to-signature Double Double) [_ _] [Double Double])
+(d/defmethod kernel (d/to-signature (Class/forName "[D") Long) [_ _] 
+  [:doubles Long])
+(d/defmethod kernel (d/to-signature Number Number Number) [_ _ _] 
+  [Number Number Number])
+(defn- site 
+  "The call site in `(mm-static ...)`'s expansion."
+  [form] 
+  (first (filter #(or (instance? StaticCallSite %)
+                      (instance? CallSiteCache %))
+                 (tree-seq coll? seq (macroexpand form)))))
+(defn- reloaded 
+  "`site` printed, as the compiler does, and read back."
+  [site]
+  (read-string (binding [*print-dup* true] (pr-str site))))
+;;----------------------------------------------------------------
+(defn- prims [^double x ^long i] (d/mm-static kernel x i))
+(defn- dd [^double x ^double y] (d/mm-static kernel x y))
+(defn- arr [^doubles a ^long i] (d/mm-static kernel a i))
+(defn- strs [^String s] (d/mm-static kernel s))
+(defn- untyped [x y] (d/mm-static kernel x y))
+(defn- lits [] (d/mm-static kernel 1 2.0 3))
+;;----------------------------------------------------------------
+(test/deftest static-sites
+  (test/is (= [Number Number] (prims 1.0 1)))
+  (test/is (= [Double Double] (dd 1.0 1.0)))
+  (test/is (= [:doubles Long] (arr (double-array 1) 1)))
+  (test/is (thrown? IllegalArgumentException (arr nil 1)))
+  (test/is (= String (strs "a")))
+  (test/is (= Object (d/mm-static kernel :a)))
+  ;; nil falls back to dynamic dispatch
+  (test/is (thrown? IllegalArgumentException (strs nil)))
+  (test/is (= [Number Number] (untyped 1 1)))
+  (test/is (= [Number Number Number] (lits)))
+  (test/is (thrown? NullPointerException (d/mm-static nil 1.0))))
+;;----------------------------------------------------------------
+(test/deftest sites
+  (let [^StaticCallSite s (site `(d/mm-static kernel 1 2.0 3))
+        ^StaticCallSite r (reloaded s)]
+    (test/is (instance? StaticCallSite s))
+    (test/is (= [Long Double Long] (vec (.classes s))))
+    (test/is (not (identical? s r)))
+    (test/is (= [Long Double Long] (vec (.classes r))))
+    (test/is (.isEmpty r)))
+  (let [s (StaticCallSite. (Class/forName "[D") Long)]
+    (test/is (= [(Class/forName "[D") Long] 
+                (vec (.classes ^StaticCallSite (reloaded s))))))
+  ;; unknown classes: a dynamic call site
+  (test/is (instance? CallSiteCache (site `(d/mm-static kernel :a 'b)))))
+;;----------------------------------------------------------------
+(test/deftest edits
+  (test/is (= [Number Number] (prims 1.0 1)))
+  (d/defmethod kernel (d/to-signature Double Long) [_ _] [Double Long])
+  (test/is (= [Double Long] (prims 1.0 1)))
+  (d/remove-method kernel (d/to-signature Double Long))
+  (test/is (= [Number Number] (prims 1.0 1))))
+;;----------------------------------------------------------------
@@ -0,0 +1,119 @@
+(set! *warn-on-reflection* true)
+(set! *unchecked-math* :warn-on-boxed)
+;;----------------------------------------------------------------
+(ns palisades.lakes.multimethods.test.tree
+
+  {:doc "decision tree lookup (:lookup :tree)."
+   :author "palisades dot lakes at gmail dot com"
+   :since "2026-10-18"
+   :version "2026-10-18"}
+  (:require [clojure.test :as test]
+            [palisades.lakes.multimethods.core :as d])
+  (:import [palisades.lakes.multimethods.java 
+            DecisionTree MultiFnWoutHierarchy]))
+;; mvn clojure:test -Dtest=palisades.lakes.multimethods.test.tree
+;;----------------------------------------------------------------
+(def ^:private classes
+  [Byte Short Integer Long Float Double 
+   clojure.lang.Ratio clojure.lang.BigInt 
+   java.math.BigInteger java.math.BigDecimal])
+(defmacro ^:private result [form]
+  `(try ~form (catch IllegalArgumentException e# ::none)))
+(defn- instances []
+  [(byte 1) (short 1) (int 1) 1 (float 1) 1.0 
+   1/2 1N (biginteger 1) 1M])
+;;----------------------------------------------------------------
+(test/deftest options
+  (d/defmulti hashed d/signature :hierarchy false)
+  (d/defmulti treed d/signature :hierarchy false :lookup :tree)
+  (test/is (not (.hasTreeLookup ^MultiFnWoutHierarchy hashed)))
+  (test/is (.hasTreeLookup ^MultiFnWoutHierarchy treed))
+  (test/is (nil? (.tree ^MultiFnWoutHierarchy hashed 2)))
+  (test/is (some? (.tree ^MultiFnWoutHierarchy treed 2)))
+  (test/is (some? (.tree ^MultiFnWoutHierarchy treed 3)))
+  (test/is (thrown? Throwable
+                    (eval 
+                      '(palisades.lakes.multimethods.core/defmulti 
+                         tree-hierarchy 
+                         palisades.lakes.multimethods.core/signature 
+                         :lookup :tree)))))
+;;----------------------------------------------------------------
+;; compare to the default lookup, for every pair and triple
+(test/deftest lookup
+  (d/defmulti h2 d/signature :hierarchy false)
+  (d/defmulti t2 d/signature :hierarchy false :lookup :tree)
+  (d/defmulti i2 d/signature 
+    :hierarchy false :dispatch :signature :lookup :tree)
+  (doseq [f [h2 t2 i2]]
+    (d/defmethod f (d/to-signature Object Object) [_ _] [Object Object])
+    (d/defmethod f (d/to-signature Number Object) [_ _] [Number Object])
+    (d/defmethod f (d/to-signature Object Number) [_ _] [Object Number])
+    (d/defmethod f (d/to-signature Number Number) [_ _] [Number Number])
+    (d/defmethod f (d/to-signature Long Double) [_ _] [Long Double])
+    (d/defmethod f (d/to-signature Long Long) [_ _] [Long Long])
+    (d/defmethod f (d/to-signature Number Number Number) [_ _ _] 
+      [Number Number Number])
+    (d/defmethod f (d/to-signature Long Number Number) [_ _ _] 
+      [Long Number Number])
+    (d/defmethod f (d/to-signature Number Long Number) [_ _ _] 
+      [Number Long Number])
+    (d/prefer-method 
+      f (d/to-signature Long Number Number) 
+      (d/to-signature Number Long Number)))
+  (dotimes [_ 2]
+    (doseq [x (instances) y (conj (instances) :a)]
+      (test/is (= (h2 x y) (t2 x y) (i2 x y)))
+      (test/is (= (h2 y x) (t2 y x) (i2 y x)))
+      (doseq [z (instances)]
+        (test/is (= (result (h2 x y z)) 
+                  (result (t2 x y z)) 
+                  (result (i2 x y z)))))))
+  (test/is (== (inc (count (instances))) 
+               (.branches (.tree ^MultiFnWoutHierarchy t2 2))))
+  (test/is (== (count (instances)) 
+               (.branches (.tree ^MultiFnWoutHierarchy t2 3))))
+  ;; no method for some of the first argument classes
+  (test/is (thrown? IllegalArgumentException (t2 :a :a :a)))
+  (test/is (thrown? IllegalArgumentException (i2 :a 1 1)))
+  (test/is (== (inc (count (instances))) 
+               (.branches (.tree ^MultiFnWoutHierarchy t2 3))))
+  ;; edits replace the trees
+  (let [^DecisionTree tree (.tree ^MultiFnWoutHierarchy t2 2)]
+    (d/defmethod t2 (d/to-signature Long Number) [_ _] [Long Number])
+    (test/is (not (identical? tree (.tree ^MultiFnWoutHierarchy t2 2))))
+    (test/is (== 0 (.branches (.tree ^MultiFnWoutHierarchy t2 2))))
+    (test/is (= [Long Number] (t2 1 1.0M)))
+    (test/is (= [Long Double] (t2 1 1.0)))
+    (test/is (= [Number Number] (t2 1.0 1.0)))
+    (d/remove-method t2 (d/to-signature Long Number))
+    (test/is (= [Number Number] (t2 1 1.0M)))))
+;;----------------------------------------------------------------
+(test/deftest ambiguous
+  (d/defmulti amb d/signature :hierarchy false :lookup :tree)
+  (d/defmethod amb (d/to-signature Long Number) [_ _] [Long Number])
+  (d/defmethod amb (d/to-signature Number Long) [_ _] [Number Long])
+  (test/is (thrown? IllegalArgumentException (amb 1 1)))
+  ;; not cached
+  (test/is (thrown? IllegalArgumentException (amb 1 1)))
+  (d/prefer-method 
+    amb (d/to-signature Number Long) (d/to-signature Long Number))
+  (test/is (= [Number Long] (amb 1 1))))
+;;----------------------------------------------------------------
+(test/deftest many-methods
+  (d/defmulti wide d/signature :hierarchy false :lookup :tree)
+  (doseq [^Class c0 classes ^Class c1 classes]
+    (d/defmethod wide (d/to-signature c0 c1) [_ _] [c0 c1]))
+  (doseq [x (instances) y (instances)]
+    (test/is (= [(class x) (class y)] (wide x y)))))
+;;----------------------------------------------------------------
+(test/deftest nil-third-argument
+  (d/defmulti nil3 d/signature :hierarchy false :lookup :tree)
+  (d/defmulti inil3 d/signature 
+    :hierarchy false :dispatch :signature :lookup :tree)
+  (doseq [f [nil3 inil3]]
+    (d/defmethod f (d/to-signature Long Long) [_ _] [Long Long])
+    (d/defmethod f (d/to-signature Long Long nil) [_ _ _] [Long Long nil])
+    (dotimes [_ 2]
+      (test/is (= [Long Long nil] (f 1 1 nil)))
+      (test/is (= [Long Long] (f 1 1))))))
+;;----------------------------------------------------------------
@@ -0,0 +1,100 @@
+(set! *warn-on-reflection* true)
+(set! *unchecked-math* :warn-on-boxed)
+;;----------------------------------------------------------------
+(ns palisades.lakes.multimethods.test.unresolved
+
+  {:doc "cached 'no method' and 'ambiguous' lookups."
+   :author "palisades dot lakes at gmail dot com"
+   :since "2026-10-18"
+   :version "2026-10-18"}
+  (:require [clojure.test :as test]
+            [palisades.lakes.multimethods.core :as d])
+  (:import [java.util Collection RandomAccess]))
+;; mvn clojure:test -Dtest=palisades.lakes.multimethods.test.unresolved
+;;----------------------------------------------------------------
+(defn- check [f arg-sets]
+  ;; twice, so the second time hits the cached failures
+  (dotimes [_ 2]
+    (test/is (nil? (d/get-method f String)))
+    (test/is (thrown-with-msg? 
+               IllegalArgumentException #"No method" 
+               (apply f (arg-sets :none))))
+    (test/is (thrown-with-msg? 
+               IllegalArgumentException #"Multiple methods" 
+               (d/get-method f java.util.ArrayList)))
+    (test/is (thrown-with-msg? 
+               IllegalArgumentException #"Multiple methods" 
+               (apply f (arg-sets :ambiguous)))))
+  ;; edits invalidate the cached failures
+  (d/defmethod f String [_] String)
+  (test/is (some? (d/get-method f String)))
+  (test/is (= String (apply f (arg-sets :none))))
+  (d/prefer-method f RandomAccess Collection)
+  (test/is (= RandomAccess (apply f (arg-sets :ambiguous)))))
+;;----------------------------------------------------------------
+(defmacro ^:private defs [f & options]
+  `(do
+     (d/defmulti ~f d/signature ~@options)
+     (d/defmethod ~f Collection [~'_] Collection)
+     (d/defmethod ~f RandomAccess [~'_] RandomAccess)))
+
+(defs hierarchy)
+(defs nohierarchy :hierarchy false)
+(defs intrinsic :hierarchy false :dispatch :signature)
+(defs linear :hierarchy false :dispatch :signature :lookup :linear)
+(defs bounded :hierarchy false :cache-size 4)
+
+(def ^:private args {:none ["a"] :ambiguous [(java.util.ArrayList.)]})
+
+(test/deftest unresolved
+  (doseq [f [hierarchy nohierarchy intrinsic linear bounded]]
+    (check f args)))
+;;----------------------------------------------------------------
+(d/defmulti tree2 d/signature :hierarchy false :dispatch :signature
+  :lookup :tree)
+(d/defmethod tree2 (d/to-signature Collection Object) [_ _] Collection)
+(d/defmethod tree2 (d/to-signature RandomAccess Object) [_ _] RandomAccess)
+(d/defmethod tree2 (d/to-signature Object Long) [_ _] Long)
+
+(test/deftest tree
+  (dotimes [_ 2]
+    (test/is (nil? (d/get-method tree2 (d/to-signature String String))))
+    (test/is (thrown-with-msg? 
+               IllegalArgumentException #"No method" 
+               (tree2 "a" "b")))
+    ;; no candidates for String at all
+    (test/is (thrown-with-msg? 
+               IllegalArgumentException #"No method" 
+               (tree2 "a" :b)))
+    (test/is (thrown-with-msg? 
+               IllegalArgumentException #"Multiple methods" 
+               (tree2 (java.util.ArrayList.) 1))))
+  (d/defmethod tree2 (d/to-signature String String) [_ _] String)
+  (test/is (= String (tree2 "a" "b"))))
+;;----------------------------------------------------------------
+;; immutable multimethods cache failures too; edits return a new
+;; instance, with empty caches
+(defmacro ^:private idefs [f & options]
+  `(do
+     (d/defmulti ~f d/signature :hierarchy false :immutable true 
+       ~@options)
+     (d/defmethod-immutable ~f Collection [~'_] Collection)
+     (d/defmethod-immutable ~f RandomAccess [~'_] RandomAccess)))
+
+(idefs immutable)
+(idefs iimmutable :dispatch :signature)
+
+(test/deftest unresolved-immutable
+  (doseq [f [immutable iimmutable]]
+    (dotimes [_ 2]
+      (test/is (nil? (d/get-method f String)))
+      (test/is (nil? (d/get-method f (d/to-signature String String))))
+      (test/is (thrown-with-msg? 
+                 IllegalArgumentException #"No method" (f "a")))
+      (test/is (thrown-with-msg? 
+                 IllegalArgumentException #"Multiple methods" 
+                 (d/get-method f java.util.ArrayList)))
+      (test/is (thrown-with-msg? 
+                 IllegalArgumentException #"Multiple methods" 
+                 (f (java.util.ArrayList.)))))))
+;;----------------------------------------------------------------
@@ -0,0 +1,80 @@
+(set! *warn-on-reflection* true)
+(set! *unchecked-math* :warn-on-boxed)
+;;----------------------------------------------------------------
+(ns palisades.lakes.multimethods.test.vectors
+
+  {:doc "canonical vector dispatch values, with hierarchies."
+   :author "palisades dot lakes at gmail dot com"
+   :since "2026-10-18"
+   :version "2026-10-18"}
+  (:require [clojure.test :as test]
+            [palisades.lakes.multimethods.core :as d])
+  (:import [java.util Collection List RandomAccess]))
+;; mvn clojure:test -Dtest=palisades.lakes.multimethods.test.vectors
+;;----------------------------------------------------------------
+(d/defmulti juxtaposed (fn [x y] [(class x) (class y)]))
+(d/defmethod juxtaposed [Object Object] [_ _] :object)
+(d/defmethod juxtaposed [Number Number] [_ _] :number)
+(d/defmethod juxtaposed [Collection Object] [_ _] :collection)
+(d/defmethod juxtaposed [List Object] [_ _] :list)
+(d/defmethod juxtaposed [RandomAccess Object] [_ _] :random)
+(d/prefer-method juxtaposed [RandomAccess Object] [List Object])
+
+(test/deftest all-classes
+  (test/is (= :object (juxtaposed :a :b)))
+  (test/is (= :number (juxtaposed 1 2.0)))
+  (test/is (= :collection (juxtaposed #{} 1)))
+  ;; [RandomAccess Object] doesn't dominate [Collection Object],
+  ;; but [List Object] does, so [RandomAccess Object] is the only
+  ;; applicable method no other applicable one strictly dominates
+  (test/is (= :random (juxtaposed [] 1)))
+  ;; signatures and vectors are the same dispatch value
+  (test/is (identical? (d/get-method juxtaposed [Long Long])
+                       (d/get-method juxtaposed (d/to-signature Long Long))))
+  ;; the tables report vectors
+  (test/is (= #{[Object Object] [Number Number] [Collection Object]
+                [List Object] [RandomAccess Object]}
+              (set (keys (d/methods juxtaposed)))))
+  (test/is (= {[RandomAccess Object] #{[List Object]}}
+              (d/prefers juxtaposed)))
+  (d/remove-method juxtaposed [Number Number])
+  (test/is (= :object (juxtaposed 1 2.0))))
+;;----------------------------------------------------------------
+(d/defmulti unpreferred (fn [x y] [(class x) (class y)]))
+(d/defmethod unpreferred [Collection Object] [_ _] :collection)
+(d/defmethod unpreferred [List Object] [_ _] :list)
+(d/defmethod unpreferred [RandomAccess Object] [_ _] :random)
+
+(test/deftest ambiguous-classes
+  (test/is (= :list (unpreferred (java.util.LinkedList.) 1)))
+  ;; [List Object] and [RandomAccess Object] are both minimal,
+  ;; whatever order they were defined in
+  (test/is (thrown? IllegalArgumentException (unpreferred [] 1)))
+  (d/prefer-method unpreferred [List Object] [RandomAccess Object])
+  (test/is (= :list (unpreferred [] 1))))
+;;----------------------------------------------------------------
+(derive ::square ::rectangle)
+(derive String ::text)
+
+(d/defmulti mixed (fn [x y] [(:shape x (class x)) (class y)]))
+(d/defmethod mixed [::rectangle Object] [_ _] :rectangle)
+(d/defmethod mixed [::square Number] [_ _] :square)
+(d/defmethod mixed [::text Object] [_ _] :text)
+(d/defmethod mixed [CharSequence Long] [_ _] :chars)
+(d/defmethod mixed [Object Object Object] [_ _] :three)
+(d/prefer-method mixed [::text Object] [CharSequence Long])
+
+(test/deftest tuples
+  (test/is (= :rectangle (mixed {:shape ::square} :a)))
+  (test/is (= :square (mixed {:shape ::square} 1)))
+  (test/is (= :rectangle (mixed {:shape ::rectangle} 1)))
+  ;; a signature child, a tuple parent
+  (test/is (= :text (mixed "a" 1)))
+  (test/is (= :chars (mixed (StringBuilder.) 1)))
+  (test/is (thrown? IllegalArgumentException 
+                    (mixed {:shape ::circle} 1)))
+  (test/is (d/isa<= mixed [::square Long] [::rectangle Number]))
+  (test/is (contains? (d/methods mixed) [::square Number]))
+  (test/is (= {[::text Object] #{[CharSequence Long]}} 
+              (d/prefers mixed))))
+;;----------------------------------------------------------------
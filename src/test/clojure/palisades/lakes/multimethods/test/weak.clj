@@ -0,0 +1,84 @@
+(set! *warn-on-reflection* true)
+(set! *unchecked-math* :warn-on-boxed)
+;;----------------------------------------------------------------
+(ns palisades.lakes.multimethods.test.weak
+
+  {:doc "weak method cache keys (:cache-keys :weak)."
+   :author "palisades dot lakes at gmail dot com"
+   :since "2026-10-18"
+   :version "2026-10-18"}
+  (:require [clojure.test :as test]
+            [palisades.lakes.multimethods.core :as d])
+  (:import [java.io File]
+           [java.lang.ref WeakReference]
+           [java.net URL URLClassLoader]
+           [java.nio.file Files OpenOption]
+           [clojure.asm ClassWriter Opcodes]
+           [palisades.lakes.multimethods.java 
+            MultiFnWoutHierarchy MultiFnWithHierarchy]))
+;; mvn clojure:test -Dtest=palisades.lakes.multimethods.test.weak
+;;----------------------------------------------------------------
+;; a class in its own class loader, which can be unloaded
+;;----------------------------------------------------------------
+(def ^:private ^File dir
+  (let [dir (.toFile 
+              (Files/createTempDirectory 
+                "weak" 
+                (make-array java.nio.file.attribute.FileAttribute 0)))
+        cw (ClassWriter. 0)]
+    (.visit cw Opcodes/V1_8 Opcodes/ACC_PUBLIC "Transient" nil 
+      "java/lang/Object" nil)
+    (.visitEnd cw)
+    (Files/write (.toPath (File. dir "Transient.class")) 
+                 (.toByteArray cw)
+                 ^"[Ljava.nio.file.OpenOption;" (make-array OpenOption 0))
+    (.deleteOnExit (File. dir "Transient.class"))
+    (.deleteOnExit dir)
+    dir))
+
+(defn- transient-class ^Class []
+  (.loadClass 
+    (URLClassLoader. (into-array URL [(.toURL (.toURI dir))]) nil)
+    "Transient"))
+
+(defn- collected? [^WeakReference r]
+  (loop [i 0]
+    (cond (nil? (.get r)) true
+          (<= 20 i) false
+          :else (do (System/gc) (Thread/sleep 50) (recur (inc i))))))
+
+;; call f on a dispatch value built from a fresh class,
+;; returning only a weak reference to the class.
+(defn- touch ^WeakReference [f to-dispatch]
+  (let [c (transient-class)]
+    (test/is (= :object (f (to-dispatch c))))
+    (WeakReference. c)))
+;;----------------------------------------------------------------
+(test/deftest options
+  (d/defmulti strong identity :hierarchy false)
+  (d/defmulti weak identity :hierarchy false :cache-keys :weak)
+  (d/defmulti weak-hierarchy identity :cache-keys :weak)
+  (test/is (not (.hasWeakCacheKeys ^MultiFnWoutHierarchy strong)))
+  (test/is (.hasWeakCacheKeys ^MultiFnWoutHierarchy weak))
+  (test/is (.hasWeakCacheKeys ^MultiFnWithHierarchy weak-hierarchy)))
+;;----------------------------------------------------------------
+(test/deftest unloading
+  (d/defmulti hclass identity :cache-keys :weak)
+  (d/defmethod hclass Object [_] :object)
+  (d/defmulti hsignature identity :cache-keys :weak)
+  (d/defmethod hsignature (d/to-signature Object Object) [_] :object)
+  (d/defmulti nsignature identity :hierarchy false :cache-keys :weak)
+  (d/defmethod nsignature (d/to-signature Object Object Object Object) 
+    [_] :object)
+  (d/defmulti nclass identity :hierarchy false)
+  (d/defmethod nclass Object [_] :object)
+  (test/is (collected? (touch hclass identity)))
+  (test/is (collected? (touch hsignature #(d/to-signature % Long))))
+  (test/is (collected? (touch nsignature #(d/to-signature % % % %))))
+  ;; ClassValue cache never pins the class
+  (test/is (collected? (touch nclass identity)))
+  ;; the cache still works after the classes are gone
+  (test/is (= :object (hclass Long)))
+  (test/is (= :object (hsignature (d/to-signature Long Long))))
+  (test/is (= :object (nsignature (d/to-signature Long Long Long Long)))))
+;;----------------------------------------------------------------